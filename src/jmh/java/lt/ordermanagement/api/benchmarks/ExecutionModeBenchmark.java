@@ -0,0 +1,193 @@
+package lt.ordermanagement.api.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lt.ordermanagement.api.OrderManagementApplication;
+import lt.ordermanagement.api.security.enums.Role;
+import lt.ordermanagement.api.security.jwt.JwtService;
+import lt.ordermanagement.api.security.jwt.UserStateRegistry;
+import lt.ordermanagement.api.security.models.User;
+import lt.ordermanagement.api.security.repositories.UserRepository;
+import lt.ordermanagement.api.utils.ConcurrencyLimitingDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Compares request execution on the Tomcat platform thread pool with execution on virtual threads.
+ *
+ * <p>
+ * The application runs with its embedded Tomcat against an embedded PostgreSQL and a pool of {@value #POOL_SIZE}
+ * connections, every operation is a burst of {@code requests} concurrent HTTP requests authenticated with a JWT.
+ * {@code readOrders} reads the first page of the order items of an order, {@code writeOrders} adds an order item
+ * to an order, which writes the item, the order totals, the order summaries and the order change outbox in one
+ * transaction. Requests are spread over {@code orders} orders created when the trial starts.
+ * </p>
+ *
+ * <p>
+ * Modes: {@code platform} runs requests on the Tomcat thread pool, {@code virtual} on virtual threads
+ * ({@code spring.threads.virtual.enabled}), {@code virtual-limited} on virtual threads with the
+ * {@link ConcurrencyLimitingDataSource} in front of the pool. Hikari and the limiter both give up after
+ * {@value #ACQUIRE_TIMEOUT_MILLIS} ms in every mode, requests answered with an error or not answered within
+ * 30 seconds are reported as {@code failedRequests}. Virtual thread modes need Java 21.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecutionModeBenchmark {
+
+    private static final int POOL_SIZE = 10;
+    private static final long ACQUIRE_TIMEOUT_MILLIS = 250;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final String ORDER_JSON = "{\"orderName\":\"Order %d\",\"clientName\":\"John Example\"," +
+            "\"clientPhoneNumber\":\"+370000000000000\",\"clientEmail\":\"example@example.com\"," +
+            "\"orderTerm\":\"2024-12-31\",\"comments\":\"\"}";
+    private static final String ORDER_ITEM_JSON = "{\"itemName\":\"Item\",\"itemCode\":\"A1\"," +
+            "\"itemRevision\":\"\",\"itemCount\":2,\"itemPrice\":10.50,\"linkToImg\":\"\"}";
+
+    @Param({"platform", "virtual", "virtual-limited"})
+    private String mode;
+
+    @Param({"1000"})
+    private int requests;
+
+    @Param({"1000"})
+    private int orders;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private String authorization;
+    private long[] orderIds;
+
+    /**
+     * Requests that were answered with an error or not answered.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Failures {
+        public long failedRequests;
+    }
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        postgres = EmbeddedPostgres.start();
+
+        Map<String, Object> properties = Map.ofEntries(
+                Map.entry("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres")),
+                Map.entry("spring.datasource.username", "postgres"),
+                Map.entry("spring.datasource.hikari.maximum-pool-size", POOL_SIZE),
+                Map.entry("spring.datasource.hikari.connection-timeout", ACQUIRE_TIMEOUT_MILLIS),
+                Map.entry("orders.db.acquire-timeout", ACQUIRE_TIMEOUT_MILLIS + "ms"),
+                Map.entry("spring.threads.virtual.enabled", !mode.equals("platform")),
+                Map.entry("orders.db.concurrency-limit.enabled", mode.equals("virtual-limited")),
+                Map.entry("server.port", 0),
+                Map.entry("security.jwt.secret-key", Base64.getEncoder().encodeToString(new byte[32])),
+                Map.entry("security.jwt.expiration", TimeUnit.HOURS.toMillis(1)),
+                Map.entry("orders.order-number.key", "benchmark-key"),
+                Map.entry("logging.level.root", "OFF"));
+
+        context = new SpringApplicationBuilder(OrderManagementApplication.class).properties(properties).run();
+
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        User admin = context.getBean(UserRepository.class).save(new User("Benchmark", "Admin", "benchmark",
+                context.getBean(PasswordEncoder.class).encode("benchmark"), Role.ROLE_ADMIN, true));
+        authorization = "Bearer " + context.getBean(JwtService.class).generateToken(
+                Map.of(JwtService.CREDENTIAL_VERSION_CLAIM, UserStateRegistry.credentialVersion(admin)), admin);
+
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        orderIds = new long[orders];
+
+        for (int i = 0; i < orders; i++) {
+            HttpResponse<String> response = httpClient.send(post("/api/v1/add/order", ORDER_JSON.formatted(i)),
+                    HttpResponse.BodyHandlers.ofString());
+
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Creating an order failed: " + response.body());
+            }
+
+            orderIds[i] = objectMapper.readTree(response.body()).get("id").asLong();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public int readOrders(Failures failures) {
+        return runBurst(failures, i -> request("/api/v1/order/" + orderIds[i % orders] + "/items").GET().build());
+    }
+
+    @Benchmark
+    public int writeOrders(Failures failures) {
+        return runBurst(failures, i -> post("/api/v1/order/" + orderIds[i % orders] + "/add/item", ORDER_ITEM_JSON));
+    }
+
+    private int runBurst(Failures failures, IntFunction<HttpRequest> request) {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(requests);
+
+        for (int i = 0; i < requests; i++) {
+            responses.add(httpClient.sendAsync(request.apply(i), HttpResponse.BodyHandlers.discarding()));
+        }
+
+        int failed = 0;
+
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            try {
+                if (response.join().statusCode() >= 300) {
+                    failed++;
+                }
+
+            } catch (CompletionException e) {
+                failed++;
+            }
+        }
+
+        failures.failedRequests += failed;
+        return requests - failed;
+    }
+
+    private HttpRequest post(String path, String json) {
+        return request(path)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header(HttpHeaders.AUTHORIZATION, authorization);
+    }
+
+}
@@ -0,0 +1,126 @@
+package lt.ordermanagement.api.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lt.ordermanagement.api.dtos.OrderDTO;
+import lt.ordermanagement.api.dtos.OrderItemDTO;
+import lt.ordermanagement.api.enums.OrderStatus;
+import lt.ordermanagement.api.models.Order;
+import lt.ordermanagement.api.models.OrderItem;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks Jackson serialization of order and order item lists of {@code size} elements, with the object
+ * mapper Spring MVC builds by default. Output is counted and discarded, so only serialization is measured.
+ * The entities are compared with the DTO projections the read endpoints return.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Order> orders;
+    private List<OrderItem> orderItems;
+    private List<OrderDTO> orderDTOs;
+    private List<OrderItemDTO> orderItemDTOs;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        orders = new ArrayList<>(size);
+        orderItems = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            Order order = new Order(String.format("ON-%010d", i),
+                    "Order " + i,
+                    "John Example",
+                    "+370000000000000",
+                    "example@example.com",
+                    LocalDate.parse("2024-12-31"),
+                    OrderStatus.PENDING,
+                    BigDecimal.valueOf(i * 150L, 2),
+                    "Additional comments about the order",
+                    OffsetDateTime.parse("2024-01-22T10:15:30.123456Z"));
+            order.setId((long) i);
+            orders.add(order);
+
+            OrderItem orderItem = new OrderItem("Product " + i,
+                    "A" + i,
+                    "Rev1",
+                    (long) (i % 100),
+                    new BigDecimal("20.00"),
+                    BigDecimal.ZERO,
+                    OffsetDateTime.parse("2024-01-22T10:15:30.123456Z"),
+                    "https://example.com/image.jpg");
+            orderItem.setId((long) i);
+            orderItems.add(orderItem);
+        }
+
+        orderDTOs = orders.stream().map(OrderDTO::of).toList();
+        orderItemDTOs = orderItems.stream().map(OrderItemDTO::of).toList();
+    }
+
+    @Benchmark
+    public long serializeOrders() throws IOException {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        objectMapper.writeValue(outputStream, orders);
+        return outputStream.count;
+    }
+
+    @Benchmark
+    public long serializeOrderItems() throws IOException {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        objectMapper.writeValue(outputStream, orderItems);
+        return outputStream.count;
+    }
+
+    @Benchmark
+    public long serializeOrderDTOs() throws IOException {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        objectMapper.writeValue(outputStream, orderDTOs);
+        return outputStream.count;
+    }
+
+    @Benchmark
+    public long serializeOrderItemDTOs() throws IOException {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        objectMapper.writeValue(outputStream, orderItemDTOs);
+        return outputStream.count;
+    }
+
+    /**
+     * Output stream that only counts the written bytes.
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+    }
+
+}
@@ -0,0 +1,109 @@
+package lt.ordermanagement.api.benchmarks;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lt.ordermanagement.api.security.jwt.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the per-request cost of JWT authentication in {@link lt.ordermanagement.api.security.jwt.JwtAuthFilter}.
+ *
+ * <p>
+ * {@code legacyFilterPath} reproduces the verification done before the signing key and verified tokens were cached:
+ * the filter parsed the token three times and every parse decoded the secret and built a new key.
+ * {@code filterPath} is the current path with a warm cache, {@code filterPathCacheMiss} the current path
+ * for a token seen for the first time.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET_KEY = Base64.getEncoder()
+            .encodeToString("benchmark-secret-key-benchmark-secret-key".getBytes());
+    private static final long EXPIRATION = TimeUnit.HOURS.toMillis(1);
+
+    private JwtService jwtService;
+    private JwtService uncachedJwtService;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET_KEY, EXPIRATION, 10_000, new SimpleMeterRegistry());
+        uncachedJwtService = new JwtService(SECRET_KEY, EXPIRATION, 0, new SimpleMeterRegistry());
+        userDetails = User.withUsername("benchmark_user")
+                .password("password")
+                .roles("USER")
+                .build();
+        token = jwtService.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, userDetails);
+    }
+
+    @Benchmark
+    public boolean filterPath() {
+        Claims claims = jwtService.parseToken(token);
+        return claims.getSubject() != null && jwtService.isTokenValid(claims, userDetails);
+    }
+
+    @Benchmark
+    public boolean filterPathCacheMiss() {
+        Claims claims = uncachedJwtService.parseToken(token);
+        return claims.getSubject() != null && uncachedJwtService.isTokenValid(claims, userDetails);
+    }
+
+    @Benchmark
+    public boolean legacyFilterPath() {
+        String username = legacyParse(token).getSubject();
+        return username != null
+                && legacyParse(token).getSubject().equals(userDetails.getUsername())
+                && !legacyParse(token).getExpiration().before(new Date());
+    }
+
+    private static Claims legacyParse(String token) {
+        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
+
+        if (keyBytes.length < 32) {
+            byte[] paddedKeyBytes = new byte[32];
+            System.arraycopy(keyBytes, 0, paddedKeyBytes, 0, keyBytes.length);
+            keyBytes = paddedKeyBytes;
+        }
+
+        SecretKey key = Keys.hmacShaKeyFor(keyBytes);
+
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+}
@@ -0,0 +1,116 @@
+package lt.ordermanagement.api.benchmarks;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lt.ordermanagement.api.OrderManagementApplication;
+import lt.ordermanagement.api.dtos.OrderItemDTO;
+import lt.ordermanagement.api.enums.OrderStatus;
+import lt.ordermanagement.api.models.Order;
+import lt.ordermanagement.api.models.OrderItem;
+import lt.ordermanagement.api.services.Interfaces.OrderItemsService;
+import lt.ordermanagement.api.services.Interfaces.OrdersService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the database paths of {@link OrderItemsService} listing and searching the order items of an order
+ * with {@code items} order items, one in ten of them deleted.
+ *
+ * <p>
+ * The application context runs without a web server against an embedded PostgreSQL migrated by Flyway, so the
+ * queries use the partial listing index on (order_id, lower(item_name), id) and the pg_trgm index on
+ * lower(item_name). Every operation reads the page of {@value #PAGE_SIZE} order items at page {@code page}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderItemsServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"100", "10000"})
+    private int items;
+
+    @Param({"0", "4"})
+    private int page;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private OrderItemsService orderItemsService;
+    private Long orderId;
+
+    @Setup
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.start();
+
+        Map<String, Object> properties = Map.of(
+                "spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"),
+                "spring.datasource.username", "postgres",
+                "security.jwt.secret-key", Base64.getEncoder().encodeToString(new byte[32]),
+                "security.jwt.expiration", TimeUnit.HOURS.toMillis(1),
+                "orders.order-number.key", "benchmark-key",
+                "logging.level.root", "OFF");
+
+        context = new SpringApplicationBuilder(OrderManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .run();
+
+        orderItemsService = context.getBean(OrderItemsService.class);
+        orderId = context.getBean(OrdersService.class).addOrder(new Order(null, "Order", "John Example",
+                "+370000000000000", "example@example.com", LocalDate.parse("2024-12-31"), OrderStatus.PENDING,
+                BigDecimal.ZERO, "", null)).getId();
+
+        Random random = new Random(42);
+
+        for (int start = 0; start < items; start += BATCH_SIZE) {
+            List<OrderItem> orderItems = new ArrayList<>(BATCH_SIZE);
+
+            for (int i = start; i < Math.min(items, start + BATCH_SIZE); i++) {
+                orderItems.add(new OrderItem("Item " + random.nextInt(1_000_000), "Code" + i, "Rev1",
+                        (long) random.nextInt(100), BigDecimal.valueOf(random.nextInt(10_000), 2), BigDecimal.ZERO,
+                        null, ""));
+            }
+
+            orderItemsService.addItemsToOrder(orderId, orderItems);
+        }
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("UPDATE order_items SET is_deleted = true WHERE order_id = ? AND id % 10 = 0", orderId);
+        jdbcTemplate.execute("ANALYZE order_items");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public List<OrderItemDTO> getOrderItems() {
+        return orderItemsService.getOrderItems(orderId, page, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<OrderItemDTO> findOrderItemsByName() {
+        return orderItemsService.findOrderItemsByName(orderId, "item 1", page, PAGE_SIZE);
+    }
+
+}
@@ -0,0 +1,70 @@
+package lt.ordermanagement.api.benchmarks;
+
+import lt.ordermanagement.api.repositories.OrdersRepository;
+import lt.ordermanagement.api.services.impl.OrderNumberServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks order number allocation in {@link OrderNumberServiceImpl}, uncontended and from four threads.
+ * The sequence is simulated in memory, so one block reservation per {@value OrderNumberServiceImpl#BLOCK_SIZE}
+ * numbers costs nothing here.
+ *
+ * <p>
+ * {@code legacyGenerateOrderNumber} reproduces the digits generation of the random generator used before,
+ * without the existence query it ran for every attempt.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderNumberServiceBenchmark {
+
+    private OrderNumberServiceImpl orderNumberService;
+
+    @Setup
+    public void setUp() {
+        AtomicLong sequence = new AtomicLong(1);
+
+        OrdersRepository ordersRepository = (OrdersRepository) Proxy.newProxyInstance(
+                OrdersRepository.class.getClassLoader(),
+                new Class<?>[]{OrdersRepository.class},
+                (proxy, method, args) -> "reserveOrderNumberBlock".equals(method.getName())
+                        ? sequence.getAndAdd(OrderNumberServiceImpl.BLOCK_SIZE)
+                        : null);
+
+        orderNumberService = new OrderNumberServiceImpl(ordersRepository, "benchmark-key");
+    }
+
+    @Benchmark
+    public String nextOrderNumber() {
+        return orderNumberService.nextOrderNumber();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextOrderNumberContended() {
+        return orderNumberService.nextOrderNumber();
+    }
+
+    @Benchmark
+    public String legacyGenerateOrderNumber() {
+        String characters = "0123456789";
+        StringBuilder orderNumber = new StringBuilder("ON-");
+
+        for (int i = 0; i < 10; i++) {
+            int index = new Random().nextInt(characters.length());
+            orderNumber.append(characters.charAt(index));
+        }
+
+        return orderNumber.toString();
+    }
+
+}
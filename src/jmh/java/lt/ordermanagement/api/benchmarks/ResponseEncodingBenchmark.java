@@ -0,0 +1,127 @@
+package lt.ordermanagement.api.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lt.ordermanagement.api.dtos.OrderDTO;
+import lt.ordermanagement.api.dtos.OrdersPageDTO;
+import lt.ordermanagement.api.enums.OrderStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmarks writing a response of {@code size} orders in the response formats, with object mappers built like
+ * the message converters build them. The size of one response is reported as {@code responseBytes}.
+ *
+ * <p>
+ * {@code json-gzip} is what the servlet container compression costs on every request, which the precompressed
+ * listing pages pay once per listing version. {@code smile-gzip} shows what compression adds to a binary format.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ResponseEncodingBenchmark {
+
+    @Param({"json", "smile", "cbor", "json-gzip", "smile-gzip"})
+    private String format;
+
+    @Param({"100000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private boolean gzip;
+    private OrdersPageDTO page;
+
+    /**
+     * Size of the last written response.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ResponseSize {
+        public long responseBytes;
+    }
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = switch (format) {
+            case "json", "json-gzip" -> Jackson2ObjectMapperBuilder.json();
+            case "smile", "smile-gzip" -> Jackson2ObjectMapperBuilder.smile();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        // Dates are written as text like Spring Boot configures it
+        objectMapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        gzip = format.endsWith("-gzip");
+
+        List<OrderDTO> orders = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            orders.add(new OrderDTO((long) i,
+                    String.format("ON-%010d", i),
+                    "Order " + i,
+                    "John Example",
+                    "+370000000000000",
+                    "example@example.com",
+                    LocalDate.parse("2024-12-31"),
+                    OrderStatus.values()[i % OrderStatus.values().length],
+                    BigDecimal.valueOf(i * 150L, 2),
+                    (long) (i % 100),
+                    "Additional comments about the order",
+                    OffsetDateTime.parse("2024-01-22T10:15:30.123456Z").plusSeconds(i),
+                    false,
+                    null,
+                    (long) (i % 7)));
+        }
+
+        page = new OrdersPageDTO(orders, null, size);
+    }
+
+    @Benchmark
+    public long writeOrders(ResponseSize responseSize) throws IOException {
+        CountingOutputStream outputStream = new CountingOutputStream();
+
+        if (gzip) {
+            try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 8192)) {
+                objectMapper.writeValue(gzipOutputStream, page);
+            }
+        } else {
+            objectMapper.writeValue(outputStream, page);
+        }
+
+        responseSize.responseBytes = outputStream.count;
+        return outputStream.count;
+    }
+
+    /**
+     * Output stream that only counts the written bytes.
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+    }
+
+}
@@ -0,0 +1,129 @@
+package lt.ordermanagement.api.configs;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Configuration class for the Hibernate second-level cache.
+ *
+ * <p>
+ * Orders, order items, the order items collections of orders and users are cached in Caffeine caches accessed
+ * through JCache, one cache per region. The size and time to live of each region are set with
+ * {@code orders.cache.<region>.max-size} and {@code orders.cache.<region>.ttl}. All regions use the read-write
+ * strategy, so updates made through Hibernate, including the soft deletes of orders and order items, replace
+ * cached entries when the transaction commits, and bulk updates of a table invalidate its region. The order totals
+ * moved by order item changes are updated outside of Hibernate, and only the changed order is evicted.
+ * </p>
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String ORDERS_REGION = "orders";
+    public static final String ORDER_ITEMS_REGION = "order-items";
+    public static final String ORDER_ITEMS_COLLECTION_REGION = "orders.order-items";
+    public static final String USERS_REGION = "users";
+
+    /**
+     * Cached query results, used by the lookup of users by username.
+     */
+    public static final String QUERY_RESULTS_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+
+    /**
+     * Last update times of tables, which tell whether cached query results are still valid.
+     * Entries must outlive the cached query results, so this region never expires.
+     */
+    public static final String UPDATE_TIMESTAMPS_REGION =
+            RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    /**
+     * Default maximum sizes of the regions that expire.
+     */
+    private static final Map<String, Long> EXPIRING_REGIONS = Map.of(ORDERS_REGION, 10_000L,
+                                                                     ORDER_ITEMS_REGION, 100_000L,
+                                                                     ORDER_ITEMS_COLLECTION_REGION, 10_000L,
+                                                                     USERS_REGION, 1_000L,
+                                                                     QUERY_RESULTS_REGION, 1_000L);
+
+    /**
+     * Creates the cache manager holding the second-level cache regions. The caching provider keeps one cache
+     * manager per URI for the whole JVM, so every application context gets a manager of its own URI and another
+     * context started in the same JVM does not find the regions already created.
+     *
+     * @param environment The environment the region settings are read from.
+     * @return The cache manager.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        CachingProvider cachingProvider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = cachingProvider.getCacheManager(
+                URI.create("order-management:second-level-cache:" + UUID.randomUUID()),
+                cachingProvider.getDefaultClassLoader());
+
+        EXPIRING_REGIONS.forEach((region, defaultMaxSize) -> {
+            long maxSize = environment.getProperty("orders.cache." + region + ".max-size", Long.class,
+                    defaultMaxSize);
+            Duration ttl = environment.getProperty("orders.cache." + region + ".ttl", Duration.class,
+                    Duration.ofMinutes(10));
+
+            CaffeineConfiguration<Object, Object> configuration = regionConfiguration(maxSize);
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+
+            cacheManager.createCache(region, configuration);
+        });
+
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, regionConfiguration(10_000L));
+
+        return cacheManager;
+    }
+
+    /**
+     * Enables the second-level cache, the query cache and cache statistics.
+     *
+     * @param hibernateCacheManager The cache manager holding the regions.
+     * @return The Hibernate properties customizer.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            // Saving an order item evicts the cached order items collection of its order
+            properties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    /**
+     * Creates the configuration of a region. Entries are stored by reference, Hibernate caches
+     * immutable disassembled state, so copying it on every read and write is not needed.
+     *
+     * @param maxSize The maximum number of entries.
+     * @return The region configuration.
+     */
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(long maxSize) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+
+}
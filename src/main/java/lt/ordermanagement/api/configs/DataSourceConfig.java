@@ -0,0 +1,98 @@
+package lt.ordermanagement.api.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lt.ordermanagement.api.utils.ConcurrencyLimitingDataSource;
+import lt.ordermanagement.api.utils.StatementTrackingDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Configuration class for the data source.
+ *
+ * <p>
+ * When requests run on virtual threads ({@code spring.threads.virtual.enabled=true}, effective on Java 21) their
+ * number is no longer bounded by the Tomcat thread pool, so the data source is wrapped in a
+ * {@link ConcurrencyLimitingDataSource} sized to the connection pool. The limiter can also be switched on or off
+ * explicitly with {@code orders.db.concurrency-limit.enabled}.
+ * </p>
+ *
+ * <p>
+ * The data source is also wrapped in a {@link StatementTrackingDataSource}, which feeds the per request SQL
+ * statistics and logs statements slower than {@code orders.sql.slow-threshold}. It is switched off with
+ * {@code orders.sql.tracking.enabled=false}.
+ * </p>
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Wraps data sources in a concurrency limiter. The limit is {@code orders.db.max-concurrency}, by default the
+     * maximum size of the Hikari pool. Waiting for a permit fails after {@code orders.db.acquire-timeout},
+     * by default the Hikari connection timeout.
+     *
+     * @param environment The environment the limiter settings are read from.
+     * @return The bean post processor wrapping data sources.
+     */
+    @Bean
+    @ConditionalOnExpression("${orders.db.concurrency-limit.enabled:${spring.threads.virtual.enabled:false}}")
+    public static BeanPostProcessor dataSourceConcurrencyLimiter(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitingDataSource) {
+                    return bean;
+                }
+
+                int poolSize = 10;
+                long connectionTimeout = 30_000;
+
+                // Unset Hikari settings are filled in with the Hikari defaults only when the pool starts
+                if (bean instanceof HikariDataSource hikariDataSource && hikariDataSource.getMaximumPoolSize() > 0) {
+                    poolSize = hikariDataSource.getMaximumPoolSize();
+                }
+
+                if (bean instanceof HikariDataSource hikariDataSource && hikariDataSource.getConnectionTimeout() > 0) {
+                    connectionTimeout = hikariDataSource.getConnectionTimeout();
+                }
+
+                int maxConcurrency = environment.getProperty("orders.db.max-concurrency", Integer.class, poolSize);
+                Duration acquireTimeout = environment.getProperty("orders.db.acquire-timeout", Duration.class,
+                        Duration.ofMillis(connectionTimeout));
+
+                return new ConcurrencyLimitingDataSource(dataSource, maxConcurrency, acquireTimeout);
+            }
+        };
+    }
+
+    /**
+     * Wraps data sources in a statement tracker. Statements taking longer than {@code orders.sql.slow-threshold}
+     * are logged as slow.
+     *
+     * @param environment The environment the tracker settings are read from.
+     * @return The bean post processor wrapping data sources.
+     */
+    @Bean
+    @ConditionalOnExpression("${orders.sql.tracking.enabled:true}")
+    public static BeanPostProcessor dataSourceStatementTracker(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof StatementTrackingDataSource) {
+                    return bean;
+                }
+
+                Duration slowThreshold = environment.getProperty("orders.sql.slow-threshold", Duration.class,
+                        Duration.ofMillis(500));
+
+                return new StatementTrackingDataSource(dataSource, slowThreshold);
+            }
+        };
+    }
+
+}
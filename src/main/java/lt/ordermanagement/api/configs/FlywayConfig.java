@@ -0,0 +1,31 @@
+package lt.ordermanagement.api.configs;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for Flyway database migrations.
+ *
+ * <p>
+ * Migrations are stored in {@code classpath:db/migration}. Databases created before Flyway was introduced
+ * already contain the tables Hibernate generated, so such schema is baselined at version 0 and the idempotent
+ * {@code V1__baseline_schema.sql} is applied on top of it.
+ * </p>
+ */
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * Enables baselining of existing non-empty schemas.
+     *
+     * @return The Flyway configuration customizer.
+     */
+    @Bean
+    public FlywayConfigurationCustomizer flywayBaselineCustomizer() {
+        return configuration -> configuration
+                .baselineOnMigrate(true)
+                .baselineVersion("0");
+    }
+
+}
@@ -0,0 +1,40 @@
+package lt.ordermanagement.api.configs;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for Hibernate.
+ *
+ * <p>
+ * Inserts and updates are grouped by entity and sent to the database in JDBC batches, so an order created
+ * together with its items costs a few round trips instead of one per item.
+ * </p>
+ */
+@Configuration
+public class JpaConfig {
+
+    /**
+     * Number of statements sent to the database in one JDBC batch.
+     */
+    @Value("${orders.jdbc.batch-size:50}")
+    private int batchSize;
+
+    /**
+     * Enables JDBC batching of inserts and updates.
+     *
+     * @return The Hibernate properties customizer.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            properties.put(AvailableSettings.ORDER_INSERTS, true);
+            properties.put(AvailableSettings.ORDER_UPDATES, true);
+        };
+    }
+
+}
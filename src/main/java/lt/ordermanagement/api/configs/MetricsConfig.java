@@ -0,0 +1,139 @@
+package lt.ordermanagement.api.configs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lt.ordermanagement.api.utils.ConcurrencyLimitingDataSource;
+import lt.ordermanagement.api.utils.SqlRequestStatsFilter;
+import lt.ordermanagement.api.utils.StatementTrackingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration class for the application metrics, scraped by Prometheus from {@code /actuator/prometheus}.
+ *
+ * <p>
+ * Request latency, the Hikari pool and the Hibernate statistics are measured by Spring Boot, their histogram
+ * buckets are set in application.properties. This class adds the SQL statements, database time and rows of
+ * every request, the number of slow statements and, when the data source is wrapped in a
+ * {@link ConcurrencyLimitingDataSource}, the time callers wait for a connection in front of the pool.
+ * </p>
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String SLOW_STATEMENTS_METRIC = "orders.db.statements.slow";
+    public static final String DB_PERMIT_WAIT_METRIC = "orders.db.permit.wait";
+
+    /**
+     * Records the statements, database time and fetched rows of every request, see {@link SqlRequestStatsFilter}.
+     *
+     * @param meterRegistry The registry the statistics are recorded in.
+     * @param slowestLimit  The number of slowest statements kept per request for the debug header.
+     * @param debugHeader   Whether to send the statistics in response headers.
+     * @return The filter registration, ahead of the security filters whose user lookups are counted too.
+     */
+    @Bean
+    @ConditionalOnExpression("${orders.sql.tracking.enabled:true}")
+    public FilterRegistrationBean<SqlRequestStatsFilter> sqlRequestStatsFilter(
+            MeterRegistry meterRegistry,
+            @Value("${orders.sql.slowest-statements:3}") int slowestLimit,
+            @Value("${orders.sql.debug-header:false}") boolean debugHeader) {
+        FilterRegistrationBean<SqlRequestStatsFilter> registration =
+                new FilterRegistrationBean<>(new SqlRequestStatsFilter(meterRegistry, slowestLimit, debugHeader));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+
+        return registration;
+    }
+
+    /**
+     * Counts the statements slower than {@code orders.sql.slow-threshold}, if statements are tracked.
+     *
+     * @param dataSources The data source of the application.
+     * @return The meter binder.
+     */
+    @Bean
+    public MeterBinder slowStatementMetrics(ObjectProvider<DataSource> dataSources) {
+        return meterRegistry -> dataSources.forEach(dataSource -> {
+            StatementTrackingDataSource tracker = find(dataSource, StatementTrackingDataSource.class);
+
+            if (tracker == null) {
+                return;
+            }
+
+            Counter slowStatements = Counter.builder(SLOW_STATEMENTS_METRIC)
+                    .description("SQL statements slower than the slow threshold")
+                    .register(meterRegistry);
+
+            tracker.setSlowStatementListener(timing -> slowStatements.increment());
+        });
+    }
+
+    /**
+     * Measures the saturation of the concurrency limiter in front of the connection pool, if the data source is
+     * wrapped in one. Callers then wait on the limiter rather than in the pool, so hikaricp.connections.acquire
+     * and hikaricp.connections.pending stay low under load and these meters tell the real wait.
+     *
+     * @param dataSources The data source of the application.
+     * @return The meter binder.
+     */
+    @Bean
+    public MeterBinder dataSourceConcurrencyMetrics(ObjectProvider<DataSource> dataSources) {
+        return meterRegistry -> dataSources.forEach(dataSource -> {
+            ConcurrencyLimitingDataSource limiter = find(dataSource, ConcurrencyLimitingDataSource.class);
+
+            if (limiter == null) {
+                return;
+            }
+
+            Gauge.builder("orders.db.permits.max", limiter, ConcurrencyLimitingDataSource::maxConcurrency)
+                    .description("Maximum number of connections in use at the same time")
+                    .register(meterRegistry);
+            Gauge.builder("orders.db.permits.active", limiter,
+                            l -> l.maxConcurrency() - l.availablePermits())
+                    .description("Connections in use")
+                    .register(meterRegistry);
+            Gauge.builder("orders.db.permits.pending", limiter, ConcurrencyLimitingDataSource::queueLength)
+                    .description("Callers waiting for a connection")
+                    .register(meterRegistry);
+
+            Timer permitWait = Timer.builder(DB_PERMIT_WAIT_METRIC)
+                    .description("Time waited for a connection in front of the pool")
+                    .serviceLevelObjectives(Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10),
+                            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(500),
+                            Duration.ofSeconds(1), Duration.ofSeconds(5))
+                    .register(meterRegistry);
+
+            limiter.setPermitWaitListener(waitNanos -> permitWait.record(waitNanos, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * Finds a data source of the given type among the data sources wrapping each other.
+     */
+    private static <T extends DataSource> T find(DataSource dataSource, Class<T> type) {
+        while (dataSource != null) {
+            if (type.isInstance(dataSource)) {
+                return type.cast(dataSource);
+            }
+
+            dataSource = dataSource instanceof DelegatingDataSource delegating
+                    ? delegating.getTargetDataSource() : null;
+        }
+
+        return null;
+    }
+
+}
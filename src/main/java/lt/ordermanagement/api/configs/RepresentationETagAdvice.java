@@ -0,0 +1,58 @@
+package lt.ordermanagement.api.configs;
+
+import lt.ordermanagement.api.utils.ETags;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Gives Smile and CBOR responses the ETag of their representation.
+ *
+ * <p>
+ * Controllers tag a response before content negotiation picks the format it is written in, so the tag they set is
+ * the one of the JSON representation. Once the format is known, the tag of a Smile or CBOR response is replaced by
+ * the tag of that representation, see {@link ETags#forContentType}.
+ * </p>
+ */
+@RestControllerAdvice
+public class RepresentationETagAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body,
+                                  MethodParameter returnType,
+                                  MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request,
+                                  ServerHttpResponse response) {
+        String eTag = response.getHeaders().getETag();
+
+        // 304 Not Modified has no body and keeps the tag of the representation the client has
+        if (body == null || eTag == null || eTag.startsWith("W/")) {
+            return body;
+        }
+
+        String representationTag = ETags.forContentType(eTag, selectedContentType);
+
+        if (response instanceof ServletServerHttpResponse servletResponse) {
+            // The not modified check of Spring MVC already set the tag of the controller on the servlet response
+            response.getHeaders().remove(HttpHeaders.ETAG);
+            servletResponse.getServletResponse().setHeader(HttpHeaders.ETAG, representationTag);
+        } else {
+            response.getHeaders().set(HttpHeaders.ETAG, representationTag);
+        }
+
+        return body;
+    }
+
+}
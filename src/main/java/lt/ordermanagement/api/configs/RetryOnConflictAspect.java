@@ -0,0 +1,84 @@
+package lt.ordermanagement.api.configs;
+
+import lombok.extern.slf4j.Slf4j;
+import lt.ordermanagement.api.utils.RetryOnConflict;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs methods annotated with {@link RetryOnConflict} again when they fail on an optimistic lock conflict.
+ *
+ * <p>
+ * The aspect is ordered before the transaction interceptor, so every attempt gets its own transaction. Attempts
+ * are bounded by {@code orders.conflict.max-attempts} (default 5), and between them the thread waits a random time
+ * up to {@code orders.conflict.backoff} (default 10 ms) times the number of failed attempts, so transactions that
+ * conflicted on the same order do not meet again. The conflict of the last attempt is thrown to the caller.
+ * </p>
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RetryOnConflictAspect {
+
+    private final int maxAttempts;
+    private final Duration backoff;
+
+    public RetryOnConflictAspect(@Value("${orders.conflict.max-attempts:5}") int maxAttempts,
+                                 @Value("${orders.conflict.backoff:PT0.01S}") Duration backoff) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+    }
+
+    /**
+     * Proceeds with the annotated method until it succeeds, fails otherwise or runs out of attempts.
+     *
+     * @param joinPoint The call of the annotated method.
+     * @return The result of the successful attempt.
+     * @throws Throwable The failure of the method, or its conflict after the last attempt.
+     */
+    @Around("@annotation(lt.ordermanagement.api.utils.RetryOnConflict)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("{} failed on a conflict after {} attempts", joinPoint.getSignature().toShortString(),
+                            attempt);
+                    throw e;
+                }
+
+                log.debug("{} conflicted on attempt {}, retrying", joinPoint.getSignature().toShortString(),
+                        attempt);
+
+                pause(attempt);
+            }
+        }
+    }
+
+    private void pause(int failedAttempts) throws InterruptedException {
+        long maxPauseNanos = backoff.toNanos() * failedAttempts;
+
+        if (maxPauseNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(maxPauseNanos));
+        }
+    }
+
+}
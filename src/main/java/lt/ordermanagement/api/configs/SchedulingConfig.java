@@ -0,0 +1,16 @@
+package lt.ordermanagement.api.configs;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class for scheduled tasks.
+ *
+ * <p>
+ * Enables {@code @Scheduled} methods, such as the periodic rebuild of the in-memory order listing.
+ * </p>
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,84 @@
+package lt.ordermanagement.api.configs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lt.ordermanagement.api.utils.CompressedResponseCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration class for customizing Spring MVC.
+ *
+ * <p>
+ * Besides JSON, responses are written in the binary Smile ({@code application/x-jackson-smile}) and CBOR
+ * ({@code application/cbor}) formats when a client asks for them in the Accept header, and request bodies in these
+ * formats are read. The binary object mappers are built with the same settings as the JSON one, so all formats hold
+ * the same fields and values. JSON stays the response format for clients that accept any format.
+ * </p>
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    /**
+     * Timeout of asynchronous requests, such as streamed order exports, in milliseconds.
+     * The servlet container default of 30 seconds is too short for exporting large tables.
+     */
+    @Value("${orders.async.request-timeout:3600000}")
+    private long asyncRequestTimeout;
+
+    /**
+     * Configures the timeout of asynchronous requests.
+     *
+     * @param configurer The async support configurer.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncRequestTimeout);
+    }
+
+    /**
+     * Smile converter replacing the default one, which is built without the Spring Boot Jackson settings.
+     * Smile refers back to property names written before, so repeated field names take a byte or two.
+     *
+     * @param builder The object mapper builder with the Spring Boot Jackson settings.
+     * @return The Smile message converter.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    /**
+     * CBOR converter replacing the default one, which is built without the Spring Boot Jackson settings.
+     *
+     * @param builder The object mapper builder with the Spring Boot Jackson settings.
+     * @return The CBOR message converter.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Cache of the compressed JSON pages of the order listing and of order items, which have ETags.
+     *
+     * @param objectMapper The object mapper JSON responses are written with.
+     * @param maximumSize  The maximum size of the cached compressed pages.
+     * @return The cache.
+     */
+    @Bean
+    public CompressedResponseCache compressedResponseCache(
+            ObjectMapper objectMapper,
+            @Value("${orders.compressed-responses.cache-size:32MB}") DataSize maximumSize) {
+        return new CompressedResponseCache(objectMapper, maximumSize);
+    }
+
+}
@@ -0,0 +1,81 @@
+package lt.ordermanagement.api.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import lt.ordermanagement.api.dtos.ArchiveRunDTO;
+import lt.ordermanagement.api.services.Interfaces.OrdersArchiveService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST Controller for the archiver of deleted orders.
+ *
+ * <p>
+ * This controller provides endpoints for starting an archive run on demand and for checking the result of
+ * the last run.
+ * </p>
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1")
+public class ArchiveController {
+
+    private static final String ARCHIVE_RUN_PATH = "/archive/run";
+    private static final String ARCHIVE_LAST_RUN_PATH = "/archive/last-run";
+
+    private final OrdersArchiveService ordersArchiveService;
+
+    /**
+     * Moves orders and order items deleted before the retention period to the archive tables.
+     *
+     * @return ResponseEntity containing the numbers of moved rows.
+     *         Throws a ResponseStatusException with CONFLICT if a run is already in progress.
+     *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
+     *         Possible Exceptions: AccessDeniedException, DisabledException
+     */
+    @Operation(summary = "Run Archiver",
+            description = "Moves orders and order items deleted before the retention period to the archive " +
+                    "tables. This operation requires ADMIN role.")
+    @PostMapping(ARCHIVE_RUN_PATH)
+    public ResponseEntity<ArchiveRunDTO> archiveDeleted() {
+        try {
+            return ResponseEntity.ok(ordersArchiveService.archiveDeleted());
+
+        } catch (AccessDeniedException | DisabledException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Forbidden: " + e.getMessage(), e);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Conflict: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Unexpected error archiving deleted orders: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Retrieves the result of the last archive run on this instance.
+     *
+     * @return ResponseEntity containing the last run.
+     *         Throws a ResponseStatusException with NOT_FOUND if there was no run since the application started.
+     *         Possible Exceptions: AccessDeniedException, DisabledException
+     */
+    @Operation(summary = "Get Last Archive Run",
+            description = "Retrieves the numbers of rows moved by the last archive run. " +
+                    "This operation requires ADMIN role.")
+    @GetMapping(ARCHIVE_LAST_RUN_PATH)
+    public ResponseEntity<ArchiveRunDTO> getLastRun() {
+        return ordersArchiveService.getLastRun()
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Not found: no archive run since the application started"));
+    }
+
+}
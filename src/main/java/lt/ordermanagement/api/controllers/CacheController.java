@@ -0,0 +1,59 @@
+package lt.ordermanagement.api.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import lt.ordermanagement.api.dtos.CacheRegionStatsDTO;
+import lt.ordermanagement.api.services.Interfaces.CacheStatisticsService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * REST Controller for second-level cache statistics.
+ *
+ * <p>
+ * This controller provides an endpoint for checking how many entity and collection reads are served from
+ * the second-level cache instead of the database.
+ * </p>
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1")
+public class CacheController {
+
+    private static final String CACHE_STATS_PATH = "/cache/stats";
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    /**
+     * Retrieves hit and miss statistics of every second-level cache region.
+     *
+     * @return ResponseEntity containing the region statistics.
+     *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
+     *         Possible Exceptions: AccessDeniedException, DisabledException
+     */
+    @Operation(summary = "Get Cache Statistics",
+            description = "Retrieves hit and miss statistics of every second-level cache region. " +
+                    "This operation requires ADMIN role.")
+    @GetMapping(CACHE_STATS_PATH)
+    public ResponseEntity<List<CacheRegionStatsDTO>> getCacheStatistics() {
+        try {
+            return ResponseEntity.ok(cacheStatisticsService.getCacheStatistics());
+
+        } catch (AccessDeniedException | DisabledException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Forbidden: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Unexpected error fetching cache statistics: " + e.getMessage(), e);
+        }
+    }
+
+}
@@ -1,12 +1,23 @@
 package lt.ordermanagement.api.controllers;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lt.ordermanagement.api.dtos.OrderItemDTO;
+import lt.ordermanagement.api.dtos.OrderItemsRequestDTO;
 import lt.ordermanagement.api.dtos.ResponseDeleteDTO;
+import lt.ordermanagement.api.exeptions.PreconditionFailedException;
 import lt.ordermanagement.api.models.OrderItem;
 import lt.ordermanagement.api.services.Interfaces.OrderItemsService;
+import lt.ordermanagement.api.utils.CompressedResponseCache;
+import lt.ordermanagement.api.utils.ETags;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -16,6 +27,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * REST Controller for managing order items.
@@ -25,6 +37,10 @@ import java.util.List;
  * The controller communicates with the OrderItemsService to perform these operations.
  * Exception handling is in place to handle potential errors and return appropriate HTTP status codes.
  * </p>
+ *
+ * <p>
+ * Responses are written as JSON, or as Smile or CBOR when the Accept header asks for them.
+ * </p>
  */
 @RestController
 @Validated
@@ -36,74 +52,134 @@ public class OrderItemsController {
     private static final String ITEM_PATH = "/order/item/{itemId}";
     private static final String SEARCH_ORDER_ITEM_PATH = "/order/{orderId}/items/search/{itemName}";
     private static final String ADD_ITEM_PATH = "/order/{orderId}/add/item";
+    private static final String ADD_ITEMS_PATH = "/order/{orderId}/add/items";
     private static final String UPDATE_ITEM_PATH = "/order/update/item/{itemId}";
     private static final String DELETE_ITEM_PATH = "/order/delete/item/{itemId}";
 
     private static final String CORS_URL = "http://localhost:3000";
 
     private final OrderItemsService orderItemsService;
+    private final CompressedResponseCache compressedResponseCache;
 
     /**
-     * Retrieves the list of order items for a given order ID.
+     * Retrieves a page of order items for a given order ID, sorted by item name.
      *
-     * @param orderId The ID of the order for which to retrieve items.
+     * @param orderId        The ID of the order for which to retrieve items.
+     * @param page           The zero-based page number.
+     * @param size           The page size.
+     * @param ifNoneMatch    The ETag of the page the client already has, if any.
+     * @param accept         The media types the client accepts, if any.
+     * @param acceptEncoding The content codings the client accepts, if any.
      * @return ResponseEntity containing a list of order items or a NOT_FOUND status if the order or items are not found.
+     *         Returns NOT_MODIFIED without loading the order items if no order item of the order changed.
+     *         Pages are sent to clients taking gzip compressed JSON as cached compressed bytes.
+     *         Throws a ResponseStatusException with BAD_REQUEST if the page is negative.
      *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
      *         Possible Exceptions: AccessDeniedException, EntityNotFoundException, DisabledException
      */
-    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.GET)
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.GET, exposedHeaders = HttpHeaders.ETAG)
     @Operation(summary = "Get Order Items",
-            description = "Retrieves the list of order items for a given order ID.")
+            description = "Retrieves a page of order items for a given order ID, sorted by item name. " +
+                    "The ETag is derived from the order version, send it in If-None-Match to poll.")
+    @ApiResponse(responseCode = "200", description = "One page of order items",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = OrderItemDTO.class))))
     @GetMapping(ITEMS_PATH)
-    public ResponseEntity<List<OrderItem>> getOrderItems(@PathVariable Long orderId) {
+    public ResponseEntity<?> getOrderItems(@PathVariable Long orderId,
+                                           @RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(defaultValue = "50") int size,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                           String ifNoneMatch,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                           String acceptEncoding) {
         try {
-            return ResponseEntity.ok(orderItemsService.getOrderItems(orderId));
+            // Read before the page, so the tag is never newer than the page it is sent with
+            String eTag = ETags.of(ETags.ORDER_ITEMS, orderItemsService.getOrderItemsVersion(orderId));
+
+            Optional<String> cachedTag = ETags.match(ifNoneMatch, eTag);
+
+            if (cachedTag.isPresent()) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cachedTag.get()).build();
+            }
+
+            if (CompressedResponseCache.acceptsGzipJson(accept, acceptEncoding)) {
+                return compressedResponseCache.gzipJsonResponse(eTag, orderId + " " + page + " " + size,
+                        () -> orderItemsService.getOrderItems(orderId, page, size));
+            }
+
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .body(orderItemsService.getOrderItems(orderId, page, size));
 
         } catch (AccessDeniedException | DisabledException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                    "Forbidden: " + e.getMessage());
+                    "Forbidden: " + e.getMessage(), e);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,
-                    "Not found: " + e.getMessage());
+                    "Not found: " + e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Bad request: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error fetching order or order items: " + e.getMessage());
+                    "Unexpected error fetching order or order items: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Deletes an order item by its ID.
+     * Retrieves an order item by its ID.
      *
-     * @param itemId The ID of the order item to delete.
-     * @return ResponseEntity containing a delete response or a NOT_FOUND status if the item is not found.
+     * @param itemId      The ID of the order item to retrieve.
+     * @param ifNoneMatch The ETag of the order item the client already has, if any.
+     * @return ResponseEntity containing the order item or a NOT_FOUND status if the item is not found.
+     *         Returns NOT_MODIFIED without loading the order item if its version did not change.
      *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
      *         Possible Exceptions: AccessDeniedException, EntityNotFoundException, DisabledException
      */
-    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.GET)
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.GET, exposedHeaders = HttpHeaders.ETAG)
     @Operation(summary = "Get Order Item by ID",
-            description = "Retrieves an order item by its ID.")
+            description = "Retrieves an order item by its ID. The ETag is derived from the order item version, " +
+                    "send it in If-None-Match to poll.")
     @GetMapping(ITEM_PATH)
-    public ResponseEntity<OrderItem> getOrderItemById(@PathVariable Long itemId) {
+    public ResponseEntity<OrderItemDTO> getOrderItemById(@PathVariable Long itemId,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH,
+                                                                        required = false) String ifNoneMatch) {
         try {
-            return ResponseEntity.ok(orderItemsService.getOrderItem(itemId));
+            String eTag = ETags.of(ETags.ORDER_ITEM, orderItemsService.getOrderItemVersion(itemId));
+
+            Optional<String> cachedTag = ETags.match(ifNoneMatch, eTag);
+
+            if (cachedTag.isPresent()) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cachedTag.get()).build();
+            }
+
+            OrderItemDTO orderItem = orderItemsService.getOrderItem(itemId);
+
+            // The tag follows the order item that is sent, which may come from the second-level cache
+            return ResponseEntity.ok().eTag(ETags.of(ETags.ORDER_ITEM, orderItem.version())).body(orderItem);
 
         } catch (AccessDeniedException | DisabledException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                    "Forbidden: " + e.getMessage());
+                    "Forbidden: " + e.getMessage(), e);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,
-                    "Not found: " + e.getMessage());
+                    "Not found: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error fetching order item: " + e.getMessage());
+                    "Unexpected error fetching order item: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Exports order items to an Excel file for a given order ID.
+     * Retrieves a page of order items whose item name contains the search parameter for a given order ID.
      *
-     * @param orderId The ID of the order for which to export items to Excel.
-     * @return ResponseEntity containing an export response or a NOT_FOUND status if the items are not found.
+     * @param orderId  The ID of the order for which to search items.
+     * @param itemName The text to search for in item names, case-insensitive.
+     * @param page     The zero-based page number.
+     * @param size     The page size.
+     * @return ResponseEntity containing a list of order items or a NOT_FOUND status if the order is not found.
+     *         Throws a ResponseStatusException with BAD_REQUEST if the page is negative.
      *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
      *         Possible Exceptions: AccessDeniedException, EntityNotFoundException, DisabledException
      */
@@ -111,20 +187,25 @@ public class OrderItemsController {
     @Operation(summary = "Find Order Items by Name",
             description = "Searches and retrieves order items by name for a given order ID.")
     @GetMapping(SEARCH_ORDER_ITEM_PATH)
-    public ResponseEntity<List<OrderItem>> findOrderItemsByName(@PathVariable Long orderId,
-                                                                @PathVariable String itemName) {
+    public ResponseEntity<List<OrderItemDTO>> findOrderItemsByName(@PathVariable Long orderId,
+                                                                   @PathVariable String itemName,
+                                                                   @RequestParam(defaultValue = "0") int page,
+                                                                   @RequestParam(defaultValue = "50") int size) {
         try {
-            return ResponseEntity.ok(orderItemsService.findOrderItemsByName(orderId, itemName));
+            return ResponseEntity.ok(orderItemsService.findOrderItemsByName(orderId, itemName, page, size));
 
         } catch (AccessDeniedException | DisabledException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                    "Forbidden: " + e.getMessage());
+                    "Forbidden: " + e.getMessage(), e);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,
-                    "Not found: " + e.getMessage());
+                    "Not found: " + e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Bad request: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error fetching order items: " + e.getMessage());
+                    "Unexpected error fetching order items: " + e.getMessage(), e);
         }
     }
 
@@ -134,6 +215,7 @@ public class OrderItemsController {
      * @param orderId   The ID of the order to which the item should be added.
      * @param orderItem The order item data to be added.
      * @return ResponseEntity containing the added order item or a NOT_FOUND status if an error occurs.
+     *         Throws a ResponseStatusException with CONFLICT if the order keeps being changed concurrently.
      *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
      *         Possible Exceptions: AccessDeniedException, EntityNotFoundException, DisabledException
      */
@@ -149,13 +231,52 @@ public class OrderItemsController {
 
         } catch (AccessDeniedException | DisabledException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                    "Forbidden: " + e.getMessage());
+                    "Forbidden: " + e.getMessage(), e);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,
-                    "Not found: " + e.getMessage());
+                    "Not found: " + e.getMessage(), e);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Conflict: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error creating order item: " + e.getMessage());
+                    "Unexpected error creating order item: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Adds several new order items to the specified order in one transaction and updates order price
+     * in the order table once.
+     *
+     * @param orderId    The ID of the order to which the items should be added.
+     * @param orderItems The order items data to be added.
+     * @return ResponseEntity containing the added order items or a NOT_FOUND status if the order is not found.
+     *         Throws a ResponseStatusException with CONFLICT if the order keeps being changed concurrently.
+     *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
+     *         Possible Exceptions: AccessDeniedException, EntityNotFoundException, DisabledException
+     */
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.POST)
+    @Operation(summary = "Add Order Items to Order",
+            description = "Adds up to 1000 new order items to the specified order and updates the order price. " +
+                    "USER role can't use this.")
+    @PostMapping(ADD_ITEMS_PATH)
+    public ResponseEntity<List<OrderItem>> addItemsToOrder(@PathVariable Long orderId,
+                                                           @Valid @RequestBody OrderItemsRequestDTO orderItems) {
+        try {
+            return ResponseEntity.ok(orderItemsService.addItemsToOrder(orderId, orderItems.orderItems()));
+
+        } catch (AccessDeniedException | DisabledException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Forbidden: " + e.getMessage(), e);
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Not found: " + e.getMessage(), e);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Conflict: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Unexpected error creating order items: " + e.getMessage(), e);
         }
     }
 
@@ -164,29 +285,45 @@ public class OrderItemsController {
      *
      * @param itemId    The ID of the order item to update.
      * @param orderItem The updated order item data.
+     * @param ifMatch   The ETag the order item must have, omit it to update any version.
      * @return ResponseEntity containing the updated order item or a NOT_FOUND status if the item is not found.
+     *         Throws a ResponseStatusException with PRECONDITION_FAILED if the order item does not match If-Match.
+     *         Throws a ResponseStatusException with CONFLICT if the order keeps being changed concurrently.
      *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
      *         Possible Exceptions: AccessDeniedException, EntityNotFoundException, DisabledException
      */
-    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.PUT)
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.PUT, exposedHeaders = HttpHeaders.ETAG)
     @Operation(summary = "Update Order Item",
             description = "Updates an existing order item and updates the order price. " +
                     "USER role can't use this.")
     @PutMapping(UPDATE_ITEM_PATH)
     public ResponseEntity<OrderItem> updateOrderItem(@PathVariable Long itemId,
-                                                     @Valid @RequestBody OrderItem orderItem) {
+                                                     @Valid @RequestBody OrderItem orderItem,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                     String ifMatch) {
         try {
-            return ResponseEntity.ok(orderItemsService.updateOrderItem(itemId, orderItem));
+            OrderItem updatedOrderItem = orderItemsService.updateOrderItem(itemId, orderItem,
+                    ETags.requiredVersion(ifMatch, ETags.ORDER_ITEM));
+
+            return ResponseEntity.ok()
+                    .eTag(ETags.of(ETags.ORDER_ITEM, updatedOrderItem.getVersion()))
+                    .body(updatedOrderItem);
 
         } catch (AccessDeniedException | DisabledException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                    "Forbidden: " + e.getMessage());
+                    "Forbidden: " + e.getMessage(), e);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,
-                    "Not found: " + e.getMessage());
+                    "Not found: " + e.getMessage(), e);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Conflict: " + e.getMessage(), e);
+        } catch (PreconditionFailedException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "Precondition failed: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error updating order item: " + e.getMessage());
+                    "Unexpected error updating order item: " + e.getMessage(), e);
         }
     }
 
@@ -195,6 +332,7 @@ public class OrderItemsController {
      *
      * @param itemId The ID of the order item to delete.
      * @return ResponseEntity containing a delete response or a NOT_FOUND status if the item is not found.
+     *         Throws a ResponseStatusException with CONFLICT if the order keeps being changed concurrently.
      *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
      *         Possible Exceptions: AccessDeniedException, EntityNotFoundException, DisabledException
      */
@@ -215,13 +353,16 @@ public class OrderItemsController {
 
         } catch (AccessDeniedException | DisabledException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                    "Forbidden: " + e.getMessage());
+                    "Forbidden: " + e.getMessage(), e);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,
-                    "Not found: " + e.getMessage());
+                    "Not found: " + e.getMessage(), e);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Conflict: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error while deleting order item: "  + e.getMessage());
+                    "Unexpected error while deleting order item: "  + e.getMessage(), e);
         }
     }
 
@@ -1,21 +1,53 @@
 package lt.ordermanagement.api.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import lt.ordermanagement.api.dtos.OrderDTO;
+import lt.ordermanagement.api.dtos.OrderStatusCountsDTO;
+import lt.ordermanagement.api.dtos.OrdersPageDTO;
+import lt.ordermanagement.api.enums.ExportFormat;
+import lt.ordermanagement.api.enums.OrderStatus;
+import lt.ordermanagement.api.exeptions.PreconditionFailedException;
 import lt.ordermanagement.api.dtos.ResponseDeleteDTO;
 import lt.ordermanagement.api.models.Order;
+import lt.ordermanagement.api.services.Interfaces.OrderChangeStreamService;
+import lt.ordermanagement.api.services.Interfaces.OrderStatsService;
+import lt.ordermanagement.api.services.Interfaces.OrdersExportService;
+import lt.ordermanagement.api.services.Interfaces.OrdersImportService;
 import lt.ordermanagement.api.services.Interfaces.OrdersService;
+import lt.ordermanagement.api.utils.CompressedResponseCache;
+import lt.ordermanagement.api.utils.ETags;
+import lt.ordermanagement.api.utils.NewOrderItems;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * REST Controller for managing orders.
@@ -25,6 +57,11 @@ import java.util.List;
  * The controller communicates with the OrdersService to perform these operations.
  * Exception handling is in place to handle potential errors and return appropriate HTTP status codes.
  * </p>
+ *
+ * <p>
+ * Responses are written as JSON, or as Smile or CBOR when the Accept header asks for them. Changes of orders and
+ * order items are streamed as Server-Sent Events, so clients need not poll the order listing.
+ * </p>
  */
 @RestController
 @Validated
@@ -33,64 +70,390 @@ import java.util.List;
 public class OrdersController {
 
     private static final String ORDERS_PATH = "/orders";
+    private static final String EXPORT_ORDERS_PATH = "/orders/export";
+    private static final String IMPORT_ORDERS_PATH = "/orders/import";
+    private static final String DUE_ORDERS_PATH = "/orders/due";
+    private static final String UPDATED_ORDERS_PATH = "/orders/updated";
+    private static final String ORDER_CHANGES_PATH = "/orders/changes";
+    private static final String ORDERS_BY_STATUS_PATH = "/orders/status/{status}";
+    private static final String STATUS_COUNTS_PATH = "/orders/status-counts";
     private static final String ORDER_PATH = "/order/{orderId}";
     private static final String SEARCH_ORDER_PATH = "/order/search/{orderParam}";
     private static final String ADD_ORDER_PATH = "/add/order";
     private static final String UPDATE_ORDER_PATH = "/update/order/{orderId}";
+    private static final String UPDATE_ORDER_STATUS_PATH = "/update/order/{orderId}/status";
     private static final String DELETE_ORDER_PATH = "/delete/order/{orderId}";
+    private static final String RESTORE_ORDER_PATH = "/restore/order/{orderId}";
 
     private static final String CORS_URL = "http://localhost:3000";
 
     private final OrdersService orderService;
+    private final OrdersExportService ordersExportService;
+    private final OrderStatsService orderStatsService;
+    private final OrdersImportService ordersImportService;
+    private final ObjectMapper objectMapper;
+    private final CompressedResponseCache compressedResponseCache;
+    private final OrderChangeStreamService orderChangeStreamService;
+    private final Validator validator;
 
     /**
-     * Retrieves all orders.
+     * Retrieves one page of orders.
      *
-     * @return ResponseEntity containing a list of orders or an INTERNAL_SERVER_ERROR status if an unexpected error occurs.
+     * @param cursor         The cursor returned with the previous page, omit it to fetch the first page.
+     * @param size           The page size.
+     * @param ifNoneMatch    The ETag of the page the client already has, if any.
+     * @param accept         The media types the client accepts, if any.
+     * @param acceptEncoding The content codings the client accepts, if any.
+     * @return ResponseEntity containing a page of orders or an INTERNAL_SERVER_ERROR status if an unexpected error occurs.
+     *         Returns NOT_MODIFIED if the order listing did not change since the client fetched the page.
+     *         Pages with an ETag are sent to clients taking gzip compressed JSON as cached compressed bytes.
+     *         Throws a ResponseStatusException with BAD_REQUEST if the cursor is malformed.
      *         Possible Exceptions: AccessDeniedException, EntityNotFoundException, DisabledException
      */
-    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.GET)
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.GET, exposedHeaders = HttpHeaders.ETAG)
     @Operation(summary = "Get All Orders",
-            description = "Retrieves all orders.")
+            description = "Retrieves one page of orders. Pass the returned nextCursor as cursor to get the next page. " +
+                    "Pages served from the in-memory listing carry an ETag, send it in If-None-Match to poll.")
+    @ApiResponse(responseCode = "200", description = "One page of orders",
+            content = @Content(schema = @Schema(implementation = OrdersPageDTO.class)))
     @GetMapping(ORDERS_PATH)
-    public ResponseEntity<List<Order>> getOrders() {
+    public ResponseEntity<?> getOrders(@RequestParam(required = false) String cursor,
+                                       @RequestParam(defaultValue = "50") int size,
+                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                       String ifNoneMatch,
+                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                       String acceptEncoding) {
+        try {
+            // Read before the page, so the tag is never newer than the page it is sent with
+            Optional<String> eTag = orderService.getOrdersVersion().map(version -> ETags.of(ETags.ORDERS, version));
+
+            Optional<String> cachedTag = eTag.flatMap(tag -> ETags.match(ifNoneMatch, tag));
+
+            if (cachedTag.isPresent()) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cachedTag.get()).build();
+            }
+
+            if (eTag.isPresent() && CompressedResponseCache.acceptsGzipJson(accept, acceptEncoding)) {
+                return compressedResponseCache.gzipJsonResponse(eTag.get(), cursor + " " + size,
+                        () -> orderService.getOrders(cursor, size));
+            }
+
+            OrdersPageDTO page = orderService.getOrders(cursor, size);
+
+            return eTag.map(tag -> ResponseEntity.ok()
+                            .eTag(tag)
+                            .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                            .body(page))
+                    .orElseGet(() -> ResponseEntity.ok(page));
+
+        } catch (AccessDeniedException | DisabledException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Forbidden: " + e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Bad request: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Unexpected error fetching orders:" + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Retrieves one page of the orders due between two dates.
+     *
+     * @param from   The first order term of the range, inclusive.
+     * @param to     The last order term of the range, inclusive.
+     * @param cursor The cursor returned with the previous page, omit it to fetch the first page.
+     * @param size   The page size.
+     * @return ResponseEntity containing a page of orders sorted by order term.
+     *         Throws a ResponseStatusException with BAD_REQUEST if the range is empty or the cursor is malformed.
+     *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
+     *         Possible Exceptions: AccessDeniedException, DisabledException
+     */
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.GET)
+    @Operation(summary = "Get Orders Due Between Dates",
+            description = "Retrieves one page of orders with order term between from and to, inclusive. " +
+                    "Pass the returned nextCursor as cursor to get the next page.")
+    @GetMapping(DUE_ORDERS_PATH)
+    public ResponseEntity<OrdersPageDTO> getOrdersDueBetween(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(orderService.findOrdersDueBetween(from, to, cursor, size));
+
+        } catch (AccessDeniedException | DisabledException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Forbidden: " + e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Bad request: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Unexpected error fetching orders: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Retrieves one page of the orders updated since a point in time.
+     *
+     * @param since  The earliest order update time, an ISO-8601 date-time with offset.
+     * @param cursor The cursor returned with the previous page, omit it to fetch the first page.
+     * @param size   The page size.
+     * @return ResponseEntity containing a page of orders sorted by order update time.
+     *         Throws a ResponseStatusException with BAD_REQUEST if the cursor is malformed.
+     *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
+     *         Possible Exceptions: AccessDeniedException, DisabledException
+     */
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.GET)
+    @Operation(summary = "Get Orders Updated Since",
+            description = "Retrieves one page of orders updated at or after since, oldest change first. " +
+                    "Pass the returned nextCursor as cursor to get the next page.")
+    @GetMapping(UPDATED_ORDERS_PATH)
+    public ResponseEntity<OrdersPageDTO> getOrdersUpdatedSince(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(orderService.findOrdersUpdatedSince(since, cursor, size));
+
+        } catch (AccessDeniedException | DisabledException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Forbidden: " + e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Bad request: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Unexpected error fetching orders: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Streams the changes of orders and order items as Server-Sent Events. Every change is an "order-change" event
+     * whose ID is its sequence number, a client that reconnects with it in Last-Event-ID first receives the changes
+     * it missed.
+     *
+     * @param lastEventId The sequence number of the last change the client received, if any.
+     * @return The emitter of the stream. A "reset" event tells the client that changes it missed are no longer
+     *         kept and it should reload the orders it shows.
+     *         Throws a ResponseStatusException with BAD_REQUEST if Last-Event-ID is not a sequence number.
+     *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
+     *         Possible Exceptions: AccessDeniedException, DisabledException
+     */
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.GET)
+    @Operation(summary = "Stream Order Changes",
+            description = "Streams changes of orders and order items as Server-Sent Events, in the order they were " +
+                    "committed. Reconnect with the last received event ID in Last-Event-ID to resume.")
+    @GetMapping(path = ORDER_CHANGES_PATH, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderChanges(@RequestHeader(value = "Last-Event-ID", required = false)
+                                         String lastEventId) {
+        try {
+            return orderChangeStreamService.subscribe(lastEventId);
+
+        } catch (AccessDeniedException | DisabledException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Forbidden: " + e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Bad request: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Unexpected error streaming order changes: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Retrieves one page of the orders in a status.
+     *
+     * @param status The order status, case-insensitive.
+     * @param cursor The cursor returned with the previous page, omit it to fetch the first page.
+     * @param size   The page size.
+     * @return ResponseEntity containing a page of orders sorted by order update time, most recent first.
+     *         Throws a ResponseStatusException with BAD_REQUEST if the status or the cursor is malformed.
+     *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
+     *         Possible Exceptions: AccessDeniedException, DisabledException
+     */
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.GET)
+    @Operation(summary = "Get Orders by Status",
+            description = "Retrieves one page of orders in a status, most recently updated first. " +
+                    "Pass the returned nextCursor as cursor to get the next page.")
+    @GetMapping(ORDERS_BY_STATUS_PATH)
+    public ResponseEntity<OrdersPageDTO> getOrdersByStatus(@PathVariable String status,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(orderService.findOrdersByStatus(OrderStatus.fromValue(status), cursor, size));
+
+        } catch (AccessDeniedException | DisabledException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Forbidden: " + e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Bad request: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Unexpected error fetching orders: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Retrieves the number of orders in each status.
+     *
+     * @return ResponseEntity containing the number of orders per status.
+     *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
+     *         Possible Exceptions: AccessDeniedException, DisabledException
+     */
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.GET)
+    @Operation(summary = "Get Order Status Counts",
+            description = "Retrieves the number of orders in each status from summaries maintained on every change.")
+    @GetMapping(STATUS_COUNTS_PATH)
+    public ResponseEntity<OrderStatusCountsDTO> getStatusCounts() {
+        try {
+            return ResponseEntity.ok(orderStatsService.getStatusCounts());
+
+        } catch (AccessDeniedException | DisabledException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Forbidden: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Unexpected error counting orders: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Exports all orders, streaming them from the database to the response as they are read.
+     *
+     * @param format       The export format, "ndjson" or "csv".
+     * @param includeItems Whether order items are inlined into the exported orders.
+     * @return ResponseEntity streaming the exported orders.
+     *         Throws a ResponseStatusException with BAD_REQUEST if the format is not supported.
+     *         Possible Exceptions: AccessDeniedException, DisabledException
+     */
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.GET)
+    @Operation(summary = "Export Orders",
+            description = "Streams all orders as NDJSON or CSV, optionally with their order items.")
+    @GetMapping(EXPORT_ORDERS_PATH)
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "ndjson") String format,
+                                                              @RequestParam(defaultValue = "false")
+                                                              boolean includeItems) {
         try {
-            return ResponseEntity.ok(orderService.getOrders());
+            ExportFormat exportFormat = ExportFormat.fromValue(format);
+
+            StreamingResponseBody body = outputStream ->
+                    ordersExportService.exportOrders(outputStream, exportFormat, includeItems);
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename("orders." + exportFormat.getFileExtension())
+                            .build()
+                            .toString())
+                    .body(body);
 
         } catch (AccessDeniedException | DisabledException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                    "Forbidden: " + e.getMessage());
+                    "Forbidden: " + e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Bad request: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error fetching orders:" + e.getMessage());
+                    "Unexpected error exporting orders: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Imports orders in bulk from an upload in the format of the export. Progress is streamed back while the upload
+     * is imported, as one NDJSON line after every committed chunk and a last line with done or failure set.
+     *
+     * @param format      The upload format, "ndjson" or "csv".
+     * @param inputStream The request body.
+     * @return ResponseEntity streaming the import progress.
+     *         Throws a ResponseStatusException with BAD_REQUEST if the format is not supported.
+     *         Possible Exceptions: AccessDeniedException, DisabledException
+     */
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.POST)
+    @Operation(summary = "Import Orders",
+            description = "Imports orders from NDJSON or CSV in the export format, reporting progress and " +
+                    "rejected rows as NDJSON lines.")
+    @PostMapping(IMPORT_ORDERS_PATH)
+    public ResponseEntity<StreamingResponseBody> importOrders(@RequestParam(defaultValue = "ndjson") String format,
+                                                              InputStream inputStream) {
+        try {
+            ExportFormat importFormat = ExportFormat.fromValue(format);
+
+            StreamingResponseBody body = outputStream ->
+                    ordersImportService.importOrders(inputStream, importFormat, progress -> {
+                        try {
+                            outputStream.write(objectMapper.writeValueAsBytes(progress));
+                            outputStream.write('\n');
+                            outputStream.flush();
+
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(ExportFormat.NDJSON.getContentType()))
+                    .body(body);
+
+        } catch (AccessDeniedException | DisabledException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Forbidden: " + e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Bad request: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Unexpected error importing orders: " + e.getMessage(), e);
         }
     }
 
     /**
      * Retrieves an order by its ID.
      *
-     * @param orderId The ID of the order to retrieve.
+     * @param orderId     The ID of the order to retrieve.
+     * @param ifNoneMatch The ETag of the order the client already has, if any.
      * @return ResponseEntity containing the retrieved order or a NOT_FOUND status if the order is not found.
+     *         Returns NOT_MODIFIED without loading the order if its version did not change.
      *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
      *         Possible Exceptions: AccessDeniedException, EntityNotFoundException, DisabledException
      */
-    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.GET)
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.GET, exposedHeaders = HttpHeaders.ETAG)
     @Operation(summary = "Get Order by ID",
-            description = "Retrieves an order by its ID.")
+            description = "Retrieves an order by its ID. The ETag is derived from the order version, " +
+                    "send it in If-None-Match to poll.")
     @GetMapping(ORDER_PATH)
-    public ResponseEntity<Order> getOrderById(@PathVariable Long orderId) {
+    public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long orderId,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                 String ifNoneMatch) {
         try {
-            return ResponseEntity.ok(orderService.getOrderById(orderId));
+            String eTag = ETags.of(ETags.ORDER, orderService.getOrderVersion(orderId));
+
+            Optional<String> cachedTag = ETags.match(ifNoneMatch, eTag);
+
+            if (cachedTag.isPresent()) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cachedTag.get()).build();
+            }
+
+            OrderDTO order = orderService.getOrderById(orderId);
+
+            // The tag follows the order that is sent, which may come from the second-level cache
+            return ResponseEntity.ok().eTag(ETags.of(ETags.ORDER, order.version())).body(order);
 
         } catch (AccessDeniedException | DisabledException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                    "Forbidden: " + e.getMessage());
+                    "Forbidden: " + e.getMessage(), e);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,
-                    "Not found: " + e.getMessage());
+                    "Not found: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error fetching order: " + e.getMessage());
+                    "Unexpected error fetching order: " + e.getMessage(), e);
         }
     }
 
@@ -99,28 +462,36 @@ public class OrdersController {
      *
      * @param orderParam The parameter to search for in order attributes
      *                   (orderNumber, orderName, client, clientPhoneNumber, clientEmail).
+     * @param page       The zero-based page number.
+     * @param size       The page size.
      * @return ResponseEntity containing a list of orders matching the specified search parameter.
      *         Throws a ResponseStatusException with NOT_FOUND if no order is found with the specified parameter.
+     *         Throws a ResponseStatusException with BAD_REQUEST if the page lies beyond the search result limit.
      *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
      *         Possible Exceptions: AccessDeniedException, EntityNotFoundException, DisabledException
      */
     @CrossOrigin(origins = CORS_URL, methods = RequestMethod.GET)
     @Operation(summary = "Find Orders by Parameter",
-            description = "Retrieves a list of orders based on a search parameter.")
+            description = "Retrieves a page of orders based on a search parameter, ranked by similarity.")
     @GetMapping(SEARCH_ORDER_PATH)
-    public ResponseEntity<List<Order>> findOrderByParam(@PathVariable String orderParam) {
+    public ResponseEntity<List<OrderDTO>> findOrderByParam(@PathVariable String orderParam,
+                                                        @RequestParam(defaultValue = "0") int page,
+                                                        @RequestParam(defaultValue = "20") int size) {
         try {
-            return ResponseEntity.ok(orderService.findOrdersByParameters(orderParam));
+            return ResponseEntity.ok(orderService.findOrdersByParameters(orderParam, page, size));
 
         } catch (AccessDeniedException | DisabledException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                    "Forbidden: " + e.getMessage());
+                    "Forbidden: " + e.getMessage(), e);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,
-                    "Not found: " + e.getMessage());
+                    "Not found: " + e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Bad request: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error fetching orders: " + e.getMessage());
+                    "Unexpected error fetching orders: " + e.getMessage(), e);
         }
     }
 
@@ -129,25 +500,34 @@ public class OrdersController {
      *
      * @param order The order to add.
      * @return ResponseEntity containing the added order or INTERNAL_SERVER_ERROR status if an unexpected error occurs.
+     *         Returns BAD_REQUEST with the messages by property path if the order items are not valid.
      *         Possible Exceptions: AccessDeniedException, EntityNotFoundException, DisabledException
      */
     @CrossOrigin(origins = CORS_URL, methods = RequestMethod.POST)
     @Operation(summary = "Add Order",
             description = "Adds a new order. " +
                     "USER role can't use this.")
+    @ApiResponse(responseCode = "200", description = "The added order",
+            content = @Content(schema = @Schema(implementation = Order.class)))
     @PostMapping(ADD_ORDER_PATH)
-    public ResponseEntity<Order> addOrder(@Valid @RequestBody Order order) {
+    public ResponseEntity<?> addOrder(@Valid @RequestBody Order order) {
         try {
+            Map<String, String> errors = NewOrderItems.validate(validator, order.getOrderItems());
+
+            if (!errors.isEmpty()) {
+                return ResponseEntity.badRequest().body(errors);
+            }
+
             orderService.addOrder(order);
 
             return ResponseEntity.ok(order);
 
         } catch (AccessDeniedException | DisabledException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                    "Forbidden: " + e.getMessage());
+                    "Forbidden: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error creating order: " + e.getMessage());
+                    "Unexpected error creating order: " + e.getMessage(), e);
         }
     }
 
@@ -156,29 +536,95 @@ public class OrdersController {
      *
      * @param orderId The ID of the order to update.
      * @param order   The updated order data.
+     * @param ifMatch The ETag the order must have, omit it to update any version.
      * @return ResponseEntity containing the updated order or a NOT_FOUND status if the order is not found.
+     *         Throws a ResponseStatusException with PRECONDITION_FAILED if the order does not match If-Match.
+     *         Throws a ResponseStatusException with CONFLICT if the order may not move to the new status.
+     *         Throws a ResponseStatusException with CONFLICT if the order keeps being changed concurrently.
      *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
      *         Possible Exceptions: AccessDeniedException, EntityNotFoundException, DisabledException
      */
-    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.PUT)
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.PUT, exposedHeaders = HttpHeaders.ETAG)
     @Operation(summary = "Update Order",
             description = "Updates an existing order.. " +
                     "USER role can't use this.")
     @PutMapping(UPDATE_ORDER_PATH)
     public ResponseEntity<Order> updateOrder(@PathVariable Long orderId,
-                                             @Valid @RequestBody Order order) {
+                                             @Valid @RequestBody Order order,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                             String ifMatch) {
         try {
-            return ResponseEntity.ok(orderService.updateOrder(orderId, order));
+            Order updatedOrder = orderService.updateOrder(orderId, order,
+                    ETags.requiredVersion(ifMatch, ETags.ORDER));
+
+            return ResponseEntity.ok().eTag(ETags.of(ETags.ORDER, updatedOrder.getVersion())).body(updatedOrder);
 
         } catch (AccessDeniedException | DisabledException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                    "Forbidden: " + e.getMessage());
+                    "Forbidden: " + e.getMessage(), e);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,
-                    "Not found: " + e.getMessage());
+                    "Not found: " + e.getMessage(), e);
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Conflict: " + e.getMessage(), e);
+        } catch (PreconditionFailedException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "Precondition failed: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error updating order: " + e.getMessage());
+                    "Unexpected error updating order: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Moves an order to a new status.
+     *
+     * @param orderId The ID of the order.
+     * @param status  The new status, case-insensitive.
+     * @param ifMatch The ETag the order must have, omit it to change any version.
+     * @return ResponseEntity containing the updated order or a NOT_FOUND status if the order is not found.
+     *         Throws a ResponseStatusException with PRECONDITION_FAILED if the order does not match If-Match.
+     *         Throws a ResponseStatusException with BAD_REQUEST if the status is unknown.
+     *         Throws a ResponseStatusException with CONFLICT if the order may not move to the status.
+     *         Throws a ResponseStatusException with CONFLICT if the order keeps being changed concurrently.
+     *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
+     *         Possible Exceptions: AccessDeniedException, EntityNotFoundException, DisabledException
+     */
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.PUT, exposedHeaders = HttpHeaders.ETAG)
+    @Operation(summary = "Change Order Status",
+            description = "Moves an order to a new status. PENDING -> CONFIRMED -> IN_PROGRESS -> COMPLETED, " +
+                    "every status but COMPLETED can move to CANCELLED. " +
+                    "USER role can't use this.")
+    @PutMapping(UPDATE_ORDER_STATUS_PATH)
+    public ResponseEntity<Order> changeOrderStatus(@PathVariable Long orderId,
+                                                   @RequestParam String status,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                   String ifMatch) {
+        try {
+            Order order = orderService.changeOrderStatus(orderId, OrderStatus.fromValue(status),
+                    ETags.requiredVersion(ifMatch, ETags.ORDER));
+
+            return ResponseEntity.ok().eTag(ETags.of(ETags.ORDER, order.getVersion())).body(order);
+
+        } catch (AccessDeniedException | DisabledException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Forbidden: " + e.getMessage(), e);
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Not found: " + e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Bad request: " + e.getMessage(), e);
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Conflict: " + e.getMessage(), e);
+        } catch (PreconditionFailedException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "Precondition failed: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Unexpected error changing order status: " + e.getMessage(), e);
         }
     }
 
@@ -187,6 +633,7 @@ public class OrdersController {
      *
      * @param orderId The ID of the order to delete.
      * @return ResponseEntity containing a delete response or a NOT_FOUND status if the order is not found.
+     *         Throws a ResponseStatusException with CONFLICT if the order keeps being changed concurrently.
      *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
      *         Possible Exceptions: AccessDeniedException, EntityNotFoundException, DisabledException
      */
@@ -207,13 +654,49 @@ public class OrdersController {
 
         } catch (AccessDeniedException | DisabledException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                    "Forbidden: " + e.getMessage());
+                    "Forbidden: " + e.getMessage(), e);
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Not found: " + e.getMessage(), e);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Conflict: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Unexpected error while deleting order:" + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Restores a deleted order together with the order items deleted with it, also after it was archived.
+     *
+     * @param orderId The ID of the order to restore.
+     * @return ResponseEntity containing the restored order or a NOT_FOUND status if the order is not found.
+     *         Throws a ResponseStatusException with CONFLICT if the order keeps being changed concurrently.
+     *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
+     *         Possible Exceptions: AccessDeniedException, EntityNotFoundException, DisabledException
+     */
+    @CrossOrigin(origins = CORS_URL, methods = RequestMethod.PUT)
+    @Operation(summary = "Restore Order",
+            description = "Restores a deleted or archived order and the order items deleted with it. " +
+                    "USER role can't use this.")
+    @PutMapping(RESTORE_ORDER_PATH)
+    public ResponseEntity<Order> restoreOrder(@PathVariable Long orderId) {
+        try {
+            return ResponseEntity.ok(orderService.restoreOrder(orderId));
+
+        } catch (AccessDeniedException | DisabledException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Forbidden: " + e.getMessage(), e);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,
-                    "Not found: " + e.getMessage());
+                    "Not found: " + e.getMessage(), e);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Conflict: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error while deleting order:" + e.getMessage());
+                    "Unexpected error restoring order: " + e.getMessage(), e);
         }
     }
 
@@ -0,0 +1,61 @@
+package lt.ordermanagement.api.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import lt.ordermanagement.api.dtos.OrderStatsDTO;
+import lt.ordermanagement.api.services.Interfaces.OrderStatsService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST Controller for order summaries.
+ *
+ * <p>
+ * This controller provides an endpoint for revenue, order count and item count per status, per month and per
+ * client, read from summary tables maintained on every change instead of aggregating the orders.
+ * </p>
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1")
+public class StatsController {
+
+    private static final String STATS_PATH = "/stats";
+
+    private final OrderStatsService orderStatsService;
+
+    /**
+     * Retrieves the order summaries.
+     *
+     * @param months  The number of latest months to return.
+     * @param clients The number of clients with the highest revenue to return.
+     * @return ResponseEntity containing the summaries per status, per month and per client.
+     *         Throws a ResponseStatusException with INTERNAL_SERVER_ERROR if an unexpected error occurs.
+     *         Possible Exceptions: AccessDeniedException, DisabledException
+     */
+    @Operation(summary = "Get Order Statistics",
+            description = "Retrieves revenue, order count and item count of orders per status, per month of the " +
+                    "order update date and per client. This operation requires MANAGER role.")
+    @GetMapping(STATS_PATH)
+    public ResponseEntity<OrderStatsDTO> getStats(@RequestParam(defaultValue = "12") int months,
+                                                  @RequestParam(defaultValue = "100") int clients) {
+        try {
+            return ResponseEntity.ok(orderStatsService.getStats(months, clients));
+
+        } catch (AccessDeniedException | DisabledException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Forbidden: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Unexpected error fetching order statistics: " + e.getMessage(), e);
+        }
+    }
+
+}
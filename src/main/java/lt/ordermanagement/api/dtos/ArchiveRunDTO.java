@@ -0,0 +1,22 @@
+package lt.ordermanagement.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Data Transfer Object (DTO) for representing the result of one run of the archiver.
+ */
+@Schema(description = "Response DTO for one run of the archiver of deleted orders and order items")
+public record ArchiveRunDTO(
+        @Schema(description = "When the run started")
+        OffsetDateTime startedAt,
+        @Schema(description = "Rows deleted before this time were archived")
+        OffsetDateTime cutoff,
+        @Schema(description = "Number of orders moved to orders_archive")
+        long ordersMoved,
+        @Schema(description = "Number of order items moved to order_items_archive")
+        long orderItemsMoved,
+        @Schema(description = "Duration of the run in milliseconds")
+        long durationMillis) {
+}
@@ -0,0 +1,22 @@
+package lt.ordermanagement.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object (DTO) for representing the statistics of one second-level cache region.
+ */
+@Schema(description = "Response DTO for second-level cache region statistics")
+public record CacheRegionStatsDTO(
+        @Schema(description = "Name of the cache region")
+        String region,
+        @Schema(description = "Number of lookups served from the cache")
+        long hitCount,
+        @Schema(description = "Number of lookups that went to the database")
+        long missCount,
+        @Schema(description = "Number of entries put into the cache")
+        long putCount,
+        @Schema(description = "Number of entries currently in the cache, -1 if unknown")
+        long elementCount,
+        @Schema(description = "Share of lookups served from the cache, 0 if there were no lookups")
+        double hitRatio) {
+}
@@ -0,0 +1,30 @@
+package lt.ordermanagement.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for representing the progress of an order import.
+ */
+@Schema(description = "Response DTO for the progress of an order import, one per committed chunk and one at the end")
+public record ImportProgressDTO(
+        @Schema(description = "Number of orders read from the upload so far", example = "20000")
+        long ordersRead,
+        @Schema(description = "Number of orders committed so far", example = "19998")
+        long ordersImported,
+        @Schema(description = "Number of order items committed so far", example = "80000")
+        long orderItemsImported,
+        @Schema(description = "Number of orders rejected so far", example = "2")
+        long ordersRejected,
+        @Schema(description = "Orders rejected since the previous progress, the total number of reported " +
+                "errors is limited")
+        List<ImportRowErrorDTO> errors,
+        @Schema(description = "Whether the whole upload has been read and committed", example = "false")
+        boolean done,
+        @Schema(description = "Why the import stopped, null unless it failed. Chunks committed before the " +
+                "failure stay imported")
+        String failure,
+        @Schema(description = "Time since the import started in milliseconds", example = "180")
+        long durationMillis) {
+}
@@ -0,0 +1,14 @@
+package lt.ordermanagement.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object (DTO) for representing an order rejected by the import.
+ */
+@Schema(description = "Response DTO for an order rejected by the import")
+public record ImportRowErrorDTO(
+        @Schema(description = "Line of the upload where the rejected order starts", example = "42")
+        long line,
+        @Schema(description = "Why the order was rejected", example = "clientName: Client name is required")
+        String message) {
+}
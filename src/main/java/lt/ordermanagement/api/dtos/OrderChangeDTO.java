@@ -0,0 +1,31 @@
+package lt.ordermanagement.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lt.ordermanagement.api.enums.ChangedEntity;
+import lt.ordermanagement.api.enums.OrderChangeType;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Data Transfer Object (DTO) for representing one event of the order change stream.
+ *
+ * <p>
+ * The sequence number is also the ID of the event, a client reconnecting with it in Last-Event-ID receives the
+ * events that follow. A change of an order item also changed the totals of its order.
+ * </p>
+ */
+@Schema(description = "Event of the order change stream")
+public record OrderChangeDTO(
+        @Schema(description = "Sequence number of the change, sent as the event ID", example = "1024")
+        long sequenceNumber,
+        @Schema(description = "Changed entity", example = "ORDER_ITEM")
+        ChangedEntity entityType,
+        @Schema(description = "ID of the changed order or order item", example = "7")
+        Long entityId,
+        @Schema(description = "ID of the changed order, or of the order of the changed order item", example = "1")
+        Long orderId,
+        @Schema(description = "Kind of the change", example = "UPDATED")
+        OrderChangeType changeType,
+        @Schema(description = "Time of the transaction that made the change", example = "2024-01-22T10:15:30.123456Z")
+        OffsetDateTime changedAt) {
+}
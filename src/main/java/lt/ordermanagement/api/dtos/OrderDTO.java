@@ -0,0 +1,76 @@
+package lt.ordermanagement.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lt.ordermanagement.api.enums.OrderStatus;
+import lt.ordermanagement.api.models.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Data Transfer Object (DTO) for representing an order in responses of the read endpoints.
+ *
+ * <p>
+ * Holds the serialized columns of {@link Order} in the same order, so responses look the same as for the entity.
+ * Queries select it with a constructor expression, the rows are never managed by the persistence context.
+ * </p>
+ */
+@Schema(description = "Response DTO for an order")
+public record OrderDTO(
+        @Schema(description = "Order ID", example = "1")
+        Long id,
+        @Schema(description = "Order number", example = "ON-01234567890")
+        String orderNumber,
+        @Schema(description = "Order name", example = "example order")
+        String orderName,
+        @Schema(description = "Client name", example = "John Example")
+        String clientName,
+        @Schema(description = "Client phone number", example = "+370000000000000")
+        String clientPhoneNumber,
+        @Schema(description = "Client email", example = "example@example.com")
+        String clientEmail,
+        @Schema(description = "Order term", example = "2024-12-31")
+        LocalDate orderTerm,
+        @Schema(description = "Order status", example = "PENDING")
+        OrderStatus orderStatus,
+        @Schema(description = "Order price", example = "100.00")
+        BigDecimal orderPrice,
+        @Schema(description = "Total item count of the order", example = "10")
+        Long itemCount,
+        @Schema(description = "Comments", example = "Additional comments about the order")
+        String comments,
+        @Schema(description = "Order update time", example = "2024-01-22T10:15:30.123456Z")
+        OffsetDateTime orderUpdateDate,
+        @Schema(description = "Deletion status of an order", example = "false")
+        Boolean isDeleted,
+        @Schema(description = "Deletion time of an order")
+        OffsetDateTime deletedAt,
+        @Schema(description = "Version of the order", example = "3")
+        Long version) {
+
+    /**
+     * Creates the DTO of an order entity.
+     *
+     * @param order The order.
+     * @return The DTO with the serialized columns of the order.
+     */
+    public static OrderDTO of(Order order) {
+        return new OrderDTO(order.getId(),
+                order.getOrderNumber(),
+                order.getOrderName(),
+                order.getClientName(),
+                order.getClientPhoneNumber(),
+                order.getClientEmail(),
+                order.getOrderTerm(),
+                order.getOrderStatus(),
+                order.getOrderPrice(),
+                order.getItemCount(),
+                order.getComments(),
+                order.getOrderUpdateDate(),
+                order.getIsDeleted(),
+                order.getDeletedAt(),
+                order.getVersion());
+    }
+
+}
@@ -0,0 +1,19 @@
+package lt.ordermanagement.api.dtos;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lt.ordermanagement.api.models.Order;
+import lt.ordermanagement.api.models.OrderItem;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for representing an exported order together with its order items.
+ */
+@Schema(description = "Export DTO for an order with inlined order items")
+public record OrderExportDTO(
+        @JsonUnwrapped
+        Order order,
+        @Schema(description = "Order items of the order")
+        List<OrderItem> orderItems) {
+}
@@ -0,0 +1,65 @@
+package lt.ordermanagement.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lt.ordermanagement.api.models.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Data Transfer Object (DTO) for representing an order item in responses of the read endpoints.
+ *
+ * <p>
+ * Holds the serialized columns of {@link OrderItem} in the same order, so responses look the same as for the
+ * entity. Queries select it with a constructor expression, the rows are never managed by the persistence context.
+ * </p>
+ */
+@Schema(description = "Response DTO for an order item")
+public record OrderItemDTO(
+        @Schema(description = "Order item ID", example = "1")
+        Long id,
+        @Schema(description = "Item name", example = "Product A")
+        String itemName,
+        @Schema(description = "Item code", example = "A123")
+        String itemCode,
+        @Schema(description = "Item revision", example = "Rev1")
+        String itemRevision,
+        @Schema(description = "Item count", example = "10")
+        Long itemCount,
+        @Schema(description = "Item price", example = "20.00")
+        BigDecimal itemPrice,
+        @Schema(description = "Total price for the item", example = "200.00")
+        BigDecimal totalPrice,
+        @Schema(description = "Link to item image", example = "https://example.com/image.jpg")
+        String linkToImg,
+        @Schema(description = "Item update time", example = "2024-01-22T10:15:30.123456Z")
+        OffsetDateTime itemUpdateDate,
+        @Schema(description = "Deletion status of an order item", example = "false")
+        Boolean isDeleted,
+        @Schema(description = "Deletion time of an order item")
+        OffsetDateTime deletedAt,
+        @Schema(description = "Version of the order item", example = "1")
+        Long version) {
+
+    /**
+     * Creates the DTO of an order item entity.
+     *
+     * @param orderItem The order item.
+     * @return The DTO with the serialized columns of the order item.
+     */
+    public static OrderItemDTO of(OrderItem orderItem) {
+        return new OrderItemDTO(orderItem.getId(),
+                orderItem.getItemName(),
+                orderItem.getItemCode(),
+                orderItem.getItemRevision(),
+                orderItem.getItemCount(),
+                orderItem.getItemPrice(),
+                orderItem.getTotalPrice(),
+                orderItem.getLinkToImg(),
+                orderItem.getItemUpdateDate(),
+                orderItem.getIsDeleted(),
+                orderItem.getDeletedAt(),
+                orderItem.getVersion());
+    }
+
+}
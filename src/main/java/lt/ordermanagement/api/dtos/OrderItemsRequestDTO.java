@@ -0,0 +1,20 @@
+package lt.ordermanagement.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lt.ordermanagement.api.models.OrderItem;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for adding several order items to an order in one request.
+ */
+@Schema(description = "Request DTO for adding order items to an order")
+public record OrderItemsRequestDTO(
+        @Schema(description = "Order items to add")
+        @NotEmpty(message = "At least one order item is required")
+        @Size(max = 1000, message = "At most 1000 order items can be added at once")
+        List<@Valid OrderItem> orderItems) {
+}
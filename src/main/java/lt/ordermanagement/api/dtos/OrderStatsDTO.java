@@ -0,0 +1,18 @@
+package lt.ordermanagement.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for representing the order summaries per status, per month and per client.
+ */
+@Schema(description = "Response DTO for revenue, order count and item count of orders where isDeleted is false")
+public record OrderStatsDTO(
+        @Schema(description = "Summary per order status, every status is present")
+        List<StatsGroupDTO> byStatus,
+        @Schema(description = "Summary per month of orderUpdateDate in UTC, latest month first")
+        List<StatsGroupDTO> byMonth,
+        @Schema(description = "Summary per client name, highest revenue first")
+        List<StatsGroupDTO> byClient) {
+}
@@ -0,0 +1,18 @@
+package lt.ordermanagement.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lt.ordermanagement.api.enums.OrderStatus;
+
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) for representing the number of orders in each status.
+ */
+@Schema(description = "Response DTO for the number of orders where isDeleted is false per status")
+public record OrderStatusCountsDTO(
+        @Schema(description = "Number of orders per status, every status is present",
+                example = "{\"PENDING\": 12, \"CONFIRMED\": 3, \"IN_PROGRESS\": 5, \"COMPLETED\": 40, \"CANCELLED\": 2}")
+        Map<OrderStatus, Long> counts,
+        @Schema(description = "Number of orders in all statuses", example = "62")
+        long total) {
+}
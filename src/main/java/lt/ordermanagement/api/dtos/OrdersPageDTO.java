@@ -0,0 +1,22 @@
+package lt.ordermanagement.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for representing one page of the order listing.
+ *
+ * <p>
+ * Pass {@code nextCursor} back as the {@code cursor} request parameter to fetch the following page.
+ * </p>
+ */
+@Schema(description = "Response DTO for one page of orders")
+public record OrdersPageDTO(
+        @Schema(description = "Orders on this page")
+        List<OrderDTO> orders,
+        @Schema(description = "Opaque cursor of the next page, null if this is the last page")
+        String nextCursor,
+        @Schema(description = "Page size used for this page")
+        int size) {
+}
@@ -0,0 +1,20 @@
+package lt.ordermanagement.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object (DTO) for representing the summary of one group of orders.
+ */
+@Schema(description = "Response DTO for the summary of one group of orders where isDeleted is false")
+public record StatsGroupDTO(
+        @Schema(description = "The status name, the month as 'YYYY-MM' or the client name", example = "2024-05")
+        String key,
+        @Schema(description = "Number of orders in the group", example = "42")
+        long orderCount,
+        @Schema(description = "Total price of the orders in the group", example = "1520.40")
+        BigDecimal revenue,
+        @Schema(description = "Total item count of the orders in the group", example = "310")
+        long itemCount) {
+}
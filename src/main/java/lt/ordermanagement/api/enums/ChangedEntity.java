@@ -0,0 +1,11 @@
+package lt.ordermanagement.api.enums;
+
+/**
+ * Enum representing the entities whose changes are published in the order change stream.
+ */
+public enum ChangedEntity {
+
+    ORDER,
+    ORDER_ITEM
+
+}
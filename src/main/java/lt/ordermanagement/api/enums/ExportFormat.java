@@ -0,0 +1,44 @@
+package lt.ordermanagement.api.enums;
+
+/**
+ * Enum representing output formats of the order export, which are also the input formats of the order import.
+ */
+public enum ExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Resolves an export format from its case-insensitive name.
+     *
+     * @param value The name of the format, e.g. "ndjson" or "csv".
+     * @return The matching export format.
+     * @throws IllegalArgumentException If the format is not supported.
+     */
+    public static ExportFormat fromValue(String value) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+
+        throw new IllegalArgumentException("Unsupported export format: " + value);
+    }
+
+}
@@ -0,0 +1,13 @@
+package lt.ordermanagement.api.enums;
+
+/**
+ * Enum representing the kinds of changes published in the order change stream.
+ */
+public enum OrderChangeType {
+
+    CREATED,
+    UPDATED,
+    DELETED,
+    RESTORED
+
+}
@@ -0,0 +1,70 @@
+package lt.ordermanagement.api.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Enum representing the life cycle of an order.
+ *
+ * <p>
+ * An order starts as PENDING, is CONFIRMED, goes IN_PROGRESS and ends as COMPLETED. It can be CANCELLED until it
+ * is completed. COMPLETED and CANCELLED are final.
+ * </p>
+ */
+public enum OrderStatus {
+
+    PENDING,
+    CONFIRMED,
+    IN_PROGRESS,
+    COMPLETED,
+    CANCELLED;
+
+    /**
+     * Checks whether an order in this status may be moved to the given status.
+     * Keeping the current status is always allowed.
+     *
+     * @param status The new status.
+     * @return True if the transition is allowed.
+     */
+    public boolean canTransitionTo(OrderStatus status) {
+        return this == status || nextStatuses().contains(status);
+    }
+
+    /**
+     * @return The statuses an order in this status may be moved to.
+     */
+    public Set<OrderStatus> nextStatuses() {
+        return switch (this) {
+            case PENDING -> Set.of(CONFIRMED, CANCELLED);
+            case CONFIRMED -> Set.of(IN_PROGRESS, CANCELLED);
+            case IN_PROGRESS -> Set.of(COMPLETED, CANCELLED);
+            case COMPLETED, CANCELLED -> Set.of();
+        };
+    }
+
+    /**
+     * Resolves an order status from its case-insensitive name. Spaces and hyphens are read as underscores,
+     * so "In progress" resolves to IN_PROGRESS.
+     *
+     * @param value The name of the status, e.g. "PENDING" or "Pending".
+     * @return The matching order status.
+     * @throws IllegalArgumentException If there is no such status.
+     */
+    @JsonCreator
+    public static OrderStatus fromValue(String value) {
+        if (value != null) {
+            String name = value.trim().replaceAll("[\\s-]+", "_").toUpperCase(Locale.ROOT);
+
+            for (OrderStatus status : values()) {
+                if (status.name().equals(name)) {
+                    return status;
+                }
+            }
+        }
+
+        throw new IllegalArgumentException("Unsupported order status: " + value);
+    }
+
+}
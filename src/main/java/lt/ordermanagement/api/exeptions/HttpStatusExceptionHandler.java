@@ -1,8 +1,11 @@
 package lt.ordermanagement.api.exeptions;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -10,6 +13,8 @@ import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 /**
@@ -23,12 +28,23 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
  * </p>
  *
  * <p>
+ * Every handled error is counted as http.server.errors, tagged with the status and the simple name of the
+ * exception. Controllers map exceptions to a {@link ResponseStatusException} carrying the original exception as
+ * its cause, so the cause is counted rather than the {@link ResponseStatusException}.
+ * </p>
+ *
+ * <p>
  * Extend this class to include additional exception handling for other scenarios as needed.
  * </p>
  */
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class HttpStatusExceptionHandler extends ResponseEntityExceptionHandler {
 
+    public static final String ERRORS_METRIC = "http.server.errors";
+
+    private final MeterRegistry meterRegistry;
+
     /**
      * Handles {@link RuntimeException} and {@link Exception} by generating a standardized API error response
      * for internal server errors. This exception handler is designed to catch unexpected runtime exceptions
@@ -42,6 +58,7 @@ public class HttpStatusExceptionHandler extends ResponseEntityExceptionHandler {
         ApiErrorDTO apiError = new ApiErrorDTO(
                 HttpStatus.INTERNAL_SERVER_ERROR,
                 e.getMessage());
+        countError(e, apiError.status());
         return new ResponseEntity<>(apiError, new HttpHeaders(), apiError.status());
     }
 
@@ -56,6 +73,22 @@ public class HttpStatusExceptionHandler extends ResponseEntityExceptionHandler {
         ApiErrorDTO apiError = new ApiErrorDTO(
                 HttpStatus.NOT_FOUND,
                 e.getMessage());
+        countError(e, apiError.status());
+        return new ResponseEntity<>(apiError, new HttpHeaders(), apiError.status());
+    }
+
+    /**
+     * Handles {@link PreconditionFailedException} by generating a standardized API error response.
+     *
+     * @param e The exception indicating that an If-Match precondition failed.
+     * @return A {@link ResponseEntity} with a {@link ApiErrorDTO} representing the error response.
+     */
+    @ExceptionHandler({PreconditionFailedException.class})
+    public ResponseEntity<ApiErrorDTO> handlePreconditionFailed(Exception e) {
+        ApiErrorDTO apiError = new ApiErrorDTO(
+                HttpStatus.PRECONDITION_FAILED,
+                e.getMessage());
+        countError(e, apiError.status());
         return new ResponseEntity<>(apiError, new HttpHeaders(), apiError.status());
     }
 
@@ -70,6 +103,7 @@ public class HttpStatusExceptionHandler extends ResponseEntityExceptionHandler {
         ApiErrorDTO apiError = new ApiErrorDTO(
                 HttpStatus.FORBIDDEN,
                 e.getMessage());
+        countError(e, apiError.status());
         return new ResponseEntity<>(apiError, new HttpHeaders(), apiError.status());
     }
 
@@ -85,7 +119,34 @@ public class HttpStatusExceptionHandler extends ResponseEntityExceptionHandler {
         ApiErrorDTO apiError = new ApiErrorDTO(
                 HttpStatus.UNAUTHORIZED,
                 e.getMessage());
+        countError(e, apiError.status());
         return new ResponseEntity<>(apiError, new HttpHeaders(), apiError.status());
     }
 
+    /**
+     * Counts the Spring MVC exceptions and the {@link ResponseStatusException}s thrown by controllers before
+     * they are turned into a response.
+     *
+     * @param e          The exception.
+     * @param body       The body of the response.
+     * @param headers    The headers of the response.
+     * @param statusCode The status of the response.
+     * @param request    The current request.
+     * @return The response.
+     */
+    @Override
+    protected ResponseEntity<Object> handleExceptionInternal(Exception e, Object body, HttpHeaders headers,
+                                                             HttpStatusCode statusCode, WebRequest request) {
+        Throwable counted = e instanceof ResponseStatusException && e.getCause() != null ? e.getCause() : e;
+        countError(counted, statusCode);
+
+        return super.handleExceptionInternal(e, body, headers, statusCode, request);
+    }
+
+    private void countError(Throwable e, HttpStatusCode status) {
+        meterRegistry.counter(ERRORS_METRIC,
+                "exception", e.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
+    }
+
 }
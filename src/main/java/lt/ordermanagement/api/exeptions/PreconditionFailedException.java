@@ -0,0 +1,13 @@
+package lt.ordermanagement.api.exeptions;
+
+/**
+ * Thrown when a change is requested with an If-Match precondition that the current version of the changed
+ * order or order item does not satisfy.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+}
@@ -1,29 +1,133 @@
 package lt.ordermanagement.api.models;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lt.ordermanagement.api.configs.CacheConfig;
+import lt.ordermanagement.api.dtos.OrderDTO;
+import lt.ordermanagement.api.enums.OrderStatus;
+import lt.ordermanagement.api.utils.NewOrderItems;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Entity class represents information about order.
+ *
+ * <p>
+ * Order items can be sent together with a new order, they are never serialized in responses. They are validated
+ * by {@link NewOrderItems} when the order is created, not on every update of the order.
+ * Updates write only changed columns, so editing an order never overwrites the order price, which is
+ * maintained by atomic updates when order items change. Concurrent changes of an order are detected by its version.
+ * Orders and their order items collections are kept in the second-level cache.
+ * </p>
+ *
+ * <p>
+ * The order search is the named native query {@value #SEARCH_QUERY}, its rows are mapped to {@link OrderDTO} by
+ * the result set mapping {@value #DTO_MAPPING}. So are the rows of the order listing queries
+ * {@value #LISTING_FIRST_PAGE_QUERY} and {@value #LISTING_PAGE_AFTER_QUERY}, which sort names with the
+ * {@code ucs_basic} collation, by code point, and the order as it was before the atomic update of its totals
+ * {@value #ADD_TO_TOTALS_QUERY}.
+ * </p>
  */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "orders")
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.ORDERS_REGION)
+@Table(name = "orders",
+        indexes = @Index(name = "idx_orders_listing",
+                columnList = "is_deleted, order_update_date DESC, order_term, client_name, order_name, id"))
+@SqlResultSetMapping(name = Order.DTO_MAPPING,
+        classes = @ConstructorResult(targetClass = OrderDTO.class, columns = {
+                @ColumnResult(name = "id", type = Long.class),
+                @ColumnResult(name = "order_number", type = String.class),
+                @ColumnResult(name = "order_name", type = String.class),
+                @ColumnResult(name = "client_name", type = String.class),
+                @ColumnResult(name = "client_phone_number", type = String.class),
+                @ColumnResult(name = "client_email", type = String.class),
+                @ColumnResult(name = "order_term", type = LocalDate.class),
+                @ColumnResult(name = "order_status", type = OrderStatus.class),
+                @ColumnResult(name = "order_price", type = BigDecimal.class),
+                @ColumnResult(name = "item_count", type = Long.class),
+                @ColumnResult(name = "comments", type = String.class),
+                @ColumnResult(name = "order_update_date", type = OffsetDateTime.class),
+                @ColumnResult(name = "is_deleted", type = Boolean.class),
+                @ColumnResult(name = "deleted_at", type = OffsetDateTime.class),
+                @ColumnResult(name = "version", type = Long.class)}))
+@NamedNativeQuery(name = Order.SEARCH_QUERY, resultSetMapping = Order.DTO_MAPPING,
+        query = "SELECT o.id, o.order_number, o.order_name, o.client_name, o.client_phone_number, " +
+                "o.client_email, o.order_term, o.order_status, o.order_price, o.item_count, o.comments, " +
+                "o.order_update_date, o.is_deleted, o.deleted_at, o.version " +
+                "FROM orders o WHERE o.is_deleted = false AND " +
+                "(o.order_number ILIKE :pattern OR " +
+                "o.order_name ILIKE :pattern OR " +
+                "o.client_name ILIKE :pattern OR " +
+                "o.client_phone_number ILIKE :pattern OR " +
+                "o.client_email ILIKE :pattern) " +
+                "ORDER BY GREATEST(similarity(o.order_number, :term), " +
+                "similarity(o.order_name, :term), " +
+                "similarity(o.client_name, :term), " +
+                "similarity(o.client_phone_number, :term), " +
+                "similarity(o.client_email, :term)) DESC, o.order_update_date DESC, o.id " +
+                "LIMIT :limit OFFSET :offset")
+@NamedNativeQuery(name = Order.LISTING_FIRST_PAGE_QUERY, resultSetMapping = Order.DTO_MAPPING,
+        query = "SELECT o.id, o.order_number, o.order_name, o.client_name, o.client_phone_number, " +
+                "o.client_email, o.order_term, o.order_status, o.order_price, o.item_count, o.comments, " +
+                "o.order_update_date, o.is_deleted, o.deleted_at, o.version " +
+                "FROM orders o WHERE o.is_deleted = false " +
+                "ORDER BY o.order_update_date DESC, o.order_term, o.client_name COLLATE ucs_basic, " +
+                "o.order_name COLLATE ucs_basic, o.id " +
+                "LIMIT :limit")
+@NamedNativeQuery(name = Order.LISTING_PAGE_AFTER_QUERY, resultSetMapping = Order.DTO_MAPPING,
+        query = "SELECT o.id, o.order_number, o.order_name, o.client_name, o.client_phone_number, " +
+                "o.client_email, o.order_term, o.order_status, o.order_price, o.item_count, o.comments, " +
+                "o.order_update_date, o.is_deleted, o.deleted_at, o.version " +
+                "FROM orders o WHERE o.is_deleted = false " +
+                "AND o.order_update_date <= :orderUpdateDate " +
+                "AND (o.order_update_date < :orderUpdateDate " +
+                "OR (o.order_update_date = :orderUpdateDate AND (o.order_term > :orderTerm " +
+                "OR (o.order_term = :orderTerm AND (o.client_name COLLATE ucs_basic > :clientName " +
+                "OR (o.client_name = :clientName AND (o.order_name COLLATE ucs_basic > :orderName " +
+                "OR (o.order_name = :orderName AND o.id > :id)))))))) " +
+                "ORDER BY o.order_update_date DESC, o.order_term, o.client_name COLLATE ucs_basic, " +
+                "o.order_name COLLATE ucs_basic, o.id " +
+                "LIMIT :limit")
+@NamedNativeQuery(name = Order.ADD_TO_TOTALS_QUERY, resultSetMapping = Order.DTO_MAPPING,
+        query = "WITH b AS (SELECT o.id, o.order_number, o.order_name, o.client_name, o.client_phone_number, " +
+                "o.client_email, o.order_term, o.order_status, o.order_price, o.item_count, o.comments, " +
+                "o.order_update_date, o.is_deleted, o.deleted_at, o.version " +
+                "FROM orders o WHERE o.id = :orderId FOR NO KEY UPDATE) " +
+                "UPDATE orders o SET order_price = o.order_price + :priceDelta, " +
+                "item_count = o.item_count + :itemCountDelta, order_update_date = :orderUpdateDate, " +
+                "version = o.version + 1 " +
+                "FROM b WHERE o.id = b.id " +
+                "RETURNING b.id, b.order_number, b.order_name, b.client_name, b.client_phone_number, " +
+                "b.client_email, b.order_term, b.order_status, b.order_price, b.item_count, b.comments, " +
+                "b.order_update_date, b.is_deleted, b.deleted_at, b.version")
 @Schema(description = "Order entity representing information about an order")
 public class Order {
 
+    public static final String SEARCH_QUERY = "Order.searchOrders";
+    public static final String LISTING_FIRST_PAGE_QUERY = "Order.findFirstPageSorted";
+    public static final String LISTING_PAGE_AFTER_QUERY = "Order.findPageSortedAfter";
+    public static final String ADD_TO_TOTALS_QUERY = "Order.addToOrderTotals";
+    public static final String DTO_MAPPING = "Order.dto";
+
     @Schema(accessMode = Schema.AccessMode.READ_ONLY)
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -59,30 +163,45 @@ public class Order {
     private String clientEmail;
 
     @Schema(description = "Order term", example = "2024-12-31")
+    @NotNull(message = "Order term is required")
     @Column(name = "order_term", nullable = false)
-    private String orderTerm;
+    private LocalDate orderTerm;
 
-    @Schema(description = "Order status", example = "Pending")
-    @Column(name = "order_status", nullable = false)
-    private String orderStatus;
+    /**
+     * New orders are PENDING unless another status is given. Changes of the status must follow
+     * {@link OrderStatus#canTransitionTo(OrderStatus)}.
+     */
+    @Schema(description = "Order status", example = "PENDING")
+    @Column(name = "order_status", length = 20, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private OrderStatus orderStatus = OrderStatus.PENDING;
 
     /**
-     * The default value for this field is set to 0.0 to handle cases where the
+     * The default value for this field is set to 0.00 to handle cases where the
      * value is not explicitly set, ensuring that the field is never null.
      */
-    @Schema(description = "Order price", example = "100.0")
-    @Column(name = "order_price", nullable = false)
-    private Double orderPrice = 0D;
+    @Schema(description = "Order price", example = "100.00")
+    @Column(name = "order_price", precision = 19, scale = 2, nullable = false)
+    private BigDecimal orderPrice = BigDecimal.ZERO;
+
+    /**
+     * Total item count of the order items where isDeleted is false, maintained together with the order price.
+     */
+    @Schema(description = "Total item count of the order", example = "10",
+            accessMode = Schema.AccessMode.READ_ONLY)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "item_count", nullable = false)
+    private Long itemCount = 0L;
 
     @Schema(description = "Comments", example = "Additional comments about the order")
     @Size(max = 200, message = "Comments must be at most 200 characters")
     @Column(name = "comments", length = 200, nullable = false)
     private String comments;
 
-    @Schema(description = "Order update date", example = "2024-01-22",
+    @Schema(description = "Order update time", example = "2024-01-22T10:15:30.123456Z",
             accessMode = Schema.AccessMode.READ_ONLY)
     @Column(name = "order_update_date", nullable = false)
-    private String orderUpdateDate;
+    private OffsetDateTime orderUpdateDate;
 
     /**
      * Represents the deletion status of an order.
@@ -93,13 +212,35 @@ public class Order {
     @Column(name = "is_deleted", nullable = false)
     private Boolean isDeleted = false;
 
+    /**
+     * When the order was deleted, null while it is not deleted. Deleted rows are moved to the archive table
+     * some time after this.
+     */
+    @Schema(description = "Deletion time of an order", accessMode = Schema.AccessMode.READ_ONLY)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "deleted_at")
+    private OffsetDateTime deletedAt;
+
+    /**
+     * Incremented by every update of the order, including the atomic updates of the order totals. An update of an
+     * order that was changed since it was read fails and is retried.
+     */
+    @Schema(description = "Version of the order", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "order",
             cascade = {CascadeType.PERSIST,
                     CascadeType.MERGE,
                     CascadeType.REFRESH,
                     CascadeType.DETACH},
             fetch = FetchType.LAZY)
-    @JsonIgnore
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.ORDER_ITEMS_COLLECTION_REGION)
+    @Schema(description = "Order items to create together with the order, accepted only when adding an order, " +
+            "at most " + NewOrderItems.MAX_SIZE)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     List<OrderItem> orderItems;
 
     public Order(String orderNumber,
@@ -107,11 +248,11 @@ public class Order {
                  String clientName,
                  String clientPhoneNumber,
                  String clientEmail,
-                 String orderTerm,
-                 String orderStatus,
-                 Double orderPrice,
+                 LocalDate orderTerm,
+                 OrderStatus orderStatus,
+                 BigDecimal orderPrice,
                  String comments,
-                 String orderUpdateDate) {
+                 OffsetDateTime orderUpdateDate) {
         this.orderNumber = orderNumber;
         this.orderName = orderName;
         this.clientName = clientName;
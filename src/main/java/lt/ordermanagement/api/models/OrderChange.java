@@ -0,0 +1,49 @@
+package lt.ordermanagement.api.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lt.ordermanagement.api.enums.ChangedEntity;
+import lt.ordermanagement.api.enums.OrderChangeType;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Entity class represents one change of an order or an order item in the order change outbox.
+ *
+ * <p>
+ * Rows are inserted by native queries in the transaction of the change and get their sequence number when they
+ * are published. The entity is only read, by queries selecting {@link lt.ordermanagement.api.dtos.OrderChangeDTO}.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "order_changes")
+public class OrderChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sequence_number", unique = true)
+    private Long sequenceNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", length = 16, nullable = false)
+    private ChangedEntity entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", length = 16, nullable = false)
+    private OrderChangeType changeType;
+
+    @Column(name = "changed_at", nullable = false)
+    private OffsetDateTime changedAt;
+
+}
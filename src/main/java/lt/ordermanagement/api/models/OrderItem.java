@@ -2,27 +2,43 @@ package lt.ordermanagement.api.models;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lt.ordermanagement.api.configs.CacheConfig;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 
 /**
  * Entity class represents information about an item in an order.
+ *
+ * <p>
+ * Ids are allocated from a sequence in blocks, so Hibernate can batch inserts of many order items.
+ * Order items are kept in the second-level cache.
+ * </p>
  */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.ORDER_ITEMS_REGION)
 @Table(name = "order_items")
 @Schema(description = "OrderItem entity representing detailed information about an order associated order item")
 public class OrderItem {
 
     @Schema(accessMode = Schema.AccessMode.READ_ONLY)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @Schema(description = "Item name", example = "Product A")
@@ -57,22 +73,28 @@ public class OrderItem {
     private Long itemCount = 0L;
 
     /**
-     * The default value for this field is set to 0.0 to handle cases where the
+     * The default value for this field is set to 0.00 to handle cases where the
      * value is not explicitly set, ensuring that the field is never null.
      */
-    @Schema(description = "Item price", example = "20.0")
+    @Schema(description = "Item price", example = "20.00")
+    @NotNull(message = "Item price is required")
+    @Digits(integer = 17, fraction = 2, message = "Item price must have at most 2 decimal places")
     @Column(name = "item_price",
+            precision = 19,
+            scale = 2,
             nullable = false)
-    private Double itemPrice = 0D;
+    private BigDecimal itemPrice = BigDecimal.ZERO;
 
     /**
-     * The default value for this field is set to 0.0 to handle cases where the
+     * The default value for this field is set to 0.00 to handle cases where the
      * value is not explicitly set, ensuring that the field is never null.
      */
-    @Schema(description = "Total price for the item", example = "200.0")
+    @Schema(description = "Total price for the item", example = "200.00")
     @Column(name = "total_price",
+            precision = 19,
+            scale = 2,
             nullable = false)
-    private Double totalPrice = 0D;
+    private BigDecimal totalPrice = BigDecimal.ZERO;
 
     /**
      * The default value for this field is set to empty string to handle cases where the
@@ -83,11 +105,11 @@ public class OrderItem {
             nullable = false)
     private String linkToImg = "";
 
-    @Schema(description = "Item update date", example = "2024-01-22",
+    @Schema(description = "Item update time", example = "2024-01-22T10:15:30.123456Z",
             accessMode = Schema.AccessMode.READ_ONLY)
     @Column(name = "item_update_date",
             nullable = false)
-    private String itemUpdateDate;
+    private OffsetDateTime itemUpdateDate;
 
     /**
      * Represents the deletion status of an order item.
@@ -99,6 +121,25 @@ public class OrderItem {
             nullable = false)
     private Boolean isDeleted = false;
 
+    /**
+     * When the order item was deleted, null while it is not deleted. Deleted rows are moved to the archive table
+     * some time after this.
+     */
+    @Schema(description = "Deletion time of an order item", accessMode = Schema.AccessMode.READ_ONLY)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "deleted_at")
+    private OffsetDateTime deletedAt;
+
+    /**
+     * Incremented by every update of the order item. An update of an order item that was changed since it was read
+     * fails and is retried.
+     */
+    @Schema(description = "Version of the order item", example = "1", accessMode = Schema.AccessMode.READ_ONLY)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @ManyToOne(cascade = {CascadeType.MERGE},
             fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id")
@@ -109,9 +150,9 @@ public class OrderItem {
                      String itemCode,
                      String itemRevision,
                      Long itemCount,
-                     Double itemPrice,
-                     Double totalPrice,
-                     String itemUpdateDate,
+                     BigDecimal itemPrice,
+                     BigDecimal totalPrice,
+                     OffsetDateTime itemUpdateDate,
                      String linkToImg) {
         this.itemName = itemName;
         this.itemCode = itemCode;
@@ -128,8 +169,8 @@ public class OrderItem {
      *
      * @return The total price of the item.
      */
-    public Double getTotalPrice() {
-        return itemCount * itemPrice;
+    public BigDecimal getTotalPrice() {
+        return itemPrice.multiply(BigDecimal.valueOf(itemCount));
     }
 
 }
@@ -0,0 +1,133 @@
+package lt.ordermanagement.api.repositories;
+
+import jakarta.persistence.QueryHint;
+import lt.ordermanagement.api.dtos.OrderChangeDTO;
+import lt.ordermanagement.api.models.OrderChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+/**
+ * Repository interface for the order change outbox.
+ *
+ * <p>
+ * Changes are inserted with native queries naming the outbox as the only query space, so writing a change neither
+ * flushes nor invalidates cached orders. Published changes are read as {@link OrderChangeDTO} projections in the
+ * order of their sequence numbers.
+ * </p>
+ */
+@Repository
+public interface OrderChangesRepository extends JpaRepository<OrderChange, Long> {
+
+    /**
+     * Selects the {@link OrderChangeDTO} projection of changes aliased as {@code c}.
+     */
+    String ORDER_CHANGE_DTO_SELECT = "SELECT new lt.ordermanagement.api.dtos.OrderChangeDTO(c.sequenceNumber, " +
+            "c.entityType, c.entityId, c.orderId, c.changeType, c.changedAt) FROM OrderChange c ";
+
+    /**
+     * Writes one unpublished change per order.
+     *
+     * @param changeType The name of the change type.
+     * @param orderIds   The IDs of the changed orders.
+     * @return The number of written changes.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "order_changes"))
+    @Query(value = "INSERT INTO order_changes (entity_type, entity_id, order_id, change_type, changed_at) " +
+            "SELECT 'ORDER', changed.id, changed.id, :changeType, CURRENT_TIMESTAMP " +
+            "FROM unnest(:orderIds) AS changed (id)",
+            nativeQuery = true)
+    int insertOrderChanges(@Param("changeType") String changeType,
+                           @Param("orderIds") Long[] orderIds);
+
+    /**
+     * Writes one unpublished change per order item of an order.
+     *
+     * @param changeType   The name of the change type.
+     * @param orderId      The ID of the order of the order items.
+     * @param orderItemIds The IDs of the changed order items.
+     * @return The number of written changes.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "order_changes"))
+    @Query(value = "INSERT INTO order_changes (entity_type, entity_id, order_id, change_type, changed_at) " +
+            "SELECT 'ORDER_ITEM', changed.id, :orderId, :changeType, CURRENT_TIMESTAMP " +
+            "FROM unnest(:orderItemIds) AS changed (id)",
+            nativeQuery = true)
+    int insertOrderItemChanges(@Param("changeType") String changeType,
+                               @Param("orderId") Long orderId,
+                               @Param("orderItemIds") Long[] orderItemIds);
+
+    /**
+     * Takes the transaction-level advisory lock of the publisher without waiting for it. The lock is released when
+     * the transaction ends, so the next publisher sees every sequence number this one assigned.
+     *
+     * @param key The key of the lock.
+     * @return True if the lock was taken, false if another transaction holds it.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryPublisherLock(@Param("key") long key);
+
+    /**
+     * Assigns sequence numbers to the oldest unpublished changes, in the order they were written. The numbers are
+     * drawn in the ordered subquery, which is not flattened into the update because of its limit.
+     *
+     * @param limit The maximum number of changes to publish.
+     * @return The number of published changes.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "order_changes"))
+    @Query(value = "UPDATE order_changes SET sequence_number = published.sequence_number " +
+            "FROM (SELECT pending.id, nextval('order_change_sequence') AS sequence_number " +
+            "FROM (SELECT id FROM order_changes WHERE sequence_number IS NULL ORDER BY id LIMIT :limit) pending) " +
+            "published " +
+            "WHERE order_changes.id = published.id",
+            nativeQuery = true)
+    int publishPending(@Param("limit") int limit);
+
+    /**
+     * Retrieves published changes following a sequence number, served by the unique index on sequence_number.
+     *
+     * @param sequenceNumber The sequence number the changes follow.
+     * @param pageable       Page request limiting the number of returned changes.
+     * @return The changes sorted by sequence number.
+     */
+    @Query(ORDER_CHANGE_DTO_SELECT + "WHERE c.sequenceNumber > :sequenceNumber ORDER BY c.sequenceNumber")
+    List<OrderChangeDTO> findPublishedAfter(@Param("sequenceNumber") long sequenceNumber, Pageable pageable);
+
+    /**
+     * @return The sequence number of the latest published change, or an empty Optional if there is none.
+     */
+    @Query("SELECT MAX(c.sequenceNumber) FROM OrderChange c")
+    Optional<Long> findLatestSequenceNumber();
+
+    /**
+     * @return The sequence number of the earliest retained published change, or an empty Optional if there is none.
+     */
+    @Query("SELECT MIN(c.sequenceNumber) FROM OrderChange c")
+    Optional<Long> findEarliestSequenceNumber();
+
+    /**
+     * Deletes the published changes made before a time. The latest published change is kept, so a client
+     * resuming after it can still tell that it missed nothing.
+     *
+     * @param cutoff Changes made before this time are deleted.
+     * @return The number of deleted changes.
+     */
+    @Modifying
+    @Query("DELETE FROM OrderChange c WHERE c.changedAt < :cutoff " +
+            "AND c.sequenceNumber < (SELECT MAX(l.sequenceNumber) FROM OrderChange l)")
+    int deletePublishedBefore(@Param("cutoff") OffsetDateTime cutoff);
+
+}
@@ -1,12 +1,164 @@
 package lt.ordermanagement.api.repositories;
 
+import jakarta.persistence.QueryHint;
+import lt.ordermanagement.api.dtos.OrderItemDTO;
 import lt.ordermanagement.api.models.OrderItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repository interface for managing order items.
+ *
+ * <p>
+ * Queries of the read endpoints select {@link OrderItemDTO} projections of the serialized columns, so the rows are
+ * never managed by the persistence context and need no dirty-check snapshots.
+ * </p>
  */
 @Repository
 public interface OrderItemsRepository extends JpaRepository<OrderItem, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Selects the {@link OrderItemDTO} projection of order items aliased as {@code i}.
+     */
+    String ORDER_ITEM_DTO_SELECT = "SELECT new lt.ordermanagement.api.dtos.OrderItemDTO(i.id, i.itemName, " +
+            "i.itemCode, i.itemRevision, i.itemCount, i.itemPrice, i.totalPrice, i.linkToImg, i.itemUpdateDate, " +
+            "i.isDeleted, i.deletedAt, i.version) FROM OrderItem i ";
+
+    /**
+     * ID and order ID of an archived order item.
+     */
+    interface ArchivedOrderItem {
+
+        Long getId();
+
+        Long getOrderId();
+
+    }
+
+    /**
+     * Retrieves a page of the order items of an order where isDeleted is false, sorted case-insensitive by
+     * itemName and then by id. Served by the partial index on (order_id, lower(item_name), id), so only the
+     * rows of the page are read.
+     *
+     * @param orderId  The ID of the order.
+     * @param pageable Page request selecting the page.
+     * @return A sorted list of order items.
+     */
+    @Query(ORDER_ITEM_DTO_SELECT + "WHERE i.order.id = :orderId AND i.isDeleted = false " +
+            "ORDER BY LOWER(i.itemName), i.id")
+    List<OrderItemDTO> findPageByOrderId(@Param("orderId") Long orderId, Pageable pageable);
+
+    /**
+     * Retrieves a page of the order items of an order where isDeleted is false and the lower-case itemName
+     * matches the pattern, sorted like {@link #findPageByOrderId(Long, Pageable)}. The pattern is matched by
+     * the partial pg_trgm GIN index on lower(item_name).
+     *
+     * @param orderId  The ID of the order.
+     * @param pattern  The lower-case LIKE pattern, with wildcard characters escaped by a backslash.
+     * @param pageable Page request selecting the page.
+     * @return A sorted list of matching order items.
+     */
+    @Query(ORDER_ITEM_DTO_SELECT + "WHERE i.order.id = :orderId AND i.isDeleted = false " +
+            "AND LOWER(i.itemName) LIKE :pattern ESCAPE '\\' " +
+            "ORDER BY LOWER(i.itemName), i.id")
+    List<OrderItemDTO> findPageByOrderIdAndItemName(@Param("orderId") Long orderId,
+                                                    @Param("pattern") String pattern,
+                                                    Pageable pageable);
+
+    /**
+     * Retrieves the version of an order item with a primary key lookup, without loading the order item.
+     *
+     * @param id The ID of the order item.
+     * @return The version of the order item, empty if the order item does not exist.
+     */
+    @Query("SELECT i.version FROM OrderItem i WHERE i.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Streams all order items where isDeleted is false, sorted by order id and item id. Rows are fetched from
+     * the database cursor in batches, so the stream must be consumed inside a transaction and closed afterwards.
+     * Streamed rows bypass the second-level cache, so an export does not evict hot entries.
+     *
+     * @return A stream of order items sorted by order id.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("SELECT i FROM OrderItem i WHERE i.isDeleted = false ORDER BY i.order.id, i.id")
+    Stream<OrderItem> streamAllForExport();
+
+    /**
+     * Moves up to {@code limit} order items deleted before the cutoff from order_items to order_items_archive,
+     * in id order after the given id. Rows locked by another transaction are skipped, so concurrent archivers do
+     * not wait for each other.
+     *
+     * <p>
+     * The rows are moved by a data-modifying statement that Hibernate executes as a query, so the second-level
+     * cache is not told about them. The caller evicts the moved order items and the order items collections of
+     * their orders after the transaction commits.
+     * </p>
+     *
+     * @param cutoff  Order items deleted before this time are archived.
+     * @param afterId Only order items with a greater id are archived, the last id of the previous batch.
+     * @param limit   The maximum number of order items to archive.
+     * @return The archived order items in ascending id order.
+     */
+    @Transactional
+    @Query(value = "WITH batch AS (SELECT id FROM order_items " +
+            "WHERE is_deleted = true AND deleted_at < :cutoff AND id > :afterId " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED), " +
+            "moved AS (DELETE FROM order_items i USING batch b WHERE i.id = b.id RETURNING i.*), " +
+            "archived AS (INSERT INTO order_items_archive SELECT * FROM moved) " +
+            "SELECT id AS \"id\", order_id AS \"orderId\" FROM moved ORDER BY id",
+            nativeQuery = true)
+    List<ArchivedOrderItem> archiveDeletedBatch(@Param("cutoff") OffsetDateTime cutoff,
+                                                @Param("afterId") long afterId,
+                                                @Param("limit") int limit);
+
+    /**
+     * Moves the order items of an order that were deleted at the given time from order_items_archive back to
+     * order_items. The order items stay deleted.
+     *
+     * @param orderId   The ID of the order.
+     * @param deletedAt The deletion time of the order items.
+     * @return The number of moved order items.
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "order_items"))
+    @Query(value = "WITH moved AS (DELETE FROM order_items_archive " +
+            "WHERE order_id = :orderId AND deleted_at = :deletedAt RETURNING *) " +
+            "INSERT INTO order_items SELECT * FROM moved",
+            nativeQuery = true)
+    int restoreArchived(@Param("orderId") Long orderId, @Param("deletedAt") OffsetDateTime deletedAt);
+
+    /**
+     * Sets isDeleted to false for the order items of an order that were deleted at the given time and increments
+     * their versions.
+     *
+     * @param orderId   The ID of the order.
+     * @param deletedAt The deletion time of the order items.
+     * @return The number of restored order items.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE OrderItem i SET i.isDeleted = false, i.deletedAt = null, i.version = i.version + 1 " +
+            "WHERE i.order.id = :orderId AND i.isDeleted = true AND i.deletedAt = :deletedAt")
+    int restoreDeleted(@Param("orderId") Long orderId, @Param("deletedAt") OffsetDateTime deletedAt);
+
+}
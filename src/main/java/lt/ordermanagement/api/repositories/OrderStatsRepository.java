@@ -0,0 +1,155 @@
+package lt.ordermanagement.api.repositories;
+
+import jakarta.persistence.QueryHint;
+import lt.ordermanagement.api.models.Order;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.RepositoryDefinition;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+/**
+ * Repository interface for the order summary tables: order_stats_by_status, order_stats_by_client and
+ * order_stats_by_month. The tables hold the number, the total price and the total item count of orders where
+ * isDeleted is false, and are moved by differences in the transactions that change orders.
+ *
+ * <p>
+ * Every update names its table as the only query space, so it does not invalidate cached entities.
+ * </p>
+ */
+@RepositoryDefinition(domainClass = Order.class, idClass = Long.class)
+public interface OrderStatsRepository {
+
+    /**
+     * Summary of one group of orders.
+     */
+    interface GroupStats {
+
+        String getGroupKey();
+
+        long getOrderCount();
+
+        BigDecimal getRevenue();
+
+        long getItemCount();
+
+    }
+
+    /**
+     * Adds differences to the summary of a status, in one slot of the status.
+     *
+     * @param orderStatus The name of the order status.
+     * @param slot        The slot, between 0 and 15.
+     * @param orders      The difference of the order count.
+     * @param revenue     The difference of the total order price.
+     * @param items       The difference of the total item count.
+     * @return The number of updated slots, 1 for an existing status and slot.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "order_stats_by_status"))
+    @Query(value = "UPDATE order_stats_by_status " +
+            "SET order_count = order_count + :orders, revenue = revenue + :revenue, item_count = item_count + :items " +
+            "WHERE order_status = :orderStatus AND slot = :slot",
+            nativeQuery = true)
+    int addToStatusStats(@Param("orderStatus") String orderStatus,
+                         @Param("slot") int slot,
+                         @Param("orders") long orders,
+                         @Param("revenue") BigDecimal revenue,
+                         @Param("items") long items);
+
+    /**
+     * Adds differences to the summary of a client, creating the row for a new client.
+     *
+     * @param clientName The client name.
+     * @param orders     The difference of the order count.
+     * @param revenue    The difference of the total order price.
+     * @param items      The difference of the total item count.
+     * @return The number of inserted or updated rows.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "order_stats_by_client"))
+    @Query(value = "INSERT INTO order_stats_by_client (client_name, order_count, revenue, item_count) " +
+            "VALUES (:clientName, :orders, :revenue, :items) " +
+            "ON CONFLICT (client_name) DO UPDATE SET " +
+            "order_count = order_stats_by_client.order_count + EXCLUDED.order_count, " +
+            "revenue = order_stats_by_client.revenue + EXCLUDED.revenue, " +
+            "item_count = order_stats_by_client.item_count + EXCLUDED.item_count",
+            nativeQuery = true)
+    int addToClientStats(@Param("clientName") String clientName,
+                         @Param("orders") long orders,
+                         @Param("revenue") BigDecimal revenue,
+                         @Param("items") long items);
+
+    /**
+     * Adds differences to the summary of a month, in one slot of the month, creating the slot row if needed.
+     *
+     * @param month   The first day of the month.
+     * @param slot    The slot, between 0 and 15.
+     * @param orders  The difference of the order count.
+     * @param revenue The difference of the total order price.
+     * @param items   The difference of the total item count.
+     * @return The number of inserted or updated rows.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "order_stats_by_month"))
+    @Query(value = "INSERT INTO order_stats_by_month (order_month, slot, order_count, revenue, item_count) " +
+            "VALUES (:month, :slot, :orders, :revenue, :items) " +
+            "ON CONFLICT (order_month, slot) DO UPDATE SET " +
+            "order_count = order_stats_by_month.order_count + EXCLUDED.order_count, " +
+            "revenue = order_stats_by_month.revenue + EXCLUDED.revenue, " +
+            "item_count = order_stats_by_month.item_count + EXCLUDED.item_count",
+            nativeQuery = true)
+    int addToMonthStats(@Param("month") LocalDate month,
+                        @Param("slot") int slot,
+                        @Param("orders") long orders,
+                        @Param("revenue") BigDecimal revenue,
+                        @Param("items") long items);
+
+    /**
+     * Sums the slots of every order status. Reads a fixed number of rows, whatever the number of orders.
+     *
+     * @return The summary per status, keyed by the status name.
+     */
+    @Query(value = "SELECT order_status AS \"groupKey\", " +
+            "CAST(SUM(order_count) AS BIGINT) AS \"orderCount\", " +
+            "SUM(revenue) AS \"revenue\", " +
+            "CAST(SUM(item_count) AS BIGINT) AS \"itemCount\" " +
+            "FROM order_stats_by_status GROUP BY order_status",
+            nativeQuery = true)
+    List<GroupStats> findStatusStats();
+
+    /**
+     * Sums the slots of the latest months that have orders, latest first.
+     *
+     * @param limit The maximum number of months to return.
+     * @return The summary per month, keyed by the month as 'YYYY-MM'.
+     */
+    @Query(value = "SELECT to_char(order_month, 'YYYY-MM') AS \"groupKey\", " +
+            "CAST(SUM(order_count) AS BIGINT) AS \"orderCount\", " +
+            "SUM(revenue) AS \"revenue\", " +
+            "CAST(SUM(item_count) AS BIGINT) AS \"itemCount\" " +
+            "FROM order_stats_by_month GROUP BY order_month HAVING SUM(order_count) <> 0 " +
+            "ORDER BY order_month DESC LIMIT :limit",
+            nativeQuery = true)
+    List<GroupStats> findMonthStats(@Param("limit") int limit);
+
+    /**
+     * Retrieves the clients with the highest revenue, served by the index on (revenue DESC, client_name).
+     *
+     * @param limit The maximum number of clients to return.
+     * @return The summary per client, keyed by the client name.
+     */
+    @Query(value = "SELECT client_name AS \"groupKey\", order_count AS \"orderCount\", " +
+            "revenue AS \"revenue\", item_count AS \"itemCount\" " +
+            "FROM order_stats_by_client WHERE order_count <> 0 " +
+            "ORDER BY revenue DESC, client_name LIMIT :limit",
+            nativeQuery = true)
+    List<GroupStats> findTopClientStats(@Param("limit") int limit);
+
+}
@@ -1,59 +1,322 @@
 package lt.ordermanagement.api.repositories;
 
+import jakarta.persistence.QueryHint;
+import lt.ordermanagement.api.dtos.OrderDTO;
+import lt.ordermanagement.api.enums.OrderStatus;
 import lt.ordermanagement.api.models.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repository interface for managing orders.
+ *
+ * <p>
+ * Queries of the read endpoints select {@link OrderDTO} projections of the serialized columns, so the rows are
+ * never managed by the persistence context and need no dirty-check snapshots.
+ * </p>
  */
 @Repository
 public interface OrdersRepository extends JpaRepository<Order, Long> {
 
     /**
-     * Retrieves a list of orders where isDeleted is false and sorted by orderUpdateDate, orderTerm, clientName
-     * and orderName.
+     * Selects the {@link OrderDTO} projection of orders aliased as {@code o}.
+     */
+    String ORDER_DTO_SELECT = "SELECT new lt.ordermanagement.api.dtos.OrderDTO(o.id, o.orderNumber, o.orderName, " +
+            "o.clientName, o.clientPhoneNumber, o.clientEmail, o.orderTerm, o.orderStatus, o.orderPrice, " +
+            "o.itemCount, o.comments, o.orderUpdateDate, o.isDeleted, o.deletedAt, o.version) FROM Order o ";
+
+    /**
+     * Retrieves the first page of orders where isDeleted is false and sorted by orderUpdateDate, orderTerm,
+     * clientName, orderName and id.
      *
+     * <p>
+     * Names are sorted with the {@code ucs_basic} collation, by code point like
+     * {@link lt.ordermanagement.api.utils.OrderCursor#LISTING_ORDER} sorts the in-memory listing, so both return the
+     * same pages. The listing index uses the same collation. The query is the named native query declared on
+     * {@link Order}, since the collation cannot be expressed in JPQL.
+     * </p>
+     *
+     * @param limit The maximum number of orders to return.
      * @return A sorted list of orders.
      */
-    @Query("SELECT o FROM Order o WHERE o.isDeleted = false " +
-            "ORDER BY o.orderUpdateDate DESC, o.orderTerm, o.clientName, o.orderName")
-    List<Order> findAllSorted();
+    @Query(name = Order.LISTING_FIRST_PAGE_QUERY, nativeQuery = true)
+    List<OrderDTO> findFirstPageSorted(@Param("limit") int limit);
+
+    /**
+     * Retrieves the page of orders that follows the given cursor position in the order of
+     * {@link #findFirstPageSorted(int)}.
+     *
+     * <p>
+     * The standalone {@code orderUpdateDate <= :orderUpdateDate} condition is redundant with the keyset
+     * comparison, but it gives the database a range to seek to on the listing index instead of scanning
+     * from the first row.
+     * </p>
+     *
+     * @param orderUpdateDate The order update time of the last order on the previous page.
+     * @param orderTerm       The order term of the last order on the previous page.
+     * @param clientName      The client name of the last order on the previous page.
+     * @param orderName       The order name of the last order on the previous page.
+     * @param id              The ID of the last order on the previous page.
+     * @param limit           The maximum number of orders to return.
+     * @return A sorted list of orders following the cursor position.
+     */
+    @Query(name = Order.LISTING_PAGE_AFTER_QUERY, nativeQuery = true)
+    List<OrderDTO> findPageSortedAfter(@Param("orderUpdateDate") OffsetDateTime orderUpdateDate,
+                                       @Param("orderTerm") LocalDate orderTerm,
+                                       @Param("clientName") String clientName,
+                                       @Param("orderName") String orderName,
+                                       @Param("id") Long id,
+                                       @Param("limit") int limit);
+
+    /**
+     * Retrieves a page of orders where isDeleted is false and orderTerm lies between the given dates, inclusive,
+     * sorted by orderTerm and id. The page starts after the given (orderTerm, id) position, so the range is walked
+     * on the partial index on (order_term, id) without an offset.
+     *
+     * @param from      The first order term of the range.
+     * @param to        The last order term of the range.
+     * @param afterTerm The order term of the last order on the previous page, {@code from} for the first page.
+     * @param afterId   The ID of the last order on the previous page, 0 for the first page.
+     * @param pageable  Page request limiting the number of returned orders.
+     * @return A sorted list of orders due in the range.
+     */
+    @Query(ORDER_DTO_SELECT + "WHERE o.isDeleted = false " +
+            "AND o.orderTerm >= :afterTerm AND o.orderTerm <= :to " +
+            "AND (o.orderTerm > :afterTerm OR o.id > :afterId) " +
+            "AND o.orderTerm >= :from " +
+            "ORDER BY o.orderTerm, o.id")
+    List<OrderDTO> findPageDueBetween(@Param("from") LocalDate from,
+                                      @Param("to") LocalDate to,
+                                      @Param("afterTerm") LocalDate afterTerm,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
 
     /**
-     * Retrieves a list of orders based on multiple parameters with case-insensitive partial matches.
-     * Where isDeleted is false and sorted by orderUpdateDate, orderTerm, clientName and orderName.
+     * Retrieves a page of orders where isDeleted is false and orderUpdateDate is at or after the given time,
+     * sorted by orderUpdateDate and id. The page starts after the given (orderUpdateDate, id) position, so the
+     * range is walked on the partial index on (order_update_date, id) without an offset.
+     *
+     * @param since     The earliest order update time.
+     * @param afterDate The order update time of the last order on the previous page, {@code since} for the
+     *                  first page.
+     * @param afterId   The ID of the last order on the previous page, 0 for the first page.
+     * @param pageable  Page request limiting the number of returned orders.
+     * @return A sorted list of orders updated since the given time.
+     */
+    @Query(ORDER_DTO_SELECT + "WHERE o.isDeleted = false " +
+            "AND o.orderUpdateDate >= :afterDate " +
+            "AND (o.orderUpdateDate > :afterDate OR o.id > :afterId) " +
+            "AND o.orderUpdateDate >= :since " +
+            "ORDER BY o.orderUpdateDate, o.id")
+    List<OrderDTO> findPageUpdatedSince(@Param("since") OffsetDateTime since,
+                                        @Param("afterDate") OffsetDateTime afterDate,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    /**
+     * Retrieves the first page of orders in a status where isDeleted is false, sorted by orderUpdateDate and id,
+     * both descending. Served by the partial index on (order_status, order_update_date DESC, id DESC).
+     *
+     * @param orderStatus The order status.
+     * @param pageable    Page request limiting the number of returned orders.
+     * @return A sorted list of orders in the status.
+     */
+    @Query(ORDER_DTO_SELECT + "WHERE o.isDeleted = false AND o.orderStatus = :orderStatus " +
+            "ORDER BY o.orderUpdateDate DESC, o.id DESC")
+    List<OrderDTO> findFirstPageByStatus(@Param("orderStatus") OrderStatus orderStatus, Pageable pageable);
+
+    /**
+     * Retrieves the page of orders in a status that follows the given cursor position in the order of
+     * {@link #findFirstPageByStatus(OrderStatus, Pageable)}.
+     *
+     * @param orderStatus     The order status.
+     * @param orderUpdateDate The order update time of the last order on the previous page.
+     * @param id              The ID of the last order on the previous page.
+     * @param pageable        Page request limiting the number of returned orders.
+     * @return A sorted list of orders in the status following the cursor position.
+     */
+    @Query(ORDER_DTO_SELECT + "WHERE o.isDeleted = false AND o.orderStatus = :orderStatus " +
+            "AND o.orderUpdateDate <= :orderUpdateDate " +
+            "AND (o.orderUpdateDate < :orderUpdateDate OR o.id < :id) " +
+            "ORDER BY o.orderUpdateDate DESC, o.id DESC")
+    List<OrderDTO> findPageByStatusAfter(@Param("orderStatus") OrderStatus orderStatus,
+                                         @Param("orderUpdateDate") OffsetDateTime orderUpdateDate,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    /**
+     * Retrieves the version of an order with a primary key lookup, without loading the order.
+     *
+     * @param id The ID of the order.
+     * @return The version of the order, empty if the order does not exist.
+     */
+    @Query("SELECT o.version FROM Order o WHERE o.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Retrieves a page of orders whose order number, order name, client name, client phone number or client email
+     * contains the given pattern, case-insensitive. Where isDeleted is false and ranked by trigram similarity to
+     * the search term, then by orderUpdateDate.
+     *
+     * <p>
+     * The ILIKE conditions are served by the partial pg_trgm GIN indexes on each searched column. The query is the
+     * named native query declared on {@link Order}, its result set mapping maps the rows to {@link OrderDTO}.
+     * </p>
+     *
+     * @param term    The search term used for ranking.
+     * @param pattern The ILIKE pattern, the escaped search term wrapped in '%'.
+     * @param limit   The maximum number of orders to return.
+     * @param offset  The number of ranked orders to skip.
+     * @return A ranked list of orders matching the search term.
+     */
+    @Query(name = Order.SEARCH_QUERY, nativeQuery = true)
+    List<OrderDTO> searchOrders(@Param("term") String term,
+                                @Param("pattern") String pattern,
+                                @Param("limit") int limit,
+                                @Param("offset") int offset);
+
+    /**
+     * Streams all orders where isDeleted is false, sorted by id. Rows are fetched from the database cursor in
+     * batches, so the stream must be consumed inside a transaction and closed afterwards. Streamed rows bypass the
+     * second-level cache, so an export does not evict hot entries.
+     *
+     * @return A stream of orders sorted by id.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("SELECT o FROM Order o WHERE o.isDeleted = false ORDER BY o.id")
+    Stream<Order> streamAllForExport();
+
+    /**
+     * Streams the projections of all orders where isDeleted is false, in no particular order. Rows are fetched
+     * from the database cursor in batches, so the stream must be consumed inside a transaction and closed
+     * afterwards.
+     *
+     * @return A stream of order projections.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(ORDER_DTO_SELECT + "WHERE o.isDeleted = false")
+    Stream<OrderDTO> streamAllForListing();
+
+    /**
+     * Retrieves the projections of the orders with the given IDs, including deleted orders.
+     *
+     * @param ids The IDs of the orders.
+     * @return The projections of the orders that exist, in no particular order.
+     */
+    @Query(ORDER_DTO_SELECT + "WHERE o.id IN :ids")
+    List<OrderDTO> findListingByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Adds a price difference and an item count difference to the order totals and sets the order update date in
+     * a single atomic update, so the order price and item count are maintained without loading the order items.
+     * The differences are applied to the order as it is, whatever changed since it was read, and its version is
+     * incremented.
+     *
+     * <p>
+     * The order row is first locked with the same lock the update takes, which does not block inserts of order
+     * items referencing the order, and the update returns the row as it was under that lock, so the caller learns
+     * the order its differences were added to. The row is updated by a data-modifying statement
+     * that Hibernate executes as a query. A bulk update would invalidate the whole orders region and the order
+     * items collections region of the second-level cache on every change of an order item, this way the cache is
+     * not told about the update. The caller evicts the changed order after the transaction commits. The query is
+     * the named native query declared on {@link Order}.
+     * </p>
+     *
+     * @param orderId         The ID of the order to update.
+     * @param priceDelta      The difference to add to the order price, negative to subtract.
+     * @param itemCountDelta  The difference to add to the item count, negative to subtract.
+     * @param orderUpdateDate The new order update time.
+     * @return The order before the update, empty if the order does not exist.
+     */
+    @Transactional
+    @Query(name = Order.ADD_TO_TOTALS_QUERY, nativeQuery = true)
+    Optional<OrderDTO> addToOrderTotals(@Param("orderId") Long orderId,
+                                        @Param("priceDelta") BigDecimal priceDelta,
+                                        @Param("itemCountDelta") long itemCountDelta,
+                                        @Param("orderUpdateDate") OffsetDateTime orderUpdateDate);
+
+    /**
+     * Sums the total prices of the order items of an order where isDeleted is false.
+     *
+     * @param orderId The ID of the order.
+     * @return The sum of total prices, 0 if the order has no order items.
+     */
+    @Query("SELECT COALESCE(SUM(i.totalPrice), 0) FROM OrderItem i " +
+            "WHERE i.order.id = :orderId AND i.isDeleted = false")
+    BigDecimal sumOrderItemPrices(@Param("orderId") Long orderId);
+
+    /**
+     * Reserves the next block of order number values. The sequence is incremented by the block size,
+     * so the returned value is the first value of a block no other caller receives. Runs in a read-write
+     * transaction, PostgreSQL does not allow nextval in read-only ones.
+     *
+     * @return The first value of the reserved block.
+     */
+    @Transactional
+    @Query(value = "SELECT nextval('order_number_seq')", nativeQuery = true)
+    long reserveOrderNumberBlock();
+
+    /**
+     * Moves up to {@code limit} orders deleted before the cutoff from orders to orders_archive, in id order after
+     * the given id. Orders that still have rows in order_items are skipped, their order items are archived first.
+     * Rows locked by another transaction are skipped, so concurrent archivers do not wait for each other.
+     *
+     * <p>
+     * The rows are moved by a data-modifying statement that Hibernate executes as a query, so the second-level
+     * cache is not told about them. The caller evicts the moved orders after the transaction commits.
+     * </p>
      *
-     * @param orderNumber        The partial match for the order number.
-     * @param orderName          The partial match for the order name.
-     * @param clientName            The partial match for the client name.
-     * @param clientPhoneNumber  The partial match for the client phone number.
-     * @param clientEmail        The partial match for the client email.
-     * @return A list of orders matching the specified criteria.
+     * @param cutoff  Orders deleted before this time are archived.
+     * @param afterId Only orders with a greater id are archived, the last id of the previous batch.
+     * @param limit   The maximum number of orders to archive.
+     * @return The IDs of the archived orders in ascending order.
      */
-    @Query("SELECT o FROM Order o WHERE o.isDeleted = false AND " +
-    "(:orderNumber IS NULL OR LOWER(o.orderNumber) LIKE LOWER(CONCAT('%', :orderNumber, '%'))) OR " +
-    "(:orderName IS NULL OR LOWER(o.orderName) LIKE LOWER(CONCAT('%', :orderName, '%'))) OR " +
-    "(:clientName IS NULL OR LOWER(o.clientName) LIKE LOWER(CONCAT('%', :clientName, '%'))) OR " +
-    "(:clientPhoneNumber IS NULL OR LOWER(o.clientPhoneNumber) LIKE LOWER(CONCAT('%', :clientPhoneNumber, '%'))) OR " +
-    "(:clientEmail IS NULL OR LOWER(o.clientEmail) LIKE LOWER(CONCAT('%', :clientEmail, '%')))" +
-    "ORDER BY o.orderUpdateDate DESC, o.orderTerm ASC, o.clientName ASC, o.orderName ASC")
-    List<Order> findSortedOrdersByParameters(@Param("orderNumber") String orderNumber,
-                                             @Param("orderName") String orderName,
-                                             @Param("clientName") String clientName,
-                                             @Param("clientPhoneNumber") String clientPhoneNumber,
-                                             @Param("clientEmail") String clientEmail);
+    @Transactional
+    @Query(value = "WITH batch AS (SELECT o.id FROM orders o " +
+            "WHERE o.is_deleted = true AND o.deleted_at < :cutoff AND o.id > :afterId " +
+            "AND NOT EXISTS (SELECT 1 FROM order_items i WHERE i.order_id = o.id) " +
+            "ORDER BY o.id LIMIT :limit FOR UPDATE SKIP LOCKED), " +
+            "moved AS (DELETE FROM orders o USING batch b WHERE o.id = b.id RETURNING o.*), " +
+            "archived AS (INSERT INTO orders_archive SELECT * FROM moved) " +
+            "SELECT id FROM moved ORDER BY id",
+            nativeQuery = true)
+    List<Long> archiveDeletedBatch(@Param("cutoff") OffsetDateTime cutoff,
+                                   @Param("afterId") long afterId,
+                                   @Param("limit") int limit);
 
     /**
-     * Checks if an order with the given order number exists in the database.
+     * Moves an order from orders_archive back to orders. The order stays deleted.
      *
-     * @param orderNumber The order number to check.
-     * @return True if an order with the specified order number exists, false otherwise.
+     * @param orderId The ID of the order.
+     * @return The number of moved orders, 0 if the order is not archived.
      */
-    boolean existsByOrderNumber(String orderNumber);
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "orders"))
+    @Query(value = "WITH moved AS (DELETE FROM orders_archive WHERE id = :orderId RETURNING *) " +
+            "INSERT INTO orders SELECT * FROM moved",
+            nativeQuery = true)
+    int restoreArchived(@Param("orderId") Long orderId);
 
 }
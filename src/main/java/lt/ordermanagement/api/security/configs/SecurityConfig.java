@@ -54,20 +54,36 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/v1/user/authenticate",
                                         "/v3/api-docs/**",
-                                        "/swagger-ui/**").permitAll()
+                                        "/swagger-ui/**",
+                                        "/actuator/health").permitAll()
 
                         .requestMatchers("/api/v1/user/register",
                                         "/api/v1/user/status",
-                                        "/api/v1/users").hasRole("ADMIN")
+                                        "/api/v1/users",
+                                        "/api/v1/cache/stats",
+                                        "/api/v1/archive/run",
+                                        "/api/v1/archive/last-run",
+                                        "/api/v1/orders/import",
+                                        "/actuator/prometheus").hasRole("ADMIN")
 
-                        .requestMatchers("/api/v1/add/order",
+                        .requestMatchers("/api/v1/stats",
+                                        "/api/v1/add/order",
                                         "/api/v1/update/order/{orderId}",
+                                        "/api/v1/update/order/{orderId}/status",
                                         "/api/v1/delete/order/{orderId}",
+                                        "/api/v1/restore/order/{orderId}",
                                         "/api/v1/order/{orderId}/add/item",
+                                        "/api/v1/order/{orderId}/add/items",
                                         "/api/v1/order/update/item/{itemId}",
                                         "/api/v1/order/delete/item/{itemId}").hasRole("MANAGER")
 
                         .requestMatchers("/api/v1/orders",
+                                        "/api/v1/orders/export",
+                                        "/api/v1/orders/due",
+                                        "/api/v1/orders/updated",
+                                        "/api/v1/orders/changes",
+                                        "/api/v1/orders/status/{status}",
+                                        "/api/v1/orders/status-counts",
                                         "/api/v1/order/{orderId}",
                                         "/api/v1/order/search/{orderParam}",
                                         "/api/v1/order/{orderId}/items",
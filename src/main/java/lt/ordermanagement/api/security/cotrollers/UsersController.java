@@ -60,7 +60,7 @@ public class UsersController {
                     "Forbidden: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error occurred while fetching users: " + e.getMessage());
+                    "Unexpected error occurred while fetching users: " + e.getMessage(), e);
         }
     }
 
@@ -91,7 +91,7 @@ public class UsersController {
                     "Forbidden: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error occurred while registering new user: " + e.getMessage());
+                    "Unexpected error occurred while registering new user: " + e.getMessage(), e);
         }
     }
 
@@ -123,13 +123,13 @@ public class UsersController {
 
         } catch (BadCredentialsException | UsernameNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED,
-                    "Unauthorized: " + e.getMessage());
+                    "Unauthorized: " + e.getMessage(), e);
         } catch (AccessDeniedException | DisabledException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
                     "Forbidden: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error occurred while authenticating user: " + e.getMessage());
+                    "Unexpected error occurred while authenticating user: " + e.getMessage(), e);
         }
     }
 
@@ -161,13 +161,13 @@ public class UsersController {
 
         } catch (BadCredentialsException | UsernameNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED,
-                    "Unauthorized: " + e.getMessage());
+                    "Unauthorized: " + e.getMessage(), e);
         } catch (AccessDeniedException | DisabledException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
                     "Forbidden: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error occurred while authenticating user: " + e.getMessage());
+                    "Unexpected error occurred while authenticating user: " + e.getMessage(), e);
         }
     }
 
@@ -199,13 +199,13 @@ public class UsersController {
 
         } catch (BadCredentialsException | UsernameNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED,
-                    "Unauthorized: " + e.getMessage());
+                    "Unauthorized: " + e.getMessage(), e);
         } catch (AccessDeniedException | DisabledException e) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
                     "Forbidden: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Unexpected error occurred while changing user status: " + e.getMessage());
+                    "Unexpected error occurred while changing user status: " + e.getMessage(), e);
         }
     }
 
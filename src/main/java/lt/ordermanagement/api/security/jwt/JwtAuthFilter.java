@@ -1,5 +1,6 @@
 package lt.ordermanagement.api.security.jwt;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,8 +9,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -19,13 +18,19 @@ import java.io.IOException;
 
 /**
  * JWT Authentication Filter to process JWT tokens in the request flow.
+ *
+ * <p>
+ * The authentication is built from the token's subject and roles claims. The user is not loaded from the database,
+ * the {@link UserStateRegistry} is consulted instead to reject tokens of disabled users and tokens issued before
+ * the user's password was changed.
+ * </p>
  */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final UserStateRegistry userStateRegistry;
 
     /**
      * Filters incoming requests to validate and set up JWT-based authentication.
@@ -44,6 +49,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final Claims claims;
         final String userUsername;
 
         // If the Authorization header is missing or doesn't start with "Bearer", continue with the filter chain
@@ -52,22 +58,23 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
-        // Extract the JWT token
+        // Extract the JWT token, verify it once and read the username from its claims
         jwt = authHeader.substring(7);
-        userUsername = jwtService.extractUsername(jwt);
+        claims = jwtService.parseToken(jwt);
+        userUsername = claims.getSubject();
 
         // If the user's username is extracted and there is no authentication in the SecurityContextHolder
         if (userUsername != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // Load user details from the userDetailsService
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userUsername);
+            UserStateRegistry.UserState userState = userStateRegistry.getState(userUsername);
 
-            // If the JWT token is valid
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                // Create an authentication token and set it in the SecurityContextHolder
+            // If the user is enabled and the token was issued for the current credentials
+            if (userState != null && userState.enabled() && userState.credentialVersion()
+                    .equals(claims.get(JwtService.CREDENTIAL_VERSION_CLAIM, String.class))) {
+                // Create an authentication token from the claims and set it in the SecurityContextHolder
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        userUsername,
                         null,
-                        userDetails.getAuthorities()
+                        jwtService.extractAuthorities(claims)
                 );
 
                 // Set authentication details
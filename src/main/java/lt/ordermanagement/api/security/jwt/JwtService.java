@@ -1,31 +1,107 @@
 package lt.ordermanagement.api.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
 /**
  * Service class for handling JWT (JSON Web Token) operations.
+ *
+ * <p>
+ * The signing key and the token parser are built once at startup. Verified tokens are kept in a bounded cache
+ * keyed by the SHA-256 digest of the token, so a token is HMAC-verified and parsed once and later requests
+ * carrying the same token skip both steps. Cache entries expire together with their tokens.
+ * </p>
+ *
+ * <p>
+ * Parsing is timed as security.jwt.parse, tagged with whether the claims came from the cache, and signing as
+ * security.jwt.sign.
+ * </p>
  */
 @Service
 public class JwtService {
 
-    @Value("${security.jwt.secret-key}")
-    private String secretKey;
+    public static final String ROLES_CLAIM = "roles";
+    public static final String CREDENTIAL_VERSION_CLAIM = "ver";
 
-    @Value("${security.jwt.expiration}")
-    private long jwtExpiration;
+    private final SecretKey signInKey;
+    private final JwtParser jwtParser;
+    private final long jwtExpiration;
+    private final Cache<String, Claims> verifiedTokens;
+    private final Timer cachedParseTimer;
+    private final Timer parseTimer;
+    private final Timer signTimer;
+
+    public JwtService(@Value("${security.jwt.secret-key}") String secretKey,
+                      @Value("${security.jwt.expiration}") long jwtExpiration,
+                      @Value("${security.jwt.cache-size:10000}") long cacheSize,
+                      MeterRegistry meterRegistry) {
+        this.signInKey = createSignInKey(secretKey);
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signInKey)
+                .build();
+        this.jwtExpiration = jwtExpiration;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new TokenExpiry())
+                .build();
+        this.cachedParseTimer = parseTimer(meterRegistry, "hit");
+        this.parseTimer = parseTimer(meterRegistry, "miss");
+        this.signTimer = Timer.builder("security.jwt.sign")
+                .description("Time to sign JWT tokens")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifies the JWT token and returns its claims. The token is verified and parsed only the first time it is
+     * seen, the claims are then served from the cache until the token expires.
+     *
+     * @param token The JWT token.
+     * @return The immutable claims of the token.
+     * @throws io.jsonwebtoken.JwtException If the token is malformed, has an invalid signature or is expired.
+     */
+    public Claims parseToken(String token) {
+        long start = System.nanoTime();
+        String tokenDigest = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(tokenDigest);
+
+        if (claims != null) {
+            cachedParseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        }
+
+        try {
+            claims = extractAllClaims(token);
+            verifiedTokens.put(tokenDigest, claims);
+
+            return claims;
+
+        } finally {
+            parseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
 
     /**
      * Extracts the username from the JWT token.
@@ -46,10 +122,28 @@ public class JwtService {
      * @return The extracted claim.
      */
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseToken(token);
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Extracts the granted authorities from the roles claim of verified JWT claims.
+     *
+     * @param claims The claims returned by {@link #parseToken(String)}.
+     * @return The granted authorities, empty if the token has no roles.
+     */
+    public List<GrantedAuthority> extractAuthorities(Claims claims) {
+        Collection<?> roles = claims.get(ROLES_CLAIM, Collection.class);
+
+        if (roles == null) {
+            return List.of();
+        }
+
+        return roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .toList();
+    }
+
     /**
      * Generates a JWT token for the provided user details.
      *
@@ -75,14 +169,14 @@ public class JwtService {
                 .collect(Collectors.toSet());
 
         // Build the JWT token with claims and sign it
-        return Jwts.builder()
+        return signTimer.record(() -> Jwts.builder()
                 .claims(extraClaims)
-                .claim("roles", userRoles) // Include user roles in the JWT token
+                .claim(ROLES_CLAIM, userRoles) // Include user roles in the JWT token
                 .subject(userDetails.getUsername()) // Include user username in the JWT token
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration)) // Set the token expiration
-                .signWith(setSignInKey())
-                .compact();
+                .signWith(signInKey)
+                .compact());
     }
 
     /**
@@ -93,28 +187,28 @@ public class JwtService {
      * @return True if the token is valid, false otherwise.
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(parseToken(token), userDetails);
     }
 
     /**
-     * Check if the provided JWT token is expired.
+     * Validates whether already verified JWT claims are valid for the given user details.
      *
-     * @param token The JWT token to check for expiration.
-     * @return True if the token is expired, false otherwise.
+     * @param claims      The claims returned by {@link #parseToken(String)}.
+     * @param userDetails The user details.
+     * @return True if the claims are valid, false otherwise.
      */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
     }
 
     /**
-     * Extract the expiration date from the JWT token.
+     * Check if the JWT claims are expired.
      *
-     * @param token The JWT token from which to extract the expiration date.
-     * @return The expiration date.
+     * @param claims The JWT claims to check for expiration.
+     * @return True if the token is expired, false otherwise.
      */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     /**
@@ -124,19 +218,18 @@ public class JwtService {
      * @return All claims (payload) from the token.
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(setSignInKey())
-                .build()
+        return jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
     /**
-     * Set the signing key used for JWT token verification.
+     * Create the signing key used for JWT token signing and verification.
      *
+     * @param secretKey The Base64 encoded secret.
      * @return The secret key for JWT token verification.
      */
-    private SecretKey setSignInKey() {
+    private static SecretKey createSignInKey(String secretKey) {
         byte[] keyBytes = Decoders.BASE64.decode(secretKey);
 
         if (keyBytes.length < 32) {
@@ -148,4 +241,54 @@ public class JwtService {
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
+    /**
+     * Computes the cache key of a token, so raw tokens are never kept in memory longer than the request.
+     *
+     * @param token The JWT token.
+     * @return The Base64 encoded SHA-256 digest of the token.
+     */
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static Timer parseTimer(MeterRegistry meterRegistry, String cache) {
+        return Timer.builder("security.jwt.parse")
+                .description("Time to verify and parse JWT tokens")
+                .tag("cache", cache)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Expires cached claims at the expiration time of their token.
+     */
+    private static class TokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            if (claims.getExpiration() == null) {
+                return 0;
+            }
+
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
 }
@@ -0,0 +1,107 @@
+package lt.ordermanagement.api.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lt.ordermanagement.api.security.models.User;
+import lt.ordermanagement.api.security.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * In-memory table of the authentication state of users, used to authenticate requests from JWT claims without
+ * loading the user from the database.
+ *
+ * <p>
+ * Each entry holds whether the user is enabled and the user's credential version, a digest of the stored password
+ * hash. Tokens carry the credential version they were issued for, so changing the password revokes all earlier
+ * tokens. {@link lt.ordermanagement.api.security.services.impl.UsersServiceImpl} updates the entry after the
+ * transaction that changes a user commits, so the change takes effect immediately on this instance. Entries are
+ * reloaded from the database after {@code security.user-state.ttl}, which bounds how long a change made on another
+ * instance takes to be seen here.
+ * </p>
+ */
+@Component
+public class UserStateRegistry {
+
+    /**
+     * Authentication state of a user.
+     *
+     * @param enabled           Whether the user is enabled.
+     * @param credentialVersion The version of the user's credentials.
+     */
+    public record UserState(boolean enabled, String credentialVersion) {
+    }
+
+    private final LoadingCache<String, UserState> userStates;
+
+    public UserStateRegistry(UserRepository userRepository,
+                             @Value("${security.user-state.ttl:PT1M}") Duration ttl) {
+        this.userStates = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build(username -> userRepository.findByUsername(username)
+                        .map(UserStateRegistry::toUserState)
+                        .orElse(null));
+    }
+
+    /**
+     * Retrieves the authentication state of a user, loading it from the database only if it is not known yet.
+     *
+     * @param username The username of the user.
+     * @return The state of the user, or null if the user does not exist.
+     */
+    public UserState getState(String username) {
+        return userStates.get(username);
+    }
+
+    /**
+     * Replaces the state of a user with the state of the given user after the current transaction commits,
+     * or immediately if there is no transaction.
+     *
+     * @param user The changed user.
+     */
+    public void update(User user) {
+        String username = user.getUsername();
+        UserState userState = toUserState(user);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userStates.put(username, userState);
+                }
+            });
+        } else {
+            userStates.put(username, userState);
+        }
+    }
+
+    /**
+     * Computes the credential version of a user, which changes whenever the user's password changes.
+     *
+     * @param user The user.
+     * @return The credential version.
+     */
+    public static String credentialVersion(User user) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(user.getPassword().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static UserState toUserState(User user) {
+        return new UserState(user.isEnabled(), credentialVersion(user));
+    }
+
+}
@@ -8,7 +8,10 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lt.ordermanagement.api.configs.CacheConfig;
 import lt.ordermanagement.api.security.enums.Role;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,12 +20,13 @@ import java.util.Collection;
 import java.util.List;
 
 /**
- * Entity class representing a user in the application.
+ * Entity class representing a user in the application. Users are kept in the second-level cache.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.USERS_REGION)
 @Table(name = "users")
 @Schema(description = "User entity representing detailed information about a user")
 public class User implements UserDetails {
@@ -1,10 +1,14 @@
 package lt.ordermanagement.api.security.repositories;
 
+import jakarta.persistence.QueryHint;
 import lt.ordermanagement.api.security.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 /**
  * Repository interface for managing User entities.
  */
@@ -12,10 +16,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     /**
      * Retrieves a user by their email address.
+     * The result is kept in the query cache until the users table changes.
      *
      * @param username The username of the user.
      * @return An Optional containing the user if found, or an empty Optional if not found.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
 
 }
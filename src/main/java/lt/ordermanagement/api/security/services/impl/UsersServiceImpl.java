@@ -1,11 +1,14 @@
 package lt.ordermanagement.api.security.services.impl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lt.ordermanagement.api.security.dtos.AuthenticationRequestDTO;
 import lt.ordermanagement.api.security.dtos.ChangePasswordRequestDTO;
 import lt.ordermanagement.api.security.dtos.EnableDisableUserRequestDTO;
 import lt.ordermanagement.api.security.enums.Role;
 import lt.ordermanagement.api.security.jwt.JwtService;
+import lt.ordermanagement.api.security.jwt.UserStateRegistry;
 import lt.ordermanagement.api.security.models.User;
 import lt.ordermanagement.api.security.repositories.UserRepository;
 import lt.ordermanagement.api.security.services.interfaces.UsersService;
@@ -22,6 +25,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service class for user authentication and registration.
@@ -34,6 +38,8 @@ public class UsersServiceImpl implements UsersService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final UserStateRegistry userStateRegistry;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Retrieves a list of all users in the system.
@@ -67,7 +73,8 @@ public class UsersServiceImpl implements UsersService {
     }
 
     /**
-     * Authenticates a user based on the provided authentication request.
+     * Authenticates a user based on the provided authentication request. The password check, dominated by
+     * BCrypt, is timed as security.authentication tagged with its outcome.
      *
      * @param request The authentication request containing the username and password.
      * @return An authentication response containing a JWT token.
@@ -78,12 +85,21 @@ public class UsersServiceImpl implements UsersService {
     @Transactional
     @Override
     public String authenticateUser(AuthenticationRequestDTO request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getUsername().toLowerCase(),
-                        request.getPassword()
-                )
-        );
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+
+        try {
+            authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            request.getUsername().toLowerCase(),
+                            request.getPassword()
+                    )
+            );
+            outcome = "success";
+
+        } finally {
+            sample.stop(meterRegistry.timer("security.authentication", "outcome", outcome));
+        }
 
         User user = userRepository.findByUsername(request.getUsername().toLowerCase())
                 .orElseThrow(
@@ -93,7 +109,10 @@ public class UsersServiceImpl implements UsersService {
         if (!user.isEnabled())
             throw new DisabledException("User is not enabled: " + request.getUsername());
 
-        return jwtService.generateToken(user);
+        // The token is bound to the current credentials, changing the password revokes it
+        return jwtService.generateToken(
+                Map.of(JwtService.CREDENTIAL_VERSION_CLAIM, UserStateRegistry.credentialVersion(user)),
+                user);
     }
 
     /**
@@ -120,6 +139,9 @@ public class UsersServiceImpl implements UsersService {
 
             userRepository.save(user);
 
+            // Revokes tokens issued for the old password
+            userStateRegistry.update(user);
+
         } else {
             throw new BadCredentialsException("Invalid credentials.");
         }
@@ -150,6 +172,9 @@ public class UsersServiceImpl implements UsersService {
 
             userRepository.save(user);
 
+            // Accepts or rejects the user's tokens from now on
+            userStateRegistry.update(user);
+
         } else {
             throw new BadCredentialsException("Invalid credentials.");
         }
@@ -0,0 +1,18 @@
+package lt.ordermanagement.api.services.Interfaces;
+
+import lt.ordermanagement.api.dtos.CacheRegionStatsDTO;
+
+import java.util.List;
+
+/**
+ * Service interface for second-level cache statistics.
+ *
+ * <p>
+ * This interface defines a method for retrieving hit and miss statistics of every second-level cache region.
+ * </p>
+ */
+public interface CacheStatisticsService {
+
+    List<CacheRegionStatsDTO> getCacheStatistics();
+
+}
@@ -0,0 +1,23 @@
+package lt.ordermanagement.api.services.Interfaces;
+
+import lt.ordermanagement.api.enums.OrderChangeType;
+
+import java.util.List;
+
+/**
+ * Service interface for the order change outbox.
+ *
+ * <p>
+ * This interface defines methods for recording changes of orders and order items in the transaction that makes
+ * them, so the change stream publishes exactly the committed changes.
+ * </p>
+ */
+public interface OrderChangeService {
+
+    void orderChanged(Long orderId, OrderChangeType changeType);
+
+    void ordersChanged(List<Long> orderIds, OrderChangeType changeType);
+
+    void orderItemsChanged(Long orderId, List<Long> orderItemIds, OrderChangeType changeType);
+
+}
@@ -0,0 +1,19 @@
+package lt.ordermanagement.api.services.Interfaces;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Service interface for the Server-Sent Events stream of order changes.
+ *
+ * <p>
+ * This interface defines methods for subscribing to the published changes of the outbox, optionally resuming
+ * after the last received change, and for telling the stream that new changes were committed.
+ * </p>
+ */
+public interface OrderChangeStreamService {
+
+    SseEmitter subscribe(String lastEventId);
+
+    void changesCommitted();
+
+}
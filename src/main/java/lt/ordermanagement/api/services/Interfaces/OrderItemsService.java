@@ -1,5 +1,6 @@
 package lt.ordermanagement.api.services.Interfaces;
 
+import lt.ordermanagement.api.dtos.OrderItemDTO;
 import lt.ordermanagement.api.models.OrderItem;
 
 import java.util.List;
@@ -13,15 +14,21 @@ import java.util.List;
  */
 public interface OrderItemsService {
 
-    List<OrderItem> getOrderItems(Long orderId);
+    List<OrderItemDTO> getOrderItems(Long orderId, int page, int size);
 
-    OrderItem getOrderItem(Long itemId);
+    OrderItemDTO getOrderItem(Long itemId);
 
-    List<OrderItem> findOrderItemsByName(Long orderId, String searchItemName);
+    Long getOrderItemVersion(Long itemId);
+
+    Long getOrderItemsVersion(Long orderId);
+
+    List<OrderItemDTO> findOrderItemsByName(Long orderId, String searchItemName, int page, int size);
 
     OrderItem addItemToOrder(Long orderId, OrderItem orderItem);
 
-    OrderItem updateOrderItem(Long itemId, OrderItem orderItem);
+    List<OrderItem> addItemsToOrder(Long orderId, List<OrderItem> orderItems);
+
+    OrderItem updateOrderItem(Long itemId, OrderItem orderItem, Long requiredVersion);
 
     void deleteOrderItem(Long orderItemId);
 
@@ -0,0 +1,18 @@
+package lt.ordermanagement.api.services.Interfaces;
+
+import java.util.List;
+
+/**
+ * Service interface for allocating order numbers.
+ *
+ * <p>
+ * This interface defines methods for allocating unique order numbers for new orders.
+ * </p>
+ */
+public interface OrderNumberService {
+
+    String nextOrderNumber();
+
+    List<String> nextOrderNumbers(int count);
+
+}
@@ -0,0 +1,27 @@
+package lt.ordermanagement.api.services.Interfaces;
+
+import lt.ordermanagement.api.dtos.OrderStatsDTO;
+import lt.ordermanagement.api.dtos.OrderStatusCountsDTO;
+import lt.ordermanagement.api.utils.OrderContribution;
+
+import java.util.List;
+
+/**
+ * Service interface for the order summaries.
+ *
+ * <p>
+ * This interface defines methods for moving the summary tables when an order changes and for reading revenue,
+ * order count and item count per status, per month and per client.
+ * </p>
+ */
+public interface OrderStatsService {
+
+    void orderChanged(OrderContribution before, OrderContribution after);
+
+    void ordersAdded(List<OrderContribution> contributions);
+
+    OrderStatusCountsDTO getStatusCounts();
+
+    OrderStatsDTO getStats(int monthLimit, int clientLimit);
+
+}
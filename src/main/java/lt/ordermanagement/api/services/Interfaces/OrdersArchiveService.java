@@ -0,0 +1,21 @@
+package lt.ordermanagement.api.services.Interfaces;
+
+import lt.ordermanagement.api.dtos.ArchiveRunDTO;
+
+import java.util.Optional;
+
+/**
+ * Service interface for archiving deleted orders.
+ *
+ * <p>
+ * This interface defines methods for moving deleted orders and order items out of the orders and order_items
+ * tables and for reporting the last run.
+ * </p>
+ */
+public interface OrdersArchiveService {
+
+    ArchiveRunDTO archiveDeleted();
+
+    Optional<ArchiveRunDTO> getLastRun();
+
+}
@@ -0,0 +1,19 @@
+package lt.ordermanagement.api.services.Interfaces;
+
+import lt.ordermanagement.api.enums.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service interface for exporting orders.
+ *
+ * <p>
+ * This interface defines a method for streaming all orders, optionally with their order items, to an output stream.
+ * </p>
+ */
+public interface OrdersExportService {
+
+    void exportOrders(OutputStream outputStream, ExportFormat format, boolean includeItems) throws IOException;
+
+}
@@ -0,0 +1,22 @@
+package lt.ordermanagement.api.services.Interfaces;
+
+import lt.ordermanagement.api.dtos.ImportProgressDTO;
+import lt.ordermanagement.api.enums.ExportFormat;
+
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Service interface for importing orders.
+ *
+ * <p>
+ * This interface defines a method for creating orders and their order items in bulk from an NDJSON or CSV upload.
+ * </p>
+ */
+public interface OrdersImportService {
+
+    ImportProgressDTO importOrders(InputStream inputStream,
+                                   ExportFormat format,
+                                   Consumer<ImportProgressDTO> progressListener);
+
+}
@@ -1,31 +1,52 @@
 package lt.ordermanagement.api.services.Interfaces;
 
+import lt.ordermanagement.api.dtos.OrderDTO;
+import lt.ordermanagement.api.dtos.OrdersPageDTO;
+import lt.ordermanagement.api.enums.OrderStatus;
 import lt.ordermanagement.api.models.Order;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Interface for managing orders.
  *
  * <p>
- * This interface defines methods for retrieving, creating, updating, and deleting orders.
+ * This interface defines methods for retrieving, creating, updating, deleting and restoring orders.
  * It also includes a method for generating unique order numbers.
  * </p>
  */
 public interface OrdersService {
 
-    List<Order> getOrders();
+    OrdersPageDTO getOrders(String cursor, int size);
 
-    Order getOrderById(Long orderId);
+    OrderDTO getOrderById(Long orderId);
 
-    List<Order> findOrdersByParameters(String searchParam);
+    Long getOrderVersion(Long orderId);
+
+    Optional<String> getOrdersVersion();
+
+    List<OrderDTO> findOrdersByParameters(String searchParam, int page, int size);
+
+    OrdersPageDTO findOrdersDueBetween(LocalDate from, LocalDate to, String cursor, int size);
+
+    OrdersPageDTO findOrdersUpdatedSince(OffsetDateTime since, String cursor, int size);
 
     Order addOrder(Order order);
 
-    Order updateOrder(Long orderId, Order order);
+    Order updateOrder(Long orderId, Order order, Long requiredVersion);
+
+    Order changeOrderStatus(Long orderId, OrderStatus status, Long requiredVersion);
+
+    OrdersPageDTO findOrdersByStatus(OrderStatus status, String cursor, int size);
 
     void deleteOrder(Long orderId);
 
-    Double countTotalOrderPrice(Long orderId);
+    Order restoreOrder(Long orderId);
+
+    BigDecimal countTotalOrderPrice(Long orderId);
 
 }
@@ -0,0 +1,27 @@
+package lt.ordermanagement.api.services.Interfaces;
+
+import lt.ordermanagement.api.dtos.OrdersPageDTO;
+
+import java.util.Optional;
+
+/**
+ * Service interface for the in-memory snapshot of the order listing.
+ *
+ * <p>
+ * This interface defines methods for serving pages of the sorted order listing from memory and for
+ * reporting changed orders, so the snapshot follows the database.
+ * </p>
+ */
+public interface OrdersSnapshotService {
+
+    Optional<OrdersPageDTO> getPage(String cursor, int pageSize);
+
+    void orderChanged(Long orderId);
+
+    void scheduleRebuild();
+
+    long getVersion();
+
+    Optional<String> getListingVersion();
+
+}
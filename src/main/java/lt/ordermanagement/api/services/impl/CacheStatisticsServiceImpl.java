@@ -0,0 +1,64 @@
+package lt.ordermanagement.api.services.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lt.ordermanagement.api.dtos.CacheRegionStatsDTO;
+import lt.ordermanagement.api.services.Interfaces.CacheStatisticsService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Service class for second-level cache statistics.
+ *
+ * <p>
+ * Statistics are read from the Hibernate statistics of the session factory and count since application start.
+ * JCache does not report the number of cached entries, so the element count is -1 unless the provider knows it.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheStatisticsServiceImpl implements CacheStatisticsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Retrieves the statistics of every second-level cache region, sorted by region name.
+     *
+     * @return List of region statistics.
+     */
+    @Override
+    public List<CacheRegionStatsDTO> getCacheStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> toCacheRegionStats(region, statistics.getCacheRegionStatistics(region)))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private CacheRegionStatsDTO toCacheRegionStats(String region, CacheRegionStatistics regionStatistics) {
+        if (regionStatistics == null) {
+            return null;
+        }
+
+        long hitCount = regionStatistics.getHitCount();
+        long elementCount = regionStatistics.getElementCountInMemory();
+        long missCount = regionStatistics.getMissCount();
+        long lookups = hitCount + missCount;
+
+        return new CacheRegionStatsDTO(region,
+                                       hitCount,
+                                       missCount,
+                                       regionStatistics.getPutCount(),
+                                       elementCount < 0 ? -1 : elementCount,
+                                       lookups == 0 ? 0D : (double) hitCount / lookups);
+    }
+
+}
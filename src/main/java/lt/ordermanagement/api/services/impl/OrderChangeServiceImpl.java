@@ -0,0 +1,93 @@
+package lt.ordermanagement.api.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import lt.ordermanagement.api.enums.OrderChangeType;
+import lt.ordermanagement.api.repositories.OrderChangesRepository;
+import lt.ordermanagement.api.services.Interfaces.OrderChangeService;
+import lt.ordermanagement.api.services.Interfaces.OrderChangeStreamService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Service class writing changes of orders and order items to the order change outbox.
+ *
+ * <p>
+ * Changes are inserted in the transaction of the change, with one statement per call whatever the number of
+ * changed rows, and disappear with it if it rolls back. After the transaction commits,
+ * {@link OrderChangeStreamService} is told to publish them.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderChangeServiceImpl implements OrderChangeService {
+
+    private final OrderChangesRepository orderChangesRepository;
+    private final OrderChangeStreamService orderChangeStreamService;
+
+    /**
+     * Records a change of an order.
+     *
+     * @param orderId    The ID of the changed order.
+     * @param changeType The kind of the change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public void orderChanged(Long orderId, OrderChangeType changeType) {
+        orderChangesRepository.insertOrderChanges(changeType.name(), new Long[]{orderId});
+
+        publishAfterCommit();
+    }
+
+    /**
+     * Records the same change of several orders.
+     *
+     * @param orderIds   The IDs of the changed orders.
+     * @param changeType The kind of the change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public void ordersChanged(List<Long> orderIds, OrderChangeType changeType) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+
+        orderChangesRepository.insertOrderChanges(changeType.name(), orderIds.toArray(Long[]::new));
+
+        publishAfterCommit();
+    }
+
+    /**
+     * Records the same change of order items of an order.
+     *
+     * @param orderId      The ID of the order of the order items.
+     * @param orderItemIds The IDs of the changed order items.
+     * @param changeType   The kind of the change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public void orderItemsChanged(Long orderId, List<Long> orderItemIds, OrderChangeType changeType) {
+        if (orderItemIds.isEmpty()) {
+            return;
+        }
+
+        orderChangesRepository.insertOrderItemChanges(changeType.name(), orderId,
+                orderItemIds.toArray(Long[]::new));
+
+        publishAfterCommit();
+    }
+
+    private void publishAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderChangeStreamService.changesCommitted();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,543 @@
+package lt.ordermanagement.api.services.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import lt.ordermanagement.api.dtos.OrderChangeDTO;
+import lt.ordermanagement.api.repositories.OrderChangesRepository;
+import lt.ordermanagement.api.services.Interfaces.OrderChangeStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service class streaming the changes of the order change outbox to subscribers as Server-Sent Events.
+ *
+ * <p>
+ * Changes written by {@link OrderChangeServiceImpl} get their sequence numbers when they are published. One
+ * publisher at a time, holding a transaction-level advisory lock, numbers the unpublished changes in the order they
+ * were written and commits before the next publisher starts, so a change is never visible before the changes with
+ * smaller numbers. Publishing runs after every local commit and, while this instance has subscribers, every
+ * {@code orders.changes.poll-interval}, which bounds the delay of changes made on other instances.
+ * </p>
+ *
+ * <p>
+ * A single dispatcher thread publishes, reads the newly published changes once and hands them to every subscriber. Each
+ * subscriber has a buffer of {@code orders.changes.buffer-size} changes, drained to its connection by a pool of sender
+ * threads that starts another thread rather than queue a drain behind a busy one, so a slow client never holds up the
+ * dispatcher or the others. A subscriber whose buffer overflows drops it and catches up from the outbox in pages as
+ * fast as it reads, instead of holding the changes in memory. A subscriber whose write does not finish within
+ * {@code orders.changes.send-timeout} is dropped, the client resumes with Last-Event-ID when it reconnects. A new
+ * subscriber starts after the latest published change, a subscriber sending Last-Event-ID is first sent the changes
+ * that followed it. If some of them are already purged it gets a {@value #RESET_EVENT} event instead and should
+ * reload what it shows.
+ * </p>
+ */
+@Slf4j
+@Service
+public class OrderChangeStreamServiceImpl implements OrderChangeStreamService {
+
+    public static final String CHANGE_EVENT = "order-change";
+    public static final String RESET_EVENT = "reset";
+
+    /**
+     * Key of the advisory lock held by the publisher.
+     */
+    static final long PUBLISHER_LOCK_KEY = 0x6f72646572733031L;
+
+    private final OrderChangesRepository orderChangesRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final Executor dispatcher;
+    private final Executor senders;
+    private final int bufferSize;
+    private final int batchSize;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final Duration retention;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+
+    /**
+     * The sequence number of the latest change handed to the subscribers, -1 while there are no subscribers.
+     * Read when the first subscriber registers, used only by the dispatcher thread.
+     */
+    private long dispatchedSequenceNumber = -1;
+
+    @Autowired
+    public OrderChangeStreamServiceImpl(OrderChangesRepository orderChangesRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${orders.changes.sender-threads:4}") int senderThreads,
+                                        @Value("${orders.changes.buffer-size:256}") int bufferSize,
+                                        @Value("${orders.changes.batch-size:500}") int batchSize,
+                                        @Value("${orders.changes.timeout:PT30M}") Duration timeout,
+                                        @Value("${orders.changes.send-timeout:PT10S}") Duration sendTimeout,
+                                        @Value("${orders.changes.retention:P1D}") Duration retention) {
+        this(orderChangesRepository, transactionManager, newExecutor(1, "order-changes"),
+                newSenderExecutor(senderThreads), bufferSize, batchSize, timeout, sendTimeout, retention);
+    }
+
+    OrderChangeStreamServiceImpl(OrderChangesRepository orderChangesRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 Executor dispatcher,
+                                 Executor senders,
+                                 int bufferSize,
+                                 int batchSize,
+                                 Duration timeout,
+                                 Duration sendTimeout,
+                                 Duration retention) {
+        this.orderChangesRepository = orderChangesRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.dispatcher = dispatcher;
+        this.senders = senders;
+        this.bufferSize = bufferSize;
+        this.batchSize = batchSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.retention = retention;
+    }
+
+    /**
+     * Opens a stream of order changes. Every change is sent as a {@value #CHANGE_EVENT} event with its sequence
+     * number as the event ID and the {@link OrderChangeDTO} as JSON data.
+     *
+     * @param lastEventId The sequence number of the last change the client received, or null to receive the
+     *                    changes published from now on.
+     * @return The emitter of the stream.
+     * @throws IllegalArgumentException If the last event ID is not a sequence number.
+     */
+    @Override
+    public SseEmitter subscribe(String lastEventId) {
+        Long resumeAfter = parseLastEventId(lastEventId);
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+
+        subscribe(emitter, resumeAfter);
+
+        return emitter;
+    }
+
+    /**
+     * Publishes the changes of a committed transaction and hands them to the subscribers.
+     */
+    @Override
+    public void changesCommitted() {
+        scheduleDispatch();
+    }
+
+    /**
+     * Publishes and dispatches the changes committed on other instances and drops the stalled subscribers, while
+     * anybody listens here.
+     */
+    @Scheduled(fixedDelayString = "${orders.changes.poll-interval:PT0.5S}")
+    public void poll() {
+        if (!subscribers.isEmpty()) {
+            scheduleDispatch();
+            closeStalledSubscribers();
+        }
+    }
+
+    /**
+     * Sends a comment to every subscriber, which keeps idle connections open through proxies and finds clients
+     * that went away.
+     */
+    @Scheduled(fixedDelayString = "${orders.changes.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::heartbeat);
+    }
+
+    /**
+     * Deletes the published changes older than {@code orders.changes.retention}.
+     */
+    @Scheduled(initialDelayString = "${orders.changes.purge-interval:PT1H}",
+               fixedDelayString = "${orders.changes.purge-interval:PT1H}")
+    public void purge() {
+        dispatcher.execute(() -> {
+            try {
+                Integer deleted = transactionTemplate.execute(status -> orderChangesRepository
+                        .deletePublishedBefore(OffsetDateTime.now().minus(retention)));
+
+                log.debug("Purged {} published order changes", deleted);
+
+            } catch (RuntimeException e) {
+                log.warn("Unable to purge published order changes", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+
+        for (Executor executor : List.of(dispatcher, senders)) {
+            if (executor instanceof ExecutorService executorService) {
+                executorService.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Registers a subscriber on the dispatcher thread and starts it. The subscriber reads the outbox only after it
+     * is registered, so every change is either read by it or dispatched to it.
+     *
+     * @param emitter     The emitter of the stream.
+     * @param resumeAfter The sequence number of the last change the client received, or null for a new client.
+     */
+    void subscribe(SseEmitter emitter, Long resumeAfter) {
+        Subscriber subscriber = new Subscriber(emitter, resumeAfter);
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscriber.close());
+
+        dispatcher.execute(() -> {
+            try {
+                if (dispatchedSequenceNumber < 0) {
+                    dispatchedSequenceNumber = latestSequenceNumber();
+                }
+
+                if (!subscriber.closed) {
+                    subscribers.add(subscriber);
+                    subscriber.scheduleDrain();
+                }
+
+            } catch (RuntimeException e) {
+                log.warn("Unable to start an order change stream", e);
+                emitter.complete();
+            }
+        });
+    }
+
+    /**
+     * Drops the subscribers whose write has been blocked for longer than {@code orders.changes.send-timeout}. The
+     * emitter is locked by the blocked write, so the sender completes it once the write returns or fails.
+     */
+    void closeStalledSubscribers() {
+        long now = System.nanoTime();
+
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isStalled(now)) {
+                log.info("Closing order change stream stalled after sequence number {}",
+                        subscriber.sentSequenceNumber);
+                subscriber.stalled = true;
+                subscriber.close();
+            }
+        }
+    }
+
+    /**
+     * @return The number of open streams.
+     */
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Publishes the unpublished changes and hands the newly published ones to the subscribers.
+     */
+    void dispatch() {
+        dispatchScheduled.set(false);
+
+        try {
+            publish();
+
+            if (subscribers.isEmpty()) {
+                dispatchedSequenceNumber = -1;
+                return;
+            }
+
+            List<OrderChangeDTO> changes;
+
+            do {
+                changes = readOnlyTransactionTemplate.execute(status -> orderChangesRepository
+                        .findPublishedAfter(dispatchedSequenceNumber, PageRequest.of(0, batchSize)));
+
+                if (!changes.isEmpty()) {
+                    for (Subscriber subscriber : subscribers) {
+                        subscriber.offer(changes);
+                    }
+
+                    dispatchedSequenceNumber = changes.get(changes.size() - 1).sequenceNumber();
+                }
+            } while (changes.size() == batchSize);
+
+        } catch (RuntimeException e) {
+            // The next commit or poll dispatches the changes
+            log.warn("Unable to dispatch order changes", e);
+        }
+    }
+
+    /**
+     * Numbers the unpublished changes, unless another instance is doing it.
+     */
+    private void publish() {
+        Integer published;
+
+        do {
+            published = transactionTemplate.execute(status ->
+                    orderChangesRepository.tryPublisherLock(PUBLISHER_LOCK_KEY)
+                            ? orderChangesRepository.publishPending(batchSize)
+                            : 0);
+        } while (published != null && published == batchSize);
+    }
+
+    private long latestSequenceNumber() {
+        return readOnlyTransactionTemplate.execute(status ->
+                orderChangesRepository.findLatestSequenceNumber().orElse(0L));
+    }
+
+    private void scheduleDispatch() {
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            dispatcher.execute(this::dispatch);
+        }
+    }
+
+    /**
+     * Parses the Last-Event-ID header of a reconnecting client.
+     *
+     * @param lastEventId The header value, or null.
+     * @return The sequence number, or null if there is no header.
+     * @throws IllegalArgumentException If the value is not a sequence number.
+     */
+    static Long parseLastEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+
+        try {
+            long sequenceNumber = Long.parseLong(lastEventId.trim());
+
+            if (sequenceNumber >= 0) {
+                return sequenceNumber;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+
+        throw new IllegalArgumentException("Last-Event-ID is not a change sequence number: " + lastEventId);
+    }
+
+    private static ExecutorService newExecutor(int threads, String name) {
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threads == 1 ? name : name + "-" +
+                            threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Work arriving while the application shuts down is dropped
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Creates the sender pool. It keeps {@code idleThreads} threads and starts another one whenever they are all
+     * busy, so a drain never waits behind a write blocked by a slow client. A subscriber is drained by one thread at
+     * a time, which bounds the threads by the number of subscribers.
+     */
+    static ExecutorService newSenderExecutor(int idleThreads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        return new ThreadPoolExecutor(idleThreads, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "order-changes-sender-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Work arriving while the application shuts down is dropped
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * One open stream with its bounded buffer. At most one sender thread drains it at a time.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<OrderChangeDTO> buffer;
+        private final AtomicBoolean drainScheduled = new AtomicBoolean();
+        private final Long resumeAfter;
+
+        /**
+         * Set when the buffer overflowed, the sender then reads the outbox instead of the buffer.
+         */
+        private volatile boolean catchingUp = true;
+        private volatile boolean heartbeatDue;
+        private volatile boolean closed;
+
+        /**
+         * Set when the subscriber was dropped while its write was blocked.
+         */
+        private volatile boolean stalled;
+
+        /**
+         * Whether a write is in progress and the {@link System#nanoTime()} it started at.
+         */
+        private volatile boolean sending;
+        private volatile long sendStartedNanos;
+
+        /**
+         * The sequence number of the last change sent, -1 until the stream starts. Written only by the sender.
+         */
+        private volatile long sentSequenceNumber = -1;
+
+        Subscriber(SseEmitter emitter, Long resumeAfter) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+            this.resumeAfter = resumeAfter;
+        }
+
+        void offer(List<OrderChangeDTO> changes) {
+            for (OrderChangeDTO change : changes) {
+                if (!buffer.offer(change)) {
+                    catchingUp = true;
+                    break;
+                }
+            }
+
+            scheduleDrain();
+        }
+
+        void heartbeat() {
+            heartbeatDue = true;
+            scheduleDrain();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            buffer.clear();
+        }
+
+        boolean isStalled(long now) {
+            return sending && now - sendStartedNanos > sendTimeoutNanos;
+        }
+
+        void scheduleDrain() {
+            if (!closed && drainScheduled.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (sentSequenceNumber < 0) {
+                    sentSequenceNumber = resumeAfter != null ? resumeAfter : latestSequenceNumber();
+                }
+
+                while (catchingUp && !closed) {
+                    catchingUp = false;
+                    // Changes offered from now on are either read below or stay in the buffer
+                    buffer.clear();
+                    catchUp();
+                }
+
+                OrderChangeDTO change;
+
+                while (!catchingUp && !closed && (change = buffer.poll()) != null) {
+                    // Changes read from the outbox may be dispatched again
+                    if (change.sequenceNumber() > sentSequenceNumber) {
+                        send(change);
+                    }
+                }
+
+                if (heartbeatDue && !closed) {
+                    heartbeatDue = false;
+                    write(SseEmitter.event().comment("heartbeat"));
+                }
+
+            } catch (IOException | IllegalStateException e) {
+                // The client went away, the container completes the emitter
+                close();
+
+            } catch (RuntimeException e) {
+                log.warn("Closing order change stream after sequence number {}", sentSequenceNumber, e);
+                close();
+                emitter.complete();
+
+            } finally {
+                drainScheduled.set(false);
+
+                if (catchingUp || heartbeatDue || !buffer.isEmpty()) {
+                    scheduleDrain();
+                }
+            }
+        }
+
+        /**
+         * Sends the published changes following the last sent change, page by page. A client that would miss
+         * purged changes is told to reload instead.
+         */
+        private void catchUp() throws IOException {
+            long earliest = readOnlyTransactionTemplate.execute(status ->
+                    orderChangesRepository.findEarliestSequenceNumber().orElse(0L));
+
+            if (earliest > sentSequenceNumber + 1) {
+                sentSequenceNumber = latestSequenceNumber();
+                write(SseEmitter.event()
+                        .id(Long.toString(sentSequenceNumber))
+                        .name(RESET_EVENT)
+                        .data("{}", MediaType.APPLICATION_JSON));
+                return;
+            }
+
+            List<OrderChangeDTO> changes;
+
+            do {
+                changes = readOnlyTransactionTemplate.execute(status -> orderChangesRepository
+                        .findPublishedAfter(sentSequenceNumber, PageRequest.of(0, batchSize)));
+
+                for (OrderChangeDTO change : changes) {
+                    send(change);
+                }
+            } while (changes.size() == batchSize && !closed);
+        }
+
+        private void send(OrderChangeDTO change) throws IOException {
+            write(SseEmitter.event()
+                    .id(Long.toString(change.sequenceNumber()))
+                    .name(CHANGE_EVENT)
+                    .data(change, MediaType.APPLICATION_JSON));
+
+            sentSequenceNumber = change.sequenceNumber();
+        }
+
+        /**
+         * Writes an event, timed by {@link #closeStalledSubscribers()}. Completes the emitter if the subscriber was
+         * dropped while the write was blocked.
+         */
+        private void write(SseEmitter.SseEventBuilder event) throws IOException {
+            sendStartedNanos = System.nanoTime();
+            sending = true;
+
+            try {
+                emitter.send(event);
+            } finally {
+                sending = false;
+            }
+
+            if (stalled) {
+                emitter.complete();
+            }
+        }
+
+    }
+
+}
@@ -1,127 +1,253 @@
 package lt.ordermanagement.api.services.impl;
 
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import lt.ordermanagement.api.dtos.OrderDTO;
+import lt.ordermanagement.api.dtos.OrderItemDTO;
+import lt.ordermanagement.api.enums.OrderChangeType;
+import lt.ordermanagement.api.exeptions.PreconditionFailedException;
 import lt.ordermanagement.api.models.OrderItem;
 import lt.ordermanagement.api.models.Order;
+import lt.ordermanagement.api.services.Interfaces.OrderChangeService;
 import lt.ordermanagement.api.services.Interfaces.OrderItemsService;
+import lt.ordermanagement.api.services.Interfaces.OrderStatsService;
+import lt.ordermanagement.api.services.Interfaces.OrdersSnapshotService;
 import lt.ordermanagement.api.repositories.OrderItemsRepository;
 import lt.ordermanagement.api.repositories.OrdersRepository;
-import lt.ordermanagement.api.services.Interfaces.OrdersService;
 import lt.ordermanagement.api.utils.GenerateDate;
+import lt.ordermanagement.api.utils.LikePatterns;
+import lt.ordermanagement.api.utils.OrderContribution;
+import lt.ordermanagement.api.utils.RetryOnConflict;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Comparator;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 /**
  * Service class for managing order items.
  *
  * <p>
  * This service provides methods for retrieving, creating, updating, and deleting order items.
- * It interacts with the OrderItemsRepository and OrdersRepository to perform these operations.
+ * It interacts with the OrderItemsRepository and OrdersRepository to perform these operations. Order items are
+ * filtered, sorted and paged by the database, so only the requested page is loaded. Changes of order
+ * items change the price, item count and update date of their order, so the order is reported to
+ * {@link OrdersSnapshotService} and the order summaries of {@link OrderStatsService} are moved. Every change is
+ * recorded in the outbox of {@link OrderChangeService} for the order change stream.
+ * </p>
+ *
+ * <p>
+ * No rows are locked while a change is prepared. Order items are versioned, and the order totals are moved by an
+ * atomic update that returns the order as it was under the row lock of the update, so the summaries are moved from
+ * the order the change was applied to, and concurrent changes of order items of one order never conflict on the
+ * order. Hibernate does not see that update, so only the changed order is evicted from the second-level cache after
+ * the commit. A change that finds its order item changed by another transaction
+ * fails with an optimistic lock conflict and is run again, see {@link RetryOnConflict}.
+ * </p>
+ *
+ * <p>
+ * Reads run in read-only transactions and return {@link OrderItemDTO} projections, so no order item they read is
+ * managed by the persistence context.
  * </p>
  */
 @Service
 @RequiredArgsConstructor
 public class OrderItemsServiceImpl implements OrderItemsService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final OrderItemsRepository orderItemsRepository;
     private final OrdersRepository ordersRepository;
-    private final OrdersService ordersService;
+    private final OrdersSnapshotService ordersSnapshotService;
+    private final OrderStatsService orderStatsService;
+    private final OrderChangeService orderChangeService;
+    private final EntityManagerFactory entityManagerFactory;
 
     /**
-     * Retrieves sorted list of order items for a given order ID.
+     * Retrieves a page of order items where isDeleted is false for a given order ID,
+     * sorted case-insensitive by item name.
      *
      * @param orderId The ID of the order for which to retrieve items.
+     * @param page    The zero-based page number.
+     * @param size    The requested page size, clamped between 1 and {@value #MAX_PAGE_SIZE}.
      * @return List of order items for the specified order.
+     * @throws IllegalArgumentException If the page is negative.
      */
+    @Transactional(readOnly = true)
     @Override
-    public List<OrderItem> getOrderItems(Long orderId) {
-        Order order = ordersRepository.findById(orderId).orElseThrow(
-                () -> new EntityNotFoundException("Order for this Order Items not found with ID: " + orderId));
+    public List<OrderItemDTO> getOrderItems(Long orderId, int page, int size) {
+        List<OrderItemDTO> orderItems = orderItemsRepository.findPageByOrderId(orderId, pageRequest(page, size));
 
-        return order.getOrderItems()
-                .stream()
-                .filter(ordItm -> ordItm.getIsDeleted().equals(false))
-                .sorted(Comparator.comparing(OrderItem::getItemName,
-                        String.CASE_INSENSITIVE_ORDER))
-                .collect(Collectors.toList());
+        requireOrder(orderId, orderItems);
+
+        return orderItems;
     }
 
     /**
-     * Retrieves an order item by its ID.
+     * Retrieves an order item by its ID. The order item is looked up in the second-level cache first, the
+     * read-only transaction loads it without a dirty-check snapshot.
      *
      * @param orderItemId The ID of the order item to retrieve.
      * @return The retrieved order item.
      */
+    @Transactional(readOnly = true)
     @Override
-    public OrderItem getOrderItem(Long orderItemId) {
-        return orderItemsRepository.findById(orderItemId).orElseThrow(
+    public OrderItemDTO getOrderItem(Long orderItemId) {
+        return OrderItemDTO.of(findOrderItem(orderItemId));
+    }
+
+    /**
+     * Retrieves the version of an order item with a primary key lookup, without loading the order item.
+     *
+     * @param orderItemId The ID of the order item.
+     * @return The version of the order item.
+     * @throws EntityNotFoundException If the order item does not exist.
+     */
+    @Override
+    public Long getOrderItemVersion(Long orderItemId) {
+        return orderItemsRepository.findVersionById(orderItemId).orElseThrow(
                 () -> new EntityNotFoundException("Order Item not found with ID: " + orderItemId));
     }
 
     /**
-     * Retrieves sorted list of order items for a given order ID.
+     * Retrieves the version of the order items of an order. Every change of an order item moves the order totals
+     * and so the order version, which therefore changes whenever any order item of the order changes.
      *
-     * @param orderId The ID of the order for which to retrieve items.
-     * @return List of order items for the specified order.
+     * @param orderId The ID of the order.
+     * @return The version of the order.
+     * @throws EntityNotFoundException If the order does not exist.
      */
     @Override
-    public List<OrderItem> findOrderItemsByName(Long orderId, String itemName) {
-        Order order = ordersRepository.findById(orderId).orElseThrow(
+    public Long getOrderItemsVersion(Long orderId) {
+        return ordersRepository.findVersionById(orderId).orElseThrow(
                 () -> new EntityNotFoundException("Order for this Order Items not found with ID: " + orderId));
+    }
 
-        return order.getOrderItems()
-                .stream()
-                .filter(orderItem -> orderItem.getItemName().toLowerCase()
-                        .contains(itemName.toLowerCase()))
-                .sorted(Comparator.comparing(OrderItem::getItemName,
-                        String.CASE_INSENSITIVE_ORDER))
-                .collect(Collectors.toList());
+    /**
+     * Retrieves a page of order items where isDeleted is false for a given order ID whose item name contains
+     * the search parameter, case-insensitive. Sorted case-insensitive by item name.
+     *
+     * @param orderId  The ID of the order for which to retrieve items.
+     * @param itemName The text to search for in item names.
+     * @param page     The zero-based page number.
+     * @param size     The requested page size, clamped between 1 and {@value #MAX_PAGE_SIZE}.
+     * @return List of matching order items for the specified order.
+     * @throws IllegalArgumentException If the page is negative.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<OrderItemDTO> findOrderItemsByName(Long orderId, String itemName, int page, int size) {
+        List<OrderItemDTO> orderItems = orderItemsRepository.findPageByOrderIdAndItemName(orderId,
+                LikePatterns.containing(itemName.toLowerCase(Locale.ROOT)),
+                pageRequest(page, size));
+
+        requireOrder(orderId, orderItems);
+
+        return orderItems;
     }
 
     /**
-     * Saves a new order item to the specified order and updates order price in order table.
+     * Saves a new order item to the specified order and adds its total price and item count to the order totals
+     * in order table.
      *
      * @param orderId The ID of the order to which the item should be added.
      */
+    @RetryOnConflict
     @Transactional
     @Override
     public OrderItem addItemToOrder(Long orderId, OrderItem orderItem) {
+        OffsetDateTime currentTime = GenerateDate.generateCurrentTimestamp();
+
+        OrderItem newOrderItem = newOrderItem(orderItem, currentTime);
+
         Order order = ordersRepository.findById(orderId).orElseThrow(
                 () -> new EntityNotFoundException("Order to add this Order Item to not found with ID: " + orderId));
 
-        OrderItem newOrderItem = new OrderItem(orderItem.getItemName(),
-                                            orderItem.getItemCode(),
-                                            orderItem.getItemRevision(),
-                                            orderItem.getItemCount(),
-                                            orderItem.getItemPrice(),
-                                            orderItem.getTotalPrice(),
-                                            GenerateDate.generateCurrentDate(),
-                                            orderItem.getLinkToImg());
+        newOrderItem.setOrder(order);
 
-        order.addOrderItem(newOrderItem);
+        orderItemsRepository.save(newOrderItem);
 
-        // Updates order price in orders table
-        order.setOrderPrice(ordersService.countTotalOrderPrice(orderId));
+        addToOrderTotals(order, newOrderItem.getTotalPrice(), newOrderItem.getItemCount(), currentTime);
 
-        ordersRepository.save(order);
+        orderChangeService.orderItemsChanged(orderId, List.of(newOrderItem.getId()), OrderChangeType.CREATED);
 
         return newOrderItem;
     }
 
     /**
-     * Updates an existing order item.
+     * Saves new order items to the specified order in one batch and adds their total price and item count to
+     * the order totals in order table with a single update.
      *
-     * @param orderItem The order item to update.
+     * @param orderId    The ID of the order to which the items should be added.
+     * @param orderItems The order items to add.
      */
+    @RetryOnConflict
     @Transactional
     @Override
-    public OrderItem updateOrderItem(Long itemId, OrderItem orderItem) {
-        OrderItem oldOrderItem = getOrderItem(itemId);
+    public List<OrderItem> addItemsToOrder(Long orderId, List<OrderItem> orderItems) {
+        OffsetDateTime currentTime = GenerateDate.generateCurrentTimestamp();
+
+        List<OrderItem> newOrderItems = orderItems.stream()
+                .map(orderItem -> newOrderItem(orderItem, currentTime))
+                .toList();
+
+        BigDecimal totalPrice = newOrderItems.stream()
+                .map(OrderItem::getTotalPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        long itemCount = newOrderItems.stream()
+                .mapToLong(OrderItem::getItemCount)
+                .sum();
+
+        Order order = ordersRepository.findById(orderId).orElseThrow(
+                () -> new EntityNotFoundException("Order to add these Order Items to not found with ID: " + orderId));
+
+        newOrderItems.forEach(newOrderItem -> newOrderItem.setOrder(order));
+
+        // Inserts are sent to the database in JDBC batches when the transaction is flushed
+        orderItemsRepository.saveAll(newOrderItems);
+
+        addToOrderTotals(order, totalPrice, itemCount, currentTime);
+
+        orderChangeService.orderItemsChanged(orderId,
+                newOrderItems.stream().map(OrderItem::getId).toList(),
+                OrderChangeType.CREATED);
+
+        return newOrderItems;
+    }
+
+    /**
+     * Updates an existing order item and adds the change of its total price and item count to the order totals
+     * in order table.
+     *
+     * @param orderItem       The order item to update.
+     * @param requiredVersion The version the order item must have, or null to update any version.
+     * @throws PreconditionFailedException If the order item does not have the required version.
+     */
+    @RetryOnConflict
+    @Transactional
+    @Override
+    public OrderItem updateOrderItem(Long itemId, OrderItem orderItem, Long requiredVersion) {
+        OrderItem oldOrderItem = findOrderItem(itemId);
+
+        if (requiredVersion != null && !requiredVersion.equals(oldOrderItem.getVersion())) {
+            throw new PreconditionFailedException("Order Item with ID: " + itemId + " has version " +
+                    oldOrderItem.getVersion() + ", required: " + requiredVersion);
+        }
+
+        Order order = oldOrderItem.getOrder();
+        BigDecimal oldTotalPrice = oldOrderItem.getTotalPrice();
+        long oldItemCount = oldOrderItem.getItemCount();
+        OffsetDateTime currentTime = GenerateDate.generateCurrentTimestamp();
 
         oldOrderItem.setItemName(orderItem.getItemName());
         oldOrderItem.setItemCode(orderItem.getItemCode());
@@ -129,39 +255,162 @@ public class OrderItemsServiceImpl implements OrderItemsService {
         oldOrderItem.setItemCount(orderItem.getItemCount());
         oldOrderItem.setItemPrice(orderItem.getItemPrice());
         oldOrderItem.setTotalPrice(orderItem.getTotalPrice());
-        oldOrderItem.setItemUpdateDate(GenerateDate.generateCurrentDate());
+        oldOrderItem.setItemUpdateDate(currentTime);
         oldOrderItem.setLinkToImg(orderItem.getLinkToImg());
 
-        Order currentOrder = oldOrderItem.getOrder();
+        orderItemsRepository.save(oldOrderItem);
 
-        // Updates order price and update date in orders table
-        currentOrder.setOrderPrice(ordersService.countTotalOrderPrice(currentOrder.getId()));
-        currentOrder.setOrderUpdateDate(GenerateDate.generateCurrentDate());
+        // Deleted order items are not part of the order totals
+        if (oldOrderItem.getIsDeleted()) {
+            addToOrderTotals(order, BigDecimal.ZERO, 0, currentTime);
+        } else {
+            addToOrderTotals(order,
+                    oldOrderItem.getTotalPrice().subtract(oldTotalPrice),
+                    oldOrderItem.getItemCount() - oldItemCount,
+                    currentTime);
+        }
 
-        orderItemsRepository.save(oldOrderItem);
+        orderChangeService.orderItemsChanged(order.getId(), List.of(itemId), OrderChangeType.UPDATED);
 
         return oldOrderItem;
     }
 
     /**
-     * Sets isDeleted order item to 'true'.
+     * Sets isDeleted order item to 'true' and subtracts its total price and item count from the order totals
+     * in order table.
+     * Deleting an already deleted order item changes nothing.
      *
      * @param orderItemId The ID of the order item to set isDeleted.
      */
+    @RetryOnConflict
     @Transactional
     @Override
     public void deleteOrderItem(Long orderItemId) {
-        OrderItem orderItem = orderItemsRepository.findById(orderItemId).orElseThrow(
-                () -> new EntityNotFoundException("Order Item not found with ID: " + orderItemId));
+        OrderItem orderItem = findOrderItem(orderItemId);
 
-        Order order = orderItem.getOrder();
+        if (orderItem.getIsDeleted()) {
+            return;
+        }
 
-        // Order price minus item total price
-        order.setOrderPrice(order.getOrderPrice() - orderItem.getTotalPrice());
+        Order order = orderItem.getOrder();
+        OffsetDateTime currentTime = GenerateDate.generateCurrentTimestamp();
 
         orderItem.setIsDeleted(true);
+        orderItem.setDeletedAt(currentTime);
+
+        orderItemsRepository.save(orderItem);
+
+        // Order totals minus item total price and item count
+        addToOrderTotals(order, orderItem.getTotalPrice().negate(), -orderItem.getItemCount(), currentTime);
+
+        orderChangeService.orderItemsChanged(order.getId(), List.of(orderItemId), OrderChangeType.DELETED);
+    }
+
+    /**
+     * Adds the changes of order items to the order totals with a single atomic update, moves the order summaries
+     * from the order as the update found it and reports the changed order.
+     *
+     * @param order          The order as it was read.
+     * @param priceDelta     The change of the order price.
+     * @param itemCountDelta The change of the item count.
+     * @param currentTime    The new order update time.
+     * @throws EntityNotFoundException If the order no longer exists.
+     */
+    private void addToOrderTotals(Order order, BigDecimal priceDelta, long itemCountDelta,
+                                  OffsetDateTime currentTime) {
+        OrderDTO updatedOrder = ordersRepository.addToOrderTotals(order.getId(), priceDelta, itemCountDelta,
+                currentTime).orElseThrow(
+                () -> new EntityNotFoundException("Order to update the totals of not found with ID: " + order.getId()));
+
+        evictOrderAfterCommit(order.getId());
+
+        OrderContribution before = OrderContribution.of(updatedOrder);
+
+        orderStatsService.orderChanged(before,
+                before == null ? null : before.withChange(priceDelta, itemCountDelta, currentTime));
+
+        ordersSnapshotService.orderChanged(order.getId());
+    }
+
+    /**
+     * Evicts an order from the second-level cache once the atomic update of its totals is committed, since
+     * Hibernate does not know about that update.
+     *
+     * @param orderId The ID of the changed order.
+     */
+    private void evictOrderAfterCommit(Long orderId) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
 
-        ordersRepository.save(order);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evictEntityData(Order.class, orderId);
+                }
+            });
+        } else {
+            cache.evictEntityData(Order.class, orderId);
+        }
+    }
+
+    /**
+     * Finds an order item by its ID.
+     *
+     * @param orderItemId The ID of the order item.
+     * @return The order item.
+     * @throws EntityNotFoundException If the order item does not exist.
+     */
+    private OrderItem findOrderItem(Long orderItemId) {
+        return orderItemsRepository.findById(orderItemId).orElseThrow(
+                () -> new EntityNotFoundException("Order Item not found with ID: " + orderItemId));
+    }
+
+    /**
+     * Creates a request for a page of order items.
+     *
+     * @param page The zero-based page number.
+     * @param size The requested page size, clamped between 1 and {@value #MAX_PAGE_SIZE}.
+     * @return The page request.
+     * @throws IllegalArgumentException If the page is negative.
+     */
+    private Pageable pageRequest(int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative: " + page);
+        }
+
+        return PageRequest.of(page, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Checks that the order exists when a page of its order items is empty. A non-empty page proves the order
+     * exists, so the check costs a query only for empty pages.
+     *
+     * @param orderId    The ID of the order.
+     * @param orderItems The page of order items of the order.
+     * @throws EntityNotFoundException If the order does not exist.
+     */
+    private void requireOrder(Long orderId, List<OrderItemDTO> orderItems) {
+        if (orderItems.isEmpty() && !ordersRepository.existsById(orderId)) {
+            throw new EntityNotFoundException("Order for this Order Items not found with ID: " + orderId);
+        }
+    }
+
+    /**
+     * Creates a new order item from the order item data received in a request.
+     *
+     * @param orderItem   The received order item data.
+     * @param currentTime The update time of the new order item.
+     * @return The new order item.
+     */
+    private OrderItem newOrderItem(OrderItem orderItem, OffsetDateTime currentTime) {
+        return new OrderItem(orderItem.getItemName(),
+                            orderItem.getItemCode(),
+                            orderItem.getItemRevision(),
+                            orderItem.getItemCount(),
+                            orderItem.getItemPrice(),
+                            orderItem.getTotalPrice(),
+                            currentTime,
+                            orderItem.getLinkToImg());
     }
 
 }
@@ -0,0 +1,186 @@
+package lt.ordermanagement.api.services.impl;
+
+import lt.ordermanagement.api.repositories.OrdersRepository;
+import lt.ordermanagement.api.services.Interfaces.OrderNumberService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service class for allocating order numbers.
+ *
+ * <p>
+ * Each application instance reserves blocks of {@value #BLOCK_SIZE} consecutive values from the
+ * {@code order_number_seq} database sequence and hands them out from memory, so creating an order needs one
+ * sequence call per block and no existence checks. Sequence values are unique across all instances and are
+ * mapped to order numbers by a keyed permutation of the 10 digit number space, so two values never give the
+ * same order number and consecutive orders get unrelated, non-guessable numbers.
+ * </p>
+ *
+ * <p>
+ * The permutation is a balanced Feistel network over 10^5 x 10^5 values. The key {@code orders.order-number.key}
+ * has no default and the application does not start without it: anybody knowing the key can invert the
+ * permutation and enumerate order numbers, so it is kept out of the source like the JWT secret key. It must be the
+ * same on all instances and must never change, otherwise new numbers could repeat existing ones.
+ * </p>
+ */
+@Service
+public class OrderNumberServiceImpl implements OrderNumberService {
+
+    /**
+     * Number of values reserved with one sequence call, equal to the increment of {@code order_number_seq}.
+     */
+    public static final int BLOCK_SIZE = 1000;
+
+    private static final String ORDER_NUMBER_FORMAT = "ON-%010d";
+    private static final long NUMBER_SPACE = 10_000_000_000L;
+    private static final long HALF_SPACE = 100_000L;
+    private static final int ROUNDS = 8;
+
+    private final OrdersRepository ordersRepository;
+    private final long[] roundKeys;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long nextValue;
+    private long blockEnd;
+
+    public OrderNumberServiceImpl(OrdersRepository ordersRepository,
+                                  @Value("${orders.order-number.key}") String key) {
+        if (key.isBlank()) {
+            throw new IllegalArgumentException("orders.order-number.key must not be blank");
+        }
+
+        this.ordersRepository = ordersRepository;
+        this.roundKeys = createRoundKeys(key);
+    }
+
+    /**
+     * Allocates the next order number, reserving a new block of values when the current one is used up.
+     *
+     * @return The order number in the format ON-0123456789.
+     * @throws IllegalStateException If all order numbers are used up.
+     */
+    @Override
+    public String nextOrderNumber() {
+        long value;
+
+        lock.lock();
+        try {
+            if (nextValue >= blockEnd) {
+                nextValue = ordersRepository.reserveOrderNumberBlock();
+                blockEnd = Math.min(nextValue + BLOCK_SIZE, NUMBER_SPACE);
+            }
+
+            value = nextValue++;
+
+        } finally {
+            lock.unlock();
+        }
+
+        return String.format(ORDER_NUMBER_FORMAT, permute(value));
+    }
+
+    /**
+     * Allocates consecutive values for many order numbers at once, taking the lock once and reserving as many
+     * blocks as needed.
+     *
+     * @param count The number of order numbers to allocate.
+     * @return The order numbers in the format ON-0123456789.
+     * @throws IllegalStateException If all order numbers are used up.
+     */
+    @Override
+    public List<String> nextOrderNumbers(int count) {
+        long[] values = new long[count];
+
+        lock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                if (nextValue >= blockEnd) {
+                    nextValue = ordersRepository.reserveOrderNumberBlock();
+                    blockEnd = Math.min(nextValue + BLOCK_SIZE, NUMBER_SPACE);
+                }
+
+                values[i] = nextValue++;
+            }
+
+        } finally {
+            lock.unlock();
+        }
+
+        List<String> orderNumbers = new ArrayList<>(count);
+
+        for (long value : values) {
+            orderNumbers.add(String.format(ORDER_NUMBER_FORMAT, permute(value)));
+        }
+
+        return orderNumbers;
+    }
+
+    /**
+     * Maps a sequence value to an order number value. The mapping is a bijection of [0, 10^10),
+     * so different sequence values always give different order numbers.
+     *
+     * @param value The sequence value.
+     * @return The permuted value.
+     * @throws IllegalStateException If the value lies outside the 10 digit number space.
+     */
+    long permute(long value) {
+        if (value < 0 || value >= NUMBER_SPACE) {
+            throw new IllegalStateException("Order numbers are used up, sequence value: " + value);
+        }
+
+        long left = value / HALF_SPACE;
+        long right = value % HALF_SPACE;
+
+        for (long roundKey : roundKeys) {
+            long newRight = (left + round(right, roundKey)) % HALF_SPACE;
+            left = right;
+            right = newRight;
+        }
+
+        return left * HALF_SPACE + right;
+    }
+
+    /**
+     * Feistel round function, a keyed splitmix64 hash of the half reduced to the half space.
+     */
+    private static long round(long half, long roundKey) {
+        long z = half ^ roundKey;
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return Math.floorMod(z, HALF_SPACE);
+    }
+
+    /**
+     * Derives the round keys of the permutation from the configured key.
+     *
+     * @param key The configured key.
+     * @return One key per round.
+     */
+    private static long[] createRoundKeys(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-512").digest(key.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            long[] keys = new long[ROUNDS];
+
+            for (int i = 0; i < ROUNDS; i++) {
+                keys[i] = buffer.getLong();
+            }
+
+            return keys;
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-512 is not available", e);
+        }
+    }
+
+}
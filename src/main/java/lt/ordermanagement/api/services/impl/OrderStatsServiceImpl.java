@@ -0,0 +1,193 @@
+package lt.ordermanagement.api.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import lt.ordermanagement.api.dtos.OrderStatsDTO;
+import lt.ordermanagement.api.dtos.OrderStatusCountsDTO;
+import lt.ordermanagement.api.dtos.StatsGroupDTO;
+import lt.ordermanagement.api.enums.OrderStatus;
+import lt.ordermanagement.api.repositories.OrderStatsRepository;
+import lt.ordermanagement.api.repositories.OrderStatsRepository.GroupStats;
+import lt.ordermanagement.api.services.Interfaces.OrderStatsService;
+import lt.ordermanagement.api.utils.OrderContribution;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Service class for the order summaries.
+ *
+ * <p>
+ * The summary tables are moved by the difference between the contribution of an order before and after a change,
+ * in the transaction of the change, so the summaries never drift from the orders. Reading them costs a fixed
+ * number of rows per group, whatever the number of orders.
+ * </p>
+ *
+ * <p>
+ * The rows of a status and of a month are updated by many concurrent transactions, so each of them is split over
+ * {@value #SLOTS} slots and every change updates a random slot. Rows are updated in a fixed order, clients, months,
+ * then statuses, each in key order, after the changed order row is locked, so two changes never wait for each other's
+ * row locks in a cycle.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderStatsServiceImpl implements OrderStatsService {
+
+    public static final int MAX_MONTHS = 120;
+    public static final int MAX_CLIENTS = 1000;
+
+    /**
+     * Number of rows every status and month is split over, must match the seeded rows of order_stats_by_status.
+     */
+    static final int SLOTS = 16;
+
+    private final OrderStatsRepository orderStatsRepository;
+
+    /**
+     * Moves the summary tables by the difference between the contributions of an order before and after a change.
+     * Must run in the transaction that changes the order.
+     *
+     * @param before The contribution before the change, or null for a new or deleted order.
+     * @param after  The contribution after the change, or null for a deleted order.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public void orderChanged(OrderContribution before, OrderContribution after) {
+        move(before == null ? List.of() : List.of(before), after == null ? List.of() : List.of(after));
+    }
+
+    /**
+     * Adds many new orders to the summary tables, one update per changed row. Must run in the transaction that
+     * inserts the orders.
+     *
+     * @param contributions The contributions of the new orders.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public void ordersAdded(List<OrderContribution> contributions) {
+        move(List.of(), contributions);
+    }
+
+    /**
+     * Moves the summary tables by the contributions added minus the contributions removed.
+     */
+    private void move(List<OrderContribution> removed, List<OrderContribution> added) {
+        int slot = ThreadLocalRandom.current().nextInt(SLOTS);
+
+        deltas(removed, added, OrderContribution::clientName).forEach((clientName, delta) ->
+                orderStatsRepository.addToClientStats(clientName, delta.orders(), delta.revenue(), delta.items()));
+
+        deltas(removed, added, OrderContribution::month).forEach((month, delta) ->
+                orderStatsRepository.addToMonthStats(month, slot, delta.orders(), delta.revenue(), delta.items()));
+
+        deltas(removed, added, OrderContribution::status).forEach((status, delta) ->
+                orderStatsRepository.addToStatusStats(status.name(), slot, delta.orders(), delta.revenue(),
+                        delta.items()));
+    }
+
+    /**
+     * Retrieves the number of orders where isDeleted is false in each status.
+     *
+     * @return The number of orders per status, statuses without orders included.
+     */
+    @Override
+    public OrderStatusCountsDTO getStatusCounts() {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status, 0L);
+        }
+
+        orderStatsRepository.findStatusStats().forEach(stats ->
+                counts.put(OrderStatus.valueOf(stats.getGroupKey()), stats.getOrderCount()));
+
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+
+        return new OrderStatusCountsDTO(counts, total);
+    }
+
+    /**
+     * Retrieves revenue, order count and item count of orders where isDeleted is false per status, per month of
+     * the order update date and per client.
+     *
+     * @param monthLimit  The number of latest months, clamped between 1 and {@value #MAX_MONTHS}.
+     * @param clientLimit The number of clients with the highest revenue, clamped between 1 and
+     *                    {@value #MAX_CLIENTS}.
+     * @return The summaries, every status included.
+     */
+    @Override
+    public OrderStatsDTO getStats(int monthLimit, int clientLimit) {
+        Map<OrderStatus, StatsGroupDTO> byStatus = new EnumMap<>(OrderStatus.class);
+
+        for (OrderStatus status : OrderStatus.values()) {
+            byStatus.put(status, new StatsGroupDTO(status.name(), 0, BigDecimal.ZERO, 0));
+        }
+
+        orderStatsRepository.findStatusStats().forEach(stats ->
+                byStatus.put(OrderStatus.valueOf(stats.getGroupKey()), toDTO(stats)));
+
+        return new OrderStatsDTO(new ArrayList<>(byStatus.values()),
+                orderStatsRepository.findMonthStats(Math.max(1, Math.min(monthLimit, MAX_MONTHS)))
+                        .stream().map(OrderStatsServiceImpl::toDTO).toList(),
+                orderStatsRepository.findTopClientStats(Math.max(1, Math.min(clientLimit, MAX_CLIENTS)))
+                        .stream().map(OrderStatsServiceImpl::toDTO).toList());
+    }
+
+    /**
+     * Computes the differences of one summary table, keyed by the group of the row to update.
+     * Groups whose summary does not change are left out.
+     */
+    private static <K extends Comparable<? super K>> Map<K, Delta> deltas(List<OrderContribution> removed,
+                                                                          List<OrderContribution> added,
+                                                                          Function<OrderContribution, K> key) {
+        Map<K, Delta> deltas = new TreeMap<>();
+
+        removed.forEach(contribution ->
+                deltas.merge(key.apply(contribution), Delta.of(contribution).negate(), Delta::add));
+
+        added.forEach(contribution ->
+                deltas.merge(key.apply(contribution), Delta.of(contribution), Delta::add));
+
+        deltas.values().removeIf(Delta::isZero);
+
+        return deltas;
+    }
+
+    private static StatsGroupDTO toDTO(GroupStats stats) {
+        return new StatsGroupDTO(stats.getGroupKey(), stats.getOrderCount(), stats.getRevenue(),
+                stats.getItemCount());
+    }
+
+    /**
+     * Difference of one summary row.
+     */
+    private record Delta(long orders, BigDecimal revenue, long items) {
+
+        static Delta of(OrderContribution contribution) {
+            return new Delta(1, contribution.revenue(), contribution.itemCount());
+        }
+
+        Delta negate() {
+            return new Delta(-orders, revenue.negate(), -items);
+        }
+
+        Delta add(Delta other) {
+            return new Delta(orders + other.orders, revenue.add(other.revenue), items + other.items);
+        }
+
+        boolean isZero() {
+            return orders == 0 && revenue.signum() == 0 && items == 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,218 @@
+package lt.ordermanagement.api.services.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import lt.ordermanagement.api.dtos.ArchiveRunDTO;
+import lt.ordermanagement.api.models.Order;
+import lt.ordermanagement.api.models.OrderItem;
+import lt.ordermanagement.api.repositories.OrderItemsRepository;
+import lt.ordermanagement.api.repositories.OrderItemsRepository.ArchivedOrderItem;
+import lt.ordermanagement.api.repositories.OrdersRepository;
+import lt.ordermanagement.api.services.Interfaces.OrdersArchiveService;
+import lt.ordermanagement.api.utils.GenerateDate;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service class for archiving deleted orders.
+ *
+ * <p>
+ * Orders and order items deleted more than {@code orders.archive.retention} ago (default 30 days) are moved to
+ * orders_archive and order_items_archive, so the hot tables and their indexes hold live rows only. Rows are moved
+ * in id order, {@code orders.archive.batch-size} rows per transaction, with a pause of
+ * {@code orders.archive.batch-pause} between batches to limit the load on the database. Order items are archived
+ * before orders, an order is archived once none of its order items is left in order_items.
+ * </p>
+ *
+ * <p>
+ * The archiver runs on the {@code orders.archive.cron} schedule (default 03:30 every day) unless
+ * {@code orders.archive.enabled=false}, and can be started on demand. Only one run at a time is allowed on an
+ * instance, runs on different instances skip each other's locked rows.
+ * </p>
+ */
+@Slf4j
+@Service
+public class OrdersArchiveServiceImpl implements OrdersArchiveService {
+
+    private static final String ORDER_ITEMS_ROLE = Order.class.getName() + ".orderItems";
+
+    private final OrdersRepository ordersRepository;
+    private final OrderItemsRepository orderItemsRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final boolean enabled;
+
+    private final ReentrantLock running = new ReentrantLock();
+
+    private volatile ArchiveRunDTO lastRun;
+
+    public OrdersArchiveServiceImpl(OrdersRepository ordersRepository,
+                                    OrderItemsRepository orderItemsRepository,
+                                    EntityManagerFactory entityManagerFactory,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${orders.archive.retention:P30D}") Duration retention,
+                                    @Value("${orders.archive.batch-size:500}") int batchSize,
+                                    @Value("${orders.archive.batch-pause:PT0.2S}") Duration batchPause,
+                                    @Value("${orders.archive.enabled:true}") boolean enabled) {
+        this.ordersRepository = ordersRepository;
+        this.orderItemsRepository = orderItemsRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Moves orders and order items deleted before the retention period to the archive tables.
+     *
+     * @return The numbers of moved rows.
+     * @throws IllegalStateException If a run is already in progress on this instance.
+     */
+    @Override
+    public ArchiveRunDTO archiveDeleted() {
+        if (!running.tryLock()) {
+            throw new IllegalStateException("An archive run is already in progress");
+        }
+
+        try {
+            OffsetDateTime startedAt = GenerateDate.generateCurrentTimestamp();
+            OffsetDateTime cutoff = startedAt.minus(retention);
+
+            long orderItemsMoved = archiveOrderItems(cutoff);
+            long ordersMoved = Thread.currentThread().isInterrupted() ? 0 : archiveOrders(cutoff);
+
+            ArchiveRunDTO run = new ArchiveRunDTO(startedAt,
+                                                  cutoff,
+                                                  ordersMoved,
+                                                  orderItemsMoved,
+                                                  Duration.between(startedAt, OffsetDateTime.now()).toMillis());
+
+            log.info("Archived {} orders and {} order items deleted before {} in {} ms",
+                    ordersMoved, orderItemsMoved, cutoff, run.durationMillis());
+
+            lastRun = run;
+
+            return run;
+
+        } finally {
+            running.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the result of the last completed run on this instance.
+     *
+     * @return The last run, or an empty Optional if there was none since the application started.
+     */
+    @Override
+    public Optional<ArchiveRunDTO> getLastRun() {
+        return Optional.ofNullable(lastRun);
+    }
+
+    /**
+     * Runs the archiver on schedule.
+     */
+    @Scheduled(cron = "${orders.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            archiveDeleted();
+
+        } catch (IllegalStateException e) {
+            log.info("Scheduled archive run skipped: {}", e.getMessage());
+
+        } catch (RuntimeException e) {
+            log.warn("Scheduled archive run failed", e);
+        }
+    }
+
+    private long archiveOrderItems(OffsetDateTime cutoff) {
+        Cache cache = secondLevelCache();
+        long moved = 0;
+        long afterId = 0;
+
+        while (true) {
+            long lastId = afterId;
+
+            List<ArchivedOrderItem> batch = transactionTemplate.execute(status ->
+                    orderItemsRepository.archiveDeletedBatch(cutoff, lastId, batchSize));
+
+            // Cached collections of the orders still list the archived order items
+            batch.forEach(orderItem -> {
+                cache.evictEntityData(OrderItem.class, orderItem.getId());
+                cache.evictCollectionData(ORDER_ITEMS_ROLE, orderItem.getOrderId());
+            });
+
+            moved += batch.size();
+
+            if (batch.size() < batchSize || !pause()) {
+                return moved;
+            }
+
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    private long archiveOrders(OffsetDateTime cutoff) {
+        Cache cache = secondLevelCache();
+        long moved = 0;
+        long afterId = 0;
+
+        while (true) {
+            long lastId = afterId;
+
+            List<Long> batch = transactionTemplate.execute(status ->
+                    ordersRepository.archiveDeletedBatch(cutoff, lastId, batchSize));
+
+            batch.forEach(orderId -> cache.evictEntityData(Order.class, orderId));
+
+            moved += batch.size();
+
+            if (batch.size() < batchSize || !pause()) {
+                return moved;
+            }
+
+            afterId = batch.get(batch.size() - 1);
+        }
+    }
+
+    /**
+     * Waits between batches.
+     *
+     * @return False if the thread was interrupted and the run should stop.
+     */
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause.toMillis());
+            return true;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Cache secondLevelCache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+}
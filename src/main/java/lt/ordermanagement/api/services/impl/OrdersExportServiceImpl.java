@@ -0,0 +1,297 @@
+package lt.ordermanagement.api.services.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lt.ordermanagement.api.dtos.OrderExportDTO;
+import lt.ordermanagement.api.enums.ExportFormat;
+import lt.ordermanagement.api.models.Order;
+import lt.ordermanagement.api.models.OrderItem;
+import lt.ordermanagement.api.repositories.OrderItemsRepository;
+import lt.ordermanagement.api.repositories.OrdersRepository;
+import lt.ordermanagement.api.services.Interfaces.OrdersExportService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Service class for exporting orders.
+ *
+ * <p>
+ * Orders are streamed from a database cursor straight to the output stream, so memory use does not depend on the
+ * number of exported orders. When order items are included, a second cursor streams the items sorted by order id
+ * and both streams are merged, so the export runs two queries regardless of the number of orders.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class OrdersExportServiceImpl implements OrdersExportService {
+
+    /**
+     * Number of exported orders after which the output is flushed and the persistence context is cleared.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private final OrdersRepository ordersRepository;
+    private final OrderItemsRepository orderItemsRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes all orders where isDeleted is false to the output stream, sorted by id.
+     *
+     * @param outputStream The output stream to write to. It is not closed by this method.
+     * @param format       The output format.
+     * @param includeItems Whether order items where isDeleted is false are inlined into the orders.
+     * @throws IOException If writing to the output stream fails.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void exportOrders(OutputStream outputStream,
+                             ExportFormat format,
+                             boolean includeItems) throws IOException {
+        try (Stream<Order> orders = ordersRepository.streamAllForExport();
+             Stream<OrderItem> items = includeItems ? orderItemsRepository.streamAllForExport() : Stream.empty();
+             OrderExportWriter writer = createWriter(outputStream, format, includeItems)) {
+
+            Iterator<OrderItem> itemIterator = items.iterator();
+            OrderItem pendingItem = itemIterator.hasNext() ? itemIterator.next() : null;
+            long exportedOrders = 0;
+
+            // Sends headers and the first bytes before the rest of the result set is fetched
+            writer.flush();
+
+            for (Iterator<Order> orderIterator = orders.iterator(); orderIterator.hasNext(); ) {
+                Order order = orderIterator.next();
+                List<OrderItem> orderItems = new ArrayList<>();
+
+                // Both cursors are sorted by order id, items of orders that are not exported are skipped
+                while (pendingItem != null && pendingItem.getOrder().getId() <= order.getId()) {
+                    if (pendingItem.getOrder().getId().equals(order.getId())) {
+                        orderItems.add(pendingItem);
+                    }
+
+                    pendingItem = itemIterator.hasNext() ? itemIterator.next() : null;
+                }
+
+                writer.write(order, orderItems);
+
+                if (++exportedOrders % BATCH_SIZE == 0) {
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a writer for the given export format.
+     *
+     * @param outputStream The output stream to write to.
+     * @param format       The output format.
+     * @param includeItems Whether order items are written.
+     * @return The export writer.
+     * @throws IOException If writing to the output stream fails.
+     */
+    private OrderExportWriter createWriter(OutputStream outputStream,
+                                           ExportFormat format,
+                                           boolean includeItems) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new NonClosingOutputStream(outputStream),
+                StandardCharsets.UTF_8));
+
+        return switch (format) {
+            case NDJSON -> new NdjsonOrderExportWriter(objectMapper, writer, includeItems);
+            case CSV -> new CsvOrderExportWriter(writer, includeItems);
+        };
+    }
+
+    /**
+     * Writer of exported orders.
+     */
+    interface OrderExportWriter extends Closeable {
+
+        void write(Order order, List<OrderItem> orderItems) throws IOException;
+
+        void flush() throws IOException;
+
+    }
+
+    /**
+     * Writes one JSON document per line, either an order or an order with an inlined list of order items.
+     */
+    static class NdjsonOrderExportWriter implements OrderExportWriter {
+
+        private final Writer writer;
+        private final SequenceWriter sequenceWriter;
+        private final boolean includeItems;
+        private boolean empty = true;
+
+        NdjsonOrderExportWriter(ObjectMapper objectMapper, Writer writer, boolean includeItems) throws IOException {
+            this.writer = writer;
+            this.sequenceWriter = objectMapper.writer()
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .writeValues(writer);
+            this.includeItems = includeItems;
+        }
+
+        @Override
+        public void write(Order order, List<OrderItem> orderItems) throws IOException {
+            sequenceWriter.write(includeItems ? new OrderExportDTO(order, orderItems) : order);
+            empty = false;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            sequenceWriter.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            sequenceWriter.close();
+
+            // Terminates the last line, the sequence writer only separates values
+            if (!empty) {
+                writer.write('\n');
+            }
+
+            writer.close();
+        }
+
+    }
+
+    /**
+     * Writes a header and one line per order. When order items are included, every order item gets its own line
+     * with the order columns repeated, orders without items get one line with empty item columns.
+     */
+    static class CsvOrderExportWriter implements OrderExportWriter {
+
+        private static final String ORDER_HEADER = "id,orderNumber,orderName,clientName,clientPhoneNumber," +
+                "clientEmail,orderTerm,orderStatus,orderPrice,comments,orderUpdateDate";
+        private static final String ITEM_HEADER = ",itemId,itemName,itemCode,itemRevision,itemCount," +
+                "itemPrice,totalPrice,linkToImg,itemUpdateDate";
+
+        private final Writer writer;
+        private final boolean includeItems;
+
+        CsvOrderExportWriter(Writer writer, boolean includeItems) throws IOException {
+            this.writer = writer;
+            this.includeItems = includeItems;
+
+            writer.write(ORDER_HEADER);
+            if (includeItems) {
+                writer.write(ITEM_HEADER);
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(Order order, List<OrderItem> orderItems) throws IOException {
+            if (!includeItems || orderItems.isEmpty()) {
+                writeOrder(order);
+                if (includeItems) {
+                    writer.write(",,,,,,,,,");
+                }
+                writer.write('\n');
+                return;
+            }
+
+            for (OrderItem orderItem : orderItems) {
+                writeOrder(order);
+                writeValues(orderItem.getId(),
+                        orderItem.getItemName(),
+                        orderItem.getItemCode(),
+                        orderItem.getItemRevision(),
+                        orderItem.getItemCount(),
+                        orderItem.getItemPrice(),
+                        orderItem.getTotalPrice(),
+                        orderItem.getLinkToImg(),
+                        orderItem.getItemUpdateDate());
+                writer.write('\n');
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+
+        private void writeOrder(Order order) throws IOException {
+            writer.write(escape(order.getId()));
+            writeValues(order.getOrderNumber(),
+                    order.getOrderName(),
+                    order.getClientName(),
+                    order.getClientPhoneNumber(),
+                    order.getClientEmail(),
+                    order.getOrderTerm(),
+                    order.getOrderStatus(),
+                    order.getOrderPrice(),
+                    order.getComments(),
+                    order.getOrderUpdateDate());
+        }
+
+        private void writeValues(Object... values) throws IOException {
+            for (Object value : values) {
+                writer.write(',');
+                writer.write(escape(value));
+            }
+        }
+
+        /**
+         * Quotes a value if it contains a separator, a quote or a line break.
+         *
+         * @param value The value to escape.
+         * @return The CSV representation of the value.
+         */
+        static String escape(Object value) {
+            if (value == null) {
+                return "";
+            }
+
+            String text = value.toString();
+
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 &&
+                    text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                return text;
+            }
+
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+
+    }
+
+    /**
+     * Output stream wrapper that leaves closing the underlying response stream to the servlet container.
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+    }
+
+}
@@ -0,0 +1,712 @@
+package lt.ordermanagement.api.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import lt.ordermanagement.api.dtos.ImportProgressDTO;
+import lt.ordermanagement.api.dtos.ImportRowErrorDTO;
+import lt.ordermanagement.api.enums.ExportFormat;
+import lt.ordermanagement.api.enums.OrderChangeType;
+import lt.ordermanagement.api.enums.OrderStatus;
+import lt.ordermanagement.api.models.Order;
+import lt.ordermanagement.api.models.OrderItem;
+import lt.ordermanagement.api.services.Interfaces.OrderChangeService;
+import lt.ordermanagement.api.services.Interfaces.OrderNumberService;
+import lt.ordermanagement.api.services.Interfaces.OrderStatsService;
+import lt.ordermanagement.api.services.Interfaces.OrdersImportService;
+import lt.ordermanagement.api.services.Interfaces.OrdersSnapshotService;
+import lt.ordermanagement.api.utils.GenerateDate;
+import lt.ordermanagement.api.utils.NewOrderItems;
+import lt.ordermanagement.api.utils.OrderContribution;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Service class for importing orders in bulk.
+ *
+ * <p>
+ * The upload is parsed record by record while it is received, in the formats of the export: NDJSON lines of orders
+ * with an optional {@code orderItems} list, or CSV with the export header, where consecutive lines with the same
+ * {@code id} are one order with one order item per line. Every order is checked against the constraints declared
+ * on {@link Order}, and its order items by {@link NewOrderItems}. Rejected orders are reported with their line
+ * and skipped, the rest of the upload is imported.
+ * </p>
+ *
+ * <p>
+ * Accepted orders are collected into chunks of {@code orders.import.chunk-size} rows, orders plus order items
+ * (default 10000). Each chunk is written in its own transaction: ids are reserved from the sequences with one
+ * query per table, order numbers come from {@link OrderNumberService} blocks, and the rows are sent with
+ * PostgreSQL {@code COPY}. The order summaries are moved and the created orders recorded in the order change
+ * outbox in the same transaction. Memory use is bounded by one chunk, whatever the size of the upload. A progress
+ * report is sent after every chunk and at the end.
+ * </p>
+ *
+ * <p>
+ * As for orders created one by one, order numbers, prices, item counts and update times are set by the import,
+ * values given for them in the upload are ignored.
+ * </p>
+ */
+@Slf4j
+@Service
+public class OrdersImportServiceImpl implements OrdersImportService {
+
+    /**
+     * Number of order item ids reserved with one nextval call, equal to the increment of order_items_seq.
+     */
+    static final int ORDER_ITEM_ID_BLOCK = 50;
+
+    private static final String RESERVE_ORDER_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('orders', 'id')) FROM generate_series(1, ?)";
+    private static final String RESERVE_ORDER_ITEM_IDS_SQL =
+            "SELECT nextval('order_items_seq') FROM generate_series(1, ?)";
+    private static final String COPY_ORDERS_SQL = "COPY orders (id, order_number, order_name, client_name, " +
+            "client_phone_number, client_email, order_term, order_status, order_price, item_count, comments, " +
+            "order_update_date, is_deleted) FROM STDIN WITH (FORMAT csv)";
+    private static final String COPY_ORDER_ITEMS_SQL = "COPY order_items (id, order_id, item_name, item_code, " +
+            "item_revision, item_count, item_price, total_price, link_to_img, item_update_date, is_deleted) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final OrderNumberService orderNumberService;
+    private final OrderStatsService orderStatsService;
+    private final OrdersSnapshotService ordersSnapshotService;
+    private final OrderChangeService orderChangeService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public OrdersImportServiceImpl(ObjectMapper objectMapper,
+                                   Validator validator,
+                                   OrderNumberService orderNumberService,
+                                   OrderStatsService orderStatsService,
+                                   OrdersSnapshotService ordersSnapshotService,
+                                   OrderChangeService orderChangeService,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${orders.import.chunk-size:10000}") int chunkSize,
+                                   @Value("${orders.import.max-errors:1000}") int maxErrors) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.orderNumberService = orderNumberService;
+        this.orderStatsService = orderStatsService;
+        this.ordersSnapshotService = ordersSnapshotService;
+        this.orderChangeService = orderChangeService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Imports the orders of an upload. Reading stops at the first failure that is not a rejected order, such as
+     * malformed CSV or a database error. Chunks committed before it stay imported.
+     *
+     * @param inputStream      The upload. It is not closed by this method.
+     * @param format           The format of the upload.
+     * @param progressListener Receives a progress report after every committed chunk.
+     * @return The final progress report, with {@code done} set or with the failure.
+     */
+    @Override
+    public ImportProgressDTO importOrders(InputStream inputStream,
+                                          ExportFormat format,
+                                          Consumer<ImportProgressDTO> progressListener) {
+        Progress progress = new Progress(System.nanoTime());
+        Chunk chunk = new Chunk();
+
+        try {
+            OrderImportReader reader = createReader(inputStream, format);
+
+            for (ImportRecord record = reader.next(); record != null; record = reader.next()) {
+                progress.ordersRead++;
+
+                String error = record.error() != null ? record.error() : prepare(record.order());
+
+                if (error != null) {
+                    progress.reject(record.line(), error, maxErrors);
+                    continue;
+                }
+
+                chunk.add(record.order());
+
+                if (chunk.rows >= chunkSize) {
+                    writeChunk(chunk, progress);
+                    progressListener.accept(progress.report(false, null));
+                    chunk = new Chunk();
+                }
+            }
+
+            writeChunk(chunk, progress);
+
+        } catch (IOException | RuntimeException e) {
+            log.warn("Order import stopped after {} orders", progress.ordersImported, e);
+
+            return finish(progress, progressListener, e.getMessage());
+        }
+
+        return finish(progress, progressListener, null);
+    }
+
+    /**
+     * Sends the final progress report and brings the order listing snapshot up to date.
+     */
+    private ImportProgressDTO finish(Progress progress, Consumer<ImportProgressDTO> progressListener,
+                                     String failure) {
+        if (progress.ordersImported > 0) {
+            ordersSnapshotService.scheduleRebuild();
+        }
+
+        ImportProgressDTO report = progress.report(failure == null, failure);
+        progressListener.accept(report);
+
+        return report;
+    }
+
+    /**
+     * Fills in the values set by the service, as for an order created with its order items, and checks the order
+     * against the declared constraints.
+     *
+     * @param order The order read from the upload.
+     * @return The reason for rejecting the order, or null if it is valid.
+     */
+    String prepare(Order order) {
+        order.setId(null);
+        order.setOrderNumber(null);
+        order.setIsDeleted(false);
+        order.setDeletedAt(null);
+        order.setOrderStatus(order.getOrderStatus() == null ? OrderStatus.PENDING : order.getOrderStatus());
+        order.setClientPhoneNumber(Objects.requireNonNullElse(order.getClientPhoneNumber(), ""));
+        order.setClientEmail(Objects.requireNonNullElse(order.getClientEmail(), ""));
+        order.setComments(Objects.requireNonNullElse(order.getComments(), ""));
+
+        if (order.getOrderItems() == null) {
+            order.setOrderItems(new ArrayList<>());
+        }
+
+        for (OrderItem orderItem : order.getOrderItems()) {
+            orderItem.setId(null);
+            orderItem.setIsDeleted(false);
+            orderItem.setDeletedAt(null);
+            orderItem.setItemCode(Objects.requireNonNullElse(orderItem.getItemCode(), ""));
+            orderItem.setItemRevision(Objects.requireNonNullElse(orderItem.getItemRevision(), ""));
+            orderItem.setItemCount(Objects.requireNonNullElse(orderItem.getItemCount(), 0L));
+            orderItem.setLinkToImg(Objects.requireNonNullElse(orderItem.getLinkToImg(), ""));
+        }
+
+        Map<String, String> errors = new TreeMap<>(NewOrderItems.validate(validator, order.getOrderItems()));
+
+        for (ConstraintViolation<Order> violation : validator.validate(order)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+
+        if (!errors.isEmpty()) {
+            return errors.entrySet().stream()
+                    .map(error -> error.getKey() + ": " + error.getValue())
+                    .reduce((first, second) -> first + "; " + second)
+                    .orElseThrow();
+        }
+
+        BigDecimal orderPrice = BigDecimal.ZERO;
+        long itemCount = 0;
+
+        for (OrderItem orderItem : order.getOrderItems()) {
+            orderItem.setTotalPrice(orderItem.getTotalPrice());
+            orderItem.setOrder(order);
+
+            orderPrice = orderPrice.add(orderItem.getTotalPrice());
+            itemCount += orderItem.getItemCount();
+        }
+
+        order.setOrderPrice(orderPrice);
+        order.setItemCount(itemCount);
+
+        return null;
+    }
+
+    /**
+     * Writes the orders of a chunk and their order items in one transaction and moves the order summaries.
+     *
+     * @param chunk    The accepted orders.
+     * @param progress The progress, updated after the transaction commits.
+     */
+    private void writeChunk(Chunk chunk, Progress progress) {
+        if (chunk.orders.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            OffsetDateTime currentTime = GenerateDate.generateCurrentTimestamp();
+            Iterator<Long> orderIds = jdbcTemplate.queryForList(RESERVE_ORDER_IDS_SQL, Long.class,
+                    chunk.orders.size()).iterator();
+            Iterator<Long> orderItemIds = reserveOrderItemIds(chunk.rows - chunk.orders.size());
+            Iterator<String> orderNumbers = orderNumberService.nextOrderNumbers(chunk.orders.size()).iterator();
+
+            StringBuilder orderRows = new StringBuilder();
+            StringBuilder orderItemRows = new StringBuilder();
+
+            for (Order order : chunk.orders) {
+                order.setId(orderIds.next());
+                order.setOrderNumber(orderNumbers.next());
+                order.setOrderUpdateDate(currentTime);
+
+                appendRow(orderRows,
+                        order.getId(),
+                        order.getOrderNumber(),
+                        order.getOrderName(),
+                        order.getClientName(),
+                        order.getClientPhoneNumber(),
+                        order.getClientEmail(),
+                        order.getOrderTerm(),
+                        order.getOrderStatus().name(),
+                        order.getOrderPrice(),
+                        order.getItemCount(),
+                        order.getComments(),
+                        order.getOrderUpdateDate(),
+                        false);
+
+                for (OrderItem orderItem : order.getOrderItems()) {
+                    orderItem.setId(orderItemIds.next());
+                    orderItem.setItemUpdateDate(currentTime);
+
+                    appendRow(orderItemRows,
+                            orderItem.getId(),
+                            order.getId(),
+                            orderItem.getItemName(),
+                            orderItem.getItemCode(),
+                            orderItem.getItemRevision(),
+                            orderItem.getItemCount(),
+                            orderItem.getItemPrice(),
+                            orderItem.getTotalPrice(),
+                            orderItem.getLinkToImg(),
+                            orderItem.getItemUpdateDate(),
+                            false);
+                }
+            }
+
+            // Orders first, the order items reference them
+            copy(COPY_ORDERS_SQL, orderRows);
+            copy(COPY_ORDER_ITEMS_SQL, orderItemRows);
+
+            orderStatsService.ordersAdded(chunk.orders.stream().map(OrderContribution::of).toList());
+
+            orderChangeService.ordersChanged(chunk.orders.stream().map(Order::getId).toList(),
+                    OrderChangeType.CREATED);
+        });
+
+        progress.ordersImported += chunk.orders.size();
+        progress.orderItemsImported += chunk.rows - chunk.orders.size();
+    }
+
+    /**
+     * Reserves ids for order items from order_items_seq. Every sequence value v is the end of a block of ids
+     * (v - 49 .. v) no one else uses, the same blocks Hibernate allocates from.
+     *
+     * @param count The number of ids needed.
+     * @return The reserved ids.
+     */
+    private Iterator<Long> reserveOrderItemIds(int count) {
+        if (count == 0) {
+            return Collections.emptyIterator();
+        }
+
+        int blocks = (count + ORDER_ITEM_ID_BLOCK - 1) / ORDER_ITEM_ID_BLOCK;
+        List<Long> ids = new ArrayList<>(blocks * ORDER_ITEM_ID_BLOCK);
+
+        for (long blockEnd : jdbcTemplate.queryForList(RESERVE_ORDER_ITEM_IDS_SQL, Long.class, blocks)) {
+            for (long id = blockEnd - ORDER_ITEM_ID_BLOCK + 1; id <= blockEnd; id++) {
+                ids.add(id);
+            }
+        }
+
+        return ids.iterator();
+    }
+
+    /**
+     * Sends rows to the database with COPY on the connection of the current transaction.
+     *
+     * @param sql  The COPY statement.
+     * @param rows The rows in CSV format.
+     */
+    private void copy(String sql, CharSequence rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql,
+                        new StringReader(rows.toString()));
+
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Appends one row in the CSV format of COPY. Strings are always quoted, so empty strings are not read as NULL.
+     */
+    static void appendRow(StringBuilder rows, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                rows.append(',');
+            }
+
+            Object value = values[i];
+
+            if (value instanceof String text) {
+                rows.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else if (value instanceof BigDecimal number) {
+                rows.append(number.toPlainString());
+            } else {
+                rows.append(value);
+            }
+        }
+
+        rows.append('\n');
+    }
+
+    /**
+     * Creates a reader for the given upload format.
+     *
+     * @param inputStream The upload.
+     * @param format      The format of the upload.
+     * @return The import reader.
+     * @throws IOException If reading the upload fails.
+     */
+    private OrderImportReader createReader(InputStream inputStream, ExportFormat format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+
+        return switch (format) {
+            case NDJSON -> new NdjsonOrderImportReader(objectMapper, reader);
+            case CSV -> new CsvOrderImportReader(reader);
+        };
+    }
+
+    /**
+     * An order read from the upload, or the reason it could not be read.
+     *
+     * @param line  The line where the order starts.
+     * @param order The order, null if it could not be read.
+     * @param error The reason the order could not be read, null if it was read.
+     */
+    record ImportRecord(long line, Order order, String error) {
+    }
+
+    /**
+     * Reader of imported orders.
+     */
+    interface OrderImportReader {
+
+        /**
+         * @return The next order, or null at the end of the upload.
+         * @throws IOException If reading the upload fails.
+         */
+        ImportRecord next() throws IOException;
+
+    }
+
+    /**
+     * Reads one order per line. Blank lines are skipped.
+     */
+    static class NdjsonOrderImportReader implements OrderImportReader {
+
+        private final ObjectReader objectReader;
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonOrderImportReader(ObjectMapper objectMapper, BufferedReader reader) {
+            this.objectReader = objectMapper.readerFor(Order.class);
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRecord next() throws IOException {
+            for (String text = reader.readLine(); text != null; text = reader.readLine()) {
+                line++;
+
+                if (text.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    return new ImportRecord(line, objectReader.readValue(text), null);
+
+                } catch (JsonProcessingException e) {
+                    return new ImportRecord(line, null, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+
+            return null;
+        }
+
+    }
+
+    /**
+     * Reads CSV with the header of the export. Columns are found by their header name, unknown columns are
+     * ignored. Consecutive lines with the same non-empty {@code id} are one order, the order columns are read
+     * from its first line and every line with item columns adds an order item. Quoted values may contain
+     * separators, quotes and line breaks.
+     */
+    static class CsvOrderImportReader implements OrderImportReader {
+
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long line = 1;
+        private long pendingLine;
+        private List<String> pendingRecord;
+
+        CsvOrderImportReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+
+            List<String> header = readRecord();
+
+            if (header != null) {
+                for (int i = 0; i < header.size(); i++) {
+                    // Skips a byte order mark before the first column name
+                    columns.put(header.get(i).replace("\uFEFF", "").trim(), i);
+                }
+            }
+
+            advance();
+        }
+
+        @Override
+        public ImportRecord next() throws IOException {
+            if (pendingRecord == null) {
+                return null;
+            }
+
+            long firstLine = pendingLine;
+            String key = value(pendingRecord, "id");
+            Order order = new Order();
+            String error = null;
+
+            try {
+                order.setOrderName(value(pendingRecord, "orderName"));
+                order.setClientName(value(pendingRecord, "clientName"));
+                order.setClientPhoneNumber(value(pendingRecord, "clientPhoneNumber"));
+                order.setClientEmail(value(pendingRecord, "clientEmail"));
+                order.setOrderTerm(parse(pendingRecord, "orderTerm", LocalDate::parse));
+                order.setOrderStatus(parse(pendingRecord, "orderStatus", OrderStatus::fromValue));
+                order.setComments(value(pendingRecord, "comments"));
+                order.setOrderItems(new ArrayList<>());
+
+            } catch (IllegalArgumentException e) {
+                error = e.getMessage();
+            }
+
+            do {
+                try {
+                    if (error == null && hasItem(pendingRecord)) {
+                        order.addOrderItem(toOrderItem(pendingRecord));
+                    }
+
+                } catch (IllegalArgumentException e) {
+                    error = "line " + pendingLine + ": " + e.getMessage();
+                }
+
+                advance();
+
+            } while (pendingRecord != null && !key.isEmpty() && key.equals(value(pendingRecord, "id")));
+
+            return error == null ? new ImportRecord(firstLine, order, null) : new ImportRecord(firstLine, null, error);
+        }
+
+        private boolean hasItem(List<String> record) {
+            return !value(record, "itemName").isEmpty() ||
+                    !value(record, "itemCount").isEmpty() ||
+                    !value(record, "itemPrice").isEmpty();
+        }
+
+        private OrderItem toOrderItem(List<String> record) {
+            OrderItem orderItem = new OrderItem();
+            orderItem.setItemName(value(record, "itemName"));
+            orderItem.setItemCode(value(record, "itemCode"));
+            orderItem.setItemRevision(value(record, "itemRevision"));
+            orderItem.setItemCount(parse(record, "itemCount", Long::valueOf));
+            orderItem.setItemPrice(parse(record, "itemPrice", BigDecimal::new));
+            orderItem.setLinkToImg(value(record, "linkToImg"));
+
+            return orderItem;
+        }
+
+        /**
+         * @return The value of a column, an empty string if the column is missing.
+         */
+        private String value(List<String> record, String column) {
+            Integer index = columns.get(column);
+
+            return index == null || index >= record.size() ? "" : record.get(index);
+        }
+
+        /**
+         * @return The parsed value of a column, null if it is empty.
+         * @throws IllegalArgumentException If the value can't be parsed.
+         */
+        private <T> T parse(List<String> record, String column, Function<String, T> parser) {
+            String value = value(record, column).trim();
+
+            if (value.isEmpty()) {
+                return null;
+            }
+
+            try {
+                return parser.apply(value);
+
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(column + ": invalid value '" + value + "'");
+            }
+        }
+
+        /**
+         * Reads the next record that is not a blank line.
+         */
+        private void advance() throws IOException {
+            do {
+                pendingLine = line;
+                pendingRecord = readRecord();
+            } while (pendingRecord != null && pendingRecord.size() == 1 && pendingRecord.get(0).isBlank());
+        }
+
+        /**
+         * Reads one record, which spans several lines if a quoted value contains line breaks.
+         *
+         * @return The values of the record, or null at the end of the upload.
+         * @throws IllegalArgumentException If a quoted value is not terminated.
+         */
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+
+            if (c < 0) {
+                return null;
+            }
+
+            long firstLine = line;
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+
+            while (true) {
+                if (quoted) {
+                    if (c < 0) {
+                        throw new IllegalArgumentException("Unterminated quoted value on line " + firstLine);
+                    }
+
+                    if (c == '"') {
+                        reader.mark(1);
+
+                        if (reader.read() == '"') {
+                            value.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+
+                        value.append((char) c);
+                    }
+                } else if (c == '"' && value.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else if (c == '\n' || c < 0) {
+                    if (c == '\n') {
+                        line++;
+                    }
+
+                    values.add(value.toString());
+                    return values;
+                } else if (c != '\r') {
+                    value.append((char) c);
+                }
+
+                c = reader.read();
+            }
+        }
+
+    }
+
+    /**
+     * Accepted orders waiting to be written.
+     */
+    private static class Chunk {
+
+        private final List<Order> orders = new ArrayList<>();
+        private int rows;
+
+        void add(Order order) {
+            orders.add(order);
+            rows += 1 + order.getOrderItems().size();
+        }
+
+    }
+
+    /**
+     * Counters of a running import.
+     */
+    private static class Progress {
+
+        private final long startedAt;
+        private long ordersRead;
+        private long ordersImported;
+        private long orderItemsImported;
+        private long ordersRejected;
+        private long errorsReported;
+        private List<ImportRowErrorDTO> errors = new ArrayList<>();
+
+        Progress(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        void reject(long line, String message, int maxErrors) {
+            ordersRejected++;
+
+            if (errorsReported < maxErrors) {
+                errors.add(new ImportRowErrorDTO(line, message));
+                errorsReported++;
+            }
+        }
+
+        /**
+         * Creates a report with the errors since the previous report.
+         */
+        ImportProgressDTO report(boolean done, String failure) {
+            ImportProgressDTO report = new ImportProgressDTO(ordersRead,
+                                                             ordersImported,
+                                                             orderItemsImported,
+                                                             ordersRejected,
+                                                             errors,
+                                                             done,
+                                                             failure,
+                                                             (System.nanoTime() - startedAt) / 1_000_000);
+            errors = new ArrayList<>();
+
+            return report;
+        }
+
+    }
+
+}
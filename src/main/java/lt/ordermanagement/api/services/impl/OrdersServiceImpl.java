@@ -2,179 +2,564 @@ package lt.ordermanagement.api.services.impl;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import lt.ordermanagement.api.dtos.OrderDTO;
+import lt.ordermanagement.api.dtos.OrdersPageDTO;
+import lt.ordermanagement.api.enums.OrderChangeType;
+import lt.ordermanagement.api.enums.OrderStatus;
+import lt.ordermanagement.api.exeptions.PreconditionFailedException;
 import lt.ordermanagement.api.models.Order;
 import lt.ordermanagement.api.models.OrderItem;
+import lt.ordermanagement.api.repositories.OrderItemsRepository;
 import lt.ordermanagement.api.repositories.OrdersRepository;
+import lt.ordermanagement.api.services.Interfaces.OrderChangeService;
+import lt.ordermanagement.api.services.Interfaces.OrderNumberService;
+import lt.ordermanagement.api.services.Interfaces.OrderStatsService;
 import lt.ordermanagement.api.services.Interfaces.OrdersService;
+import lt.ordermanagement.api.services.Interfaces.OrdersSnapshotService;
 import lt.ordermanagement.api.utils.GenerateDate;
+import lt.ordermanagement.api.utils.LikePatterns;
+import lt.ordermanagement.api.utils.OrderContribution;
+import lt.ordermanagement.api.utils.OrderCursor;
+import lt.ordermanagement.api.utils.RetryOnConflict;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.Optional;
 
 /**
  * Service class for managing orders.
  *
  * <p>
  * This service provides methods for retrieving, creating, updating, and deleting orders.
- * It also includes a method for generating unique order numbers.
+ * Order numbers of new orders are allocated by {@link OrderNumberService}. The order listing is served from
+ * the in-memory snapshot of {@link OrdersSnapshotService}, which is told about every changed order. The order
+ * summaries of {@link OrderStatsService} are moved in the transaction of every change, which also records the
+ * change in the outbox of {@link OrderChangeService} for the order change stream.
+ * </p>
+ *
+ * <p>
+ * Orders are versioned. A change of an order that another transaction changed since it was read fails with an
+ * optimistic lock conflict and is run again, see {@link RetryOnConflict}.
+ * </p>
+ *
+ * <p>
+ * Reads return {@link OrderDTO} projections in read-only transactions, so no order they read is managed by the
+ * persistence context. The order listing opens no transaction of its own, pages served from the snapshot need no
+ * connection.
  * </p>
  */
 @Service
 @RequiredArgsConstructor
 public class OrdersServiceImpl implements OrdersService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_SEARCH_PAGE_SIZE = 100;
+    public static final int MAX_SEARCH_RESULTS = 1000;
+
     private final OrdersRepository ordersRepository;
+    private final OrderItemsRepository orderItemsRepository;
+    private final OrderNumberService orderNumberService;
+    private final OrdersSnapshotService ordersSnapshotService;
+    private final OrderStatsService orderStatsService;
+    private final OrderChangeService orderChangeService;
 
     /**
-     * Retrieves a list of all orders.
+     * Retrieves one page of orders sorted by orderUpdateDate, orderTerm, clientName, orderName and id.
+     * The page is read from the in-memory snapshot, or from the database until the snapshot is built.
      *
-     * @return Sorted list of orders.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size   The requested page size, clamped between 1 and {@value #MAX_PAGE_SIZE}.
+     * @return Sorted page of orders with the cursor of the next page.
+     * @throws IllegalArgumentException If the cursor is malformed.
      */
     @Override
-    public List<Order> getOrders() {
-        return ordersRepository.findAllSorted();
+    public OrdersPageDTO getOrders(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        Optional<OrdersPageDTO> snapshotPage = ordersSnapshotService.getPage(cursor, pageSize);
+
+        if (snapshotPage.isPresent()) {
+            return snapshotPage.get();
+        }
+
+        // Fetches one extra order to find out whether there is a next page
+        int limit = pageSize + 1;
+
+        List<OrderDTO> orders;
+
+        if (cursor == null || cursor.isBlank()) {
+            orders = ordersRepository.findFirstPageSorted(limit);
+        } else {
+            OrderCursor orderCursor = OrderCursor.decode(cursor);
+
+            orders = ordersRepository.findPageSortedAfter(orderCursor.orderUpdateDate(),
+                                                          orderCursor.orderTerm(),
+                                                          orderCursor.clientName(),
+                                                          orderCursor.orderName(),
+                                                          orderCursor.id(),
+                                                          limit);
+        }
+
+        return toPage(orders, pageSize);
     }
 
     /**
-     * Retrieves an order by its ID.
+     * Retrieves an order by its ID. The order is looked up in the second-level cache first, the read-only
+     * transaction loads it without a dirty-check snapshot.
      *
      * @param orderId The ID of the order to retrieve.
      * @return The retrieved order.
      */
+    @Transactional(readOnly = true)
     @Override
-    public Order getOrderById(Long orderId) {
-        return ordersRepository.findById(orderId).orElseThrow(
+    public OrderDTO getOrderById(Long orderId) {
+        return OrderDTO.of(findOrder(orderId));
+    }
+
+    /**
+     * Retrieves the version of an order with a primary key lookup, without loading the order, so a client can be
+     * told that its copy is up to date.
+     *
+     * @param orderId The ID of the order.
+     * @return The version of the order.
+     * @throws EntityNotFoundException If the order does not exist.
+     */
+    @Override
+    public Long getOrderVersion(Long orderId) {
+        return ordersRepository.findVersionById(orderId).orElseThrow(
                 () -> new EntityNotFoundException("Order not found with ID: " + orderId));
     }
 
     /**
-     * Retrieves a list of orders based on a search parameter.
+     * Retrieves the version of the order listing. Pages are served from the snapshot, which changes its version
+     * with every change of the listing.
+     *
+     * @return The version of the order listing, or an empty Optional if the snapshot is not built yet.
+     */
+    @Override
+    public Optional<String> getOrdersVersion() {
+        return ordersSnapshotService.getListingVersion();
+    }
+
+    /**
+     * Retrieves a page of orders based on a search parameter, ranked by similarity to it.
+     * Only the first {@value #MAX_SEARCH_RESULTS} ranked orders can be paged through.
      *
      * @param searchParam The parameter to search for in order attributes
      *                    (orderNumber, orderName, client, clientPhoneNumber, clientEmail).
-     * @return A sorted list of orders matching the specified search parameter.
+     * @param page        The zero-based page number.
+     * @param size        The requested page size, clamped between 1 and {@value #MAX_SEARCH_PAGE_SIZE}.
+     * @return A ranked list of orders matching the specified search parameter.
+     * @throws IllegalArgumentException If the page is negative or lies beyond the search result limit.
      */
+    @Transactional(readOnly = true)
     @Override
-    public List<Order> findOrdersByParameters(String searchParam) {
-        return ordersRepository.findSortedOrdersByParameters(searchParam,
-                                                            searchParam,
-                                                            searchParam,
-                                                            searchParam,
-                                                            searchParam);
+    public List<OrderDTO> findOrdersByParameters(String searchParam, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+
+        if (page < 0 || (long) page * pageSize >= MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("Search results are limited to the first " +
+                    MAX_SEARCH_RESULTS + " orders, page out of range: " + page);
+        }
+
+        int offset = page * pageSize;
+        int limit = Math.min(pageSize, MAX_SEARCH_RESULTS - offset);
+
+        return ordersRepository.searchOrders(searchParam,
+                                             LikePatterns.containing(searchParam),
+                                             limit,
+                                             offset);
     }
 
     /**
-     * Saves a new order with an automatically generated order number, calculated order price and
-     * automatically generated date order was created.
+     * Retrieves one page of the orders due between two dates, inclusive, sorted by orderTerm and id.
      *
-     * @param order The order to save. It should contain order items for accurate price calculation.
+     * @param from   The first order term of the range.
+     * @param to     The last order term of the range.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size   The requested page size, clamped between 1 and {@value #MAX_PAGE_SIZE}.
+     * @return Sorted page of orders with the cursor of the next page.
+     * @throws IllegalArgumentException If the range is empty or the cursor is malformed.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public OrdersPageDTO findOrdersDueBetween(LocalDate from, LocalDate to, String cursor, int size) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Range start " + from + " is after range end " + to);
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<OrderDTO> orders;
+
+        if (cursor == null || cursor.isBlank()) {
+            orders = ordersRepository.findPageDueBetween(from, to, from, 0L, pageable);
+        } else {
+            OrderCursor orderCursor = OrderCursor.decode(cursor);
+
+            orders = ordersRepository.findPageDueBetween(from, to, orderCursor.orderTerm(), orderCursor.id(),
+                    pageable);
+        }
+
+        return toPage(orders, pageSize);
+    }
+
+    /**
+     * Retrieves one page of the orders updated at or after the given time, sorted by orderUpdateDate and id,
+     * so a client can fetch the changes since its last poll.
+     *
+     * @param since  The earliest order update time.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size   The requested page size, clamped between 1 and {@value #MAX_PAGE_SIZE}.
+     * @return Sorted page of orders with the cursor of the next page.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public OrdersPageDTO findOrdersUpdatedSince(OffsetDateTime since, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<OrderDTO> orders;
+
+        if (cursor == null || cursor.isBlank()) {
+            orders = ordersRepository.findPageUpdatedSince(since, since, 0L, pageable);
+        } else {
+            OrderCursor orderCursor = OrderCursor.decode(cursor);
+
+            orders = ordersRepository.findPageUpdatedSince(since, orderCursor.orderUpdateDate(), orderCursor.id(),
+                    pageable);
+        }
+
+        return toPage(orders, pageSize);
+    }
+
+    /**
+     * Saves a new order together with its order items with an automatically generated order number,
+     * calculated order price and automatically generated date order was created.
+     * The order and its items are inserted in one transaction, the items in JDBC batches.
+     *
+     * @param order The order to save. It may contain order items, order price is their total price.
      */
     @Transactional
     @Override
     public Order addOrder(Order order) {
-        order.setOrderNumber(generateOrderNumber());
-        order.setOrderUpdateDate(GenerateDate.generateCurrentDate());
+        OffsetDateTime currentTime = GenerateDate.generateCurrentTimestamp();
+        List<OrderItem> orderItems = order.getOrderItems() == null ? List.of() : order.getOrderItems();
+
+        order.setOrderNumber(orderNumberService.nextOrderNumber());
+        order.setOrderStatus(order.getOrderStatus() == null ? OrderStatus.PENDING : order.getOrderStatus());
+        order.setOrderUpdateDate(currentTime);
+        order.setOrderItems(new ArrayList<>(orderItems.size()));
+
+        BigDecimal orderPrice = BigDecimal.ZERO;
+        long itemCount = 0;
+
+        for (OrderItem orderItem : orderItems) {
+            orderItem.setId(null);
+            orderItem.setIsDeleted(false);
+            orderItem.setItemUpdateDate(currentTime);
+            orderItem.setTotalPrice(orderItem.getTotalPrice());
+
+            order.addOrderItem(orderItem);
+
+            orderPrice = orderPrice.add(orderItem.getTotalPrice());
+            itemCount += orderItem.getItemCount();
+        }
+
+        order.setOrderPrice(orderPrice);
+        order.setItemCount(itemCount);
 
+        // Order items are persisted by cascade
         ordersRepository.save(order);
 
+        orderStatsService.orderChanged(null, OrderContribution.of(order));
+
+        orderChangeService.orderChanged(order.getId(), OrderChangeType.CREATED);
+
+        ordersSnapshotService.orderChanged(order.getId());
+
         return order;
     }
 
     /**
-     * Updates an existing newOrder.
+     * Updates an existing newOrder. The order status is changed like in
+     * {@link #changeOrderStatus(Long, OrderStatus, Long)}, without a status the order keeps its status.
      *
-     * @param order The order to update.
+     * @param order           The order to update.
+     * @param requiredVersion The version the order must have, or null to update any version.
+     * @throws IllegalStateException       If the order may not move to the new status.
+     * @throws PreconditionFailedException If the order does not have the required version.
      */
+    @RetryOnConflict
     @Transactional
     @Override
-    public Order updateOrder(Long orderId, Order order) {
-        Order oldOrder = getOrderById(orderId);
+    public Order updateOrder(Long orderId, Order order, Long requiredVersion) {
+        Order oldOrder = findOrder(orderId);
+
+        requireVersion(oldOrder, requiredVersion);
+
+        OrderStatus newStatus = order.getOrderStatus() == null ? oldOrder.getOrderStatus() : order.getOrderStatus();
+
+        requireTransition(oldOrder, newStatus);
+
+        OrderContribution before = OrderContribution.of(oldOrder);
 
         oldOrder.setOrderName(order.getOrderName());
         oldOrder.setClientName(order.getClientName());
         oldOrder.setClientPhoneNumber(order.getClientPhoneNumber());
         oldOrder.setClientEmail(order.getClientEmail());
         oldOrder.setOrderTerm(order.getOrderTerm());
-        oldOrder.setOrderStatus(order.getOrderStatus());
-        oldOrder.setOrderPrice(countTotalOrderPrice(orderId));
+        oldOrder.setOrderStatus(newStatus);
         oldOrder.setComments(order.getComments());
-        oldOrder.setOrderUpdateDate(GenerateDate.generateCurrentDate());
+        oldOrder.setOrderUpdateDate(GenerateDate.generateCurrentTimestamp());
+
+        // Locks the order row before the summary rows, like the changes of its order items
+        ordersRepository.saveAndFlush(oldOrder);
+
+        orderStatsService.orderChanged(before, OrderContribution.of(oldOrder));
 
-        ordersRepository.save(oldOrder);
+        orderChangeService.orderChanged(orderId, OrderChangeType.UPDATED);
+
+        ordersSnapshotService.orderChanged(orderId);
 
         return oldOrder;
     }
 
     /**
-     * Sets isDeleted order and all order items to 'true'.
+     * Moves an order to a new status and moves the order summaries in the same transaction.
+     *
+     * @param orderId         The ID of the order.
+     * @param status          The new status.
+     * @param requiredVersion The version the order must have, or null to change any version.
+     * @return The updated order, or the order unchanged if it already is in the status.
+     * @throws IllegalStateException       If the order may not move to the new status.
+     * @throws PreconditionFailedException If the order does not have the required version.
+     */
+    @RetryOnConflict
+    @Transactional
+    @Override
+    public Order changeOrderStatus(Long orderId, OrderStatus status, Long requiredVersion) {
+        Order order = findOrder(orderId);
+
+        requireVersion(order, requiredVersion);
+
+        if (order.getOrderStatus() == status) {
+            return order;
+        }
+
+        requireTransition(order, status);
+
+        OrderContribution before = OrderContribution.of(order);
+
+        order.setOrderStatus(status);
+        order.setOrderUpdateDate(GenerateDate.generateCurrentTimestamp());
+
+        // Locks the order row before the summary rows, like the changes of its order items
+        ordersRepository.saveAndFlush(order);
+
+        orderStatsService.orderChanged(before, OrderContribution.of(order));
+
+        orderChangeService.orderChanged(orderId, OrderChangeType.UPDATED);
+
+        ordersSnapshotService.orderChanged(orderId);
+
+        return order;
+    }
+
+    /**
+     * Retrieves one page of the orders in a status, most recently updated first.
+     *
+     * @param status The order status.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size   The requested page size, clamped between 1 and {@value #MAX_PAGE_SIZE}.
+     * @return Sorted page of orders with the cursor of the next page.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public OrdersPageDTO findOrdersByStatus(OrderStatus status, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<OrderDTO> orders;
+
+        if (cursor == null || cursor.isBlank()) {
+            orders = ordersRepository.findFirstPageByStatus(status, pageable);
+        } else {
+            OrderCursor orderCursor = OrderCursor.decode(cursor);
+
+            orders = ordersRepository.findPageByStatusAfter(status, orderCursor.orderUpdateDate(), orderCursor.id(),
+                    pageable);
+        }
+
+        return toPage(orders, pageSize);
+    }
+
+    /**
+     * Sets isDeleted order and all order items to 'true' and records the deletion time.
+     * Deleting an already deleted order changes nothing.
      *
      * @param orderId The ID of the order to set isDeleted.
      */
+    @RetryOnConflict
     @Transactional
     @Override
     public void deleteOrder(Long orderId) {
-        Order order = ordersRepository.findById(orderId).orElseThrow(
-                () -> new EntityNotFoundException("Order not found with ID: " + orderId));
+        Order order = findOrder(orderId);
+
+        if (order.getIsDeleted()) {
+            return;
+        }
+
+        OrderContribution before = OrderContribution.of(order);
+
+        OffsetDateTime deletedAt = GenerateDate.generateCurrentTimestamp();
 
         order.setIsDeleted(true);
+        order.setDeletedAt(deletedAt);
 
         List<OrderItem> orderItems = order.getOrderItems();
 
-        orderItems.forEach(item -> item.setIsDeleted(true));
+        // Order items deleted earlier keep their own deletion time, so restoring the order leaves them deleted
+        orderItems.stream()
+                .filter(item -> !item.getIsDeleted())
+                .forEach(item -> {
+                    item.setIsDeleted(true);
+                    item.setDeletedAt(deletedAt);
+                });
 
-        ordersRepository.save(order);
+        // Locks the order row before the summary rows, like the changes of its order items
+        ordersRepository.saveAndFlush(order);
+
+        orderStatsService.orderChanged(before, null);
+
+        orderChangeService.orderChanged(orderId, OrderChangeType.DELETED);
+
+        ordersSnapshotService.orderChanged(orderId);
     }
 
     /**
-     * Calculates and returns the total price of all orders.
+     * Sets isDeleted of a deleted order and of the order items deleted together with it back to 'false'.
+     * An order that was already moved to the archive is moved back first. Order items deleted before the order
+     * stay deleted, the order price never included them.
      *
-     * @return The total price of all orders in the system. Returns 0.0 if no orders exist.
+     * @param orderId The ID of the order to restore.
+     * @return The restored order, or the order unchanged if it is not deleted.
      */
+    @RetryOnConflict
+    @Transactional
     @Override
-    public Double countTotalOrderPrice(Long orderId) {
-        Order order = ordersRepository.findById(orderId).orElseThrow(
-                () -> new EntityNotFoundException("Order not found with ID: " + orderId));
+    public Order restoreOrder(Long orderId) {
+        ordersRepository.restoreArchived(orderId);
+
+        Order order = findOrder(orderId);
+
+        if (!order.getIsDeleted()) {
+            return order;
+        }
+
+        if (order.getDeletedAt() != null) {
+            // Order items are archived before their order, so they are in either table
+            orderItemsRepository.restoreArchived(orderId, order.getDeletedAt());
+            orderItemsRepository.restoreDeleted(orderId, order.getDeletedAt());
+        }
+
+        order.setIsDeleted(false);
+        order.setDeletedAt(null);
+
+        // Locks the order row before the summary rows, like the changes of its order items
+        ordersRepository.saveAndFlush(order);
+
+        orderStatsService.orderChanged(null, OrderContribution.of(order));
+
+        orderChangeService.orderChanged(orderId, OrderChangeType.RESTORED);
 
-        List<OrderItem> orderItemList = order.getOrderItems();
+        ordersSnapshotService.orderChanged(orderId);
 
-        return orderItemList.stream()
-                .map(OrderItem::getTotalPrice)
-                .reduce(0D, Double::sum);
+        return order;
     }
 
     /**
-     * Generates a unique order number.
+     * Calculates the total price of an order from its order items where isDeleted is false.
+     * Order price is maintained incrementally, this method is meant for verifying it.
      *
-     * @return The generated order number.
+     * @param orderId The ID of the order.
+     * @return The total price of the order. Returns 0 if the order has no order items.
      */
-    private String generateOrderNumber() {
-        String characters = "0123456789";
-        int length = 10;
+    @Override
+    public BigDecimal countTotalOrderPrice(Long orderId) {
+        if (!ordersRepository.existsById(orderId)) {
+            throw new EntityNotFoundException("Order not found with ID: " + orderId);
+        }
+
+        return ordersRepository.sumOrderItemPrices(orderId);
+    }
 
-        while (true) {
-            StringBuilder orderNumber = new StringBuilder("ON-");
+    /**
+     * Finds an order by its ID.
+     *
+     * @param orderId The ID of the order.
+     * @return The order.
+     * @throws EntityNotFoundException If the order does not exist.
+     */
+    private Order findOrder(Long orderId) {
+        return ordersRepository.findById(orderId).orElseThrow(
+                () -> new EntityNotFoundException("Order not found with ID: " + orderId));
+    }
 
-            for (int i = 0; i < length; i++) {
-                int index = new Random().nextInt(characters.length());
-                orderNumber.append(characters.charAt(index));
-            }
+    /**
+     * Checks that an order has the version a conditional change requires. A change run again after an optimistic
+     * lock conflict reads the order again, so it fails here instead of overwriting the other change.
+     *
+     * @param order           The order.
+     * @param requiredVersion The required version, or null if the change is not conditional.
+     * @throws PreconditionFailedException If the order has another version.
+     */
+    private static void requireVersion(Order order, Long requiredVersion) {
+        if (requiredVersion != null && !requiredVersion.equals(order.getVersion())) {
+            throw new PreconditionFailedException("Order with ID: " + order.getId() + " has version " +
+                    order.getVersion() + ", required: " + requiredVersion);
+        }
+    }
 
-            if (!orderNumberExists(orderNumber.toString())) {
-                return orderNumber.toString();
-            }
+    /**
+     * Checks that an order may move to a new status.
+     *
+     * @param order  The order.
+     * @param status The new status.
+     * @throws IllegalStateException If the transition is not allowed.
+     */
+    private static void requireTransition(Order order, OrderStatus status) {
+        if (!order.getOrderStatus().canTransitionTo(status)) {
+            throw new IllegalStateException("Order with ID: " + order.getId() + " can't move from " +
+                    order.getOrderStatus() + " to " + status + ", allowed: " + order.getOrderStatus().nextStatuses());
         }
     }
 
     /**
-     * Checks if an order number already exists in the database.
+     * Creates a page from orders fetched with one extra order, which tells whether there is a next page.
      *
-     * @param orderNumber The order number to check.
-     * @return True if the order number exists, false otherwise.
+     * @param orders   Up to pageSize + 1 sorted orders.
+     * @param pageSize The page size.
+     * @return The page with the cursor of its last order, or without a cursor if there is no next page.
      */
-    private boolean orderNumberExists(String orderNumber) {
-        return ordersRepository.existsByOrderNumber(orderNumber);
+    private static OrdersPageDTO toPage(List<OrderDTO> orders, int pageSize) {
+        if (orders.size() <= pageSize) {
+            return new OrdersPageDTO(orders, null, pageSize);
+        }
+
+        List<OrderDTO> page = orders.subList(0, pageSize);
+
+        return new OrdersPageDTO(page, OrderCursor.of(page.get(pageSize - 1)).encode(), pageSize);
     }
 
 }
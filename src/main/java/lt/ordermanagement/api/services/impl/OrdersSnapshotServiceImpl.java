@@ -0,0 +1,390 @@
+package lt.ordermanagement.api.services.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import lt.ordermanagement.api.dtos.OrderDTO;
+import lt.ordermanagement.api.dtos.OrdersPageDTO;
+import lt.ordermanagement.api.repositories.OrdersRepository;
+import lt.ordermanagement.api.services.Interfaces.OrdersSnapshotService;
+import lt.ordermanagement.api.utils.OrderCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Service class holding the order listing in memory.
+ *
+ * <p>
+ * The snapshot is an immutable array of the {@link OrderDTO} projections of the orders where isDeleted is false,
+ * sorted in the listing order, together with a version that grows with every change and a listing version made from
+ * the IDs and row versions of the orders, which is the same on every instance. Readers take the current
+ * snapshot without locking and binary search it for the cursor position. Changes are never made in place: the
+ * snapshot is copied with the changed orders replaced and the new copy is published, so a reader keeps a
+ * consistent view for the whole page.
+ * </p>
+ *
+ * <p>
+ * The snapshot is built when the application starts. Services report changed orders with
+ * {@link #orderChanged(Long)}, and after the transaction commits the orders are reloaded and merged into a new
+ * snapshot. Reloads run on a single refresher thread, which coalesces changes that arrive while it is busy.
+ * The snapshot is rebuilt from the database every {@code orders.snapshot.rebuild-interval}, which bounds how long
+ * a change made on another instance takes to be seen here. The snapshot can be turned off with
+ * {@code orders.snapshot.enabled=false}, the listing is then read from the database.
+ * </p>
+ */
+@Slf4j
+@Service
+public class OrdersSnapshotServiceImpl implements OrdersSnapshotService {
+
+    /**
+     * An order of the snapshot together with its position in the listing order.
+     *
+     * @param key   The listing sort key of the order.
+     * @param order The order.
+     */
+    record Entry(OrderCursor key, OrderDTO order) {
+
+        static Entry of(OrderDTO order) {
+            return new Entry(OrderCursor.of(order), order);
+        }
+
+    }
+
+    /**
+     * Immutable, sorted order listing.
+     *
+     * @param entries        The orders in the listing order.
+     * @param version        The version of the snapshot.
+     * @param listingVersion The version of the listing, see {@link #listingVersion(Entry[])}.
+     */
+    record Snapshot(Entry[] entries, long version, String listingVersion) {
+
+        Snapshot(Entry[] entries, long version) {
+            this(entries, version, OrdersSnapshotServiceImpl.listingVersion(entries));
+        }
+
+    }
+
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator.comparing(Entry::key, OrderCursor.LISTING_ORDER);
+
+    private final OrdersRepository ordersRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor refresher;
+    private final boolean enabled;
+
+    private final Set<Long> changedOrderIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+    /**
+     * The current snapshot, null until it is built. Written only by the refresher thread.
+     */
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public OrdersSnapshotServiceImpl(OrdersRepository ordersRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${orders.snapshot.enabled:true}") boolean enabled) {
+        this(ordersRepository, transactionManager, newRefresher(), enabled);
+    }
+
+    OrdersSnapshotServiceImpl(OrdersRepository ordersRepository,
+                              PlatformTransactionManager transactionManager,
+                              Executor refresher,
+                              boolean enabled) {
+        this.ordersRepository = ordersRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.refresher = refresher;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Retrieves one page of the order listing from the snapshot.
+     *
+     * @param cursor   The cursor returned with the previous page, or null for the first page.
+     * @param pageSize The page size.
+     * @return The page, or an empty Optional if the snapshot is not built yet.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    @Override
+    public Optional<OrdersPageDTO> getPage(String cursor, int pageSize) {
+        Snapshot current = snapshot;
+
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        Entry[] entries = current.entries();
+        int from = cursor == null || cursor.isBlank() ? 0 : indexAfter(entries, OrderCursor.decode(cursor));
+        int to = Math.min(from + pageSize, entries.length);
+
+        List<OrderDTO> orders = new ArrayList<>(to - from);
+
+        for (int i = from; i < to; i++) {
+            orders.add(entries[i].order());
+        }
+
+        String nextCursor = to < entries.length ? entries[to - 1].key().encode() : null;
+
+        return Optional.of(new OrdersPageDTO(orders, nextCursor, pageSize));
+    }
+
+    /**
+     * Reloads an order into the snapshot after the current transaction commits,
+     * or right away if there is no transaction.
+     *
+     * @param orderId The ID of the created, updated or deleted order.
+     */
+    @Override
+    public void orderChanged(Long orderId) {
+        if (!enabled) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleRefresh(orderId);
+                }
+            });
+        } else {
+            scheduleRefresh(orderId);
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot from the database on the refresher thread, for changes of too many orders to reload
+     * them one by one.
+     */
+    @Override
+    public void scheduleRebuild() {
+        if (enabled) {
+            refresher.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * @return The version of the current snapshot, 0 if it is not built yet.
+     */
+    @Override
+    public long getVersion() {
+        Snapshot current = snapshot;
+        return current == null ? 0L : current.version();
+    }
+
+    /**
+     * The listing version is made from the orders of the snapshot, so every instance and every restart holding the
+     * same orders gives the same version.
+     *
+     * @return The version of the order listing, or an empty Optional if the snapshot is not built yet.
+     */
+    @Override
+    public Optional<String> getListingVersion() {
+        Snapshot current = snapshot;
+        return current == null ? Optional.empty() : Optional.of(current.listingVersion());
+    }
+
+    /**
+     * Builds the snapshot when the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            refresher.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot from the database, picking up changes made on other instances.
+     */
+    @Scheduled(initialDelayString = "${orders.snapshot.rebuild-interval:PT5M}",
+               fixedDelayString = "${orders.snapshot.rebuild-interval:PT5M}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            refresher.execute(this::rebuild);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refresher instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Loads all orders where isDeleted is false and publishes them as a new snapshot. A rebuild that finds the
+     * listing unchanged keeps the current snapshot and its version.
+     */
+    void rebuild() {
+        try {
+            List<OrderDTO> orders = transactionTemplate.execute(status -> {
+                try (Stream<OrderDTO> stream = ordersRepository.streamAllForListing()) {
+                    return stream.toList();
+                }
+            });
+
+            Entry[] entries = orders.stream()
+                    .map(Entry::of)
+                    .sorted(ENTRY_ORDER)
+                    .toArray(Entry[]::new);
+
+            Snapshot current = snapshot;
+
+            if (current == null || !Arrays.equals(current.entries(), entries)) {
+                snapshot = new Snapshot(entries, getVersion() + 1);
+            }
+
+        } catch (RuntimeException e) {
+            log.warn("Unable to build the order listing snapshot", e);
+        }
+    }
+
+    /**
+     * Reloads the orders changed since the last refresh and merges them into a new snapshot.
+     */
+    void refreshChanged() {
+        refreshScheduled.set(false);
+
+        List<Long> orderIds = new ArrayList<>(changedOrderIds);
+        changedOrderIds.removeAll(orderIds);
+
+        // Orders changed before the snapshot is built are part of the build
+        if (orderIds.isEmpty() || snapshot == null) {
+            return;
+        }
+
+        try {
+            List<OrderDTO> orders = transactionTemplate.execute(status -> ordersRepository.findListingByIdIn(orderIds));
+
+            snapshot = merge(snapshot, new HashSet<>(orderIds), orders);
+
+        } catch (RuntimeException e) {
+            // The next scheduled rebuild brings the snapshot up to date
+            log.warn("Unable to refresh orders {} in the order listing snapshot", orderIds, e);
+        }
+    }
+
+    /**
+     * Copies a snapshot, leaving out the changed orders and inserting their reloaded state in the listing order.
+     *
+     * @param current  The current snapshot.
+     * @param orderIds The IDs of the changed orders.
+     * @param orders   The reloaded changed orders. Deleted orders are left out of the snapshot.
+     * @return The new snapshot.
+     */
+    static Snapshot merge(Snapshot current, Set<Long> orderIds, List<OrderDTO> orders) {
+        Entry[] inserted = orders.stream()
+                .filter(order -> !order.isDeleted())
+                .map(Entry::of)
+                .sorted(ENTRY_ORDER)
+                .toArray(Entry[]::new);
+
+        Entry[] entries = current.entries();
+        Entry[] merged = new Entry[entries.length + inserted.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+
+        while (i < entries.length) {
+            if (orderIds.contains(entries[i].order().id())) {
+                i++;
+            } else if (j < inserted.length && ENTRY_ORDER.compare(inserted[j], entries[i]) < 0) {
+                merged[k++] = inserted[j++];
+            } else {
+                merged[k++] = entries[i++];
+            }
+        }
+
+        while (j < inserted.length) {
+            merged[k++] = inserted[j++];
+        }
+
+        return new Snapshot(Arrays.copyOf(merged, k), current.version() + 1);
+    }
+
+    /**
+     * Makes the version of a listing from the number of its orders and a hash of their IDs and row versions. Every
+     * change of an order that shows in the listing increments its row version, and the listing order follows from
+     * the orders, so two listings with the same orders at the same versions are the same listing.
+     *
+     * @param entries The orders in the listing order.
+     * @return The listing version.
+     */
+    static String listingVersion(Entry[] entries) {
+        long hash = 0;
+
+        for (Entry entry : entries) {
+            OrderDTO order = entry.order();
+            hash += mix(order.id() * 0x9E3779B97F4A7C15L + order.version());
+        }
+
+        return entries.length + "-" + Long.toHexString(hash);
+    }
+
+    /**
+     * Spreads the bits of a value over the whole long, the finalizer of SplitMix64.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Finds the position of the first order that follows the cursor in the listing order.
+     *
+     * @param entries The sorted orders.
+     * @param cursor  The cursor.
+     * @return The index of the first order after the cursor, the number of orders if there is none.
+     */
+    private static int indexAfter(Entry[] entries, OrderCursor cursor) {
+        int low = 0;
+        int high = entries.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (OrderCursor.LISTING_ORDER.compare(entries[middle].key(), cursor) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private void scheduleRefresh(Long orderId) {
+        changedOrderIds.add(orderId);
+
+        if (refreshScheduled.compareAndSet(false, true)) {
+            refresher.execute(this::refreshChanged);
+        }
+    }
+
+    private static ExecutorService newRefresher() {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "orders-snapshot");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Changes reported while the application shuts down are dropped
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+}
@@ -0,0 +1,134 @@
+package lt.ordermanagement.api.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of gzip compressed JSON responses, keyed by the ETag of a response together with its request parameters.
+ *
+ * <p>
+ * A response with a strong ETag never changes, so it is serialized and compressed once and then sent as it is
+ * to every client that asks for it. The servlet container does not compress responses with a strong ETag at all.
+ * Responses of old ETags are never asked for again and are evicted when the cache holds more than its maximum
+ * size of compressed bytes.
+ * </p>
+ */
+public class CompressedResponseCache {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, byte[]> responses;
+
+    /**
+     * @param objectMapper The object mapper JSON responses are written with.
+     * @param maximumSize  The maximum size of the cached compressed responses.
+     */
+    public CompressedResponseCache(ObjectMapper objectMapper, DataSize maximumSize) {
+        this.objectMapper = objectMapper;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((String key, byte[] response) -> response.length)
+                .build();
+    }
+
+    /**
+     * Retrieves a compressed JSON response, serializing and compressing it if it is not cached.
+     *
+     * @param key  The ETag of the response together with its request parameters.
+     * @param body Supplies the body of the response, called only if it is not cached.
+     * @return The gzip compressed JSON of the body.
+     */
+    public byte[] getGzipJson(String key, Supplier<?> body) {
+        return responses.get(key, k -> gzipJson(body.get()));
+    }
+
+    /**
+     * Creates a response with the cached compressed JSON of a body.
+     *
+     * @param eTag       The ETag of the JSON response, the response is sent with the ETag of its gzip representation.
+     * @param parameters The request parameters the body depends on besides the ETag.
+     * @param body       Supplies the body of the response, called only if it is not cached.
+     * @return The response with the gzip compressed JSON of the body.
+     */
+    public ResponseEntity<byte[]> gzipJsonResponse(String eTag, String parameters, Supplier<?> body) {
+        return ResponseEntity.ok()
+                .eTag(ETags.of(eTag, ETags.GZIP))
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(getGzipJson(eTag + " " + parameters, body));
+    }
+
+    /**
+     * Checks whether a client takes a gzip compressed JSON response, so it can be sent a cached one.
+     *
+     * @param accept         The Accept header, may be null.
+     * @param acceptEncoding The Accept-Encoding header, may be null.
+     * @return Whether JSON is the preferred media type and gzip is an accepted encoding.
+     * @throws org.springframework.http.InvalidMediaTypeException If the Accept header is malformed.
+     */
+    public static boolean acceptsGzipJson(String accept, String acceptEncoding) {
+        return acceptsGzip(acceptEncoding) && prefersJson(accept);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            boolean refused = parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?");
+
+            if (name.equalsIgnoreCase("gzip") && !refused) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean prefersJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+
+        List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+
+        // Ties are won by the first type, wildcards are answered with JSON like the message converters do
+        return mediaTypes.stream()
+                .max(Comparator.comparingDouble(MediaType::getQualityValue))
+                .filter(mediaType -> mediaType.getQualityValue() > 0)
+                .map(mediaType -> mediaType.includes(MediaType.APPLICATION_JSON))
+                .orElse(false);
+    }
+
+    private byte[] gzipJson(Object body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes, BUFFER_SIZE)) {
+            objectMapper.writeValue(gzip, body);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+}
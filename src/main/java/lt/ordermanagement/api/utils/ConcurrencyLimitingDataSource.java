@@ -0,0 +1,147 @@
+package lt.ordermanagement.api.utils;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+/**
+ * Data source that limits the number of connections in use at the same time.
+ *
+ * <p>
+ * A permit of a fair semaphore is taken before a connection is borrowed from the target data source and given back
+ * when the connection is closed. Sized to the connection pool, it makes callers beyond the pool size wait in
+ * arrival order on the semaphore instead of all competing inside the pool, which matters when requests run on
+ * virtual threads and their number is not bounded by a thread pool.
+ * </p>
+ */
+public class ConcurrencyLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long acquireTimeoutNanos;
+    private volatile LongConsumer permitWaitListener = waitNanos -> { };
+
+    /**
+     * @param targetDataSource The data source connections are borrowed from.
+     * @param maxConcurrency   The maximum number of connections in use at the same time.
+     * @param acquireTimeout   How long to wait for a permit before failing.
+     */
+    public ConcurrencyLimitingDataSource(DataSource targetDataSource, int maxConcurrency, Duration acquireTimeout) {
+        super(targetDataSource);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquirePermit();
+
+        try {
+            return limited(obtainTargetDataSource().getConnection());
+
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquirePermit();
+
+        try {
+            return limited(obtainTargetDataSource().getConnection(username, password));
+
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of connections that can still be borrowed without waiting.
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * @return The maximum number of connections in use at the same time.
+     */
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return An estimate of the number of callers waiting for a connection.
+     */
+    public int queueLength() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Sets the listener told how long every caller waited for a permit, whether it got one or timed out.
+     *
+     * @param permitWaitListener Receives the wait in nanoseconds.
+     */
+    public void setPermitWaitListener(LongConsumer permitWaitListener) {
+        this.permitWaitListener = permitWaitListener;
+    }
+
+    private void acquirePermit() throws SQLException {
+        long waitStart = System.nanoTime();
+
+        try {
+            boolean acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+            permitWaitListener.accept(System.nanoTime() - waitStart);
+
+            if (!acquired) {
+                throw new SQLTransientConnectionException(
+                        "Database concurrency limit reached, no connection available within " +
+                                Duration.ofNanos(acquireTimeoutNanos));
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    /**
+     * Wraps a connection so that closing it gives the permit back, exactly once.
+     *
+     * @param connection The borrowed connection.
+     * @return The wrapped connection.
+     */
+    private Connection limited(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    try {
+                        return method.invoke(connection, args);
+
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+
+                    } finally {
+                        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+
+}
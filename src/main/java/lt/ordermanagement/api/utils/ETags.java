@@ -0,0 +1,154 @@
+package lt.ordermanagement.api.utils;
+
+import lt.ordermanagement.api.exeptions.PreconditionFailedException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Strong entity tags derived from version columns, so they are computed without loading or serializing the tagged
+ * response.
+ *
+ * <p>
+ * A tag holds the kind of the response and its version, like {@code "order-3"}, so a tag of one kind never
+ * matches a response of another kind.
+ * </p>
+ *
+ * <p>
+ * Every representation of a response has its own tag: the tag of JSON is the plain one, gzip compressed JSON,
+ * Smile and CBOR add a suffix, like {@code "order-3-gzip"}. A cache never takes the bytes of one representation for
+ * another, and a client holding any representation of the current version is answered with 304 Not Modified.
+ * </p>
+ */
+public class ETags {
+
+    public static final String ORDER = "order";
+    public static final String ORDER_ITEM = "order-item";
+    public static final String ORDER_ITEMS = "order-items";
+    public static final String ORDERS = "orders";
+
+    public static final String GZIP = "gzip";
+    public static final String SMILE = "smile";
+    public static final String CBOR = "cbor";
+
+    private static final List<String> REPRESENTATIONS = List.of(GZIP, SMILE, CBOR);
+
+    private ETags() {
+    }
+
+    /**
+     * Creates the tag of a response.
+     *
+     * @param kind    The kind of the response.
+     * @param version The version of the response.
+     * @return The quoted tag.
+     */
+    public static String of(String kind, Object version) {
+        return "\"" + kind + "-" + version + "\"";
+    }
+
+    /**
+     * Creates the tag of a representation of a response.
+     *
+     * @param eTag           The tag of the JSON representation.
+     * @param representation The representation, one of {@link #GZIP}, {@link #SMILE} and {@link #CBOR}.
+     * @return The quoted tag of the representation.
+     */
+    public static String of(String eTag, String representation) {
+        return eTag.substring(0, eTag.length() - 1) + "-" + representation + "\"";
+    }
+
+    /**
+     * Creates the tag of a response written in a media type.
+     *
+     * @param eTag        The tag of the JSON representation.
+     * @param contentType The media type the response is written in.
+     * @return The tag of the Smile or CBOR representation, or the given tag for any other media type.
+     */
+    public static String forContentType(String eTag, MediaType contentType) {
+        if (contentType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+            return of(eTag, CBOR);
+        }
+
+        if (contentType.isCompatibleWith(new MediaType("application", "x-jackson-smile"))) {
+            return of(eTag, SMILE);
+        }
+
+        return eTag;
+    }
+
+    /**
+     * Checks an If-None-Match header against the current tag. Tags are compared weakly, as the header requires,
+     * and a tag of any representation of the current version matches.
+     *
+     * @param ifNoneMatch The If-None-Match header, may be null.
+     * @param eTag        The current tag of the JSON representation.
+     * @return The current tag of the representation the client already has, to send with 304 Not Modified,
+     *         empty if the client has no current response.
+     */
+    public static Optional<String> match(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return Optional.empty();
+        }
+
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            String strong = trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed;
+
+            if (trimmed.equals("*") || strong.equals(eTag)) {
+                return Optional.of(eTag);
+            }
+
+            for (String representation : REPRESENTATIONS) {
+                if (strong.equals(of(eTag, representation))) {
+                    return Optional.of(strong);
+                }
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Reads the version an If-Match header requires. The header must hold a single strong tag of the kind, of any
+     * representation, or '*'.
+     *
+     * @param ifMatch The If-Match header, may be null.
+     * @param kind    The kind of the changed response.
+     * @return The required version, null if the header is missing or '*'.
+     * @throws PreconditionFailedException If the header holds no strong tag of the kind, so it can't match.
+     */
+    public static Long requiredVersion(String ifMatch, String kind) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String tag = withoutRepresentation(ifMatch.trim());
+        String prefix = "\"" + kind + "-";
+
+        if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+            try {
+                return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+
+            } catch (NumberFormatException e) {
+                // Not a version of this kind, can't match
+            }
+        }
+
+        throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current " + kind);
+    }
+
+    private static String withoutRepresentation(String tag) {
+        for (String representation : REPRESENTATIONS) {
+            String suffix = "-" + representation + "\"";
+
+            if (tag.endsWith(suffix)) {
+                return tag.substring(0, tag.length() - suffix.length()) + "\"";
+            }
+        }
+
+        return tag;
+    }
+
+}
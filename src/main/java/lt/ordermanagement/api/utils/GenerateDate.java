@@ -1,15 +1,17 @@
 package lt.ordermanagement.api.utils;
 
-import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 
 public class GenerateDate {
 
     /**
-     * Gets the current date as a string.
+     * Gets the current time in microsecond precision, the precision of PostgreSQL timestamps, so the value
+     * compares equal to itself after it is stored.
      *
-     * @return A string representation of the current date in 'YYYY-MM-DD' format.
+     * @return The current time.
      */
-    public static String generateCurrentDate() {
-        return LocalDate.now().toString();
+    public static OffsetDateTime generateCurrentTimestamp() {
+        return OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 }
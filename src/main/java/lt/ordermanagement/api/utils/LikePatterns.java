@@ -0,0 +1,23 @@
+package lt.ordermanagement.api.utils;
+
+/**
+ * Builds the LIKE patterns of the substring searches.
+ */
+public class LikePatterns {
+
+    private LikePatterns() {
+    }
+
+    /**
+     * Creates a LIKE pattern matching values that contain the search term. Wildcard characters in the term are
+     * escaped with a backslash, so the term is matched literally.
+     *
+     * @param searchTerm The search term.
+     * @return The search term escaped and wrapped in '%'.
+     */
+    public static String containing(String searchTerm) {
+        return "%" + searchTerm.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+}
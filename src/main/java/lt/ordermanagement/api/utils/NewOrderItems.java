@@ -0,0 +1,68 @@
+package lt.ordermanagement.api.utils;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lt.ordermanagement.api.models.OrderItem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Validation of the order items sent together with a new order.
+ *
+ * <p>
+ * The order items are checked only on the paths creating orders. Declared on the order items collection of
+ * {@link lt.ordermanagement.api.models.Order}, the limit and the cascaded constraints would be checked by the
+ * validation Hibernate runs before every update of an order, which loads all of its order items and rejects any
+ * change of an order grown past the limit by adding items later.
+ * </p>
+ */
+public class NewOrderItems {
+
+    /**
+     * The maximum number of order items an order can be created with.
+     */
+    public static final int MAX_SIZE = 1000;
+
+    private NewOrderItems() {
+    }
+
+    /**
+     * Checks the number of the order items of a new order and the constraints declared on {@link OrderItem}.
+     *
+     * @param validator  The validator checking the order items.
+     * @param orderItems The order items of the new order, may be null.
+     * @return The messages of the violated constraints by property path, like {@code orderItems[0].itemName},
+     *         empty if the order items are valid.
+     */
+    public static Map<String, String> validate(Validator validator, List<OrderItem> orderItems) {
+        Map<String, String> errors = new TreeMap<>();
+
+        if (orderItems == null) {
+            return errors;
+        }
+
+        if (orderItems.size() > MAX_SIZE) {
+            errors.put("orderItems", "Order can be created with at most " + MAX_SIZE + " order items");
+
+            return errors;
+        }
+
+        for (int i = 0; i < orderItems.size(); i++) {
+            OrderItem orderItem = orderItems.get(i);
+
+            if (orderItem == null) {
+                errors.put("orderItems[" + i + "]", "Order item is required");
+                continue;
+            }
+
+            for (ConstraintViolation<OrderItem> violation : validator.validate(orderItem)) {
+                errors.put("orderItems[" + i + "]." + violation.getPropertyPath(), violation.getMessage());
+            }
+        }
+
+        return errors;
+    }
+
+}
@@ -0,0 +1,93 @@
+package lt.ordermanagement.api.utils;
+
+import lt.ordermanagement.api.dtos.OrderDTO;
+import lt.ordermanagement.api.enums.OrderStatus;
+import lt.ordermanagement.api.models.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * What one order adds to the order summary tables: one order, its price and its item count, in the groups of its
+ * client, its update month and its status.
+ *
+ * <p>
+ * Services take the contribution of an order before and after a change, and the summary tables are moved by the
+ * difference. Deleted orders contribute nothing and are represented by null.
+ * </p>
+ *
+ * @param clientName The client name of the order.
+ * @param month      The first day of the month of the order update time, in UTC.
+ * @param status     The order status.
+ * @param revenue    The order price.
+ * @param itemCount  The total item count of the order.
+ */
+public record OrderContribution(String clientName,
+                                LocalDate month,
+                                OrderStatus status,
+                                BigDecimal revenue,
+                                long itemCount) {
+
+    /**
+     * Takes the current contribution of an order.
+     *
+     * @param order The order.
+     * @return The contribution, or null if the order is deleted.
+     */
+    public static OrderContribution of(Order order) {
+        if (order.getIsDeleted()) {
+            return null;
+        }
+
+        return new OrderContribution(order.getClientName(),
+                monthOf(order.getOrderUpdateDate()),
+                order.getOrderStatus(),
+                order.getOrderPrice(),
+                order.getItemCount());
+    }
+
+    /**
+     * Takes the contribution of an order from its projection.
+     *
+     * @param order The order.
+     * @return The contribution, or null if the order is deleted.
+     */
+    public static OrderContribution of(OrderDTO order) {
+        if (order.isDeleted()) {
+            return null;
+        }
+
+        return new OrderContribution(order.clientName(),
+                monthOf(order.orderUpdateDate()),
+                order.orderStatus(),
+                order.orderPrice(),
+                order.itemCount());
+    }
+
+    /**
+     * Derives the contribution of the order after a change of its order items.
+     *
+     * @param revenueDelta   The change of the order price.
+     * @param itemCountDelta The change of the item count.
+     * @param updateDate     The new order update time.
+     * @return The contribution after the change.
+     */
+    public OrderContribution withChange(BigDecimal revenueDelta, long itemCountDelta, OffsetDateTime updateDate) {
+        return new OrderContribution(clientName,
+                monthOf(updateDate),
+                status,
+                revenue.add(revenueDelta),
+                itemCount + itemCountDelta);
+    }
+
+    /**
+     * @param time A point in time.
+     * @return The first day of the month of the given time in UTC.
+     */
+    public static LocalDate monthOf(OffsetDateTime time) {
+        return time.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate().withDayOfMonth(1);
+    }
+
+}
@@ -0,0 +1,129 @@
+package lt.ordermanagement.api.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lt.ordermanagement.api.dtos.OrderDTO;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * Position of an order in the sorted order listing, used for keyset (cursor) pagination.
+ *
+ * <p>
+ * The cursor holds every column of the listing sort key, so the next page can be fetched with an indexed
+ * range condition instead of an offset. It is handed out to clients as an opaque Base64 URL-safe string.
+ * </p>
+ */
+public record OrderCursor(OffsetDateTime orderUpdateDate,
+                          LocalDate orderTerm,
+                          String clientName,
+                          String orderName,
+                          Long id) {
+
+    /**
+     * Order of the listing: orderUpdateDate descending, then orderTerm, clientName, orderName and id ascending.
+     * Update times are compared by instant like in the database, whatever their offset.
+     * Strings are compared by code point, like the listing queries sort them with the {@code ucs_basic} collation.
+     */
+    public static final Comparator<OrderCursor> LISTING_ORDER =
+            Comparator.comparing(OrderCursor::orderUpdateDate, OffsetDateTime.timeLineOrder().reversed())
+                    .thenComparing(OrderCursor::orderTerm)
+                    .thenComparing(OrderCursor::clientName, OrderCursor::compareCodePoints)
+                    .thenComparing(OrderCursor::orderName, OrderCursor::compareCodePoints)
+                    .thenComparing(OrderCursor::id);
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    /**
+     * Creates a cursor pointing at the given order.
+     *
+     * @param order The last order of a page.
+     * @return The cursor of the given order.
+     */
+    public static OrderCursor of(OrderDTO order) {
+        return new OrderCursor(order.orderUpdateDate(),
+                order.orderTerm(),
+                order.clientName(),
+                order.orderName(),
+                order.id());
+    }
+
+    /**
+     * Compares strings by code point. {@link String#compareTo(String)} compares UTF-16 code units, which sorts
+     * characters outside the Basic Multilingual Plane before some characters inside it.
+     *
+     * @param first  The first string.
+     * @param second The second string.
+     * @return A negative number, zero or a positive number as the first string sorts before, with or after the second.
+     */
+    static int compareCodePoints(String first, String second) {
+        int i = 0;
+        int j = 0;
+
+        while (i < first.length() && j < second.length()) {
+            int firstCodePoint = first.codePointAt(i);
+            int secondCodePoint = second.codePointAt(j);
+
+            if (firstCodePoint != secondCodePoint) {
+                return Integer.compare(firstCodePoint, secondCodePoint);
+            }
+
+            i += Character.charCount(firstCodePoint);
+            j += Character.charCount(secondCodePoint);
+        }
+
+        return Integer.compare(first.length() - i, second.length() - j);
+    }
+
+    /**
+     * Decodes a cursor previously returned by {@link #encode()}.
+     *
+     * @param cursor The encoded cursor.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public static OrderCursor decode(String cursor) {
+        OrderCursor orderCursor;
+
+        try {
+            orderCursor = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), OrderCursor.class);
+
+        } catch (IllegalArgumentException | IOException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+
+        if (orderCursor.orderUpdateDate() == null || orderCursor.orderTerm() == null ||
+                orderCursor.clientName() == null || orderCursor.orderName() == null ||
+                orderCursor.id() == null) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+
+        return orderCursor;
+    }
+
+    /**
+     * Encodes this cursor as an opaque URL-safe string.
+     *
+     * @return The encoded cursor.
+     */
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(MAPPER.writeValueAsString(this).getBytes(StandardCharsets.UTF_8));
+
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to encode cursor", e);
+        }
+    }
+
+}
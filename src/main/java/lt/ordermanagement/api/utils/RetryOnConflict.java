@@ -0,0 +1,21 @@
+package lt.ordermanagement.api.utils;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a transactional service method that is run again when its transaction fails on an optimistic lock
+ * conflict, because a row it changed was changed by another transaction since it was read.
+ *
+ * <p>
+ * Every attempt runs in a new transaction and reads the rows again, so the method must not depend on state left
+ * by a failed attempt. Calls made inside an existing transaction are not retried, the conflict is left to the
+ * outer transaction. See {@link lt.ordermanagement.api.configs.RetryOnConflictAspect}.
+ * </p>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
@@ -0,0 +1,130 @@
+package lt.ordermanagement.api.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * SQL statements run by one HTTP request, filled in by {@link StatementTrackingDataSource}.
+ *
+ * <p>
+ * The statistics are bound to the request thread between {@link #start(int)} and {@link #stop()}, statements run
+ * by other threads, such as streamed exports and scheduled jobs, are not counted. Only the slowest statements are
+ * kept, with the types of their bound parameters instead of the values, so no personal data ends up in headers
+ * or logs.
+ * </p>
+ */
+public class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    private final int slowestLimit;
+    private final List<StatementTiming> slowest = new ArrayList<>();
+    private long statements;
+    private long nanos;
+    private long rows;
+
+    private SqlRequestStats(int slowestLimit) {
+        this.slowestLimit = slowestLimit;
+    }
+
+    /**
+     * Starts collecting the statements of the current thread.
+     *
+     * @param slowestLimit The number of slowest statements to keep.
+     * @return The statistics of the current thread.
+     */
+    public static SqlRequestStats start(int slowestLimit) {
+        SqlRequestStats stats = new SqlRequestStats(slowestLimit);
+        CURRENT.set(stats);
+
+        return stats;
+    }
+
+    /**
+     * Stops collecting the statements of the current thread.
+     */
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return The statistics of the current thread, or null if they are not collected.
+     */
+    public static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Records an executed statement.
+     *
+     * @param timing The statement and how long it took.
+     */
+    public void statementExecuted(StatementTiming timing) {
+        statements++;
+        nanos += timing.nanos();
+
+        if (slowestLimit <= 0) {
+            return;
+        }
+
+        if (slowest.size() < slowestLimit) {
+            slowest.add(timing);
+
+        } else if (timing.nanos() > slowest.get(slowest.size() - 1).nanos()) {
+            slowest.set(slowest.size() - 1, timing);
+
+        } else {
+            return;
+        }
+
+        slowest.sort(Comparator.comparingLong(StatementTiming::nanos).reversed());
+    }
+
+    /**
+     * Records a row read from a result set.
+     */
+    public void rowFetched() {
+        rows++;
+    }
+
+    /**
+     * @return The number of statements executed, a batch counts as one.
+     */
+    public long getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return The time spent executing statements, in nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return The number of rows read from result sets.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return The slowest statements, slowest first.
+     */
+    public List<StatementTiming> getSlowest() {
+        return List.copyOf(slowest);
+    }
+
+    /**
+     * An executed statement.
+     *
+     * @param sql        The SQL of the statement.
+     * @param parameters The types of the bound parameters, such as {@code [Long, String, null]}, followed by the
+     *                   number of parameter sets of a batch.
+     * @param nanos      The execution time in nanoseconds.
+     */
+    public record StatementTiming(String sql, String parameters, long nanos) {
+    }
+
+}
@@ -0,0 +1,137 @@
+package lt.ordermanagement.api.utils;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lt.ordermanagement.api.utils.SqlRequestStats.StatementTiming;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter collecting the {@link SqlRequestStats} of every request and recording them as metrics, tagged with the
+ * method and the URI pattern like http.server.requests.
+ *
+ * <p>
+ * With the debug header on, the response carries the statistics in {@value #STATS_HEADER} and one
+ * {@value #SLOWEST_HEADER} per slowest statement. Headers can't change once the response is committed, so they
+ * hold the statements run until the first bytes of the body are sent. Statements run after an asynchronous
+ * request was started, such as streamed exports, are not counted.
+ * </p>
+ */
+public class SqlRequestStatsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_METRIC = "http.server.statements";
+    public static final String DB_TIME_METRIC = "http.server.db.time";
+    public static final String ROWS_METRIC = "http.server.db.rows";
+    public static final String STATS_HEADER = "X-SQL-Stats";
+    public static final String SLOWEST_HEADER = "X-SQL-Slowest";
+
+    private static final int MAX_HEADER_SQL_LENGTH = 500;
+
+    private final MeterRegistry meterRegistry;
+    private final int slowestLimit;
+    private final boolean debugHeader;
+
+    /**
+     * @param meterRegistry The registry the statistics are recorded in.
+     * @param slowestLimit  The number of slowest statements kept per request.
+     * @param debugHeader   Whether to send the statistics in response headers.
+     */
+    public SqlRequestStatsFilter(MeterRegistry meterRegistry, int slowestLimit, boolean debugHeader) {
+        this.meterRegistry = meterRegistry;
+        this.slowestLimit = slowestLimit;
+        this.debugHeader = debugHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlRequestStats stats = SqlRequestStats.start(slowestLimit);
+
+        try {
+            if (!debugHeader) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+
+            filterChain.doFilter(request, new OnCommittedResponseWrapper(response) {
+                @Override
+                protected void onResponseCommitted() {
+                    addHeaders(response, stats);
+                }
+            });
+
+            if (!response.isCommitted() && !response.containsHeader(STATS_HEADER)) {
+                addHeaders(response, stats);
+            }
+
+        } finally {
+            SqlRequestStats.stop();
+
+            if (!request.isAsyncStarted()) {
+                record(request, stats);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlRequestStats stats) {
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri == null ? "UNKNOWN" : uri.toString());
+
+        DistributionSummary.builder(STATEMENTS_METRIC)
+                .description("SQL statements executed per request")
+                .baseUnit("statements")
+                .tags(tags)
+                .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+
+        Timer.builder(DB_TIME_METRIC)
+                .description("Time spent executing SQL statements per request")
+                .tags(tags)
+                .serviceLevelObjectives(Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10),
+                        Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100),
+                        Duration.ofMillis(250), Duration.ofSeconds(1))
+                .register(meterRegistry)
+                .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+
+        DistributionSummary.builder(ROWS_METRIC)
+                .description("Rows fetched from result sets per request")
+                .baseUnit("rows")
+                .tags(tags)
+                .serviceLevelObjectives(1, 10, 50, 100, 500, 1000, 10_000)
+                .register(meterRegistry)
+                .record(stats.getRows());
+    }
+
+    private static void addHeaders(HttpServletResponse response, SqlRequestStats stats) {
+        response.setHeader(STATS_HEADER, String.format(Locale.ROOT, "statements=%d; time=%s; rows=%d",
+                stats.getStatements(), millis(stats.getNanos()), stats.getRows()));
+
+        for (StatementTiming timing : stats.getSlowest()) {
+            String sql = timing.sql() == null ? "" : timing.sql().replaceAll("\\s+", " ").trim();
+
+            if (sql.length() > MAX_HEADER_SQL_LENGTH) {
+                sql = sql.substring(0, MAX_HEADER_SQL_LENGTH) + "...";
+            }
+
+            response.addHeader(SLOWEST_HEADER, millis(timing.nanos()) + " " + timing.parameters() + " " + sql);
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3fms", nanos / 1_000_000.0);
+    }
+
+}
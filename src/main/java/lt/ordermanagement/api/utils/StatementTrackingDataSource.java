@@ -0,0 +1,201 @@
+package lt.ordermanagement.api.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import lt.ordermanagement.api.utils.SqlRequestStats.StatementTiming;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Data source that times every SQL statement and adds it to the {@link SqlRequestStats} of the current request.
+ *
+ * <p>
+ * Connections, statements and result sets are wrapped in proxies. Executing a statement is timed and recorded
+ * together with the types of its bound parameters, rows are counted as result sets are read. Statements slower
+ * than the slow threshold are logged and reported to the slow statement listener, also outside of requests.
+ * </p>
+ */
+@Slf4j
+public class StatementTrackingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final long slowThresholdNanos;
+    private volatile Consumer<StatementTiming> slowStatementListener = timing -> { };
+
+    /**
+     * @param targetDataSource The data source connections are borrowed from.
+     * @param slowThreshold    Statements taking longer are logged as slow.
+     */
+    public StatementTrackingDataSource(DataSource targetDataSource, Duration slowThreshold) {
+        super(targetDataSource);
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return tracked(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return tracked(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    /**
+     * Sets the listener told about every statement slower than the slow threshold.
+     *
+     * @param slowStatementListener Receives the slow statement.
+     */
+    public void setSlowStatementListener(Consumer<StatementTiming> slowStatementListener) {
+        this.slowStatementListener = slowStatementListener;
+    }
+
+    private Connection tracked(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                // Statements are proxied with the interface the connection method returns
+                return proxy(method.getReturnType(), new StatementHandler(statement, sql));
+            }
+
+            return result;
+        });
+    }
+
+    private void executed(String sql, String parameters, long nanos) {
+        StatementTiming timing = new StatementTiming(sql, parameters, nanos);
+        SqlRequestStats stats = SqlRequestStats.current();
+
+        if (stats != null) {
+            stats.statementExecuted(timing);
+        }
+
+        if (nanos >= slowThresholdNanos) {
+            log.warn("Slow SQL statement took {} ms: {} {}", TimeUnit.NANOSECONDS.toMillis(nanos), sql, parameters);
+            slowStatementListener.accept(timing);
+        }
+    }
+
+    private static ResultSet counted(ResultSet resultSet) {
+        SqlRequestStats stats = SqlRequestStats.current();
+
+        if (resultSet == null || stats == null) {
+            return resultSet;
+        }
+
+        return proxy(ResultSet.class, (proxy, method, args) -> {
+            Object result = invoke(resultSet, method, args);
+
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                stats.rowFetched();
+            }
+
+            return result;
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    /**
+     * Times the executions of one statement and remembers the types of its bound parameters.
+     */
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final Map<Integer, String> parameterTypes = new TreeMap<>();
+        private String sql;
+        private String batchParameters;
+        private int batchSize;
+
+        StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (EXECUTE_METHODS.contains(name)) {
+                return execute(method, args);
+            }
+
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameterTypes.put(index, name.equals("setNull") || args[1] == null
+                        ? "null" : args[1].getClass().getSimpleName());
+
+            } else if (name.equals("clearParameters")) {
+                parameterTypes.clear();
+
+            } else if (name.equals("addBatch")) {
+                if (args != null && args.length == 1 && args[0] instanceof String batchSql && sql == null) {
+                    sql = batchSql;
+                }
+
+                batchParameters = parameterTypes.values().toString();
+                batchSize++;
+
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+            }
+
+            Object result = StatementTrackingDataSource.invoke(statement, method, args);
+
+            return name.equals("getResultSet") ? counted((ResultSet) result) : result;
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            boolean batch = method.getName().endsWith("Batch");
+            String executedSql = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+            String parameters = batch
+                    ? batchParameters + " x" + batchSize
+                    : parameterTypes.values().toString();
+            long start = System.nanoTime();
+
+            try {
+                Object result = StatementTrackingDataSource.invoke(statement, method, args);
+
+                return method.getName().equals("executeQuery") ? counted((ResultSet) result) : result;
+
+            } finally {
+                executed(executedSql, parameters, System.nanoTime() - start);
+
+                if (batch) {
+                    batchSize = 0;
+                }
+            }
+        }
+
+    }
+
+}
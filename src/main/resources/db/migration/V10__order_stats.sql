@@ -0,0 +1,77 @@
+-- Summary tables of orders where is_deleted is false per status, per client and per month of order_update_date,
+-- maintained by OrderStatsServiceImpl in the transactions that change orders and order items.
+
+-- Total item count of an order, maintained like order_price. Deleted orders keep the count of the order items
+-- deleted together with them, so a restored order is counted again with its order items.
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS item_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders_archive ADD COLUMN IF NOT EXISTS item_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE orders o
+SET item_count = COALESCE((SELECT SUM(i.item_count)
+                           FROM order_items i
+                           WHERE i.order_id = o.id
+                             AND (i.is_deleted = false OR (o.is_deleted = true AND i.deleted_at = o.deleted_at))), 0);
+
+UPDATE orders_archive o
+SET item_count = COALESCE((SELECT SUM(i.item_count)
+                           FROM order_items_archive i
+                           WHERE i.order_id = o.id
+                             AND i.deleted_at = o.deleted_at), 0);
+
+-- The status counters become per-status summaries, still split over 16 slots per status
+ALTER TABLE order_status_counts RENAME TO order_stats_by_status;
+
+ALTER TABLE order_stats_by_status
+    ADD COLUMN IF NOT EXISTS revenue NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS item_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE order_stats_by_status SET order_count = 0;
+
+UPDATE order_stats_by_status s
+SET order_count = o.order_count,
+    revenue     = o.revenue,
+    item_count  = o.item_count
+FROM (SELECT order_status, count(*) AS order_count, SUM(order_price) AS revenue, SUM(item_count) AS item_count
+      FROM orders
+      WHERE is_deleted = false
+      GROUP BY order_status) o
+WHERE s.order_status = o.order_status
+  AND s.slot = 0;
+
+-- One row per client, rows of different clients are rarely updated at the same time
+CREATE TABLE IF NOT EXISTS order_stats_by_client (
+    client_name VARCHAR(50)    NOT NULL PRIMARY KEY,
+    order_count BIGINT         NOT NULL,
+    revenue     NUMERIC(19, 2) NOT NULL,
+    item_count  BIGINT         NOT NULL
+);
+
+INSERT INTO order_stats_by_client (client_name, order_count, revenue, item_count)
+SELECT client_name, count(*), SUM(order_price), SUM(item_count)
+FROM orders
+WHERE is_deleted = false
+GROUP BY client_name
+ON CONFLICT DO NOTHING;
+
+-- Months start on the first day in UTC. Every change of an order moves it to the current month,
+-- so the rows of a month are split over 16 slots like the status rows.
+CREATE TABLE IF NOT EXISTS order_stats_by_month (
+    order_month DATE           NOT NULL,
+    slot        SMALLINT       NOT NULL,
+    order_count BIGINT         NOT NULL,
+    revenue     NUMERIC(19, 2) NOT NULL,
+    item_count  BIGINT         NOT NULL,
+    PRIMARY KEY (order_month, slot)
+);
+
+INSERT INTO order_stats_by_month (order_month, slot, order_count, revenue, item_count)
+SELECT date_trunc('month', order_update_date AT TIME ZONE 'UTC')::DATE, 0,
+       count(*), SUM(order_price), SUM(item_count)
+FROM orders
+WHERE is_deleted = false
+GROUP BY 1
+ON CONFLICT DO NOTHING;
+
+-- Top clients by revenue
+CREATE INDEX IF NOT EXISTS idx_order_stats_by_client_revenue
+    ON order_stats_by_client (revenue DESC, client_name);
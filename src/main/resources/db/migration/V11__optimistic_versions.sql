@@ -0,0 +1,8 @@
+-- Version columns for optimistic locking of orders and order items. Every update of a row increments its version,
+-- an update that finds another version than it read is retried by the service.
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- The archive tables keep the columns of the hot tables in the same order
+ALTER TABLE orders_archive ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE order_items_archive ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
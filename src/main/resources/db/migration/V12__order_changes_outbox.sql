@@ -0,0 +1,18 @@
+-- Outbox of order and order item changes, written in the transaction of every change. A row gets its sequence
+-- number when it is published, after its transaction committed. Numbers are assigned by one publisher at a time,
+-- so they follow the commit order and a reader never sees a number before the smaller ones.
+CREATE SEQUENCE IF NOT EXISTS order_change_sequence;
+
+CREATE TABLE IF NOT EXISTS order_changes (
+    id              BIGSERIAL PRIMARY KEY,
+    sequence_number BIGINT,
+    entity_type     VARCHAR(16) NOT NULL,
+    entity_id       BIGINT      NOT NULL,
+    order_id        BIGINT      NOT NULL,
+    change_type     VARCHAR(16) NOT NULL,
+    changed_at      TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT uk_order_changes_sequence_number UNIQUE (sequence_number)
+);
+
+-- Rows waiting to be published, in the order they were written
+CREATE INDEX IF NOT EXISTS idx_order_changes_unpublished ON order_changes (id) WHERE sequence_number IS NULL;
@@ -0,0 +1,7 @@
+-- The order listing sorts names by code point, the order the in-memory listing snapshot sorts them in, instead of
+-- the database collation. The listing index is rebuilt with the same collation so it still serves the queries.
+DROP INDEX IF EXISTS idx_orders_listing;
+
+CREATE INDEX IF NOT EXISTS idx_orders_listing
+    ON orders (is_deleted, order_update_date DESC, order_term, client_name COLLATE ucs_basic,
+               order_name COLLATE ucs_basic, id);
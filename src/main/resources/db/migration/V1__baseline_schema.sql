@@ -0,0 +1,44 @@
+-- Baseline of the schema previously created by Hibernate from the entity mappings.
+-- Every statement is idempotent, so the script is a no-op on databases that already have these tables.
+
+CREATE TABLE IF NOT EXISTS orders (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_number        VARCHAR(13)      NOT NULL UNIQUE,
+    order_name          VARCHAR(50)      NOT NULL,
+    client_name         VARCHAR(50)      NOT NULL,
+    client_phone_number VARCHAR(20)      NOT NULL,
+    client_email        VARCHAR(50)      NOT NULL,
+    order_term          VARCHAR(255)     NOT NULL,
+    order_status        VARCHAR(255)     NOT NULL,
+    order_price         DOUBLE PRECISION NOT NULL,
+    comments            VARCHAR(200)     NOT NULL,
+    order_update_date   VARCHAR(255)     NOT NULL,
+    is_deleted          BOOLEAN          NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    item_name        VARCHAR(50)      NOT NULL,
+    item_code        VARCHAR(50)      NOT NULL,
+    item_revision    VARCHAR(50)      NOT NULL,
+    item_count       BIGINT           NOT NULL,
+    item_price       DOUBLE PRECISION NOT NULL,
+    total_price      DOUBLE PRECISION NOT NULL,
+    link_to_img      VARCHAR(255)     NOT NULL,
+    item_update_date VARCHAR(255)     NOT NULL,
+    is_deleted       BOOLEAN          NOT NULL,
+    order_id         BIGINT REFERENCES orders (id)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    first_name VARCHAR(50)  NOT NULL,
+    last_name  VARCHAR(50)  NOT NULL,
+    username   VARCHAR(20)  NOT NULL UNIQUE,
+    password   VARCHAR(255) NOT NULL,
+    role       VARCHAR(255) NOT NULL,
+    is_enabled BOOLEAN      NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_orders_listing
+    ON orders (is_deleted, order_update_date DESC, order_term, client_name, order_name, id);
@@ -0,0 +1,19 @@
+-- Trigram GIN indexes serving the case-insensitive substring search of OrdersRepository.searchOrders.
+-- The indexes are partial, deleted orders are never searched.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_orders_order_number_trgm
+    ON orders USING gin (order_number gin_trgm_ops) WHERE is_deleted = false;
+
+CREATE INDEX IF NOT EXISTS idx_orders_order_name_trgm
+    ON orders USING gin (order_name gin_trgm_ops) WHERE is_deleted = false;
+
+CREATE INDEX IF NOT EXISTS idx_orders_client_name_trgm
+    ON orders USING gin (client_name gin_trgm_ops) WHERE is_deleted = false;
+
+CREATE INDEX IF NOT EXISTS idx_orders_client_phone_number_trgm
+    ON orders USING gin (client_phone_number gin_trgm_ops) WHERE is_deleted = false;
+
+CREATE INDEX IF NOT EXISTS idx_orders_client_email_trgm
+    ON orders USING gin (client_email gin_trgm_ops) WHERE is_deleted = false;
@@ -0,0 +1,8 @@
+-- Order prices are maintained incrementally from now on and exclude soft-deleted items.
+-- Recompute them once, so the deltas start from a consistent total.
+
+UPDATE orders o
+SET order_price = COALESCE((SELECT SUM(i.item_count * i.item_price)
+                            FROM order_items i
+                            WHERE i.order_id = o.id
+                              AND i.is_deleted = FALSE), 0);
@@ -0,0 +1,6 @@
+-- Order item ids are allocated from a sequence in blocks of 50, so inserts of many items can be batched.
+-- The sequence starts after the existing ids, Hibernate uses values (nextval - 49 .. nextval) of each block.
+
+CREATE SEQUENCE IF NOT EXISTS order_items_seq INCREMENT BY 50;
+
+SELECT setval('order_items_seq', COALESCE((SELECT MAX(id) FROM order_items), 0) + 50, false);
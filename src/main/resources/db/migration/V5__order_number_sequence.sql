@@ -0,0 +1,4 @@
+-- Order numbers are allocated from this sequence. Every application instance reserves a block of 1000 values
+-- with one nextval call, so the increment must stay equal to OrderNumberServiceImpl.BLOCK_SIZE.
+
+CREATE SEQUENCE IF NOT EXISTS order_number_seq INCREMENT BY 1000 MAXVALUE 9999999999;
@@ -0,0 +1,10 @@
+-- Indexes serving the order item listing and search of OrderItemsRepository.
+-- The indexes are partial, deleted order items are never listed.
+
+-- Items of one order in listing order, so a page is read in index order and the scan stops at the page end
+CREATE INDEX IF NOT EXISTS idx_order_items_listing
+    ON order_items (order_id, lower(item_name), id) WHERE is_deleted = false;
+
+-- Case-insensitive substring search of item names
+CREATE INDEX IF NOT EXISTS idx_order_items_item_name_trgm
+    ON order_items USING gin (lower(item_name) gin_trgm_ops) WHERE is_deleted = false;
@@ -0,0 +1,26 @@
+-- Archive tables for soft-deleted orders and order items, filled by OrdersArchiveServiceImpl.
+-- deleted_at records when a row was soft-deleted, rows deleted before this migration count as deleted now.
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP WITH TIME ZONE;
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP WITH TIME ZONE;
+
+UPDATE orders SET deleted_at = now() WHERE is_deleted = true AND deleted_at IS NULL;
+UPDATE order_items SET deleted_at = now() WHERE is_deleted = true AND deleted_at IS NULL;
+
+-- Same columns in the same order as the hot tables, rows are moved with INSERT ... SELECT *.
+-- Later changes to the columns of orders or order_items must be applied to the archive tables too.
+CREATE TABLE IF NOT EXISTS orders_archive (LIKE orders);
+ALTER TABLE orders_archive ADD PRIMARY KEY (id);
+
+CREATE TABLE IF NOT EXISTS order_items_archive (LIKE order_items);
+ALTER TABLE order_items_archive ADD PRIMARY KEY (id);
+
+CREATE INDEX IF NOT EXISTS idx_order_items_archive_order
+    ON order_items_archive (order_id);
+
+-- Soft-deleted rows waiting to be archived, walked in id order by the archiver
+CREATE INDEX IF NOT EXISTS idx_orders_deleted
+    ON orders (id) WHERE is_deleted = true;
+
+CREATE INDEX IF NOT EXISTS idx_order_items_deleted
+    ON order_items (id) WHERE is_deleted = true;
@@ -0,0 +1,68 @@
+-- Dates and times were stored as 'YYYY-MM-DD' strings and prices as DOUBLE PRECISION.
+-- Order terms become DATE, update dates become TIMESTAMP WITH TIME ZONE and prices become NUMERIC(19, 2),
+-- so range conditions can use indexes and sums of prices are exact.
+-- The archive tables get the same changes, their columns must match the hot tables.
+
+-- Parses a 'YYYY-MM-DD' string, NULL if the string is not a valid date
+CREATE FUNCTION pg_temp.parse_date(value TEXT) RETURNS DATE AS $$
+BEGIN
+    IF value ~ '^\d{4}-\d{2}-\d{2}' THEN
+        RETURN substr(value, 1, 10)::DATE;
+    END IF;
+    RETURN NULL;
+EXCEPTION
+    WHEN datetime_field_overflow OR invalid_datetime_format THEN
+        RETURN NULL;
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+-- Unreadable order terms fall back to the order update date, unreadable update dates count as updated now.
+-- order_term is converted first, it reads order_update_date while that is still a string.
+ALTER TABLE orders
+    ALTER COLUMN order_term TYPE DATE
+        USING COALESCE(pg_temp.parse_date(order_term), pg_temp.parse_date(order_update_date), current_date);
+
+ALTER TABLE orders
+    ALTER COLUMN order_update_date TYPE TIMESTAMP WITH TIME ZONE
+        USING COALESCE(pg_temp.parse_date(order_update_date)::TIMESTAMP AT TIME ZONE 'UTC', now()),
+    ALTER COLUMN order_price TYPE NUMERIC(19, 2);
+
+ALTER TABLE order_items
+    ALTER COLUMN item_update_date TYPE TIMESTAMP WITH TIME ZONE
+        USING COALESCE(pg_temp.parse_date(item_update_date)::TIMESTAMP AT TIME ZONE 'UTC', now()),
+    ALTER COLUMN item_price TYPE NUMERIC(19, 2),
+    ALTER COLUMN total_price TYPE NUMERIC(19, 2);
+
+ALTER TABLE orders_archive
+    ALTER COLUMN order_term TYPE DATE
+        USING COALESCE(pg_temp.parse_date(order_term), pg_temp.parse_date(order_update_date), current_date);
+
+ALTER TABLE orders_archive
+    ALTER COLUMN order_update_date TYPE TIMESTAMP WITH TIME ZONE
+        USING COALESCE(pg_temp.parse_date(order_update_date)::TIMESTAMP AT TIME ZONE 'UTC', now()),
+    ALTER COLUMN order_price TYPE NUMERIC(19, 2);
+
+ALTER TABLE order_items_archive
+    ALTER COLUMN item_update_date TYPE TIMESTAMP WITH TIME ZONE
+        USING COALESCE(pg_temp.parse_date(item_update_date)::TIMESTAMP AT TIME ZONE 'UTC', now()),
+    ALTER COLUMN item_price TYPE NUMERIC(19, 2),
+    ALTER COLUMN total_price TYPE NUMERIC(19, 2);
+
+-- Item prices were rounded to cents by the conversion, recompute the totals from them
+-- so order prices are exact sums of their order items.
+UPDATE order_items SET total_price = item_price * item_count;
+UPDATE order_items_archive SET total_price = item_price * item_count;
+
+UPDATE orders o
+SET order_price = COALESCE((SELECT SUM(i.total_price)
+                            FROM order_items i
+                            WHERE i.order_id = o.id
+                              AND i.is_deleted = FALSE), 0);
+
+-- Orders due in a date range, walked in (order_term, id) order
+CREATE INDEX IF NOT EXISTS idx_orders_due
+    ON orders (order_term, id) WHERE is_deleted = false;
+
+-- Orders updated since a point in time, walked in (order_update_date, id) order
+CREATE INDEX IF NOT EXISTS idx_orders_updated
+    ON orders (order_update_date, id) WHERE is_deleted = false;
@@ -0,0 +1,50 @@
+-- order_status was free text, it becomes one of the OrderStatus names.
+-- Known spellings such as 'Pending' or 'In progress' are normalized, anything else becomes PENDING.
+
+UPDATE orders
+SET order_status = CASE upper(regexp_replace(trim(order_status), '[\s-]+', '_', 'g'))
+                       WHEN 'CONFIRMED' THEN 'CONFIRMED'
+                       WHEN 'IN_PROGRESS' THEN 'IN_PROGRESS'
+                       WHEN 'COMPLETED' THEN 'COMPLETED'
+                       WHEN 'CANCELLED' THEN 'CANCELLED'
+                       ELSE 'PENDING'
+                   END;
+
+UPDATE orders_archive
+SET order_status = CASE upper(regexp_replace(trim(order_status), '[\s-]+', '_', 'g'))
+                       WHEN 'CONFIRMED' THEN 'CONFIRMED'
+                       WHEN 'IN_PROGRESS' THEN 'IN_PROGRESS'
+                       WHEN 'COMPLETED' THEN 'COMPLETED'
+                       WHEN 'CANCELLED' THEN 'CANCELLED'
+                       ELSE 'PENDING'
+                   END;
+
+ALTER TABLE orders ALTER COLUMN order_status TYPE VARCHAR(20);
+ALTER TABLE orders_archive ALTER COLUMN order_status TYPE VARCHAR(20);
+
+ALTER TABLE orders ADD CONSTRAINT orders_order_status_check
+    CHECK (order_status IN ('PENDING', 'CONFIRMED', 'IN_PROGRESS', 'COMPLETED', 'CANCELLED'));
+
+-- Number of orders where is_deleted is false per status, maintained by OrdersServiceImpl in the transaction that
+-- changes the orders. Every status is split over 16 slots and a change updates a random slot, so concurrent
+-- transactions rarely wait for the same row lock. The count of a status is the sum of its slots.
+CREATE TABLE IF NOT EXISTS order_status_counts (
+    order_status VARCHAR(20) NOT NULL,
+    slot         SMALLINT    NOT NULL,
+    order_count  BIGINT      NOT NULL,
+    PRIMARY KEY (order_status, slot)
+);
+
+INSERT INTO order_status_counts (order_status, slot, order_count)
+SELECT s.order_status, g.slot, 0
+FROM (VALUES ('PENDING'), ('CONFIRMED'), ('IN_PROGRESS'), ('COMPLETED'), ('CANCELLED')) AS s (order_status)
+         CROSS JOIN generate_series(0, 15) AS g (slot)
+ON CONFLICT DO NOTHING;
+
+UPDATE order_status_counts c
+SET order_count = (SELECT count(*) FROM orders o WHERE o.is_deleted = false AND o.order_status = c.order_status)
+WHERE c.slot = 0;
+
+-- Orders of one status in the listing order of the status-filtered listing
+CREATE INDEX IF NOT EXISTS idx_orders_status
+    ON orders (order_status, order_update_date DESC, id DESC) WHERE is_deleted = false;
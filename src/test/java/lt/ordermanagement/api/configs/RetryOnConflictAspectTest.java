@@ -0,0 +1,78 @@
+package lt.ordermanagement.api.configs;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link RetryOnConflictAspect} class.
+ */
+class RetryOnConflictAspectTest {
+
+    /**
+     * Mock call of an annotated method.
+     */
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    /**
+     * Mock signature of the annotated method.
+     */
+    @Mock
+    private Signature signature;
+
+    /**
+     * Aspect to be tested, with 3 attempts and no pause between them.
+     */
+    private final RetryOnConflictAspect aspect = new RetryOnConflictAspect(3, Duration.ZERO);
+
+    /**
+     * Set up method to initialize mocks.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(signature.toShortString()).thenReturn("method()");
+    }
+
+    /**
+     * Test that a conflict is retried until an attempt succeeds.
+     */
+    @Test
+    public void testRetriesUntilSuccess() throws Throwable {
+        when(joinPoint.proceed())
+                .thenThrow(new ObjectOptimisticLockingFailureException(Object.class, 1L))
+                .thenReturn("result");
+
+        assertEquals("result", aspect.retryOnConflict(joinPoint));
+        verify(joinPoint, times(2)).proceed();
+    }
+
+    /**
+     * Test that the conflict of the last attempt is thrown and other failures are not retried.
+     */
+    @Test
+    public void testStopsAfterMaxAttempts() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(new ObjectOptimisticLockingFailureException(Object.class, 1L));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> aspect.retryOnConflict(joinPoint));
+        verify(joinPoint, times(3)).proceed();
+
+        clearInvocations(joinPoint);
+        doThrow(new IllegalStateException("Not a conflict")).when(joinPoint).proceed();
+
+        assertThrows(IllegalStateException.class, () -> aspect.retryOnConflict(joinPoint));
+        verify(joinPoint, times(1)).proceed();
+    }
+}
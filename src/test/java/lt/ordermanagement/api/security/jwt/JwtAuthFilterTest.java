@@ -0,0 +1,123 @@
+package lt.ordermanagement.api.security.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import lt.ordermanagement.api.security.enums.Role;
+import lt.ordermanagement.api.security.models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link JwtAuthFilter} class.
+ */
+class JwtAuthFilterTest {
+
+    private static final String SECRET_KEY = Base64.getEncoder()
+            .encodeToString("test-secret-key-test-secret-key-test".getBytes());
+
+    /**
+     * Mock registry of user states.
+     */
+    @Mock
+    private UserStateRegistry userStateRegistry;
+
+    /**
+     * Mock filter chain.
+     */
+    @Mock
+    private FilterChain filterChain;
+
+    private JwtService jwtService;
+
+    /**
+     * Filter to be tested.
+     */
+    private JwtAuthFilter jwtAuthFilter;
+
+    private User user;
+
+    /**
+     * Set up method to initialize mocks and the filter.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        jwtService = new JwtService(SECRET_KEY, 60_000, 100, new SimpleMeterRegistry());
+        jwtAuthFilter = new JwtAuthFilter(jwtService, userStateRegistry);
+        user = new User("John", "Doe", "john_doe", "encoded-password", Role.ROLE_MANAGER, true);
+    }
+
+    /**
+     * Clears the security context after each test.
+     */
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Test that a valid token authenticates the user with the roles from the token.
+     */
+    @Test
+    public void testValidTokenAuthenticatesFromClaims() throws Exception {
+        when(userStateRegistry.getState("john_doe"))
+                .thenReturn(new UserStateRegistry.UserState(true, UserStateRegistry.credentialVersion(user)));
+
+        jwtAuthFilter.doFilter(requestWithToken(issueToken()), new MockHttpServletResponse(), filterChain);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        assertNotNull(authentication);
+        assertEquals("john_doe", authentication.getName());
+        assertEquals("ROLE_MANAGER", authentication.getAuthorities().iterator().next().getAuthority());
+        verify(filterChain).doFilter(any(), any());
+    }
+
+    /**
+     * Test that tokens issued before a password change or for a disabled user are rejected.
+     */
+    @Test
+    public void testRevokedTokenIsRejected() throws Exception {
+        String token = issueToken();
+
+        when(userStateRegistry.getState("john_doe"))
+                .thenReturn(new UserStateRegistry.UserState(true, "changed-password"));
+
+        jwtAuthFilter.doFilter(requestWithToken(token), new MockHttpServletResponse(), filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+        when(userStateRegistry.getState("john_doe"))
+                .thenReturn(new UserStateRegistry.UserState(false, UserStateRegistry.credentialVersion(user)));
+
+        jwtAuthFilter.doFilter(requestWithToken(token), new MockHttpServletResponse(), filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private String issueToken() {
+        return jwtService.generateToken(
+                Map.of(JwtService.CREDENTIAL_VERSION_CLAIM, UserStateRegistry.credentialVersion(user)),
+                user);
+    }
+
+    private MockHttpServletRequest requestWithToken(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/orders");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,75 @@
+package lt.ordermanagement.api.services.impl;
+
+import lt.ordermanagement.api.dtos.CacheRegionStatsDTO;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link CacheStatisticsServiceImpl} class.
+ */
+class CacheStatisticsServiceImplTest {
+
+    /**
+     * Mock session factory, the entity manager factory of Hibernate.
+     */
+    @Mock
+    private SessionFactory sessionFactory;
+
+    /**
+     * Mock Hibernate statistics.
+     */
+    @Mock
+    private Statistics statistics;
+
+    /**
+     * Mock statistics of the orders region.
+     */
+    @Mock
+    private CacheRegionStatistics ordersStatistics;
+
+    /**
+     * Service to be tested.
+     */
+    private CacheStatisticsServiceImpl cacheStatisticsService;
+
+    /**
+     * Set up method to initialize mocks and the service.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(sessionFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+
+        cacheStatisticsService = new CacheStatisticsServiceImpl(sessionFactory);
+    }
+
+    /**
+     * Test for the {@link CacheStatisticsServiceImpl#getCacheStatistics()} method.
+     */
+    @Test
+    public void testGetCacheStatistics() {
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{"users", "orders"});
+        when(statistics.getCacheRegionStatistics("orders")).thenReturn(ordersStatistics);
+        when(ordersStatistics.getHitCount()).thenReturn(3L);
+        when(ordersStatistics.getMissCount()).thenReturn(1L);
+        when(ordersStatistics.getPutCount()).thenReturn(1L);
+        when(ordersStatistics.getElementCountInMemory()).thenReturn(Long.MIN_VALUE);
+
+        List<CacheRegionStatsDTO> result = cacheStatisticsService.getCacheStatistics();
+
+        assertEquals(1, result.size());
+        assertEquals(new CacheRegionStatsDTO("orders", 3, 1, 1, -1, 0.75), result.get(0));
+    }
+}
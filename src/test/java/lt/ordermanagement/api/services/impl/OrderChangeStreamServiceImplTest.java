@@ -0,0 +1,319 @@
+package lt.ordermanagement.api.services.impl;
+
+import lt.ordermanagement.api.dtos.OrderChangeDTO;
+import lt.ordermanagement.api.enums.ChangedEntity;
+import lt.ordermanagement.api.enums.OrderChangeType;
+import lt.ordermanagement.api.repositories.OrderChangesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link OrderChangeStreamServiceImpl} class.
+ */
+class OrderChangeStreamServiceImplTest {
+
+    /**
+     * Mock repository for the order change outbox.
+     */
+    @Mock
+    private OrderChangesRepository orderChangesRepository;
+
+    /**
+     * Mock transaction manager.
+     */
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Drains of subscribers waiting for a sender thread.
+     */
+    private final List<Runnable> pendingDrains = new ArrayList<>();
+
+    /**
+     * Set up method to initialize mocks.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(orderChangesRepository.tryPublisherLock(anyLong())).thenReturn(true);
+    }
+
+    /**
+     * Test that a subscriber resuming after Last-Event-ID is first sent the changes that followed it from the
+     * outbox, then the changes published later, each with its sequence number as the event ID.
+     */
+    @Test
+    public void testResumesAfterLastEventId() {
+        OrderChangeStreamServiceImpl service = service(Runnable::run, 500);
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        when(orderChangesRepository.findLatestSequenceNumber()).thenReturn(Optional.of(4L));
+        when(orderChangesRepository.findEarliestSequenceNumber()).thenReturn(Optional.of(1L));
+        when(orderChangesRepository.findPublishedAfter(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(change(3), change(4)));
+        when(orderChangesRepository.findPublishedAfter(eq(4L), any(Pageable.class)))
+                .thenReturn(List.of(change(4), change(5)));
+
+        service.subscribe(emitter, 2L);
+        service.changesCommitted();
+
+        assertEquals(List.of("order-change 3", "order-change 4", "order-change 5"), emitter.events);
+        verify(orderChangesRepository).publishPending(500);
+        assertEquals(1, service.getSubscriberCount());
+    }
+
+    /**
+     * Test that a subscriber whose buffer overflows drops it and catches up from the outbox, without missing or
+     * repeating a change.
+     */
+    @Test
+    public void testOverflowCatchesUpFromOutbox() {
+        OrderChangeStreamServiceImpl service = service(pendingDrains::add, 500);
+        RecordingEmitter emitter = new RecordingEmitter();
+        List<OrderChangeDTO> changes = List.of(change(1), change(2), change(3));
+
+        when(orderChangesRepository.findLatestSequenceNumber()).thenReturn(Optional.empty());
+        when(orderChangesRepository.findPublishedAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of())
+                .thenReturn(changes);
+
+        service.subscribe(emitter, null);
+        runPendingDrains();
+
+        service.changesCommitted();
+        runPendingDrains();
+
+        assertEquals(List.of("order-change 1", "order-change 2", "order-change 3"), emitter.events);
+    }
+
+    /**
+     * Test that a subscriber resuming after changes that were already purged is told to reload instead.
+     */
+    @Test
+    public void testResetWhenChangesArePurged() {
+        OrderChangeStreamServiceImpl service = service(Runnable::run, 500);
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        when(orderChangesRepository.findLatestSequenceNumber()).thenReturn(Optional.of(12L));
+        when(orderChangesRepository.findEarliestSequenceNumber()).thenReturn(Optional.of(10L));
+
+        service.subscribe(emitter, 3L);
+
+        assertEquals(List.of("reset 12"), emitter.events);
+        verify(orderChangesRepository, never()).findPublishedAfter(eq(3L), any(Pageable.class));
+    }
+
+    /**
+     * Test that changes are published in batches only while the publisher lock is held.
+     */
+    @Test
+    public void testPublishesPendingChangesUnderLock() {
+        OrderChangeStreamServiceImpl service = service(Runnable::run, 2);
+
+        when(orderChangesRepository.publishPending(2)).thenReturn(2, 1);
+
+        service.changesCommitted();
+
+        verify(orderChangesRepository, times(2)).publishPending(2);
+
+        when(orderChangesRepository.tryPublisherLock(anyLong())).thenReturn(false);
+
+        service.changesCommitted();
+
+        verify(orderChangesRepository, times(2)).publishPending(anyInt());
+        verify(orderChangesRepository, never()).findPublishedAfter(anyLong(), any(Pageable.class));
+    }
+
+    /**
+     * Test that a subscriber whose connection fails is dropped.
+     */
+    @Test
+    public void testDropsSubscriberWhenSendFails() {
+        OrderChangeStreamServiceImpl service = service(Runnable::run, 500);
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.failing = true;
+
+        when(orderChangesRepository.findLatestSequenceNumber()).thenReturn(Optional.of(1L));
+        when(orderChangesRepository.findPublishedAfter(eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(change(2)));
+
+        service.subscribe(emitter, null);
+
+        assertEquals(0, service.getSubscriberCount());
+    }
+
+    /**
+     * Test that a subscriber whose write blocks does not hold up the others, and that it is dropped once the write
+     * takes longer than the send timeout.
+     */
+    @Test
+    public void testBlockedSubscriberDoesNotHoldUpOthers() throws InterruptedException {
+        ExecutorService senders = OrderChangeStreamServiceImpl.newSenderExecutor(1);
+        OrderChangeStreamServiceImpl service = new OrderChangeStreamServiceImpl(orderChangesRepository,
+                transactionManager, Runnable::run, senders, 2, 500, Duration.ofMinutes(1), Duration.ofMillis(50),
+                Duration.ofDays(1));
+        List<OrderChangeDTO> published = new CopyOnWriteArrayList<>();
+        BlockingEmitter blocked = new BlockingEmitter();
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        when(orderChangesRepository.findLatestSequenceNumber()).thenAnswer(invocation -> Optional.of(
+                published.isEmpty() ? 0L : published.get(published.size() - 1).sequenceNumber()));
+        when(orderChangesRepository.findEarliestSequenceNumber()).thenReturn(Optional.empty());
+        when(orderChangesRepository.findPublishedAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            return published.stream().filter(change -> change.sequenceNumber() > after).toList();
+        });
+
+        try {
+            service.subscribe(blocked, 0L);
+            service.subscribe(emitter, 0L);
+
+            published.add(change(1));
+            service.changesCommitted();
+
+            assertTrue(blocked.sending.await(5, TimeUnit.SECONDS));
+
+            published.add(change(2));
+            service.changesCommitted();
+
+            awaitEvents(emitter, 2);
+            assertEquals(List.of("order-change 1", "order-change 2"), emitter.events);
+
+            Thread.sleep(100);
+            service.closeStalledSubscribers();
+
+            assertEquals(1, service.getSubscriberCount());
+
+        } finally {
+            blocked.release.countDown();
+            senders.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that Last-Event-ID must be a sequence number.
+     */
+    @Test
+    public void testParseLastEventId() {
+        assertNull(OrderChangeStreamServiceImpl.parseLastEventId(null));
+        assertNull(OrderChangeStreamServiceImpl.parseLastEventId(" "));
+        assertEquals(42L, OrderChangeStreamServiceImpl.parseLastEventId("42"));
+        assertThrows(IllegalArgumentException.class, () -> OrderChangeStreamServiceImpl.parseLastEventId("-1"));
+        assertThrows(IllegalArgumentException.class, () -> OrderChangeStreamServiceImpl.parseLastEventId("abc"));
+    }
+
+    /**
+     * Creates the service with a buffer of two changes, dispatching on the calling thread.
+     *
+     * @param senders   The executor draining the subscribers.
+     * @param batchSize The number of changes published and read at once.
+     */
+    private OrderChangeStreamServiceImpl service(Executor senders, int batchSize) {
+        return new OrderChangeStreamServiceImpl(orderChangesRepository, transactionManager, Runnable::run, senders,
+                2, batchSize, Duration.ofMinutes(1), Duration.ofSeconds(10), Duration.ofDays(1));
+    }
+
+    private static void awaitEvents(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (emitter.events.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void runPendingDrains() {
+        while (!pendingDrains.isEmpty()) {
+            pendingDrains.remove(0).run();
+        }
+    }
+
+    private static OrderChangeDTO change(long sequenceNumber) {
+        return new OrderChangeDTO(sequenceNumber, ChangedEntity.ORDER, sequenceNumber, sequenceNumber,
+                OrderChangeType.UPDATED, OffsetDateTime.parse("2024-01-22T10:15:30Z"));
+    }
+
+    /**
+     * Emitter recording the name and the ID of every sent event.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private static final Pattern ID = Pattern.compile("^id:(.*)$", Pattern.MULTILINE);
+        private static final Pattern NAME = Pattern.compile("^event:(.*)$", Pattern.MULTILINE);
+
+        private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+
+            StringBuilder text = new StringBuilder();
+            builder.build().stream()
+                    .filter(item -> item.getData() instanceof String)
+                    .forEach(item -> text.append(item.getData()));
+
+            Matcher name = NAME.matcher(text);
+            Matcher id = ID.matcher(text);
+
+            if (name.find() && id.find()) {
+                events.add(name.group(1) + " " + id.group(1));
+            }
+        }
+
+    }
+
+    /**
+     * Emitter whose writes block until released, like the connection of a client that stopped reading.
+     */
+    private static class BlockingEmitter extends RecordingEmitter {
+
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted", e);
+            }
+
+            super.send(builder);
+        }
+
+    }
+
+}
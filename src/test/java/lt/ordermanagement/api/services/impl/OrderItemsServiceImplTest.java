@@ -1,15 +1,32 @@
 package lt.ordermanagement.api.services.impl;
 
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import lt.ordermanagement.api.dtos.OrderDTO;
+import lt.ordermanagement.api.dtos.OrderItemDTO;
+import lt.ordermanagement.api.enums.OrderChangeType;
+import lt.ordermanagement.api.enums.OrderStatus;
+import lt.ordermanagement.api.exeptions.PreconditionFailedException;
 import lt.ordermanagement.api.models.Order;
 import lt.ordermanagement.api.models.OrderItem;
 import lt.ordermanagement.api.repositories.OrderItemsRepository;
 import lt.ordermanagement.api.repositories.OrdersRepository;
+import lt.ordermanagement.api.services.Interfaces.OrderChangeService;
+import lt.ordermanagement.api.services.Interfaces.OrderStatsService;
+import lt.ordermanagement.api.services.Interfaces.OrdersSnapshotService;
+import lt.ordermanagement.api.utils.OrderContribution;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -34,6 +51,41 @@ class OrderItemsServiceImplTest {
     @Mock
     private OrdersRepository ordersRepository;
 
+    /**
+     * Mock service for the in-memory order listing.
+     */
+    @Mock
+    private OrdersSnapshotService ordersSnapshotService;
+
+    /**
+     * Mock service for the order summaries.
+     */
+    @Mock
+    private OrderStatsService orderStatsService;
+
+    /**
+     * Mock service for the order change outbox.
+     */
+    @Mock
+    private OrderChangeService orderChangeService;
+
+    /**
+     * Mock entity manager factory, unwrapped to the session factory.
+     */
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Mock second-level cache.
+     */
+    @Mock
+    private Cache cache;
+
+    /**
+     * Update time of the order items created in the tests.
+     */
+    private static final OffsetDateTime UPDATED = OffsetDateTime.parse("2024-12-12T10:00:00Z");
+
     /**
      * Service to be tested.
      */
@@ -46,44 +98,65 @@ class OrderItemsServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+
+        // Not a mock field, a session factory is an entity manager factory and could be injected in its place
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+
+        when(ordersRepository.addToOrderTotals(anyLong(), any(), anyLong(), any()))
+                .thenAnswer(invocation -> Optional.of(OrderDTO.of(order())));
     }
 
     /**
-     * Test for the {@link OrderItemsServiceImpl#getOrderItems(Long)} method.
+     * Test for the {@link OrderItemsServiceImpl#getOrderItems(Long, int, int)} method.
      */
     @Test
     public void testGetOrderItems() {
         Long orderId = 1L;
-        Order order = new Order();
-        order.setId(orderId);
 
         OrderItem orderItem1 = new OrderItem("Item1",
                 "Code1",
                 "Rev1",
                 1L,
-                10.0,
-                10.0,
-                "2024-12-12",
+                new BigDecimal("10.00"),
+                new BigDecimal("10.00"),
+                UPDATED,
                 "");
         OrderItem orderItem2 = new OrderItem("Item2",
                 "Code2",
                 "Rev2",
                 2L,
-                20.0,
-                40.0,
-                "2024-12-12",
+                new BigDecimal("20.00"),
+                new BigDecimal("40.00"),
+                UPDATED,
                 "");
 
-        order.setOrderItems(Arrays.asList(orderItem2, orderItem1));
+        when(orderItemsRepository.findPageByOrderId(orderId, PageRequest.of(1, 200)))
+                .thenReturn(Arrays.asList(OrderItemDTO.of(orderItem1), OrderItemDTO.of(orderItem2)));
 
-        when(ordersRepository.findById(orderId)).thenReturn(Optional.of(order));
-
-        List<OrderItem> result = orderItemsService.getOrderItems(orderId);
+        List<OrderItemDTO> result = orderItemsService.getOrderItems(orderId, 1, 1000);
 
         assertNotNull(result);
         assertEquals(2, result.size());
-        assertEquals("Item1", result.get(0).getItemName());
-        assertEquals("Item2", result.get(1).getItemName());
+        assertEquals("Item1", result.get(0).itemName());
+        assertEquals("Item2", result.get(1).itemName());
+        verify(ordersRepository, never()).existsById(orderId);
+    }
+
+    /**
+     * Test that {@link OrderItemsServiceImpl#getOrderItems(Long, int, int)} tells an order without items from
+     * a missing order and rejects negative pages.
+     */
+    @Test
+    public void testGetOrderItemsEmptyPage() {
+        when(orderItemsRepository.findPageByOrderId(eq(1L), any(Pageable.class))).thenReturn(List.of());
+        when(orderItemsRepository.findPageByOrderId(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(ordersRepository.existsById(1L)).thenReturn(true);
+
+        assertTrue(orderItemsService.getOrderItems(1L, 0, 50).isEmpty());
+        assertThrows(EntityNotFoundException.class, () -> orderItemsService.getOrderItems(2L, 0, 50));
+        assertThrows(IllegalArgumentException.class, () -> orderItemsService.getOrderItems(1L, -1, 50));
     }
 
     /**
@@ -97,55 +170,216 @@ class OrderItemsServiceImplTest {
                 "Code1",
                 "Rev1",
                 1L,
-                10.0,
-                10.0,
-                "2024-12-12",
+                new BigDecimal("10.00"),
+                new BigDecimal("10.00"),
+                UPDATED,
                 "");
 
         when(orderItemsRepository.findById(itemId)).thenReturn(Optional.of(orderItem));
 
-        OrderItem result = orderItemsService.getOrderItem(itemId);
+        OrderItemDTO result = orderItemsService.getOrderItem(itemId);
 
         assertNotNull(result);
-        assertEquals("Item1", result.getItemName());
+        assertEquals("Item1", result.itemName());
+        assertEquals(new BigDecimal("10.00"), result.totalPrice());
     }
 
     /**
-     * Test for the {@link OrderItemsServiceImpl#findOrderItemsByName(Long, String)} method.
+     * Test for the {@link OrderItemsServiceImpl#findOrderItemsByName(Long, String, int, int)} method.
      */
     @Test
     public void testFindOrderItemsByName() {
         Long orderId = 1L;
-        String itemName = "Item";
-        Order order = new Order();
-        order.setId(orderId);
 
-        OrderItem orderItem1 = new OrderItem("Item1",
+        OrderItem orderItem = new OrderItem("Item_1",
                 "Code1",
                 "Rev1",
                 1L,
-                10.0,
-                10.0,
-                "2024-12-12",
+                new BigDecimal("10.00"),
+                new BigDecimal("10.00"),
+                UPDATED,
                 "");
-        OrderItem orderItem2 = new OrderItem("Item2",
-                "Code2",
-                "Rev2",
+
+        when(orderItemsRepository.findPageByOrderIdAndItemName(orderId, "%item\\_1%", PageRequest.of(0, 20)))
+                .thenReturn(List.of(OrderItemDTO.of(orderItem)));
+
+        List<OrderItemDTO> result = orderItemsService.findOrderItemsByName(orderId, "ITEM_1", 0, 20);
+
+        assertEquals(List.of(OrderItemDTO.of(orderItem)), result);
+    }
+
+    /**
+     * Test that {@link OrderItemsServiceImpl#addItemToOrder(Long, OrderItem)} adds the item total and count to the
+     * order totals and the order summaries, and fails when there is no order to update.
+     */
+    @Test
+    public void testAddItemToOrderUpdatesOrderPrice() {
+        Order order = order();
+
+        OrderItem orderItem = new OrderItem("Item1",
+                "Code1",
+                "Rev1",
+                3L,
+                new BigDecimal("10.00"),
+                BigDecimal.ZERO,
+                UPDATED,
+                "");
+
+        when(ordersRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderItemsRepository.save(any(OrderItem.class))).thenAnswer(invocation -> {
+            invocation.<OrderItem>getArgument(0).setId(9L);
+            return invocation.getArgument(0);
+        });
+
+        OrderItem result = orderItemsService.addItemToOrder(1L, orderItem);
+
+        assertEquals(new BigDecimal("30.00"), result.getTotalPrice());
+        assertSame(order, result.getOrder());
+        verify(orderItemsRepository).save(result);
+        verify(ordersRepository).addToOrderTotals(eq(1L), eq(new BigDecimal("30.00")), eq(3L),
+                any(OffsetDateTime.class));
+        verify(orderStatsService).orderChanged(
+                argThat(before -> before.itemCount() == 0),
+                argThat(after -> after.itemCount() == 3 && after.revenue().compareTo(new BigDecimal("30")) == 0));
+        verify(ordersSnapshotService).orderChanged(1L);
+        verify(orderChangeService).orderItemsChanged(1L, List.of(9L), OrderChangeType.CREATED);
+        verify(cache).evictEntityData(Order.class, 1L);
+
+        when(ordersRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> orderItemsService.addItemToOrder(2L, orderItem));
+    }
+
+    /**
+     * Test that {@link OrderItemsServiceImpl#updateOrderItem(Long, OrderItem, Long)} applies only the change of the item
+     * total to the order price and that deleting an item twice subtracts its total once.
+     */
+    @Test
+    public void testUpdateAndDeleteOrderItemApplyPriceDelta() {
+        Order order = order();
+
+        OrderItem storedItem = new OrderItem("Item1",
+                "Code1",
+                "Rev1",
                 2L,
-                20.0,
-                40.0,
-                "2024-12-12",
+                new BigDecimal("10.00"),
+                new BigDecimal("20.00"),
+                UPDATED,
+                "");
+        storedItem.setOrder(order);
+
+        OrderItem changedItem = new OrderItem("Item1",
+                "Code1",
+                "Rev1",
+                5L,
+                new BigDecimal("10.00"),
+                new BigDecimal("50.00"),
+                UPDATED,
                 "");
 
-        order.setOrderItems(Arrays.asList(orderItem2, orderItem1));
+        when(orderItemsRepository.findById(7L)).thenReturn(Optional.of(storedItem));
+        when(ordersRepository.findById(1L)).thenReturn(Optional.of(order));
 
-        when(ordersRepository.findById(orderId)).thenReturn(Optional.of(order));
+        storedItem.setVersion(4L);
 
-        List<OrderItem> result = orderItemsService.findOrderItemsByName(orderId, itemName);
+        assertThrows(PreconditionFailedException.class,
+                () -> orderItemsService.updateOrderItem(7L, changedItem, 3L));
+        verify(orderItemsRepository, never()).save(any());
+
+        orderItemsService.updateOrderItem(7L, changedItem, 4L);
+
+        verify(ordersRepository).addToOrderTotals(eq(1L), eq(new BigDecimal("30.00")), eq(3L),
+                any(OffsetDateTime.class));
+
+        orderItemsService.deleteOrderItem(7L);
+        orderItemsService.deleteOrderItem(7L);
+
+        verify(ordersRepository, times(1)).addToOrderTotals(eq(1L), eq(new BigDecimal("-50.00")),
+                eq(-5L), any(OffsetDateTime.class));
+        verify(orderStatsService, times(2)).orderChanged(any(OrderContribution.class), any(OrderContribution.class));
+        verify(orderChangeService).orderItemsChanged(1L, List.of(7L), OrderChangeType.UPDATED);
+        verify(orderChangeService, times(1)).orderItemsChanged(1L, List.of(7L), OrderChangeType.DELETED);
+    }
+
+    /**
+     * Test that {@link OrderItemsServiceImpl#addItemsToOrder(Long, List)} saves all items at once and
+     * updates the order price once with their total.
+     */
+    @Test
+    public void testAddItemsToOrderUpdatesOrderPriceOnce() {
+        Order order = order();
+
+        List<OrderItem> orderItems = Arrays.asList(
+                new OrderItem("Item1", "Code1", "Rev1", 2L, new BigDecimal("10.00"), BigDecimal.ZERO, null, ""),
+                new OrderItem("Item2", "Code2", "Rev2", 3L, new BigDecimal("5.00"), BigDecimal.ZERO, null, ""));
+
+        when(ordersRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        List<OrderItem> result = orderItemsService.addItemsToOrder(1L, orderItems);
 
-        assertNotNull(result);
         assertEquals(2, result.size());
-        assertTrue(result.get(0).getItemName().toLowerCase().contains(itemName.toLowerCase()));
-        assertTrue(result.get(1).getItemName().toLowerCase().contains(itemName.toLowerCase()));
+        result.forEach(orderItem -> assertSame(order, orderItem.getOrder()));
+        verify(ordersRepository, times(1)).addToOrderTotals(eq(1L), eq(new BigDecimal("35.00")), eq(5L),
+                any(OffsetDateTime.class));
+        verify(orderItemsRepository).saveAll(result);
+    }
+
+    /**
+     * Test that {@link OrderItemsServiceImpl#addItemToOrder(Long, OrderItem)} moves the order summaries from the
+     * order returned by the atomic update, not from the order it read, when the order was changed in between.
+     */
+    @Test
+    public void testAddItemToOrderMovesSummariesFromUpdatedOrder() {
+        Order changedOrder = order();
+        changedOrder.setOrderPrice(new BigDecimal("100.00"));
+        changedOrder.setItemCount(10L);
+        changedOrder.setOrderStatus(OrderStatus.CONFIRMED);
+        changedOrder.setVersion(5L);
+
+        when(ordersRepository.findById(1L)).thenReturn(Optional.of(order()));
+        when(ordersRepository.addToOrderTotals(anyLong(), any(), anyLong(), any()))
+                .thenReturn(Optional.of(OrderDTO.of(changedOrder)));
+        when(orderItemsRepository.save(any(OrderItem.class))).thenAnswer(invocation -> {
+            invocation.<OrderItem>getArgument(0).setId(9L);
+            return invocation.getArgument(0);
+        });
+
+        OrderItem orderItem = new OrderItem("Item1", "Code1", "Rev1", 2L, BigDecimal.ONE, BigDecimal.ZERO, null, "");
+
+        orderItemsService.addItemToOrder(1L, orderItem);
+
+        verify(orderStatsService).orderChanged(
+                argThat(before -> before.itemCount() == 10 && before.status() == OrderStatus.CONFIRMED),
+                argThat(after -> after.itemCount() == 12 && after.revenue().compareTo(new BigDecimal("102")) == 0));
+        verify(ordersSnapshotService).orderChanged(1L);
+    }
+
+    /**
+     * Test that {@link OrderItemsServiceImpl#addItemToOrder(Long, OrderItem)} fails without moving the order
+     * summaries when the order no longer exists when its totals are updated.
+     */
+    @Test
+    public void testAddItemToOrderFailsForRemovedOrder() {
+        when(ordersRepository.findById(1L)).thenReturn(Optional.of(order()));
+        when(ordersRepository.addToOrderTotals(anyLong(), any(), anyLong(), any())).thenReturn(Optional.empty());
+
+        OrderItem orderItem = new OrderItem("Item1", "Code1", "Rev1", 1L, BigDecimal.ONE, BigDecimal.ZERO, null, "");
+
+        assertThrows(EntityNotFoundException.class, () -> orderItemsService.addItemToOrder(1L, orderItem));
+
+        verifyNoInteractions(orderStatsService, ordersSnapshotService, orderChangeService);
+    }
+
+    /**
+     * Creates a live order with ID 1 and no order items.
+     */
+    private static Order order() {
+        Order order = new Order();
+        order.setId(1L);
+        order.setClientName("Client");
+        order.setOrderUpdateDate(UPDATED);
+        order.setVersion(3L);
+
+        return order;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package lt.ordermanagement.api.services.impl;
+
+import lt.ordermanagement.api.repositories.OrdersRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link OrderNumberServiceImpl} class.
+ */
+class OrderNumberServiceImplTest {
+
+    /**
+     * Mock repository for orders.
+     */
+    @Mock
+    private OrdersRepository ordersRepository;
+
+    /**
+     * Service to be tested.
+     */
+    private OrderNumberServiceImpl orderNumberService;
+
+    /**
+     * Set up method to initialize mocks and the service.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        orderNumberService = new OrderNumberServiceImpl(ordersRepository, "test-key");
+    }
+
+    /**
+     * Test that order numbers are allocated from reserved blocks, one sequence call per block.
+     */
+    @Test
+    public void testNextOrderNumberReservesBlocks() {
+        when(ordersRepository.reserveOrderNumberBlock()).thenReturn(1L, 1001L);
+
+        Set<String> orderNumbers = new HashSet<>();
+
+        for (int i = 0; i < OrderNumberServiceImpl.BLOCK_SIZE + 1; i++) {
+            String orderNumber = orderNumberService.nextOrderNumber();
+
+            assertTrue(orderNumber.matches("ON-\\d{10}"), orderNumber);
+            orderNumbers.add(orderNumber);
+        }
+
+        assertEquals(OrderNumberServiceImpl.BLOCK_SIZE + 1, orderNumbers.size());
+        verify(ordersRepository, times(2)).reserveOrderNumberBlock();
+    }
+
+    /**
+     * Test that {@link OrderNumberServiceImpl#nextOrderNumbers(int)} continues the current block and reserves
+     * the following blocks it needs.
+     */
+    @Test
+    public void testNextOrderNumbersSpansBlocks() {
+        when(ordersRepository.reserveOrderNumberBlock()).thenReturn(1L, 1001L, 2001L);
+
+        Set<String> orderNumbers = new HashSet<>();
+        orderNumbers.add(orderNumberService.nextOrderNumber());
+        orderNumbers.addAll(orderNumberService.nextOrderNumbers(2 * OrderNumberServiceImpl.BLOCK_SIZE));
+
+        assertEquals(2 * OrderNumberServiceImpl.BLOCK_SIZE + 1, orderNumbers.size());
+        verify(ordersRepository, times(3)).reserveOrderNumberBlock();
+    }
+
+    /**
+     * Test that the permutation maps different values to different values in the 10 digit number space
+     * and depends on the key.
+     */
+    @Test
+    public void testPermuteIsInjectiveAndKeyed() {
+        Set<Long> permuted = new HashSet<>();
+
+        for (long value = 0; value < 200_000; value++) {
+            long result = orderNumberService.permute(value);
+
+            assertTrue(result >= 0 && result < 10_000_000_000L);
+            permuted.add(result);
+        }
+
+        assertEquals(200_000, permuted.size());
+        assertNotEquals(orderNumberService.permute(42),
+                new OrderNumberServiceImpl(ordersRepository, "other-key").permute(42));
+        assertThrows(IllegalStateException.class, () -> orderNumberService.permute(10_000_000_000L));
+    }
+
+    /**
+     * Test that the service cannot be created without a key.
+     */
+    @Test
+    public void testBlankKeyIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderNumberServiceImpl(ordersRepository, " "));
+    }
+}
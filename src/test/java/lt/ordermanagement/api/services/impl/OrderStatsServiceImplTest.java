@@ -0,0 +1,101 @@
+package lt.ordermanagement.api.services.impl;
+
+import lt.ordermanagement.api.dtos.OrderStatusCountsDTO;
+import lt.ordermanagement.api.enums.OrderStatus;
+import lt.ordermanagement.api.repositories.OrderStatsRepository;
+import lt.ordermanagement.api.utils.OrderContribution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link OrderStatsServiceImpl} class.
+ */
+class OrderStatsServiceImplTest {
+
+    /**
+     * Mock repository for the order summary tables.
+     */
+    @Mock
+    private OrderStatsRepository orderStatsRepository;
+
+    /**
+     * Service to be tested.
+     */
+    @InjectMocks
+    private OrderStatsServiceImpl orderStatsService;
+
+    /**
+     * Set up method to initialize mocks.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Test that {@link OrderStatsServiceImpl#orderChanged(OrderContribution, OrderContribution)} moves a changed
+     * group by the difference only and moves an order between groups whose key changed.
+     */
+    @Test
+    public void testOrderChanged() {
+        LocalDate january = LocalDate.of(2024, 1, 1);
+        OrderContribution before = new OrderContribution("Client", january, OrderStatus.PENDING,
+                new BigDecimal("20.00"), 2);
+        OrderContribution after = before.withChange(new BigDecimal("15.00"), 3,
+                OffsetDateTime.parse("2024-02-29T23:30:00-01:00"));
+
+        assertEquals(LocalDate.of(2024, 3, 1), after.month());
+
+        orderStatsService.orderChanged(before, after);
+
+        verify(orderStatsRepository).addToClientStats("Client", 0, new BigDecimal("15.00"), 3);
+        verify(orderStatsRepository).addToMonthStats(eq(january), anyInt(), eq(-1L),
+                eq(new BigDecimal("-20.00")), eq(-2L));
+        verify(orderStatsRepository).addToMonthStats(eq(LocalDate.of(2024, 3, 1)), anyInt(), eq(1L),
+                eq(new BigDecimal("35.00")), eq(5L));
+        verify(orderStatsRepository).addToStatusStats(eq("PENDING"), anyInt(), eq(0L),
+                eq(new BigDecimal("15.00")), eq(3L));
+
+        clearInvocations(orderStatsRepository);
+
+        orderStatsService.orderChanged(before, before);
+        orderStatsService.orderChanged(null, null);
+
+        verifyNoInteractions(orderStatsRepository);
+    }
+
+    /**
+     * Test that {@link OrderStatsServiceImpl#getStatusCounts()} lists every status, with 0 for statuses without
+     * orders.
+     */
+    @Test
+    public void testGetStatusCounts() {
+        OrderStatsRepository.GroupStats pending = mock(OrderStatsRepository.GroupStats.class);
+        when(pending.getGroupKey()).thenReturn("PENDING");
+        when(pending.getOrderCount()).thenReturn(12L);
+
+        OrderStatsRepository.GroupStats completed = mock(OrderStatsRepository.GroupStats.class);
+        when(completed.getGroupKey()).thenReturn("COMPLETED");
+        when(completed.getOrderCount()).thenReturn(30L);
+
+        when(orderStatsRepository.findStatusStats()).thenReturn(List.of(pending, completed));
+
+        OrderStatusCountsDTO result = orderStatsService.getStatusCounts();
+
+        assertEquals(OrderStatus.values().length, result.counts().size());
+        assertEquals(12L, result.counts().get(OrderStatus.PENDING));
+        assertEquals(0L, result.counts().get(OrderStatus.CANCELLED));
+        assertEquals(42L, result.total());
+    }
+}
@@ -0,0 +1,128 @@
+package lt.ordermanagement.api.services.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import lt.ordermanagement.api.dtos.ArchiveRunDTO;
+import lt.ordermanagement.api.models.Order;
+import lt.ordermanagement.api.models.OrderItem;
+import lt.ordermanagement.api.repositories.OrderItemsRepository;
+import lt.ordermanagement.api.repositories.OrderItemsRepository.ArchivedOrderItem;
+import lt.ordermanagement.api.repositories.OrdersRepository;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link OrdersArchiveServiceImpl} class.
+ */
+class OrdersArchiveServiceImplTest {
+
+    /**
+     * Mock repository for orders.
+     */
+    @Mock
+    private OrdersRepository ordersRepository;
+
+    /**
+     * Mock repository for order items.
+     */
+    @Mock
+    private OrderItemsRepository orderItemsRepository;
+
+    /**
+     * Mock entity manager factory, unwrapped to the session factory.
+     */
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Mock session factory providing the second-level cache.
+     */
+    @Mock
+    private SessionFactory sessionFactory;
+
+    /**
+     * Mock second-level cache.
+     */
+    @Mock
+    private Cache cache;
+
+    /**
+     * Mock transaction manager.
+     */
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Service to be tested, archiving two rows per batch without pausing.
+     */
+    private OrdersArchiveServiceImpl ordersArchiveService;
+
+    /**
+     * Set up method to initialize mocks.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+
+        ordersArchiveService = new OrdersArchiveServiceImpl(ordersRepository, orderItemsRepository,
+                entityManagerFactory, transactionManager, Duration.ofDays(30), 2, Duration.ZERO, true);
+    }
+
+    /**
+     * Test that {@link OrdersArchiveServiceImpl#archiveDeleted()} moves order items and then orders in keyset
+     * batches, evicts the moved rows from the cache and reports the numbers of moved rows.
+     */
+    @Test
+    public void testArchiveDeletedInBatches() {
+        when(orderItemsRepository.archiveDeletedBatch(any(), eq(0L), eq(2)))
+                .thenReturn(List.of(archivedOrderItem(3L, 1L), archivedOrderItem(5L, 1L)));
+        when(orderItemsRepository.archiveDeletedBatch(any(), eq(5L), eq(2)))
+                .thenReturn(List.of(archivedOrderItem(8L, 2L)));
+        when(ordersRepository.archiveDeletedBatch(any(), eq(0L), eq(2))).thenReturn(List.of(1L));
+
+        assertTrue(ordersArchiveService.getLastRun().isEmpty());
+
+        ArchiveRunDTO run = ordersArchiveService.archiveDeleted();
+
+        assertEquals(3, run.orderItemsMoved());
+        assertEquals(1, run.ordersMoved());
+        assertEquals(run.startedAt().minusDays(30), run.cutoff());
+        assertEquals(run, ordersArchiveService.getLastRun().orElseThrow());
+
+        verify(orderItemsRepository, times(2)).archiveDeletedBatch(any(), anyLong(), anyInt());
+        verify(cache).evictEntityData(OrderItem.class, 8L);
+        verify(cache).evictCollectionData(Order.class.getName() + ".orderItems", 2L);
+        verify(cache).evictEntityData(Order.class, 1L);
+    }
+
+    private static ArchivedOrderItem archivedOrderItem(Long id, Long orderId) {
+        return new ArchivedOrderItem() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getOrderId() {
+                return orderId;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,136 @@
+package lt.ordermanagement.api.services.impl;
+
+import jakarta.persistence.EntityManager;
+import lt.ordermanagement.api.enums.ExportFormat;
+import lt.ordermanagement.api.enums.OrderStatus;
+import lt.ordermanagement.api.models.Order;
+import lt.ordermanagement.api.models.OrderItem;
+import lt.ordermanagement.api.repositories.OrderItemsRepository;
+import lt.ordermanagement.api.repositories.OrdersRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link OrdersExportServiceImpl} class.
+ */
+class OrdersExportServiceImplTest {
+
+    /**
+     * Mock repository for orders.
+     */
+    @Mock
+    private OrdersRepository ordersRepository;
+
+    /**
+     * Mock repository for order items.
+     */
+    @Mock
+    private OrderItemsRepository orderItemsRepository;
+
+    /**
+     * Mock entity manager.
+     */
+    @Mock
+    private EntityManager entityManager;
+
+    /**
+     * Service to be tested.
+     */
+    private OrdersExportServiceImpl ordersExportService;
+
+    /**
+     * Set up method to initialize mocks and the service.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        ordersExportService = new OrdersExportServiceImpl(ordersRepository,
+                orderItemsRepository,
+                entityManager,
+                Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    /**
+     * Test for the {@link OrdersExportServiceImpl#exportOrders} method with CSV format and inlined order items.
+     */
+    @Test
+    public void testExportOrdersCsvWithItems() throws IOException {
+        Order order1 = createOrder(1L, "Order, first");
+        Order order2 = createOrder(2L, "Order2");
+        Order deletedOrder = createOrder(3L, "Deleted");
+        Order order4 = createOrder(4L, "Order4");
+
+        when(ordersRepository.streamAllForExport()).thenReturn(Stream.of(order1, order2, order4));
+        when(orderItemsRepository.streamAllForExport()).thenReturn(Stream.of(
+                createOrderItem(10L, "Item1", order1),
+                createOrderItem(11L, "Item2", order1),
+                createOrderItem(12L, "Orphan", deletedOrder),
+                createOrderItem(13L, "Item4", order4)));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        ordersExportService.exportOrders(outputStream, ExportFormat.CSV, true);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(5, lines.length);
+        assertTrue(lines[0].startsWith("id,orderNumber,orderName"));
+        assertTrue(lines[1].startsWith("1,ON-1,\"Order, first\","));
+        assertTrue(lines[1].contains(",10,Item1,"));
+        assertTrue(lines[2].contains(",11,Item2,"));
+        assertTrue(lines[3].startsWith("2,ON-2,Order2,"));
+        assertTrue(lines[3].endsWith(",,,,,,,,,"));
+        assertTrue(lines[4].contains(",13,Item4,"));
+    }
+
+    /**
+     * Test for the {@link OrdersExportServiceImpl#exportOrders} method with NDJSON format without order items.
+     */
+    @Test
+    public void testExportOrdersNdjson() throws IOException {
+        when(ordersRepository.streamAllForExport())
+                .thenReturn(Stream.of(createOrder(1L, "Order1"), createOrder(2L, "Order2")));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        ordersExportService.exportOrders(outputStream, ExportFormat.NDJSON, false);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,"));
+        assertTrue(lines[1].startsWith("{\"id\":2,"));
+        verifyNoInteractions(orderItemsRepository);
+    }
+
+    private Order createOrder(Long id, String orderName) {
+        Order order = new Order("ON-" + id, orderName, "Client", "", "",
+                LocalDate.parse("2024-12-31"), OrderStatus.PENDING, BigDecimal.ZERO, "",
+                OffsetDateTime.parse("2024-01-22T10:15:30Z"));
+        order.setId(id);
+        return order;
+    }
+
+    private OrderItem createOrderItem(Long id, String itemName, Order order) {
+        OrderItem orderItem = new OrderItem(itemName, "Code", "Rev", 1L, new BigDecimal("10.00"),
+                new BigDecimal("10.00"), OffsetDateTime.parse("2024-01-22T10:15:30Z"), "");
+        orderItem.setId(id);
+        orderItem.setOrder(order);
+        return orderItem;
+    }
+}
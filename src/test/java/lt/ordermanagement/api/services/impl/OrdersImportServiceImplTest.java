@@ -0,0 +1,296 @@
+package lt.ordermanagement.api.services.impl;
+
+import jakarta.validation.Validation;
+import lt.ordermanagement.api.dtos.ImportProgressDTO;
+import lt.ordermanagement.api.dtos.ImportRowErrorDTO;
+import lt.ordermanagement.api.enums.ExportFormat;
+import lt.ordermanagement.api.enums.OrderChangeType;
+import lt.ordermanagement.api.enums.OrderStatus;
+import lt.ordermanagement.api.services.Interfaces.OrderChangeService;
+import lt.ordermanagement.api.services.Interfaces.OrderNumberService;
+import lt.ordermanagement.api.services.Interfaces.OrderStatsService;
+import lt.ordermanagement.api.services.Interfaces.OrdersSnapshotService;
+import lt.ordermanagement.api.utils.NewOrderItems;
+import lt.ordermanagement.api.utils.OrderContribution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link OrdersImportServiceImpl} class.
+ */
+class OrdersImportServiceImplTest {
+
+    /**
+     * Mock service for order numbers.
+     */
+    @Mock
+    private OrderNumberService orderNumberService;
+
+    /**
+     * Mock service for the order summaries.
+     */
+    @Mock
+    private OrderStatsService orderStatsService;
+
+    /**
+     * Mock service for the order listing snapshot.
+     */
+    @Mock
+    private OrdersSnapshotService ordersSnapshotService;
+
+    /**
+     * Mock service for the order change outbox.
+     */
+    @Mock
+    private OrderChangeService orderChangeService;
+
+    /**
+     * Mock JDBC template.
+     */
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Mock transaction manager.
+     */
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Mock connection, unwrapped to the PostgreSQL connection.
+     */
+    @Mock
+    private Connection connection;
+
+    /**
+     * Mock PostgreSQL connection.
+     */
+    @Mock
+    private PGConnection pgConnection;
+
+    /**
+     * Mock COPY API.
+     */
+    @Mock
+    private CopyManager copyManager;
+
+    /**
+     * COPY statements sent.
+     */
+    private final List<String> copyStatements = new ArrayList<>();
+
+    /**
+     * Rows sent with the COPY statement in the same position of {@link #copyStatements}.
+     */
+    private final List<String> copiedRows = new ArrayList<>();
+
+    /**
+     * Progress reports received.
+     */
+    private final List<ImportProgressDTO> reports = new ArrayList<>();
+
+    /**
+     * Set up method to initialize mocks, the database stubs and the service.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+
+        when(jdbcTemplate.queryForList(contains("pg_get_serial_sequence"), eq(Long.class), anyInt()))
+                .thenAnswer(invocation -> LongStream.rangeClosed(1, invocation.<Integer>getArgument(2))
+                        .boxed().toList());
+        when(jdbcTemplate.queryForList(contains("order_items_seq"), eq(Long.class), anyInt()))
+                .thenAnswer(invocation -> LongStream.rangeClosed(1, invocation.<Integer>getArgument(2))
+                        .map(block -> block * OrdersImportServiceImpl.ORDER_ITEM_ID_BLOCK)
+                        .boxed().toList());
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<Object>>any()))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(copyManager.copyIn(anyString(), any(Reader.class))).thenAnswer(invocation -> {
+            copyStatements.add(invocation.getArgument(0));
+            StringWriter rows = new StringWriter();
+            invocation.<Reader>getArgument(1).transferTo(rows);
+            copiedRows.add(rows.toString());
+            return 0L;
+        });
+        when(orderNumberService.nextOrderNumbers(anyInt())).thenAnswer(invocation ->
+                IntStream.rangeClosed(1, invocation.<Integer>getArgument(0))
+                        .mapToObj(i -> String.format("ON-%010d", i)).toList());
+    }
+
+    private OrdersImportServiceImpl createService(int chunkSize) {
+        return new OrdersImportServiceImpl(Jackson2ObjectMapperBuilder.json().build(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                orderNumberService,
+                orderStatsService,
+                ordersSnapshotService,
+                orderChangeService,
+                jdbcTemplate,
+                transactionManager,
+                chunkSize,
+                10);
+    }
+
+    private ImportProgressDTO importOrders(OrdersImportServiceImpl service, String upload, ExportFormat format) {
+        return service.importOrders(new ByteArrayInputStream(upload.getBytes(StandardCharsets.UTF_8)), format,
+                reports::add);
+    }
+
+    /**
+     * Test for the {@link OrdersImportServiceImpl#importOrders} method with CSV in the export format, where
+     * consecutive lines of one order carry its order items and quoted values contain separators and line breaks.
+     */
+    @Test
+    public void testImportOrdersCsvGroupsOrderItems() {
+        String upload = """
+                id,orderNumber,orderName,clientName,clientPhoneNumber,clientEmail,orderTerm,orderStatus,\
+                orderPrice,comments,orderUpdateDate,itemId,itemName,itemCode,itemRevision,itemCount,itemPrice,\
+                totalPrice,linkToImg
+                7,ON-0000000001,"Order, first",Client,,client@example.com,2024-12-31,CONFIRMED,1.00,"Line one
+                line \"\"two\"\"",,1,Item1,A1,,2,10.50,,
+                7,ON-0000000001,"Order, first",Client,,client@example.com,2024-12-31,CONFIRMED,1.00,,,2,Item2,,,1,4.00,,
+                8,,Order2,Client2,,,2025-01-31,,,,,,,,,,,,
+                """;
+
+        ImportProgressDTO result = importOrders(createService(100), upload, ExportFormat.CSV);
+
+        assertTrue(result.done());
+        assertNull(result.failure());
+        assertEquals(2, result.ordersRead());
+        assertEquals(2, result.ordersImported());
+        assertEquals(2, result.orderItemsImported());
+        assertEquals(0, result.ordersRejected());
+
+        assertTrue(copyStatements.get(0).startsWith("COPY orders"));
+        assertTrue(copyStatements.get(1).startsWith("COPY order_items"));
+
+        String[] orderRows = copiedRows.get(0).split("\n(?=\\d+,)");
+        assertEquals(2, orderRows.length);
+        assertTrue(orderRows[0].startsWith("1,\"ON-0000000001\",\"Order, first\",\"Client\",\"\"," +
+                "\"client@example.com\",2024-12-31,\"CONFIRMED\",25.00,3,\"Line one\nline \"\"two\"\"\","));
+        assertTrue(orderRows[1].startsWith("2,\"ON-0000000002\",\"Order2\",\"Client2\",\"\",\"\",2025-01-31," +
+                "\"PENDING\",0,0,\"\","));
+
+        String[] orderItemRows = copiedRows.get(1).split("\n");
+        assertEquals(2, orderItemRows.length);
+        assertTrue(orderItemRows[0].startsWith("1,1,\"Item1\",\"A1\",\"\",2,10.50,21.00,\"\","));
+        assertTrue(orderItemRows[1].startsWith("2,1,\"Item2\",\"\",\"\",1,4.00,4.00,\"\","));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OrderContribution>> contributions = ArgumentCaptor.forClass(List.class);
+        verify(orderStatsService).ordersAdded(contributions.capture());
+        assertEquals(new BigDecimal("25.00"), contributions.getValue().get(0).revenue());
+        assertEquals(OrderStatus.PENDING, contributions.getValue().get(1).status());
+        verify(orderChangeService).ordersChanged(List.of(1L, 2L), OrderChangeType.CREATED);
+
+        verify(ordersSnapshotService).scheduleRebuild();
+    }
+
+    /**
+     * Test for the {@link OrdersImportServiceImpl#importOrders} method with NDJSON, where invalid orders are
+     * rejected with their line and the rest of the upload is imported in chunks.
+     */
+    @Test
+    public void testImportOrdersNdjsonRejectsInvalidOrders() {
+        String upload = """
+                {"orderName":"Order1","clientName":"Client","orderTerm":"2024-12-31",\
+                "orderItems":[{"itemName":"Item","itemCount":3,"itemPrice":2.50}]}
+
+                {"orderName":"","clientName":"Client","orderTerm":"2024-12-31"}
+                {"orderName":"Order3","clientName":"Client","orderTerm":"2024-12-31",\
+                "orderItems":[{"itemName":"Item","itemCount":1,"itemPrice":1.001}]}
+                {"orderName":
+                {"orderName":"Order5","clientName":"Client","orderTerm":"2024-12-31","clientEmail":"a@b.c"}
+                {"orderName":"Order6","clientName":"Client","orderTerm":"2024-12-31"}
+                """;
+
+        ImportProgressDTO result = importOrders(createService(2), upload, ExportFormat.NDJSON);
+
+        assertTrue(result.done());
+        assertEquals(6, result.ordersRead());
+        assertEquals(3, result.ordersImported());
+        assertEquals(1, result.orderItemsImported());
+        assertEquals(3, result.ordersRejected());
+
+        List<ImportRowErrorDTO> errors = reports.stream()
+                .flatMap(report -> report.errors().stream())
+                .toList();
+        assertEquals(List.of(3L, 4L, 5L), errors.stream().map(ImportRowErrorDTO::line).toList());
+        assertTrue(errors.get(0).message().startsWith("orderName: "));
+        assertTrue(errors.get(1).message().startsWith("orderItems[0].itemPrice: "));
+        assertTrue(errors.get(2).message().startsWith("Invalid JSON: "));
+
+        // Order 1 with its order item fills the first chunk, orders 5 and 6 the second, then the final report
+        assertEquals(3, reports.size());
+        assertFalse(reports.get(0).done());
+        assertEquals(1, reports.get(0).ordersImported());
+        verify(orderStatsService, times(2)).ordersAdded(anyList());
+        verify(orderNumberService).nextOrderNumbers(1);
+        verify(orderNumberService).nextOrderNumbers(2);
+    }
+
+    /**
+     * Test for the {@link OrdersImportServiceImpl#importOrders} method with an order carrying more order items
+     * than an order can be created with.
+     */
+    @Test
+    public void testImportOrdersRejectsTooManyOrderItems() {
+        String orderItems = String.join(",", Collections.nCopies(NewOrderItems.MAX_SIZE + 1,
+                "{\"itemName\":\"Item\",\"itemCount\":1,\"itemPrice\":1.00}"));
+        String upload = "{\"orderName\":\"Order1\",\"clientName\":\"Client\",\"orderTerm\":\"2024-12-31\"," +
+                "\"orderItems\":[" + orderItems + "]}\n";
+
+        ImportProgressDTO result = importOrders(createService(100), upload, ExportFormat.NDJSON);
+
+        assertEquals(0, result.ordersImported());
+        assertEquals(1, result.ordersRejected());
+        assertTrue(reports.get(0).errors().get(0).message().startsWith("orderItems: "));
+        verifyNoInteractions(orderNumberService);
+    }
+
+    /**
+     * Test for the {@link OrdersImportServiceImpl#importOrders} method when writing a chunk fails. The import
+     * stops with the failure and the order listing snapshot is not rebuilt for nothing.
+     */
+    @Test
+    public void testImportOrdersReportsFailure() {
+        when(orderNumberService.nextOrderNumbers(anyInt())).thenThrow(new IllegalStateException("No numbers"));
+
+        ImportProgressDTO result = importOrders(createService(100),
+                "{\"orderName\":\"Order\",\"clientName\":\"Client\",\"orderTerm\":\"2024-12-31\"}\n",
+                ExportFormat.NDJSON);
+
+        assertFalse(result.done());
+        assertEquals("No numbers", result.failure());
+        assertEquals(0, result.ordersImported());
+        assertEquals(List.of(result), reports);
+        verify(ordersSnapshotService, never()).scheduleRebuild();
+    }
+}
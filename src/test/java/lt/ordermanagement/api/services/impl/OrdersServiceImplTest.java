@@ -1,13 +1,30 @@
 package lt.ordermanagement.api.services.impl;
 
+import lt.ordermanagement.api.dtos.OrderDTO;
+import lt.ordermanagement.api.dtos.OrdersPageDTO;
+import lt.ordermanagement.api.enums.OrderChangeType;
+import lt.ordermanagement.api.enums.OrderStatus;
+import lt.ordermanagement.api.exeptions.PreconditionFailedException;
 import lt.ordermanagement.api.models.Order;
+import lt.ordermanagement.api.models.OrderItem;
+import lt.ordermanagement.api.repositories.OrderItemsRepository;
 import lt.ordermanagement.api.repositories.OrdersRepository;
+import lt.ordermanagement.api.services.Interfaces.OrderChangeService;
+import lt.ordermanagement.api.services.Interfaces.OrderStatsService;
+import lt.ordermanagement.api.services.Interfaces.OrdersSnapshotService;
+import lt.ordermanagement.api.services.Interfaces.OrderNumberService;
+import lt.ordermanagement.api.utils.OrderContribution;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +43,36 @@ class OrdersServiceImplTest {
     @Mock
     private OrdersRepository ordersRepository;
 
+    /**
+     * Mock repository for order items.
+     */
+    @Mock
+    private OrderItemsRepository orderItemsRepository;
+
+    /**
+     * Mock service for order numbers.
+     */
+    @Mock
+    private OrderNumberService orderNumberService;
+
+    /**
+     * Mock service for the in-memory order listing.
+     */
+    @Mock
+    private OrdersSnapshotService ordersSnapshotService;
+
+    /**
+     * Mock service for the order summaries.
+     */
+    @Mock
+    private OrderStatsService orderStatsService;
+
+    /**
+     * Mock service for the order change outbox.
+     */
+    @Mock
+    private OrderChangeService orderChangeService;
+
     /**
      * Service to be tested.
      */
@@ -41,18 +88,62 @@ class OrdersServiceImplTest {
     }
 
     /**
-     * Test for the {@link OrdersServiceImpl#getOrders()} method.
+     * Test for the {@link OrdersServiceImpl#getOrders(String, int)} method.
      */
     @Test
     public void testGetOrders() {
-        List<Order> mockOrders = Arrays.asList(new Order(), new Order());
+        List<OrderDTO> mockOrders = Arrays.asList(OrderDTO.of(new Order()), OrderDTO.of(new Order()));
 
-        when(ordersRepository.findAllSorted()).thenReturn(mockOrders);
+        when(ordersRepository.findFirstPageSorted(anyInt())).thenReturn(mockOrders);
 
-        List<Order> result = ordersService.getOrders();
+        OrdersPageDTO result = ordersService.getOrders(null, 50);
 
         assertNotNull(result);
-        assertEquals(2, result.size());
+        assertEquals(2, result.orders().size());
+        assertNull(result.nextCursor());
+    }
+
+    /**
+     * Test for the {@link OrdersServiceImpl#getOrders(String, int)} method when more orders follow the page.
+     */
+    @Test
+    public void testGetOrdersNextPage() {
+        OffsetDateTime updated = OffsetDateTime.parse("2024-01-22T10:15:30Z");
+        Order lastOnPage = new Order("ON-0000000001", "Order", "Client", "", "",
+                LocalDate.parse("2024-12-31"), OrderStatus.PENDING, BigDecimal.ZERO, "", updated);
+        lastOnPage.setId(7L);
+
+        List<OrderDTO> mockOrders = Arrays.asList(OrderDTO.of(new Order()), OrderDTO.of(lastOnPage),
+                OrderDTO.of(new Order()));
+
+        when(ordersRepository.findFirstPageSorted(3)).thenReturn(mockOrders);
+
+        OrdersPageDTO result = ordersService.getOrders(null, 2);
+
+        assertEquals(2, result.orders().size());
+        assertNotNull(result.nextCursor());
+
+        when(ordersRepository.findPageSortedAfter(argThat(updated::isEqual), eq(LocalDate.parse("2024-12-31")),
+                eq("Client"), eq("Order"), eq(7L), eq(3))).thenReturn(List.of(OrderDTO.of(new Order())));
+
+        OrdersPageDTO nextPage = ordersService.getOrders(result.nextCursor(), 2);
+
+        assertEquals(1, nextPage.orders().size());
+        assertNull(nextPage.nextCursor());
+    }
+
+    /**
+     * Test that {@link OrdersServiceImpl#getOrders(String, int)} serves the page from the in-memory snapshot
+     * once it is built.
+     */
+    @Test
+    public void testGetOrdersFromSnapshot() {
+        OrdersPageDTO snapshotPage = new OrdersPageDTO(List.of(OrderDTO.of(new Order())), null, 200);
+
+        when(ordersSnapshotService.getPage(null, 200)).thenReturn(Optional.of(snapshotPage));
+
+        assertSame(snapshotPage, ordersService.getOrders(null, 1000));
+        verifyNoInteractions(ordersRepository);
     }
 
     /**
@@ -66,27 +157,258 @@ class OrdersServiceImplTest {
 
         when(ordersRepository.findById(orderId)).thenReturn(Optional.of(mockOrder));
 
-        Order result = ordersService.getOrderById(orderId);
+        OrderDTO result = ordersService.getOrderById(orderId);
 
         assertNotNull(result);
-        assertEquals(orderId, result.getId());
+        assertEquals(orderId, result.id());
     }
 
     /**
-     * Test for the {@link OrdersServiceImpl#findOrdersByParameters(String)} method.
+     * Test for the {@link OrdersServiceImpl#findOrdersByParameters(String, int, int)} method.
      */
     @Test
     public void testFindOrdersByParameters() {
         String searchParam = "search";
-        List<Order> mockOrders = Arrays.asList(new Order(), new Order());
+        List<OrderDTO> mockOrders = Arrays.asList(OrderDTO.of(new Order()), OrderDTO.of(new Order()));
 
-        when(ordersRepository.findSortedOrdersByParameters(
-                searchParam, searchParam, searchParam, searchParam, searchParam))
+        when(ordersRepository.searchOrders(searchParam, "%search%", 20, 40))
                 .thenReturn(mockOrders);
 
-        List<Order> result = ordersService.findOrdersByParameters(searchParam);
+        List<OrderDTO> result = ordersService.findOrdersByParameters(searchParam, 2, 20);
 
         assertNotNull(result);
         assertEquals(2, result.size());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test for the {@link OrdersServiceImpl#findOrdersByParameters(String, int, int)} method with LIKE wildcards
+     * in the search parameter and a page beyond the search result limit.
+     */
+    @Test
+    public void testFindOrdersByParametersEscapesWildcardsAndLimitsResults() {
+        ordersService.findOrdersByParameters("10%_off", 0, 20);
+
+        verify(ordersRepository).searchOrders("10%_off", "%10\\%\\_off%", 20, 0);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ordersService.findOrdersByParameters("search", 50, 20));
+    }
+
+    /**
+     * Test that {@link OrdersServiceImpl#findOrdersDueBetween(LocalDate, LocalDate, String, int)} continues
+     * after the order term and ID of the last order of the page and rejects an empty range.
+     */
+    @Test
+    public void testFindOrdersDueBetween() {
+        LocalDate from = LocalDate.parse("2024-12-01");
+        LocalDate to = LocalDate.parse("2024-12-31");
+
+        Order order = new Order("ON-0000000001", "Order", "Client", "", "",
+                LocalDate.parse("2024-12-15"), OrderStatus.PENDING, BigDecimal.ZERO, "",
+                OffsetDateTime.parse("2024-01-22T10:15:30Z"));
+        order.setId(7L);
+        OrderDTO lastOnPage = OrderDTO.of(order);
+
+        when(ordersRepository.findPageDueBetween(from, to, from, 0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(lastOnPage, OrderDTO.of(new Order())));
+
+        OrdersPageDTO result = ordersService.findOrdersDueBetween(from, to, null, 1);
+
+        assertEquals(List.of(lastOnPage), result.orders());
+        assertNotNull(result.nextCursor());
+
+        ordersService.findOrdersDueBetween(from, to, result.nextCursor(), 1);
+
+        verify(ordersRepository).findPageDueBetween(from, to, LocalDate.parse("2024-12-15"), 7L,
+                PageRequest.of(0, 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> ordersService.findOrdersDueBetween(to, from, null, 1));
+    }
+
+    /**
+     * Test that {@link OrdersServiceImpl#findOrdersUpdatedSince(OffsetDateTime, String, int)} starts at the given
+     * time and returns no cursor on the last page.
+     */
+    @Test
+    public void testFindOrdersUpdatedSince() {
+        OffsetDateTime since = OffsetDateTime.parse("2024-01-22T10:15:30Z");
+
+        when(ordersRepository.findPageUpdatedSince(since, since, 0L, PageRequest.of(0, 51)))
+                .thenReturn(List.of(OrderDTO.of(new Order())));
+
+        OrdersPageDTO result = ordersService.findOrdersUpdatedSince(since, null, 50);
+
+        assertEquals(1, result.orders().size());
+        assertNull(result.nextCursor());
+    }
+
+    /**
+     * Test that {@link OrdersServiceImpl#addOrder(Order)} saves the order items with the order and
+     * calculates the order price from them.
+     */
+    @Test
+    public void testAddOrderWithOrderItems() {
+        Order order = new Order();
+        order.setOrderPrice(new BigDecimal("999.00"));
+        order.setOrderItems(Arrays.asList(
+                new OrderItem("Item1", "Code1", "Rev1", 2L, new BigDecimal("10.00"), BigDecimal.ZERO, null, ""),
+                new OrderItem("Item2", "Code2", "Rev2", 3L, new BigDecimal("5.00"), BigDecimal.ZERO, null, "")));
+
+        Order result = ordersService.addOrder(order);
+
+        assertEquals(new BigDecimal("35.00"), result.getOrderPrice());
+        assertEquals(5L, result.getItemCount());
+        assertEquals(2, result.getOrderItems().size());
+        result.getOrderItems().forEach(orderItem -> {
+            assertSame(result, orderItem.getOrder());
+            assertEquals(result.getOrderUpdateDate(), orderItem.getItemUpdateDate());
+        });
+        verify(ordersRepository).save(result);
+    }
+
+    /**
+     * Test that {@link OrdersServiceImpl#restoreOrder(Long)} restores the order and the order items deleted
+     * together with it, from the archive or from the orders table.
+     */
+    @Test
+    public void testRestoreOrder() {
+        OffsetDateTime deletedAt = OffsetDateTime.parse("2024-01-22T10:15:30.123456Z");
+        Order order = new Order();
+        order.setId(1L);
+        order.setIsDeleted(true);
+        order.setDeletedAt(deletedAt);
+        order.setOrderUpdateDate(deletedAt);
+
+        when(ordersRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        Order result = ordersService.restoreOrder(1L);
+
+        assertFalse(result.getIsDeleted());
+        assertNull(result.getDeletedAt());
+        verify(ordersRepository).restoreArchived(1L);
+        verify(orderItemsRepository).restoreArchived(1L, deletedAt);
+        verify(orderItemsRepository).restoreDeleted(1L, deletedAt);
+        verify(ordersRepository).saveAndFlush(order);
+        verify(orderStatsService).orderChanged(isNull(),
+                eq(new OrderContribution(null, LocalDate.of(2024, 1, 1), OrderStatus.PENDING, BigDecimal.ZERO, 0)));
+        verify(ordersSnapshotService).orderChanged(1L);
+        verify(orderChangeService).orderChanged(1L, OrderChangeType.RESTORED);
+    }
+
+    /**
+     * Test that {@link OrdersServiceImpl#changeOrderStatus(Long, OrderStatus, Long)} moves the order between the status
+     * summaries and rejects a transition out of a final status.
+     */
+    @Test
+    public void testChangeOrderStatus() {
+        Order order = new Order();
+        order.setId(1L);
+        order.setOrderUpdateDate(OffsetDateTime.parse("2024-01-22T10:15:30Z"));
+
+        when(ordersRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        Order result = ordersService.changeOrderStatus(1L, OrderStatus.CONFIRMED, null);
+
+        assertEquals(OrderStatus.CONFIRMED, result.getOrderStatus());
+        verify(orderStatsService).orderChanged(
+                argThat(before -> before.status() == OrderStatus.PENDING),
+                argThat(after -> after.status() == OrderStatus.CONFIRMED));
+        verify(ordersSnapshotService).orderChanged(1L);
+
+        ordersService.changeOrderStatus(1L, OrderStatus.CANCELLED, null);
+
+        assertThrows(IllegalStateException.class, () -> ordersService.changeOrderStatus(1L, OrderStatus.PENDING, null));
+        assertEquals(OrderStatus.CANCELLED, order.getOrderStatus());
+        verify(orderChangeService, times(2)).orderChanged(1L, OrderChangeType.UPDATED);
+    }
+
+    /**
+     * Test that a conditional change of an order fails without changing anything when the order has another
+     * version than required, also if the change would leave the order unchanged.
+     */
+    @Test
+    public void testConditionalChangeRequiresVersion() {
+        Order order = new Order();
+        order.setId(1L);
+        order.setVersion(3L);
+        order.setOrderUpdateDate(OffsetDateTime.parse("2024-01-22T10:15:30Z"));
+
+        when(ordersRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> ordersService.changeOrderStatus(1L, OrderStatus.PENDING, 2L));
+        assertThrows(PreconditionFailedException.class,
+                () -> ordersService.updateOrder(1L, new Order(), 2L));
+
+        Order result = ordersService.changeOrderStatus(1L, OrderStatus.CONFIRMED, 3L);
+
+        assertEquals(OrderStatus.CONFIRMED, result.getOrderStatus());
+        verify(ordersRepository, times(1)).saveAndFlush(order);
+        verify(orderStatsService, times(1)).orderChanged(any(), any());
+        verify(orderChangeService, times(1)).orderChanged(1L, OrderChangeType.UPDATED);
+    }
+
+    /**
+     * Test that {@link OrdersServiceImpl#deleteOrder(Long)} takes the order out of the order summaries once,
+     * however many times it is deleted.
+     */
+    @Test
+    public void testDeleteOrderDecrementsStatsOnce() {
+        Order order = new Order();
+        order.setId(1L);
+        order.setClientName("Client");
+        order.setOrderUpdateDate(OffsetDateTime.parse("2024-01-22T10:15:30Z"));
+        order.setOrderStatus(OrderStatus.IN_PROGRESS);
+        order.setOrderItems(List.of());
+
+        when(ordersRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        ordersService.deleteOrder(1L);
+        ordersService.deleteOrder(1L);
+
+        assertTrue(order.getIsDeleted());
+        verify(orderStatsService, times(1)).orderChanged(
+                argThat(before -> before.status() == OrderStatus.IN_PROGRESS), isNull());
+        verify(ordersRepository, times(1)).saveAndFlush(order);
+        verify(orderChangeService, times(1)).orderChanged(1L, OrderChangeType.DELETED);
+    }
+
+    /**
+     * Test that every change of an existing order writes the order row before it moves the order summaries, the
+     * order the changes of order items lock them in, so the two never wait for each other's locks in a cycle.
+     */
+    @Test
+    public void testChangesLockOrderBeforeStats() {
+        Order order = new Order();
+        order.setId(1L);
+        order.setClientName("Client");
+        order.setOrderUpdateDate(OffsetDateTime.parse("2024-01-22T10:15:30Z"));
+        order.setOrderItems(List.of());
+
+        Order update = new Order();
+        update.setOrderName("Order");
+        update.setClientName("Client");
+
+        when(ordersRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        InOrder inOrder = inOrder(ordersRepository, orderStatsService);
+
+        ordersService.updateOrder(1L, update, null);
+        inOrder.verify(ordersRepository).saveAndFlush(order);
+        inOrder.verify(orderStatsService).orderChanged(any(), any());
+
+        ordersService.changeOrderStatus(1L, OrderStatus.CONFIRMED, null);
+        inOrder.verify(ordersRepository).saveAndFlush(order);
+        inOrder.verify(orderStatsService).orderChanged(any(), any());
+
+        ordersService.deleteOrder(1L);
+        inOrder.verify(ordersRepository).saveAndFlush(order);
+        inOrder.verify(orderStatsService).orderChanged(any(), isNull());
+
+        ordersService.restoreOrder(1L);
+        inOrder.verify(ordersRepository).saveAndFlush(order);
+        inOrder.verify(orderStatsService).orderChanged(isNull(), any());
+
+        verify(ordersRepository, never()).save(order);
+    }
+}
@@ -0,0 +1,206 @@
+package lt.ordermanagement.api.services.impl;
+
+import lt.ordermanagement.api.dtos.OrderDTO;
+import lt.ordermanagement.api.dtos.OrdersPageDTO;
+import lt.ordermanagement.api.enums.OrderStatus;
+import lt.ordermanagement.api.models.Order;
+import lt.ordermanagement.api.repositories.OrdersRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link OrdersSnapshotServiceImpl} class.
+ */
+class OrdersSnapshotServiceImplTest {
+
+    /**
+     * Mock repository for orders.
+     */
+    @Mock
+    private OrdersRepository ordersRepository;
+
+    /**
+     * Mock transaction manager.
+     */
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Service to be tested, refreshing on the calling thread.
+     */
+    private OrdersSnapshotServiceImpl ordersSnapshotService;
+
+    /**
+     * Set up method to initialize mocks.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ordersSnapshotService = new OrdersSnapshotServiceImpl(ordersRepository, transactionManager, Runnable::run,
+                true);
+    }
+
+    /**
+     * Test that the snapshot is sorted in the listing order and paged through with cursors.
+     */
+    @Test
+    public void testGetPageFromSnapshot() {
+        assertTrue(ordersSnapshotService.getPage(null, 2).isEmpty());
+
+        when(ordersRepository.streamAllForListing()).thenReturn(Stream.of(
+                order(1L, "2024-01-01", "Client A"),
+                order(2L, "2024-01-03", "Client B"),
+                order(3L, "2024-01-02", "Client C")));
+
+        ordersSnapshotService.buildOnStartup();
+
+        OrdersPageDTO firstPage = ordersSnapshotService.getPage(null, 2).orElseThrow();
+
+        assertEquals(List.of(2L, 3L), ids(firstPage));
+        assertNotNull(firstPage.nextCursor());
+
+        OrdersPageDTO lastPage = ordersSnapshotService.getPage(firstPage.nextCursor(), 2).orElseThrow();
+
+        assertEquals(List.of(1L), ids(lastPage));
+        assertNull(lastPage.nextCursor());
+        assertEquals(1L, ordersSnapshotService.getVersion());
+    }
+
+    /**
+     * Test that changed orders are moved to their new position, deleted orders are removed and new orders inserted,
+     * while a page read earlier keeps its snapshot.
+     */
+    @Test
+    public void testOrderChangedUpdatesSnapshot() {
+        when(ordersRepository.streamAllForListing()).thenReturn(Stream.of(
+                order(1L, "2024-01-01", "Client A"),
+                order(2L, "2024-01-02", "Client B"),
+                order(3L, "2024-01-03", "Client C")));
+
+        ordersSnapshotService.buildOnStartup();
+
+        OrdersPageDTO pageBefore = ordersSnapshotService.getPage(null, 10).orElseThrow();
+
+        OrderDTO updated = order(1L, "2024-01-04", "Client A");
+        OrderDTO deleted = order(3L, "2024-01-03", "Client C", true);
+        OrderDTO created = order(4L, "2024-01-02", "Client A");
+
+        when(ordersRepository.findListingByIdIn(anyCollection())).thenReturn(List.of(updated))
+                .thenReturn(List.of(deleted))
+                .thenReturn(List.of(created));
+
+        ordersSnapshotService.orderChanged(1L);
+        ordersSnapshotService.orderChanged(3L);
+        ordersSnapshotService.orderChanged(4L);
+
+        OrdersPageDTO pageAfter = ordersSnapshotService.getPage(null, 10).orElseThrow();
+
+        assertEquals(List.of(1L, 4L, 2L), ids(pageAfter));
+        assertEquals(List.of(3L, 2L, 1L), ids(pageBefore));
+        assertEquals(4L, ordersSnapshotService.getVersion());
+    }
+
+    /**
+     * Test that a rebuild finding the listing unchanged keeps the listing version, so clients polling with it
+     * are told that nothing changed, and that a changed listing gets a new version.
+     */
+    @Test
+    public void testUnchangedRebuildKeepsVersion() {
+        assertTrue(ordersSnapshotService.getListingVersion().isEmpty());
+
+        when(ordersRepository.streamAllForListing())
+                .thenReturn(Stream.of(order(1L, "2024-01-01", "Client A")))
+                .thenReturn(Stream.of(order(1L, "2024-01-01", "Client A")))
+                .thenReturn(Stream.of(order(1L, "2024-01-02", "Client A", false, 1L)));
+
+        ordersSnapshotService.buildOnStartup();
+
+        String version = ordersSnapshotService.getListingVersion().orElseThrow();
+
+        ordersSnapshotService.scheduledRebuild();
+
+        assertEquals(version, ordersSnapshotService.getListingVersion().orElseThrow());
+
+        ordersSnapshotService.scheduledRebuild();
+
+        assertNotEquals(version, ordersSnapshotService.getListingVersion().orElseThrow());
+        assertEquals(2L, ordersSnapshotService.getVersion());
+    }
+
+    /**
+     * Test that the listing version follows from the orders only, so another instance holding the same orders gives
+     * the same version, whether its snapshot was built at once or merged from changes.
+     */
+    @Test
+    public void testListingVersionIsSameOnEveryInstance() {
+        OrdersSnapshotServiceImpl otherInstance = new OrdersSnapshotServiceImpl(ordersRepository, transactionManager,
+                Runnable::run, true);
+
+        when(ordersRepository.streamAllForListing())
+                .thenReturn(Stream.of(order(1L, "2024-01-01", "Client A"), order(2L, "2024-01-02", "Client B")))
+                .thenReturn(Stream.of(order(1L, "2024-01-01", "Client A")))
+                .thenReturn(Stream.of(order(1L, "2024-01-01", "Client A")));
+        when(ordersRepository.findListingByIdIn(anyCollection()))
+                .thenReturn(List.of(order(2L, "2024-01-02", "Client B")));
+
+        ordersSnapshotService.buildOnStartup();
+        otherInstance.buildOnStartup();
+        otherInstance.scheduledRebuild();
+        otherInstance.orderChanged(2L);
+
+        assertEquals(ordersSnapshotService.getListingVersion(), otherInstance.getListingVersion());
+        assertNotEquals(ordersSnapshotService.getVersion(), otherInstance.getVersion());
+    }
+
+    /**
+     * Test that a disabled snapshot is never built, so the listing is read from the database.
+     */
+    @Test
+    public void testDisabledSnapshot() {
+        OrdersSnapshotServiceImpl disabled = new OrdersSnapshotServiceImpl(ordersRepository, transactionManager,
+                Runnable::run, false);
+
+        disabled.buildOnStartup();
+        disabled.orderChanged(1L);
+
+        assertTrue(disabled.getPage(null, 10).isEmpty());
+        verifyNoInteractions(ordersRepository);
+    }
+
+    private static OrderDTO order(Long id, String orderUpdateDate, String clientName) {
+        return order(id, orderUpdateDate, clientName, false);
+    }
+
+    private static OrderDTO order(Long id, String orderUpdateDate, String clientName, boolean deleted) {
+        return order(id, orderUpdateDate, clientName, deleted, 0L);
+    }
+
+    private static OrderDTO order(Long id, String orderUpdateDate, String clientName, boolean deleted,
+                                  Long version) {
+        Order order = new Order("ON-000000000" + id, "Order", clientName, "", "",
+                LocalDate.parse("2024-12-31"), OrderStatus.PENDING, BigDecimal.ZERO, "",
+                OffsetDateTime.parse(orderUpdateDate + "T00:00:00Z"));
+        order.setId(id);
+        order.setIsDeleted(deleted);
+        order.setVersion(version);
+        return OrderDTO.of(order);
+    }
+
+    private static List<Long> ids(OrdersPageDTO page) {
+        return page.orders().stream().map(OrderDTO::id).toList();
+    }
+
+}
@@ -0,0 +1,75 @@
+package lt.ordermanagement.api.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link CompressedResponseCache} class.
+ */
+class CompressedResponseCacheTest {
+
+    /**
+     * Test that a response is serialized and compressed once per key and decompresses to its JSON.
+     */
+    @Test
+    public void testCompressesResponseOnce() throws IOException {
+        CompressedResponseCache cache = new CompressedResponseCache(new ObjectMapper(), DataSize.ofMegabytes(1));
+        AtomicInteger serialized = new AtomicInteger();
+
+        byte[] first = cache.getGzipJson("\"orders-1\" null 50", () -> {
+            serialized.incrementAndGet();
+            return Map.of("size", 50);
+        });
+        byte[] second = cache.getGzipJson("\"orders-1\" null 50", () -> {
+            serialized.incrementAndGet();
+            return Map.of("size", 0);
+        });
+
+        assertSame(first, second);
+        assertEquals(1, serialized.get());
+
+        try (GZIPInputStream json = new GZIPInputStream(new ByteArrayInputStream(first))) {
+            assertEquals("{\"size\":50}", new String(json.readAllBytes()));
+        }
+    }
+
+    /**
+     * Test that a compressed response is sent with the ETag of its gzip representation.
+     */
+    @Test
+    public void testGzipJsonResponseHasGzipTag() {
+        CompressedResponseCache cache = new CompressedResponseCache(new ObjectMapper(), DataSize.ofMegabytes(1));
+
+        ResponseEntity<byte[]> response = cache.gzipJsonResponse("\"orders-1\"", "null 50", () -> Map.of("size", 50));
+
+        assertEquals("\"orders-1-gzip\"", response.getHeaders().getETag());
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    /**
+     * Test that a cached response is sent only to clients preferring JSON and accepting gzip.
+     */
+    @Test
+    public void testAcceptsGzipJson() {
+        assertTrue(CompressedResponseCache.acceptsGzipJson(null, "gzip, deflate, br"));
+        assertTrue(CompressedResponseCache.acceptsGzipJson("*/*", "gzip"));
+        assertTrue(CompressedResponseCache.acceptsGzipJson("application/json, application/cbor;q=0.5", "GZIP;q=1"));
+
+        assertFalse(CompressedResponseCache.acceptsGzipJson(null, null));
+        assertFalse(CompressedResponseCache.acceptsGzipJson(null, "gzip;q=0, br"));
+        assertFalse(CompressedResponseCache.acceptsGzipJson("application/x-jackson-smile", "gzip"));
+        assertFalse(CompressedResponseCache.acceptsGzipJson("application/cbor, */*;q=0.1", "gzip"));
+    }
+
+}
@@ -0,0 +1,105 @@
+package lt.ordermanagement.api.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link ConcurrencyLimitingDataSource} class.
+ */
+class ConcurrencyLimitingDataSourceTest {
+
+    /**
+     * Mock target data source.
+     */
+    @Mock
+    private DataSource targetDataSource;
+
+    /**
+     * Mock connection of the target data source.
+     */
+    @Mock
+    private Connection connection;
+
+    /**
+     * Data source to be tested.
+     */
+    private ConcurrencyLimitingDataSource dataSource;
+
+    /**
+     * Set up method to initialize mocks and the data source.
+     */
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+
+        when(targetDataSource.getConnection()).thenReturn(connection);
+
+        dataSource = new ConcurrencyLimitingDataSource(targetDataSource, 2, Duration.ofMillis(10));
+    }
+
+    /**
+     * Test that connections beyond the limit are refused and that closing a connection twice gives
+     * its permit back once.
+     */
+    @Test
+    public void testLimitsConnectionsInUse() throws SQLException {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertEquals(0, dataSource.availablePermits());
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+
+        first.close();
+        first.close();
+
+        assertEquals(1, dataSource.availablePermits());
+        verify(connection, times(2)).close();
+
+        second.close();
+
+        assertEquals(2, dataSource.availablePermits());
+    }
+
+    /**
+     * Test that the permit is given back when the target data source fails.
+     */
+    @Test
+    public void testReleasesPermitWhenTargetFails() throws SQLException {
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+        assertEquals(2, dataSource.availablePermits());
+    }
+
+    /**
+     * Test that the wait for a permit is reported both when a permit is acquired and when waiting times out.
+     */
+    @Test
+    public void testReportsPermitWait() throws SQLException {
+        List<Long> waits = new ArrayList<>();
+        dataSource.setPermitWaitListener(waits::add);
+
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertEquals(2, dataSource.maxConcurrency());
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+
+        assertEquals(3, waits.size());
+        assertTrue(waits.get(2) >= Duration.ofMillis(10).toNanos());
+        assertEquals(0, dataSource.queueLength());
+    }
+}
@@ -0,0 +1,68 @@
+package lt.ordermanagement.api.utils;
+
+import lt.ordermanagement.api.exeptions.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ETags} class.
+ */
+class ETagsTest {
+
+    /**
+     * Test that If-None-Match matches the current tag in a list of tags, weak or strong, or as '*', and yields the
+     * current tag of the representation the client has.
+     */
+    @Test
+    public void testMatch() {
+        String eTag = ETags.of(ETags.ORDER, 3L);
+
+        assertEquals("\"order-3\"", eTag);
+        assertEquals(Optional.of(eTag), ETags.match("\"order-3\"", eTag));
+        assertEquals(Optional.of(eTag), ETags.match("\"order-2\", W/\"order-3\"", eTag));
+        assertEquals(Optional.of(eTag), ETags.match("*", eTag));
+        assertEquals(Optional.of("\"order-3-gzip\""), ETags.match("\"order-3-gzip\"", eTag));
+        assertEquals(Optional.of("\"order-3-cbor\""), ETags.match("\"order-2-cbor\", W/\"order-3-cbor\"", eTag));
+        assertEquals(Optional.empty(), ETags.match(null, eTag));
+        assertEquals(Optional.empty(), ETags.match("\"order-2\"", eTag));
+        assertEquals(Optional.empty(), ETags.match("\"order-2-smile\"", eTag));
+        assertEquals(Optional.empty(), ETags.match("\"order-item-3\"", eTag));
+    }
+
+    /**
+     * Test that every representation of a response has its own tag.
+     */
+    @Test
+    public void testRepresentationTags() {
+        String eTag = ETags.of(ETags.ORDERS, 5L);
+
+        assertEquals("\"orders-5-gzip\"", ETags.of(eTag, ETags.GZIP));
+        assertEquals("\"orders-5-smile\"",
+                ETags.forContentType(eTag, MediaType.parseMediaType("application/x-jackson-smile")));
+        assertEquals("\"orders-5-cbor\"", ETags.forContentType(eTag, MediaType.APPLICATION_CBOR));
+        assertEquals(eTag, ETags.forContentType(eTag, MediaType.APPLICATION_JSON));
+    }
+
+    /**
+     * Test that If-Match yields the required version of a strong tag of the kind, and fails for any other tag.
+     */
+    @Test
+    public void testRequiredVersion() {
+        assertNull(ETags.requiredVersion(null, ETags.ORDER));
+        assertNull(ETags.requiredVersion("*", ETags.ORDER));
+        assertEquals(3L, ETags.requiredVersion(" \"order-3\" ", ETags.ORDER));
+        assertEquals(3L, ETags.requiredVersion("\"order-3-smile\"", ETags.ORDER));
+
+        assertThrows(PreconditionFailedException.class, () -> ETags.requiredVersion("W/\"order-3\"", ETags.ORDER));
+        assertThrows(PreconditionFailedException.class,
+                () -> ETags.requiredVersion("\"order-item-3\"", ETags.ORDER));
+        assertThrows(PreconditionFailedException.class, () -> ETags.requiredVersion("\"order-x\"", ETags.ORDER));
+        assertThrows(PreconditionFailedException.class,
+                () -> ETags.requiredVersion("\"order-2\", \"order-3\"", ETags.ORDER));
+    }
+
+}
@@ -0,0 +1,33 @@
+package lt.ordermanagement.api.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link OrderCursor} class.
+ */
+class OrderCursorTest {
+
+    /**
+     * Test that the listing order compares names by code point, like the {@code ucs_basic} collation of the
+     * listing queries, also for characters outside the Basic Multilingual Plane.
+     */
+    @Test
+    public void testListingOrderComparesNamesByCodePoint() {
+        assertTrue(OrderCursor.LISTING_ORDER.compare(cursor("Zebra"), cursor("apple")) < 0);
+        assertTrue(OrderCursor.LISTING_ORDER.compare(cursor("apple"), cursor("ąžuolas")) < 0);
+        assertTrue(OrderCursor.LISTING_ORDER.compare(cursor("�"), cursor("𝒜")) < 0);
+        assertTrue(OrderCursor.LISTING_ORDER.compare(cursor("ab"), cursor("abc")) < 0);
+        assertEquals(0, OrderCursor.LISTING_ORDER.compare(cursor("abc"), cursor("abc")));
+    }
+
+    private static OrderCursor cursor(String clientName) {
+        return new OrderCursor(OffsetDateTime.parse("2024-01-22T10:15:30Z"), LocalDate.parse("2024-12-31"),
+                clientName, "Order", 1L);
+    }
+
+}
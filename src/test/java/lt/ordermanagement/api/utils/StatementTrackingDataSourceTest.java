@@ -0,0 +1,134 @@
+package lt.ordermanagement.api.utils;
+
+import lt.ordermanagement.api.utils.SqlRequestStats.StatementTiming;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link StatementTrackingDataSource} class.
+ */
+class StatementTrackingDataSourceTest {
+
+    /**
+     * Mock target data source.
+     */
+    @Mock
+    private DataSource targetDataSource;
+
+    /**
+     * Mock connection of the target data source.
+     */
+    @Mock
+    private Connection connection;
+
+    /**
+     * Mock prepared statement of the connection.
+     */
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    /**
+     * Mock result set of the prepared statement.
+     */
+    @Mock
+    private ResultSet resultSet;
+
+    /**
+     * Set up method to initialize mocks.
+     */
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+    }
+
+    /**
+     * Clean up method to stop collecting statistics.
+     */
+    @AfterEach
+    void tearDown() {
+        SqlRequestStats.stop();
+    }
+
+    /**
+     * Test that statements, fetched rows and the types of bound parameters are recorded in the statistics of
+     * the current request.
+     */
+    @Test
+    public void testRecordsStatementsOfCurrentRequest() throws SQLException {
+        StatementTrackingDataSource dataSource =
+                new StatementTrackingDataSource(targetDataSource, Duration.ofSeconds(10));
+        SqlRequestStats stats = SqlRequestStats.start(2);
+
+        try (Connection tracked = dataSource.getConnection();
+             PreparedStatement statement = tracked.prepareStatement("select * from orders where id = ? and x = ?")) {
+            statement.setLong(1, 7L);
+            statement.setNull(2, Types.VARCHAR);
+
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    rows.getLong(1);
+                }
+            }
+
+            statement.setString(2, "value");
+            statement.addBatch();
+            statement.setString(2, "other");
+            statement.addBatch();
+            statement.executeBatch();
+        }
+
+        assertEquals(2, stats.getStatements());
+        assertEquals(2, stats.getRows());
+        assertTrue(stats.getNanos() > 0);
+        assertEquals(Set.of("[Long, null]", "[Long, String] x2"), stats.getSlowest().stream()
+                .map(StatementTiming::parameters)
+                .collect(Collectors.toSet()));
+        assertEquals("select * from orders where id = ? and x = ?", stats.getSlowest().get(0).sql());
+        verify(preparedStatement).executeBatch();
+        verify(connection).close();
+    }
+
+    /**
+     * Test that statements slower than the threshold are reported also outside of requests.
+     */
+    @Test
+    public void testReportsSlowStatements() throws SQLException {
+        StatementTrackingDataSource dataSource = new StatementTrackingDataSource(targetDataSource, Duration.ZERO);
+        List<StatementTiming> slowStatements = new ArrayList<>();
+        dataSource.setSlowStatementListener(slowStatements::add);
+
+        try (Connection tracked = dataSource.getConnection()) {
+            PreparedStatement statement = tracked.prepareStatement("select 1");
+            statement.setInt(1, 1);
+
+            assertSame(resultSet, statement.executeQuery());
+        }
+
+        assertEquals(1, slowStatements.size());
+        assertEquals("[Integer]", slowStatements.get(0).parameters());
+    }
+}